@@ -0,0 +1,64 @@
+package org.gicentre.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import processing.core.PGraphics;
+
+// *****************************************************************************************
+/** Measures the drawing of sketchy 3d boxes. As a 3d context cannot be created without a display,
+ *  boxes are only drawn into a context that discards all drawing, so this measures the cost of
+ *  generating the sketchy edges of a box. Hachured faces are not drawn as they need a sketch.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoxBenchmark extends RendererBenchmark
+{
+	// --------------------------------- Methods -----------------------------------
+
+	/** Creates a graphics context that discards all drawing.
+	 *  @return Graphics context into which to draw.
+	 */
+	@Override
+	protected PGraphics createGraphics()
+	{
+		return new NullGraphics(SIZE, SIZE);
+	}
+
+	/** Draws a sketchy box.
+	 */
+	@Benchmark
+	public void box()
+	{
+		handy.setSeed(1);
+		handy.box(200, 150, 100);
+	}
+}
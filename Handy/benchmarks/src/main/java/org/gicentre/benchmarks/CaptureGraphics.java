@@ -0,0 +1,300 @@
+package org.gicentre.benchmarks;
+
+import processing.core.PGraphics;
+import processing.core.PMatrix2D;
+import processing.core.PMatrix3D;
+
+// *****************************************************************************************
+/** Graphics context that reduces everything drawn into it to a single hash value. Every shape,
+ *  vertex and curve vertex is hashed in the order it is received, along with the fill and stroke
+ *  with which each shape is drawn. Any change to the geometry or styles produced by a renderer
+ *  will therefore change the hash, allowing output to be compared with stored golden values.
+ *  Primitives such as ellipses and arcs that are drawn directly when sketchiness is off are also
+ *  hashed. Nothing is rasterised, so no display is needed.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class CaptureGraphics extends PGraphics
+{
+	// ----------------------------- Object variables ------------------------------
+
+	private long hash;					// Hash of everything drawn so far.
+	private int numShapes;				// Number of shapes drawn.
+	private int numVertices;			// Number of vertices drawn.
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;	// Initial value of the FNV-1a hash.
+	private static final long FNV_PRIME  = 0x100000001b3L;			// Multiplier of the FNV-1a hash.
+
+	// Codes identifying each type of drawing event in the hash.
+	private static final int BEGIN_SHAPE  = 1;
+	private static final int VERTEX       = 2;
+	private static final int CURVE_VERTEX = 3;
+	private static final int END_SHAPE    = 4;
+	private static final int ELLIPSE      = 5;
+	private static final int ARC          = 6;
+	private static final int BOX          = 7;
+
+	// ------------------------------- Constructor ---------------------------------
+
+	/** Creates a graphics context of the given size that hashes all drawing.
+	 *  @param width Width of the context in pixels.
+	 *  @param height Height of the context in pixels.
+	 */
+	public CaptureGraphics(int width, int height)
+	{
+		setPrimary(false);
+		setSize(width, height);
+		defaultSettings();
+		reset();
+	}
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Clears the hash and counts so that a new scene can be captured.
+	 */
+	public void reset()
+	{
+		hash        = FNV_OFFSET;
+		numShapes   = 0;
+		numVertices = 0;
+	}
+
+	/** Reports the hash of everything drawn since the context was created or last reset.
+	 *  @return Hash of the drawing.
+	 */
+	public long getHash()
+	{
+		return hash;
+	}
+
+	/** Reports the number of shapes drawn since the context was created or last reset.
+	 *  @return Number of shapes.
+	 */
+	public int getNumShapes()
+	{
+		return numShapes;
+	}
+
+	/** Reports the number of vertices drawn since the context was created or last reset.
+	 *  @return Number of vertices, including curve vertices.
+	 */
+	public int getNumVertices()
+	{
+		return numVertices;
+	}
+
+	/** Hashes the start of a shape.
+	 *  @param kind Type of shape.
+	 */
+	@Override
+	public void beginShape(int kind)
+	{
+		add(BEGIN_SHAPE);
+		add(kind);
+		numShapes++;
+	}
+
+	/** Hashes a 2d vertex.
+	 *  @param x x coordinate of the vertex.
+	 *  @param y y coordinate of the vertex.
+	 */
+	@Override
+	public void vertex(float x, float y)
+	{
+		add(VERTEX);
+		add(x);
+		add(y);
+		numVertices++;
+	}
+
+	/** Hashes a 3d vertex.
+	 *  @param x x coordinate of the vertex.
+	 *  @param y y coordinate of the vertex.
+	 *  @param z z coordinate of the vertex.
+	 */
+	@Override
+	public void vertex(float x, float y, float z)
+	{
+		add(VERTEX);
+		add(x);
+		add(y);
+		add(z);
+		numVertices++;
+	}
+
+	/** Hashes a 2d curve vertex.
+	 *  @param x x coordinate of the vertex.
+	 *  @param y y coordinate of the vertex.
+	 */
+	@Override
+	public void curveVertex(float x, float y)
+	{
+		add(CURVE_VERTEX);
+		add(x);
+		add(y);
+		numVertices++;
+	}
+
+	/** Hashes a 3d curve vertex.
+	 *  @param x x coordinate of the vertex.
+	 *  @param y y coordinate of the vertex.
+	 *  @param z z coordinate of the vertex.
+	 */
+	@Override
+	public void curveVertex(float x, float y, float z)
+	{
+		add(CURVE_VERTEX);
+		add(x);
+		add(y);
+		add(z);
+		numVertices++;
+	}
+
+	/** Hashes the end of a shape along with the style with which it is drawn.
+	 *  @param mode Whether or not the shape is closed.
+	 */
+	@Override
+	public void endShape(int mode)
+	{
+		add(END_SHAPE);
+		add(mode);
+		addStyle();
+	}
+
+	/** Hashes a 3d box drawn when sketchy rendering is off.
+	 *  @param w Width of the box.
+	 *  @param h Height of the box.
+	 *  @param d Depth of the box.
+	 */
+	@Override
+	public void box(float w, float h, float d)
+	{
+		add(BOX);
+		add(w);
+		add(h);
+		add(d);
+		addStyle();
+	}
+
+	/** Provides the transformation of this context, which is always the identity as drawing is captured
+	 *  in model coordinates.
+	 *  @param target Matrix in which to store the transformation, or null if a new one is to be created.
+	 *  @return Identity matrix.
+	 */
+	@Override
+	public PMatrix3D getMatrix(PMatrix3D target)
+	{
+		if (target == null)
+		{
+			target = new PMatrix3D();
+		}
+		target.reset();
+		return target;
+	}
+
+	/** Provides the 2d transformation of this context, which is always the identity as drawing is captured
+	 *  in model coordinates.
+	 *  @param target Matrix in which to store the transformation, or null if a new one is to be created.
+	 *  @return Identity matrix.
+	 */
+	@Override
+	public PMatrix2D getMatrix(PMatrix2D target)
+	{
+		if (target == null)
+		{
+			target = new PMatrix2D();
+		}
+		target.reset();
+		return target;
+	}
+
+	// ------------------------------ Implementation methods -------------------------------
+
+	/** Hashes an ellipse drawn directly rather than as a sketchy shape.
+	 *  @param x x coordinate of the ellipse's bounds.
+	 *  @param y y coordinate of the ellipse's bounds.
+	 *  @param w Width of the ellipse.
+	 *  @param h Height of the ellipse.
+	 */
+	@Override
+	protected void ellipseImpl(float x, float y, float w, float h)
+	{
+		add(ELLIPSE);
+		add(x);
+		add(y);
+		add(w);
+		add(h);
+		addStyle();
+	}
+
+	/** Hashes an arc drawn directly rather than as a sketchy shape.
+	 *  @param x x coordinate of the arc's bounds.
+	 *  @param y y coordinate of the arc's bounds.
+	 *  @param w Width of the arc's ellipse.
+	 *  @param h Height of the arc's ellipse.
+	 *  @param start Start angle of the arc.
+	 *  @param stop End angle of the arc.
+	 *  @param mode Type of arc.
+	 */
+	@Override
+	protected void arcImpl(float x, float y, float w, float h, float start, float stop, int mode)
+	{
+		add(ARC);
+		add(x);
+		add(y);
+		add(w);
+		add(h);
+		add(start);
+		add(stop);
+		add(mode);
+		addStyle();
+	}
+
+	// ---------------------------- Private methods -------------------------------
+
+	/** Adds the current fill and stroke to the hash.
+	 */
+	private void addStyle()
+	{
+		add(fill ? fillColor : 0);
+		add(stroke ? strokeColor : 0);
+		add((fill ? 1 : 0) | (stroke ? 2 : 0));
+		add(stroke ? strokeWeight : 0);
+	}
+
+	/** Adds the given number to the hash.
+	 *  @param value Number to add.
+	 */
+	private void add(float value)
+	{
+		add(Float.floatToIntBits(value));
+	}
+
+	/** Adds the given integer to the hash, one byte at a time.
+	 *  @param value Integer to add.
+	 */
+	private void add(int value)
+	{
+		for (int shift=0; shift<32; shift+=8)
+		{
+			hash ^= (value >>> shift) & 0xff;
+			hash *= FNV_PRIME;
+		}
+	}
+}
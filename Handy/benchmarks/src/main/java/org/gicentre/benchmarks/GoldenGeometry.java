@@ -0,0 +1,196 @@
+package org.gicentre.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+import org.gicentre.handy.HandyDrawable;
+import org.gicentre.handy.HandyRenderer;
+
+// *****************************************************************************************
+/** Regression check that sketchy output has not changed. Each scene in <code>GoldenScenes</code> is
+ *  drawn with a fixed seed into a <code>CaptureGraphics</code> context and the hash of everything
+ *  drawn is compared with a stored golden hash. Each scene is drawn several times, both to check that
+ *  its output is repeatable and to time it, so that optimisations can be shown to be both output
+ *  identical and faster. Run with:
+ *  <pre>
+ *    java -cp target/benchmarks.jar org.gicentre.benchmarks.GoldenGeometry [-update] [goldenFile]
+ *  </pre>
+ *  Without a golden file, the hashes stored with the benchmarks are used. With <code>-update</code>,
+ *  the current hashes are written to the golden file instead of being checked. The program exits with
+ *  a non-zero status if any scene's output differs from its golden hash.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class GoldenGeometry
+{
+	// ----------------------------- Class variables -------------------------------
+
+	private static final long SEED = 1969;			// Random seed given to the renderer drawing each scene.
+	private static final int NUM_WARMUPS = 5;		// Number of untimed drawings of each scene.
+	private static final int NUM_RUNS = 15;			// Number of timed drawings of each scene.
+	private static final String GOLDEN_RESOURCE = "/golden-geometry.properties";
+
+	// ------------------------------ Starter method -------------------------------
+
+	/** Draws each scene, comparing its output with its golden hash or storing it as the new golden hash.
+	 *  @param args Optional <code>-update</code> flag followed by an optional golden file name.
+	 *  @throws IOException if the golden hashes cannot be read or written.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		System.setProperty("java.awt.headless", "true");
+
+		boolean isUpdate = false;
+		String fileName = null;
+		for (String arg : args)
+		{
+			if (arg.equals("-update"))
+			{
+				isUpdate = true;
+			}
+			else
+			{
+				fileName = arg;
+			}
+		}
+		if (isUpdate && (fileName == null))
+		{
+			System.err.println("A golden file name must be given with -update.");
+			System.exit(2);
+		}
+
+		Properties golden = new Properties();
+		if (isUpdate == false)
+		{
+			InputStream in = (fileName == null) ? GoldenGeometry.class.getResourceAsStream(GOLDEN_RESOURCE) : new FileInputStream(fileName);
+			if (in != null)
+			{
+				try
+				{
+					golden.load(in);
+				}
+				finally
+				{
+					in.close();
+				}
+			}
+		}
+
+		Map<String,HandyDrawable> scenes = GoldenScenes.createScenes();
+		StringBuilder hashes = new StringBuilder();
+		int numFailures = 0;
+		double totalTime = 0;
+
+		System.out.println(String.format("%-20s %8s %10s %10s  %-16s  %s", "Scene", "Shapes", "Vertices", "Time (ms)", "Hash", "Result"));
+		for (Map.Entry<String,HandyDrawable> entry : scenes.entrySet())
+		{
+			String name = entry.getKey();
+			CaptureGraphics graphics = new CaptureGraphics(GoldenScenes.WIDTH, GoldenScenes.HEIGHT);
+			long hash = 0;
+			boolean isRepeatable = true;
+			double[] times = new double[NUM_RUNS];
+
+			for (int run=0; run<NUM_WARMUPS+NUM_RUNS; run++)
+			{
+				graphics = new CaptureGraphics(GoldenScenes.WIDTH, GoldenScenes.HEIGHT);
+				HandyRenderer h = new HandyRenderer(graphics);
+				h.setSeed(SEED);
+
+				long start = System.nanoTime();
+				entry.getValue().draw(h, graphics);
+				long end = System.nanoTime();
+
+				if (run == 0)
+				{
+					hash = graphics.getHash();
+				}
+				else if (graphics.getHash() != hash)
+				{
+					isRepeatable = false;
+				}
+				if (run >= NUM_WARMUPS)
+				{
+					times[run-NUM_WARMUPS] = (end-start)/1e6;
+				}
+			}
+
+			Arrays.sort(times);
+			double median = times[NUM_RUNS/2];
+			totalTime += median;
+			String hex = String.format("%016x", hash);
+			hashes.append(name).append('=').append(hex).append('\n');
+
+			String result;
+			if (isRepeatable == false)
+			{
+				result = "NOT REPEATABLE";
+				numFailures++;
+			}
+			else if (isUpdate)
+			{
+				result = "updated";
+			}
+			else if (golden.getProperty(name) == null)
+			{
+				result = "NO GOLDEN HASH";
+				numFailures++;
+			}
+			else if (golden.getProperty(name).trim().equals(hex) == false)
+			{
+				result = "CHANGED (golden "+golden.getProperty(name).trim()+")";
+				numFailures++;
+			}
+			else
+			{
+				result = "ok";
+			}
+			System.out.println(String.format("%-20s %8d %10d %10.3f  %s  %s", name, graphics.getNumShapes(), graphics.getNumVertices(), median, hex, result));
+		}
+		System.out.println(String.format("%-20s %8s %10s %10.3f", "Total", "", "", totalTime));
+
+		if (isUpdate)
+		{
+			PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.ISO_8859_1));
+			try
+			{
+				out.print("# Golden hashes of the sketchy output of each scene in org.gicentre.benchmarks.GoldenScenes.\n");
+				out.print("# Regenerate with GoldenGeometry -update only when a change in appearance is intended.\n");
+				out.print(hashes);
+			}
+			finally
+			{
+				out.close();
+			}
+			System.out.println("Golden hashes written to "+fileName);
+		}
+		else if (numFailures > 0)
+		{
+			System.err.println(numFailures+" of "+scenes.size()+" scenes do not match their golden geometry.");
+			System.exit(1);
+		}
+	}
+}
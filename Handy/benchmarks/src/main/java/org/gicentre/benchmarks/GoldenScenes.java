@@ -0,0 +1,666 @@
+package org.gicentre.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.gicentre.handy.HandyDrawable;
+import org.gicentre.handy.HandyPresets;
+import org.gicentre.handy.HandyRenderer;
+import org.gicentre.handy.HandyStyle;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+// *****************************************************************************************
+/** Fixed corpus of scenes used to check that sketchy output has not changed. The scenes reproduce
+ *  the drawing of the interactive test sketches (<code>ShapeTest</code>, <code>ArcTest</code>,
+ *  <code>BoxTest</code> etc.) without their interaction, together with scenes exercising the
+ *  renderer's optional features. Every scene is deterministic: the renderer it is given has a fixed
+ *  seed and any random placement of shapes uses its own fixed seed.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class GoldenScenes
+{
+	// ----------------------------- Class variables -------------------------------
+
+	/** Width of the graphics context into which each scene is drawn. */
+	public static final int WIDTH = 1200;
+
+	/** Height of the graphics context into which each scene is drawn. */
+	public static final int HEIGHT = 800;
+
+	private static final float BORDER = 20;		// Border between adjacent shapes in the shape grid.
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Creates the corpus of scenes in the order they should be drawn.
+	 *  @return Scenes indexed by name.
+	 */
+	public static Map<String,HandyDrawable> createScenes()
+	{
+		// Preset styles need a sketch from which to take their colours but nothing is drawn into it.
+		PApplet sketch = new PApplet();
+		sketch.g = new NullGraphics(WIDTH, HEIGHT);
+		final HandyStyle pencil  = HandyPresets.createPencilStyle(sketch);
+		final HandyStyle water   = HandyPresets.createWaterAndInkStyle(sketch);
+		final HandyStyle marker  = HandyPresets.createMarkerStyle(sketch);
+		final HandyStyle cPencil = HandyPresets.createColouredPencilStyle(sketch);
+
+		Map<String,HandyDrawable> scenes = new LinkedHashMap<String,HandyDrawable>();
+
+		scenes.put("shapes", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				drawShapeGrid(h, g, -37, false);
+			}
+		});
+
+		scenes.put("shapes-alternating", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				drawShapeGrid(h, g, 20, true);
+			}
+		});
+
+		scenes.put("arcs", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				h.setHachureAngle(-45);
+				h.setHachurePerturbationAngle(5);
+				g.stroke(80);
+				g.strokeWeight(1);
+				Random rand = new Random(1245);
+				for (int i=0; i<40; i++)
+				{
+					g.fill(random(rand,100,200), random(rand,60,200), random(rand,100,200));
+					float diameter = random(rand,50,200);
+					float start = random(rand,0,PConstants.PI*1.5f);
+					h.arc(random(rand,40,WIDTH-40), random(rand,40,HEIGHT-40), diameter, random(rand,100,200), start, start+PConstants.PI*0.26f);
+				}
+
+				// Very small arcs.
+				for (int i=0; i<40; i++)
+				{
+					h.arc(random(rand,40,WIDTH-40), random(rand,40,HEIGHT-40), 0, 0.1f, 0, PConstants.HALF_PI);
+				}
+			}
+		});
+
+		scenes.put("circles", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				h.setHachureAngle(-45);
+				h.setHachurePerturbationAngle(5);
+				g.stroke(80);
+				g.strokeWeight(1);
+				Random rand = new Random(1245);
+				for (int i=0; i<40; i++)
+				{
+					g.fill(random(rand,100,200), random(rand,60,200), random(rand,100,200));
+					float diameter = random(rand,50,200);
+					h.ellipse(random(rand,40,WIDTH-40), random(rand,40,HEIGHT-40), diameter, random(rand,100,200));
+				}
+
+				// Very small circles.
+				for (int i=0; i<40; i++)
+				{
+					h.ellipse(random(rand,40,WIDTH-40), random(rand,40,HEIGHT-40), 0, 0.1f);
+				}
+			}
+		});
+
+		scenes.put("lines", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				float[] roughnesses = new float[] {0, 0.5f, 1, 3, 6};
+				for (int i=0; i<roughnesses.length; i++)
+				{
+					h.setRoughness(roughnesses[i]);
+					float offset = i*120;
+					h.line(100, 100+offset, WIDTH-100, 50+offset);
+					h.line(100, 150+offset, WIDTH-100, 150+offset);
+					h.line(100, 200+offset, 110, 120+offset);
+				}
+			}
+		});
+
+		scenes.put("lines-3d", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				float unit = 100;
+				float over = 1.1f;
+				g.stroke(0);
+				g.strokeWeight(2);
+				h.line(-unit*over,  unit,  unit, unit*over,  unit,  unit);
+				h.line( unit,  unit*over,  unit, unit, -unit*over,  unit);
+				h.line( unit*over, -unit,  unit,-unit*over, -unit,  unit);
+				h.line(-unit, -unit*over,  unit,-unit,  unit*over,  unit);
+				h.line( unit,  unit,  unit*over, unit,  unit, -unit*over);
+				h.line( unit,  unit*over, -unit, unit, -unit*over, -unit);
+				h.line( unit, -unit, -unit*over, unit, -unit,  unit*over);
+				h.line( unit*over,  unit, -unit,-unit*over,  unit, -unit);
+				h.line(-unit,  unit*over, -unit,-unit, -unit*over, -unit);
+				h.line(-unit*over, -unit, -unit, unit*over, -unit, -unit);
+				h.line(-unit,  unit, -unit*over,-unit,  unit,  unit*over);
+				h.line(-unit, -unit,  unit*over,-unit, -unit, -unit*over);
+			}
+		});
+
+		scenes.put("curves", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				g.stroke(80,30,20);
+				g.fill(80,30,20,100);
+				float cy = HEIGHT/2;
+				for (int i=0; i<4; i++)
+				{
+					float cx = 10 + i*250;
+					h.setRoughness(i);
+					h.beginShape();
+					h.curveVertex(cx+84, cy+ 91);
+					h.curveVertex(cx+84, cy+ 91);
+					h.curveVertex(cx+68, cy+ 19);
+					h.curveVertex(cx+21, cy+ 17);
+					h.curveVertex(cx+32, cy+100);
+					h.curveVertex(cx+32, cy+100);
+					h.vertex(cx+84, cy+91);
+					h.endShape();
+				}
+			}
+		});
+
+		scenes.put("shape-vertex", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				g.fill(168,212,176);
+				g.stroke(120);
+				g.strokeWeight(3);
+				h.setFillGap(2);
+				drawCross(h, WIDTH/2, HEIGHT/2, 70);
+				h.setIsAlternating(true);
+				drawCross(h, WIDTH/4, HEIGHT/2, 140);
+			}
+		});
+
+		scenes.put("box", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				h.setStyle(marker);
+				h.setFillWeight(2);
+				h.setRoughness(1.5f);
+				h.setHachureAngle(45);
+				h.setHachurePerturbationAngle(0);
+				g.fill(180,80,80);
+				h.rect(5, 5, 150, 100);
+				h.box(250, 170, 100);
+			}
+		});
+
+		scenes.put("vertex-3d", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				float a = 100;
+				float b = 60;
+				h.setStyle(marker);
+				h.setRoughness(1.5f);
+				h.setHachureAngle(45);
+				h.setStrokeWeight(4);
+				h.setStrokeColour(g.color(0));
+				g.fill(180,80,80);
+				h.rect(5, 5, 50, 30);
+				h.beginShape(PConstants.QUADS);
+				h.vertex(-a,  a,  b);  h.vertex( a,  a,  b);  h.vertex( a, -a,  b);  h.vertex(-a, -a,  b);
+				h.vertex( a,  a,  b);  h.vertex( a,  a, -b);  h.vertex( a, -a, -b);  h.vertex( a, -a,  b);
+				h.vertex( a,  a, -b);  h.vertex(-a,  a, -b);  h.vertex(-a, -a, -b);  h.vertex( a, -a, -b);
+				h.vertex(-a,  a, -b);  h.vertex(-a,  a,  b);  h.vertex(-a, -a,  b);  h.vertex(-a, -a, -b);
+				h.vertex(-a,  a, -b);  h.vertex( a,  a, -b);  h.vertex( a,  a,  b);  h.vertex(-a,  a,  b);
+				h.vertex(-a, -a, -b);  h.vertex( a, -a, -b);  h.vertex( a, -a,  b);  h.vertex(-a, -a,  b);
+				h.endShape();
+			}
+		});
+
+		scenes.put("cone", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				h.setRoughness(2);
+				h.setFillGap(2);
+				g.strokeWeight(3);
+				g.fill(205,185,162);
+				g.stroke(0);
+				h.setBackgroundColour(g.color(205,185,162));
+				drawCylinder(h, 10, 180, 200, 16);
+			}
+		});
+
+		scenes.put("presets", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				HandyStyle[] styles = new HandyStyle[] {pencil, water, marker, cPencil};
+				for (int i=0; i<styles.length; i++)
+				{
+					h.setStyle(styles[i]);
+					h.setHachureAngle(-42);
+					drawRandomShapes(h, g, (i%2)*WIDTH/2, (i/2)*HEIGHT/2, WIDTH/2, HEIGHT/2);
+				}
+			}
+		});
+
+		scenes.put("polylines", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				g.stroke(0);
+				g.noFill();
+				Random rand = new Random(42);
+				float[] xs = new float[2000];
+				float[] ys = new float[2000];
+				for (int line=0; line<4; line++)
+				{
+					float y = 100 + line*180;
+					for (int i=0; i<xs.length; i++)
+					{
+						xs[i] = 50 + i*(WIDTH-100f)/xs.length;
+						y += random(rand,-4,4);
+						ys[i] = y;
+					}
+					h.setUseSimplification(line%2 == 1);
+					h.polyLine(xs, ys);
+				}
+			}
+		});
+
+		scenes.put("large-polygon", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				g.stroke(0);
+				g.fill(120,140,180);
+				h.setFillGap(1);
+				int numPoints = 720;
+				float[] xs = new float[numPoints];
+				float[] ys = new float[numPoints];
+				for (int i=0; i<numPoints; i++)
+				{
+					float angle = i*PConstants.TWO_PI/numPoints;
+					float radius = 250 + 80*(float)Math.sin(7*angle);
+					xs[i] = WIDTH/4  + radius*(float)Math.cos(angle);
+					ys[i] = HEIGHT/2 + radius*(float)Math.sin(angle);
+				}
+				h.shape(xs, ys);
+
+				for (int i=0; i<numPoints; i++)
+				{
+					xs[i] += WIDTH/2;
+				}
+				h.setUseParallelHachure(true);
+				h.shape(xs, ys);
+			}
+		});
+
+		scenes.put("joined-lines", new HandyDrawable() {
+			@Override
+			public void draw(HandyRenderer h, PGraphics g)
+			{
+				g.stroke(0);
+				g.fill(180,120,120);
+				h.setUseJoinedLines(true);
+				Random rand = new Random(42);
+				float[] xs = new float[200];
+				float[] ys = new float[200];
+				for (int line=0; line<2; line++)
+				{
+					float y = 100 + line*150;
+					for (int i=0; i<xs.length; i++)
+					{
+						xs[i] = 50 + i*(WIDTH-100f)/xs.length;
+						y += random(rand,-8,8);
+						ys[i] = y;
+					}
+					h.polyLine(xs, ys);
+				}
+
+				// Star with sharp corners.
+				int numPoints = 10;
+				float[] starX = new float[numPoints];
+				float[] starY = new float[numPoints];
+				for (int i=0; i<numPoints; i++)
+				{
+					float angle = i*PConstants.TWO_PI/numPoints;
+					float radius = (i%2 == 0) ? 200 : 80;
+					starX[i] = WIDTH/2  + radius*(float)Math.cos(angle);
+					starY[i] = 3*HEIGHT/4 + radius*(float)Math.sin(angle);
+				}
+				h.shape(starX, starY);
+			}
+		});
+
+		return scenes;
+	}
+
+	// ---------------------------- Private methods -------------------------------
+
+	/** Draws the grid of shapes in different styles drawn by <code>ShapeTest</code>.
+	 *  @param h Renderer with which to draw.
+	 *  @param g Graphics context into which the renderer draws.
+	 *  @param angle Hachure angle in degrees.
+	 *  @param isAlternating Determines if hachures are drawn in zig-zag style.
+	 */
+	private static void drawShapeGrid(HandyRenderer h, PGraphics g, float angle, boolean isAlternating)
+	{
+		int numShapes = 14;
+		int numTypes = 6;
+		float maxWidth  = (WIDTH-(numShapes+1)*BORDER)/numShapes;
+		float maxHeight = (HEIGHT-(numTypes+1)*BORDER)/numTypes;
+
+		for (int type=0; type<numTypes; type++)
+		{
+			float y = BORDER + type*(maxHeight+BORDER);
+			for (int i=0; i<numShapes; i++)
+			{
+				setGridStyle(h, g, i, angle, isAlternating);
+				float x = BORDER + i*(maxWidth+BORDER);
+				float cx = x+maxWidth/2;
+				float cy = y+maxHeight/2;
+
+				switch (type)
+				{
+					case 0:
+						h.rect(x, y, maxWidth, maxHeight);
+						break;
+
+					case 1:
+						h.ellipse(cx, cy, maxWidth, maxHeight);
+						break;
+
+					case 2:
+						h.triangle(x+maxWidth*0.765f, y, x+maxWidth, y+maxHeight*.876f, x, y+maxHeight);
+						break;
+
+					case 3:
+						float armLength = Math.min(maxWidth,maxHeight)/2;
+						float halfWidth = armLength/3;
+						h.shape(new float[] {cx-halfWidth, cx-halfWidth, cx+halfWidth, cx+halfWidth, cx+armLength, cx+armLength,
+											 cx+halfWidth, cx+halfWidth, cx-halfWidth, cx-halfWidth, cx-armLength, cx-armLength},
+								new float[] {cy-halfWidth, cy-armLength, cy-armLength, cy-halfWidth, cy-halfWidth, cy+halfWidth,
+											 cy+halfWidth, cy+armLength, cy+armLength, cy+halfWidth, cy+halfWidth, cy-halfWidth});
+						break;
+
+					case 4:
+						float armWidth = maxWidth/4;
+						h.shape(new float[] {x+maxWidth-armWidth, x+maxWidth, x+maxWidth, x, x, x+armWidth, x+armWidth, x+maxWidth-armWidth},
+								new float[] {y, y, y+maxHeight, y+maxHeight, y, y, y+maxHeight-armWidth, y+maxHeight-armWidth});
+						break;
+
+					default:
+						h.beginShape();
+						h.curveVertex(x+maxWidth, y+ maxHeight*0.7f);
+						h.curveVertex(x+maxWidth, y+ maxHeight*0.7f);
+						h.curveVertex(x+maxWidth*0.9f, y+ maxHeight*0.2f);
+						h.curveVertex(x+maxWidth*0.03f, y+ maxHeight*0.15f);
+						h.curveVertex(x+maxWidth*.5f, y+maxHeight*0.8f);
+						h.curveVertex(x+maxWidth*.5f, y+maxHeight*0.8f);
+						h.vertex(x+maxWidth*0.7f, y+maxHeight);
+						h.vertex(x+maxWidth, y+maxHeight*0.7f);
+						h.endShape();
+				}
+			}
+		}
+	}
+
+	/** Sets one of the rendering styles used by <code>ShapeTest</code>.
+	 *  @param h Renderer whose style is to be set.
+	 *  @param g Graphics context into which the renderer draws.
+	 *  @param i Style index.
+	 *  @param angle Hachure angle in degrees.
+	 *  @param isAlternating Determines if hachures are drawn in zig-zag style.
+	 */
+	private static void setGridStyle(HandyRenderer h, PGraphics g, int i, float angle, boolean isAlternating)
+	{
+		h.resetStyles();
+		h.setHachureAngle(angle);
+		h.setIsAlternating(isAlternating);
+		h.setIsHandy(i > 2);
+		switch (i)
+		{
+			case 0:
+			case 1:
+				g.stroke(80);
+				g.strokeWeight(1);
+				g.fill(162,187,243,150);
+				break;
+
+			case 2:
+			case 3:
+				g.stroke(0,0,120);
+				g.strokeWeight(3);
+				g.noFill();
+				break;
+
+			case 4:
+				g.stroke(0,0,120);
+				g.strokeWeight(0.5f);
+				g.fill(120,0,0);
+				h.setSecondaryColour(g.color(0,255,0));
+				break;
+
+			case 5:
+				g.noStroke();
+				g.strokeWeight(0.5f);
+				g.fill(120,0,0);
+				h.setUseSecondaryColour(true);
+				h.setSecondaryColour(g.color(255));
+				break;
+
+			case 6:
+				g.stroke(0,0,120);
+				g.strokeWeight(0.5f);
+				g.fill(120,0,0);
+				h.setUseSecondaryColour(true);
+				h.setSecondaryColour(g.color(0,40));
+				break;
+
+			case 7:
+				g.stroke(0);
+				g.strokeWeight(4);
+				g.fill(162,187,243,150);
+				h.setUseSecondaryColour(true);
+				h.setBackgroundColour(g.color(0,0));
+				h.setSecondaryColour(g.color(120,140,180));
+				break;
+
+			case 8:
+				g.stroke(0);
+				g.strokeWeight(0.3f);
+				g.fill(120,140,180);
+				h.setUseSecondaryColour(true);
+				h.setSecondaryColour(g.color(255,100));
+				break;
+
+			case 9:
+				g.stroke(0);
+				g.strokeWeight(0.3f);
+				g.fill(120,140,180);
+				h.setUseSecondaryColour(true);
+				h.setBackgroundColour(g.color(255,10));
+				h.setSecondaryColour(g.color(255,100));
+				break;
+
+			case 10:
+				g.stroke(0);
+				g.strokeWeight(4);
+				g.fill(162,187,243,150);
+				h.setFillWeight(4);
+				h.setUseSecondaryColour(true);
+				h.setSecondaryColour(g.color(120,140,180));
+				break;
+
+			case 11:
+				g.stroke(0);
+				g.strokeWeight(4);
+				g.fill(162,187,243,150);
+				h.setFillWeight(4);
+				h.setFillGap(6);
+				h.setUseSecondaryColour(true);
+				h.setSecondaryColour(g.color(120,140,180));
+				break;
+
+			case 12:
+				g.stroke(0);
+				g.strokeWeight(4);
+				g.fill(162,187,243,150);
+				h.setFillGap(0);
+				break;
+
+			default:
+				g.stroke(0,120);
+				g.strokeWeight(2f);
+				g.fill(162,187,243,150);
+				h.setUseSecondaryColour(true);
+				h.setSecondaryColour(g.color(120,140,190,50));
+				h.setFillWeight(0.5f);
+				h.setFillGap(0.5f);
+		}
+	}
+
+	/** Draws the randomly placed shapes drawn by <code>PresetStyleTest</code> in the given area.
+	 *  @param h Renderer with which to draw.
+	 *  @param g Graphics context into which the renderer draws.
+	 *  @param x Left of the area in which to draw.
+	 *  @param y Top of the area in which to draw.
+	 *  @param w Width of the area in which to draw.
+	 *  @param ht Height of the area in which to draw.
+	 */
+	private static void drawRandomShapes(HandyRenderer h, PGraphics g, float x, float y, float w, float ht)
+	{
+		float minSize = w/10;
+		float maxSize = Math.min(w,ht)/4;
+		Random rand = new Random(10);
+
+		for (int i=0; i<30; i++)
+		{
+			g.fill(random(rand,100,200), random(rand,60,200), random(rand,100,200), 120);
+			float shapeChoice = random(rand,0,1);
+			if (shapeChoice < 0.33)
+			{
+				h.rect(x+random(rand,minSize,w-maxSize), y+random(rand,minSize,ht-maxSize), random(rand,minSize,maxSize), random(rand,minSize,maxSize));
+			}
+			else if (shapeChoice < 0.66)
+			{
+				float x1 = x+random(rand,minSize,w-maxSize);
+				float y1 = y+random(rand,minSize,ht-maxSize);
+				float x2 = x1+random(rand,50,maxSize);
+				float y2 = y1+random(rand,-10,10);
+				float x3 = (x1+x2)/2;
+				float y3 = y1+random(rand,-minSize,-maxSize);
+				h.triangle(x1, y1, x2, y2, x3, y3);
+			}
+			else
+			{
+				h.ellipse(x+random(rand,minSize,w-maxSize), y+random(rand,minSize,ht-maxSize), random(rand,minSize,maxSize), random(rand,minSize,maxSize));
+			}
+		}
+	}
+
+	/** Draws the cross shape drawn by <code>ShapeVertexTest</code> using vertices.
+	 *  @param h Renderer with which to draw.
+	 *  @param x x coordinate of the centre of the cross.
+	 *  @param y y coordinate of the centre of the cross.
+	 *  @param armLength Length of each arm of the cross.
+	 */
+	private static void drawCross(HandyRenderer h, float x, float y, float armLength)
+	{
+		float halfWidth = armLength/3;
+		h.beginShape();
+		h.vertex(x-halfWidth, y-halfWidth);
+		h.vertex(x-halfWidth, y-armLength);
+		h.vertex(x+halfWidth, y-armLength);
+		h.vertex(x+halfWidth, y-halfWidth);
+		h.vertex(x+armLength, y-halfWidth);
+		h.vertex(x+armLength, y+halfWidth);
+		h.vertex(x+halfWidth, y+halfWidth);
+		h.vertex(x+halfWidth, y+armLength);
+		h.vertex(x-halfWidth, y+armLength);
+		h.vertex(x-halfWidth, y+halfWidth);
+		h.vertex(x-armLength, y+halfWidth);
+		h.vertex(x-armLength, y-halfWidth);
+		h.endShape(PConstants.CLOSE);
+	}
+
+	/** Draws the cylinder drawn by <code>ConeTest</code> using 3d vertices.
+	 *  @param h Renderer with which to draw.
+	 *  @param topRadius Radius of the top of the cylinder.
+	 *  @param bottomRadius Radius of the bottom of the cylinder.
+	 *  @param tall Height of the cylinder.
+	 *  @param sides Number of sides around the cylinder.
+	 */
+	private static void drawCylinder(HandyRenderer h, float topRadius, float bottomRadius, float tall, int sides)
+	{
+		float angleIncrement = PConstants.TWO_PI/sides;
+		float angle = 0;
+		h.beginShape(PConstants.QUAD_STRIP);
+		for (int i=0; i<sides+1; i++)
+		{
+			h.vertex(topRadius*(float)Math.cos(angle), 0, topRadius*(float)Math.sin(angle));
+			h.vertex(bottomRadius*(float)Math.cos(angle), tall, bottomRadius*(float)Math.sin(angle));
+			angle += angleIncrement;
+		}
+		h.endShape();
+
+		float[] radii = new float[] {topRadius, bottomRadius};
+		float[] heights = new float[] {0, tall};
+		for (int cap=0; cap<2; cap++)
+		{
+			angle = 0;
+			h.beginShape(PConstants.TRIANGLE_FAN);
+			h.vertex(0, heights[cap], 0);
+			for (int i=0; i<sides+1; i++)
+			{
+				h.vertex(radii[cap]*(float)Math.cos(angle), heights[cap], radii[cap]*(float)Math.sin(angle));
+				angle += angleIncrement;
+			}
+			h.endShape();
+		}
+	}
+
+	/** Provides a random number between the given limits.
+	 *  @param rand Random number generator.
+	 *  @param low Lower limit.
+	 *  @param high Upper limit.
+	 *  @return Random number between the limits.
+	 */
+	private static float random(Random rand, float low, float high)
+	{
+		return low + rand.nextFloat()*(high-low);
+	}
+}
@@ -0,0 +1,55 @@
+package org.gicentre.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// *****************************************************************************************
+/** Runs the Handy benchmarks with the GC profiler, so that allocation rates are reported alongside
+ *  operations per second. Any standard JMH command line options can be given, for example to select
+ *  benchmarks by name or to restrict parameter values:
+ *  <pre>
+ *    java -jar target/benchmarks.jar Shape -p numVertices=512 -p isHandy=true
+ *  </pre>
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class HandyBenchmarks
+{
+	// ------------------------------ Starter method -------------------------------
+
+	/** Runs the benchmarks.
+	 *  @param args JMH command line options.
+	 *  @throws RunnerException if a benchmark cannot be run.
+	 *  @throws CommandLineOptionException if the command line options are not valid.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException
+	{
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.jvmArgsAppend("-Djava.awt.headless=true")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
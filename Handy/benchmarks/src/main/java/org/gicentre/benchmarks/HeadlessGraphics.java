@@ -0,0 +1,66 @@
+package org.gicentre.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import processing.awt.PGraphicsJava2D;
+
+// *****************************************************************************************
+/** Java2D graphics context that draws into an image without needing a display or a sketch.
+ *  Processing's own offscreen Java2D context asks the screen for a compatible image, which
+ *  fails on headless machines, so this creates an ordinary ARGB image instead.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class HeadlessGraphics extends PGraphicsJava2D
+{
+	// ----------------------------- Object variables ------------------------------
+
+	private BufferedImage offscreen;		// Image into which drawing takes place.
+
+	// ------------------------------- Constructor ---------------------------------
+
+	/** Creates a headless graphics context of the given size ready for drawing.
+	 *  @param width Width of the context in pixels.
+	 *  @param height Height of the context in pixels.
+	 */
+	public HeadlessGraphics(int width, int height)
+	{
+		setPrimary(false);
+		setSize(width, height);
+		beginDraw();
+		background(255);
+	}
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Provides a Java2D context for the offscreen image, creating the image if necessary.
+	 *  @return Java2D context for drawing into the image.
+	 */
+	@Override
+	public Graphics2D checkImage()
+	{
+		if ((offscreen == null) || (offscreen.getWidth() != width) || (offscreen.getHeight() != height))
+		{
+			offscreen = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+		image = offscreen;
+		return offscreen.createGraphics();
+	}
+}
@@ -0,0 +1,115 @@
+package org.gicentre.benchmarks;
+
+import processing.core.PGraphics;
+
+// *****************************************************************************************
+/** Graphics context that discards everything drawn into it. This allows the cost of generating
+ *  sketchy geometry to be measured separately from the cost of rasterising it. Both 2d and 3d
+ *  vertices are accepted so that 3d primitives such as boxes can be measured.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class NullGraphics extends PGraphics
+{
+	// ------------------------------- Constructor ---------------------------------
+
+	/** Creates a graphics context of the given size that discards all drawing.
+	 *  @param width Width of the context in pixels.
+	 *  @param height Height of the context in pixels.
+	 */
+	public NullGraphics(int width, int height)
+	{
+		setPrimary(false);
+		setSize(width, height);
+		defaultSettings();
+	}
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Ignores the start of a shape.
+	 *  @param kind Type of shape (ignored).
+	 */
+	@Override
+	public void beginShape(int kind)
+	{
+		// Do nothing.
+	}
+
+	/** Ignores a 2d vertex.
+	 *  @param x x coordinate of the vertex (ignored).
+	 *  @param y y coordinate of the vertex (ignored).
+	 */
+	@Override
+	public void vertex(float x, float y)
+	{
+		// Do nothing.
+	}
+
+	/** Ignores a 3d vertex.
+	 *  @param x x coordinate of the vertex (ignored).
+	 *  @param y y coordinate of the vertex (ignored).
+	 *  @param z z coordinate of the vertex (ignored).
+	 */
+	@Override
+	public void vertex(float x, float y, float z)
+	{
+		// Do nothing.
+	}
+
+	/** Ignores a 2d curve vertex.
+	 *  @param x x coordinate of the vertex (ignored).
+	 *  @param y y coordinate of the vertex (ignored).
+	 */
+	@Override
+	public void curveVertex(float x, float y)
+	{
+		// Do nothing.
+	}
+
+	/** Ignores a 3d curve vertex.
+	 *  @param x x coordinate of the vertex (ignored).
+	 *  @param y y coordinate of the vertex (ignored).
+	 *  @param z z coordinate of the vertex (ignored).
+	 */
+	@Override
+	public void curveVertex(float x, float y, float z)
+	{
+		// Do nothing.
+	}
+
+	/** Ignores the end of a shape.
+	 *  @param mode Whether or not the shape is closed (ignored).
+	 */
+	@Override
+	public void endShape(int mode)
+	{
+		// Do nothing.
+	}
+
+	/** Ignores a 3d box drawn when sketchy rendering is off.
+	 *  @param w Width of the box (ignored).
+	 *  @param h Height of the box (ignored).
+	 *  @param d Depth of the box (ignored).
+	 */
+	@Override
+	public void box(float w, float h, float d)
+	{
+		// Do nothing.
+	}
+}
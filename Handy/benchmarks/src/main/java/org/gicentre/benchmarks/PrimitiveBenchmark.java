@@ -0,0 +1,135 @@
+package org.gicentre.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+// *****************************************************************************************
+/** Measures the drawing of single 2d sketchy primitives and of a scatter of sketchy points. The
+ *  random seed is reset before each call so that every invocation draws exactly the same geometry.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveBenchmark extends RendererBenchmark
+{
+	// ----------------------------- Object variables ------------------------------
+
+	/** Graphics context drawn into, either 'java2d' or 'null'. */
+	@Param({"java2d", "null"})
+	public String target;
+
+	private float[] scatter;				// Interleaved coordinates of the points drawn by points().
+
+	private static final int NUM_POINTS = 1000;	// Number of points drawn by points().
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Creates a repeatable scatter of points.
+	 */
+	@Setup
+	public void setupPoints()
+	{
+		Random rand = new Random(1);
+		scatter = new float[2*NUM_POINTS];
+		for (int i=0; i<scatter.length; i++)
+		{
+			scatter[i] = 50 + 700*rand.nextFloat();
+		}
+	}
+
+	/** Creates the graphics context named by the target parameter.
+	 *  @return Graphics context into which to draw.
+	 */
+	@Override
+	protected PGraphics createGraphics()
+	{
+		return createGraphics(target);
+	}
+
+	/** Draws a sketchy line.
+	 */
+	@Benchmark
+	public void line()
+	{
+		handy.setSeed(1);
+		handy.line(100, 100, 600, 500);
+	}
+
+	/** Draws a sketchy rectangle.
+	 */
+	@Benchmark
+	public void rect()
+	{
+		handy.setSeed(1);
+		handy.rect(100, 100, 400, 300);
+	}
+
+	/** Draws a sketchy ellipse.
+	 */
+	@Benchmark
+	public void ellipse()
+	{
+		handy.setSeed(1);
+		handy.ellipse(400, 400, 500, 300);
+	}
+
+	/** Draws a sketchy arc.
+	 */
+	@Benchmark
+	public void arc()
+	{
+		handy.setSeed(1);
+		handy.arc(400, 400, 500, 300, 0, 1.5f*PConstants.PI);
+	}
+
+	/** Draws a sketchy triangle.
+	 */
+	@Benchmark
+	public void triangle()
+	{
+		handy.setSeed(1);
+		handy.triangle(100, 600, 400, 100, 700, 600);
+	}
+
+	/** Draws a scatter of sketchy points with a single call.
+	 */
+	@Benchmark
+	public void points()
+	{
+		handy.setSeed(1);
+		handy.points(scatter);
+	}
+}
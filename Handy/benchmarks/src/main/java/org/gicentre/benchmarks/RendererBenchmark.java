@@ -0,0 +1,92 @@
+package org.gicentre.benchmarks;
+
+import org.gicentre.handy.HandyRenderer;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import processing.core.PGraphics;
+
+// *****************************************************************************************
+/** Common settings for benchmarks that draw with a <code>HandyRenderer</code>. Each benchmark is run
+ *  for every combination of sketchy style parameters. Drawing is either into a headless Java2D 
+ *  context, measuring the full cost of drawing, or into a context that discards all drawing, 
+ *  measuring only the cost of generating the sketchy geometry.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+@State(Scope.Thread)
+public abstract class RendererBenchmark
+{
+	// ----------------------------- Object variables ------------------------------
+
+	/** Roughness of the sketchy rendering. */
+	@Param({"0", "1", "3"})
+	public float roughness;
+
+	/** Gap between hachure lines, where 0 gives a solid fill and -1 a gap based on stroke weight. */
+	@Param({"-1", "0", "5"})
+	public float fillGap;
+
+	/** Whether or not sketchy rendering is used. */
+	@Param({"true", "false"})
+	public boolean isHandy;
+
+	protected PGraphics graphics;			// Graphics context drawn into.
+	protected HandyRenderer handy;			// Renderer being measured.
+
+	static final int SIZE = 800;			// Width and height of the graphics context.
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Creates the graphics context and renderer with the current parameter settings.
+	 */
+	@Setup
+	public void setupRenderer()
+	{
+		graphics = createGraphics();
+		graphics.fill(180, 80, 80);
+		graphics.stroke(0);
+		graphics.strokeWeight(1);
+
+		handy = new HandyRenderer(graphics);
+		handy.setRoughness(roughness);
+		handy.setFillGap(fillGap);
+		handy.setIsHandy(isHandy);
+	}
+
+	/** Creates the graphics context into which the benchmark draws.
+	 *  @return Graphics context into which to draw.
+	 */
+	protected abstract PGraphics createGraphics();
+
+	/** Creates the graphics context with the given name.
+	 *  @param target Either 'java2d' for a headless Java2D context or 'null' for one that discards drawing.
+	 *  @return Graphics context into which to draw.
+	 */
+	static PGraphics createGraphics(String target)
+	{
+		if (target.equals("null"))
+		{
+			return new NullGraphics(SIZE, SIZE);
+		}
+		return new HeadlessGraphics(SIZE, SIZE);
+	}
+}
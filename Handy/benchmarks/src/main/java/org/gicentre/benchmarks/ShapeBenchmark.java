@@ -0,0 +1,102 @@
+package org.gicentre.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import processing.core.PGraphics;
+
+// *****************************************************************************************
+/** Measures the drawing of sketchy polygons and polylines with varying numbers of vertices. The
+ *  polygon is a star-like outline so that hachure lines cross it several times.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShapeBenchmark extends RendererBenchmark
+{
+	// ----------------------------- Object variables ------------------------------
+
+	/** Graphics context drawn into, either 'java2d' or 'null'. */
+	@Param({"java2d", "null"})
+	public String target;
+
+	/** Number of vertices in the shape. */
+	@Param({"8", "64", "512", "4096"})
+	public int numVertices;
+
+	private float[] xCoords, yCoords;		// Vertices of the shape.
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Creates the graphics context named by the target parameter.
+	 *  @return Graphics context into which to draw.
+	 */
+	@Override
+	protected PGraphics createGraphics()
+	{
+		return createGraphics(target);
+	}
+
+	/** Creates the shape's vertices.
+	 */
+	@Setup
+	public void setupShape()
+	{
+		xCoords = new float[numVertices];
+		yCoords = new float[numVertices];
+		for (int i=0; i<numVertices; i++)
+		{
+			double angle = 2*Math.PI*i/numVertices;
+			double radius = 300 + 60*Math.sin(7*angle);
+			xCoords[i] = (float)(SIZE/2 + radius*Math.cos(angle));
+			yCoords[i] = (float)(SIZE/2 + radius*Math.sin(angle));
+		}
+	}
+
+	/** Draws a closed sketchy polygon.
+	 */
+	@Benchmark
+	public void shape()
+	{
+		handy.setSeed(1);
+		handy.shape(xCoords, yCoords);
+	}
+
+	/** Draws an open sketchy polyline.
+	 */
+	@Benchmark
+	public void polyLine()
+	{
+		handy.setSeed(1);
+		handy.polyLine(xCoords, yCoords);
+	}
+}
@@ -0,0 +1,92 @@
+package org.gicentre.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.gicentre.handy.Simplifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// *****************************************************************************************
+/** Measures Douglas-Peucker simplification of a noisy closed outline with varying numbers of vertices.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimplifierBenchmark
+{
+	// ----------------------------- Object variables ------------------------------
+
+	/** Number of vertices in the outline to simplify. */
+	@Param({"64", "512", "4096", "32768"})
+	public int numVertices;
+
+	/** Simplification tolerance in pixel units. */
+	@Param({"0.5", "2"})
+	public float tolerance;
+
+	private float[] xCoords, yCoords;		// Vertices of the outline.
+	private Simplifier simplifier;			// Simplifier being measured.
+
+	// --------------------------------- Methods -----------------------------------
+
+	/** Creates a repeatable noisy outline.
+	 */
+	@Setup
+	public void setupOutline()
+	{
+		simplifier = new Simplifier();
+		Random rand = new Random(1);
+		xCoords = new float[numVertices];
+		yCoords = new float[numVertices];
+		for (int i=0; i<numVertices; i++)
+		{
+			double angle = 2*Math.PI*i/numVertices;
+			double radius = 300 + 60*Math.sin(7*angle) + 3*rand.nextGaussian();
+			xCoords[i] = (float)(400 + radius*Math.cos(angle));
+			yCoords[i] = (float)(400 + radius*Math.sin(angle));
+		}
+	}
+
+	/** Simplifies the outline.
+	 *  @param blackhole Consumes the result so that it is not optimised away.
+	 */
+	@Benchmark
+	public void simplify(Blackhole blackhole)
+	{
+		simplifier.simplifyCoords(xCoords, yCoords, tolerance);
+		blackhole.consume(simplifier.getXCoords());
+		blackhole.consume(simplifier.getYCoords());
+	}
+}
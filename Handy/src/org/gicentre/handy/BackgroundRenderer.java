@@ -0,0 +1,228 @@
+package org.gicentre.handy;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+//*****************************************************************************************
+/** Generates sketchy graphics on a background thread. Drawing commands for one frame are
+ *  recorded on the animation thread and handed to a worker thread that replays them into an
+ *  offscreen image while the animation thread gets on with the next frame. Completed images
+ *  are passed back to the animation thread for display. Both hand-offs are lock-free, with
+ *  frames being dropped rather than queued if one thread gets ahead of the other.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+class BackgroundRenderer implements Runnable
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private PApplet parent;							// Sketch used to create offscreen images.
+	private HandyRenderer worker;					// Renderer used by the background thread.
+	private Thread thread;							// Background thread generating the sketchy graphics.
+	private volatile boolean isRunning;				// Background thread continues while true.
+
+	private Frame recording;						// Frame being recorded by the animation thread.
+	private AtomicReference<Frame> pending;			// Frame waiting to be drawn by the background thread.
+	private ConcurrentLinkedQueue<Frame> spare;		// Frames available for recording.
+
+	// Images are triple buffered so that neither thread has to wait for the other. The front image is
+	// owned by the animation thread, the back image by the background thread, and the middle image is
+	// swapped between them, with a flag indicating whether it holds a newly completed frame.
+	private PGraphics[] images;
+	private int front, back;
+	private AtomicInteger middle;
+	private boolean hasImage;						// Indicates if at least one frame has been displayed.
+
+	private static final int INDEX_MASK = 3;		// Bits storing the index of the middle image.
+	private static final int FRESH_FLAG = 4;		// Indicates the middle image has not yet been displayed.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates and starts a background renderer that will generate images of the given size.
+	 *  @param parent Sketch used to create offscreen images.
+	 *  @param width Width in pixels of the images to generate.
+	 *  @param height Height in pixels of the images to generate.
+	 */
+	BackgroundRenderer(PApplet parent, int width, int height)
+	{
+		this.parent = parent;
+		worker  = new HandyRenderer(parent);
+		pending = new AtomicReference<Frame>();
+		spare   = new ConcurrentLinkedQueue<Frame>();
+		images  = new PGraphics[3];
+		for (int i=0; i<images.length; i++)
+		{
+			images[i] = parent.createGraphics(width, height, PConstants.JAVA2D);
+		}
+		front  = 0;
+		middle = new AtomicInteger(1);
+		back   = 2;
+
+		isRunning = true;
+		thread = new Thread(this, "Handy background renderer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Provides an empty command buffer into which the next frame can be recorded.
+	 *  @return Empty command buffer.
+	 */
+	HandyCommandBuffer startFrame()
+	{
+		recording = spare.poll();
+		if (recording == null)
+		{
+			recording = new Frame(parent);
+		}
+		return recording.commands;
+	}
+
+	/** Passes the frame recorded since the last call to <code>startFrame()</code> to the background thread
+	 *  to be drawn. If the background thread has not yet started drawing the previously submitted frame,
+	 *  that frame is discarded.
+	 *  @param handy Renderer whose sketchy style settings are to be used when drawing the frame.
+	 */
+	void submitFrame(HandyRenderer handy)
+	{
+		Frame frame = recording;
+		recording = null;
+		if (frame == null)
+		{
+			return;
+		}
+		frame.settings.copySettings(handy);
+		frame.seed = handy.nextSeed();
+
+		Frame dropped = pending.getAndSet(frame);
+		if (dropped != null)
+		{
+			recycle(dropped);
+		}
+		LockSupport.unpark(thread);
+	}
+
+	/** Draws the most recently completed frame into the given graphics context. Nothing is drawn until
+	 *  the background thread has completed its first frame.
+	 *  @param graphics Graphics context in which to draw.
+	 */
+	void draw(PGraphics graphics)
+	{
+		if ((middle.get() & FRESH_FLAG) != 0)
+		{
+			front = middle.getAndSet(front) & INDEX_MASK;
+			hasImage = true;
+		}
+
+		if (hasImage)
+		{
+			graphics.pushStyle();
+			graphics.pushMatrix();
+			graphics.resetMatrix();
+			graphics.imageMode(PConstants.CORNER);
+			graphics.noTint();
+			graphics.image(images[front], 0, 0, graphics.width, graphics.height);
+			graphics.popMatrix();
+			graphics.popStyle();
+		}
+	}
+
+	/** Reports whether or not this background renderer generates images of the given size.
+	 *  @param width Width in pixels to compare.
+	 *  @param height Height in pixels to compare.
+	 *  @return True if images are of the given size.
+	 */
+	boolean isSize(int width, int height)
+	{
+		return (images[front].width == width) && (images[front].height == height);
+	}
+
+	/** Stops the background thread. Any frame waiting to be drawn is discarded.
+	 */
+	void stop()
+	{
+		isRunning = false;
+		LockSupport.unpark(thread);
+	}
+
+	/** Draws frames as they are submitted until stopped. This should not be called directly
+	 *  but is run by the background thread.
+	 */
+	@Override
+	public void run()
+	{
+		while (isRunning)
+		{
+			Frame frame = pending.getAndSet(null);
+			if (frame == null)
+			{
+				LockSupport.park(this);
+				continue;
+			}
+
+			PGraphics image = images[back];
+			worker.copySettings(frame.settings);
+			image.beginDraw();
+			image.clear();
+			frame.commands.replay(worker, image, frame.seed);
+			image.endDraw();
+			recycle(frame);
+
+			// Make completed image available to the animation thread and take whichever image it replaces.
+			back = middle.getAndSet(back | FRESH_FLAG) & INDEX_MASK;
+		}
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Clears the given frame and makes it available for recording again.
+	 *  @param frame Frame to recycle.
+	 */
+	private void recycle(Frame frame)
+	{
+		frame.commands.clear();
+		spare.offer(frame);
+	}
+
+	// ---------------------------------- Nested classes ---------------------------------
+
+	/** Stores the recorded commands, style settings and random seed needed to draw one frame.
+	 */
+	private static class Frame
+	{
+		HandyCommandBuffer commands;	// Recorded drawing commands.
+		HandyRenderer settings;			// Sketchy style settings at the time the frame was submitted.
+		long seed;						// Random number seed used to draw the frame.
+
+		/** Creates an empty frame.
+		 *  @param parent Sketch with which the frame's style settings are associated.
+		 */
+		Frame(PApplet parent)
+		{
+			commands = new HandyCommandBuffer();
+			settings = new HandyRenderer(parent);
+		}
+	}
+}
@@ -0,0 +1,596 @@
+package org.gicentre.handy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PMatrix2D;
+import processing.core.PMatrix3D;
+
+//*****************************************************************************************
+/** Store of the sketchy geometry of each primitive drawn in 'boil' mode, allowing a renderer to give a
+ *  temporally coherent animated appearance without regenerating every primitive in every frame. Primitives
+ *  are identified by the order in which they are drawn in each frame. Each has a small number of jitter
+ *  variants, each generated from its own random seed, and only a given fraction of primitives move on to
+ *  their next variant in any one frame. Variants are generated once by recording the graphics calls made
+ *  when drawing the primitive and then replayed unchanged until the primitive's geometry or style changes.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+class BoilCache
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	// Types of primitive, used to distinguish primitives with the same parameters.
+	static final int ELLIPSE  = 1;
+	static final int RECT     = 2;
+	static final int TRIANGLE = 3;
+	static final int ARC      = 4;
+	static final int SHAPE    = 5;
+	static final int POLYLINE = 6;
+	static final int LINE     = 7;
+	static final int VERTICES = 8;
+	static final int POINT    = 9;
+	static final int POINTS   = 10;
+	static final int RECTS    = 11;
+
+	// Codes identifying each recorded graphics call.
+	private static final int BEGIN_CALL        = 1;
+	private static final int VERTEX_CALL       = 2;
+	private static final int CURVE_VERTEX_CALL = 3;
+	private static final int END_CALL          = 4;
+	private static final int ELLIPSE_CALL      = 5;
+	private static final int ARC_CALL          = 6;
+	private static final int RECT_CALL         = 7;
+
+	private float rate;						// Fraction of primitives that change variant in each frame.
+	private int numVariants;				// Number of variants cycled through by each primitive, or 0 if unlimited.
+	private long seed;						// Seed from which the seed of each variant is derived.
+	private int frame;						// Number of frames drawn.
+	private int lastFrameCount;				// Parent sketch's frame count when the current frame started.
+	private int index;						// Number of primitives drawn in the current frame.
+	private ArrayList<Sketch[]> sketches;	// Stored variants of each primitive indexed by drawing order.
+	private Recorder recorder;				// Graphics context recording the primitive being captured.
+	private int captureIndex;				// Drawing order of the primitive being captured.
+	private long captureKey;				// Key of the primitive being captured.
+	private long captureVariant;			// Variant of the primitive being captured.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates an empty store of boiled primitives.
+	 *  @param rate Fraction of primitives that change variant in each frame, between 0 and 1.
+	 *  @param numVariants Number of variants cycled through by each primitive, or 0 if new variants are always generated.
+	 *  @param seed Seed from which the random seed of each variant is derived.
+	 */
+	BoilCache(float rate, int numVariants, long seed)
+	{
+		this.rate = rate;
+		this.numVariants = Math.max(0, numVariants);
+		this.seed = seed;
+		lastFrameCount = Integer.MIN_VALUE;
+		sketches = new ArrayList<Sketch[]>();
+		recorder = new Recorder();
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Sets the fraction of primitives that change to their next variant in each frame. Stored variants are kept.
+	 *  @param rate Fraction between 0 (no change) and 1 (every primitive changes in every frame).
+	 */
+	void setRate(float rate)
+	{
+		this.rate = rate;
+	}
+
+	/** Sets the number of variants through which each primitive cycles. Any stored variants are discarded.
+	 *  @param numVariants Number of variants, or 0 if new variants are always generated.
+	 */
+	void setNumVariants(int numVariants)
+	{
+		this.numVariants = Math.max(0, numVariants);
+		sketches.clear();
+	}
+
+	/** Sets the seed from which the random seed of each variant is derived. Variants generated with a
+	 *  different seed are regenerated when next drawn.
+	 *  @param seed New seed.
+	 */
+	void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/** Starts a new frame so that primitives are again identified from the start of the drawing order.
+	 */
+	void nextFrame()
+	{
+		frame++;
+		index = 0;
+	}
+
+	/** Starts a new frame if the given sketch has moved on to a new frame since the last primitive was drawn.
+	 *  @param parent Sketch whose frames are followed, or null if frames are only started by <code>nextFrame()</code>.
+	 */
+	void checkFrame(PApplet parent)
+	{
+		if ((parent != null) && (parent.frameCount != lastFrameCount))
+		{
+			lastFrameCount = parent.frameCount;
+			nextFrame();
+		}
+	}
+
+	/** Provides the drawing order of the next primitive in the current frame.
+	 *  @return Position of the next primitive in the frame's drawing order.
+	 */
+	int nextIndex()
+	{
+		return index++;
+	}
+
+	/** Reports the variant of the primitive at the given position in the drawing order that should be drawn
+	 *  in the current frame. Each primitive changes variant at the same average rate but at a different phase,
+	 *  so the given fraction of primitives change in each frame.
+	 *  @param primitive Position of the primitive in the drawing order.
+	 *  @return Variant to draw.
+	 */
+	long getVariant(int primitive)
+	{
+		double phase = (HandyRenderer.mixSeed(primitive) >>> 11)*0x1.0p-53;
+		long variant = (long)Math.floor(frame*(double)rate + phase);
+		return (numVariants > 0) ? variant % numVariants : variant;
+	}
+
+	/** Provides the random number seed with which to generate the given variant of a primitive.
+	 *  @param primitive Position of the primitive in the drawing order.
+	 *  @param variant Variant of the primitive.
+	 *  @return Random number seed.
+	 */
+	long getSeed(int primitive, long variant)
+	{
+		return HandyRenderer.mixSeed(seed ^ HandyRenderer.mixSeed(((long)primitive << 32) + variant));
+	}
+
+	/** Provides the stored variant of a primitive if it has already been generated.
+	 *  @param primitive Position of the primitive in the drawing order.
+	 *  @param key Key identifying the geometry and style of the primitive.
+	 *  @param variant Variant of the primitive.
+	 *  @return Stored geometry of the primitive or null if it needs to be generated.
+	 */
+	Sketch find(int primitive, long key, long variant)
+	{
+		if (primitive >= sketches.size())
+		{
+			return null;
+		}
+		Sketch[] variants = sketches.get(primitive);
+		Sketch sketch = variants[(int)(variant % variants.length)];
+		if ((sketch == null) || (sketch.key != key) || (sketch.variant != variant) || (sketch.seed != seed))
+		{
+			return null;
+		}
+		return sketch;
+	}
+
+	/** Starts recording the graphics calls made when drawing a primitive. The graphics context returned should
+	 *  be used in place of the given one until <code>endCapture()</code> is called.
+	 *  @param graphics Graphics context into which the primitive would otherwise be drawn.
+	 *  @param primitive Position of the primitive in the drawing order.
+	 *  @param key Key identifying the geometry and style of the primitive.
+	 *  @param variant Variant of the primitive.
+	 *  @return Graphics context in which to draw the primitive.
+	 */
+	PGraphics startCapture(PGraphics graphics, int primitive, long key, long variant)
+	{
+		captureIndex   = primitive;
+		captureKey     = key;
+		captureVariant = variant;
+		recorder.start(graphics);
+		return recorder;
+	}
+
+	/** Stops recording the primitive started with <code>startCapture()</code> and stores its geometry.
+	 *  @return Geometry of the primitive, ready to be drawn.
+	 */
+	Sketch endCapture()
+	{
+		Sketch sketch = recorder.finish(captureKey, captureVariant, seed);
+
+		while (sketches.size() <= captureIndex)
+		{
+			sketches.add(new Sketch[Math.max(1, numVariants)]);
+		}
+		Sketch[] variants = sketches.get(captureIndex);
+		variants[(int)(captureVariant % variants.length)] = sketch;
+		return sketch;
+	}
+
+	/** Adds the given integer to a key.
+	 *  @param key Key to which the value is added.
+	 *  @param value Value to add.
+	 *  @return New key.
+	 */
+	static long hash(long key, int value)
+	{
+		return HandyRenderer.mixSeed(key ^ value);
+	}
+
+	/** Adds the given number to a key.
+	 *  @param key Key to which the value is added.
+	 *  @param value Value to add.
+	 *  @return New key.
+	 */
+	static long hash(long key, float value)
+	{
+		return HandyRenderer.mixSeed(key ^ Float.floatToIntBits(value));
+	}
+
+	/** Provides the key of a primitive of the given type defined by the given parameters.
+	 *  @param type Type of primitive.
+	 *  @param params Parameters defining the primitive.
+	 *  @return Key identifying the primitive.
+	 */
+	static long hash(int type, float... params)
+	{
+		long key = type;
+		for (float param : params)
+		{
+			key = hash(key, param);
+		}
+		return key;
+	}
+
+	/** Provides the key of a primitive of the given type defined by the given coordinates.
+	 *  @param type Type of primitive.
+	 *  @param xCoords x coordinates of the primitive.
+	 *  @param yCoords y coordinates of the primitive.
+	 *  @param isClosed Indicates if the primitive is closed.
+	 *  @return Key identifying the primitive.
+	 */
+	static long hash(int type, float[] xCoords, float[] yCoords, boolean isClosed)
+	{
+		long key = hash(type, isClosed ? 1 : 0);
+		if ((xCoords == null) || (yCoords == null))
+		{
+			return key;
+		}
+		for (int i=0; i<xCoords.length; i++)
+		{
+			key = hash(hash(key, xCoords[i]), yCoords[i]);
+		}
+		for (int i=xCoords.length; i<yCoords.length; i++)
+		{
+			key = hash(key, yCoords[i]);
+		}
+		return key;
+	}
+
+	// ---------------------------------- Nested classes ---------------------------------
+
+	/** Recorded graphics calls that draw one variant of a primitive.
+	 */
+	static class Sketch
+	{
+		final long key, variant, seed;			// Identity of the primitive and variant.
+		private final int[] codes;				// Types of graphics call and their integer parameters.
+		private final float[] values;			// Numeric parameters of the graphics calls.
+		private final int numShapes;			// Number of shapes drawn.
+		private final int numVertices;			// Number of vertices drawn.
+
+		/** Creates a store of recorded graphics calls.
+		 *  @param key Key identifying the geometry and style of the primitive.
+		 *  @param variant Variant of the primitive.
+		 *  @param seed Seed from which the variant's random seed was derived.
+		 *  @param codes Types of graphics call and their integer parameters.
+		 *  @param values Numeric parameters of the graphics calls.
+		 *  @param numShapes Number of shapes drawn.
+		 *  @param numVertices Number of vertices drawn.
+		 */
+		Sketch(long key, long variant, long seed, int[] codes, float[] values, int numShapes, int numVertices)
+		{
+			this.key = key;
+			this.variant = variant;
+			this.seed = seed;
+			this.codes = codes;
+			this.values = values;
+			this.numShapes = numShapes;
+			this.numVertices = numVertices;
+		}
+
+		/** Reports the number of shapes started when drawing the primitive.
+		 *  @return Number of shapes.
+		 */
+		int getNumShapes()
+		{
+			return numShapes;
+		}
+
+		/** Reports the number of vertices drawn when drawing the primitive.
+		 *  @return Number of vertices.
+		 */
+		int getNumVertices()
+		{
+			return numVertices;
+		}
+
+		/** Repeats the recorded graphics calls in the given graphics context. The context's style is unchanged.
+		 *  @param graphics Graphics context in which to draw.
+		 */
+		void draw(PGraphics graphics)
+		{
+			graphics.pushStyle();
+			graphics.ellipseMode(PConstants.CORNER);
+			graphics.rectMode(PConstants.CORNERS);
+
+			int c = 0;
+			int v = 0;
+			int lastStyle = -1;
+			float lastWeight = 0;
+			while (c < codes.length)
+			{
+				int code = codes[c++];
+				if (code == VERTEX_CALL)
+				{
+					graphics.vertex(values[v], values[v+1]);
+					v += 2;
+					continue;
+				}
+				if (code == CURVE_VERTEX_CALL)
+				{
+					graphics.curveVertex(values[v], values[v+1]);
+					v += 2;
+					continue;
+				}
+				if (code == END_CALL)
+				{
+					graphics.endShape(codes[c++]);
+					continue;
+				}
+
+				// All other calls are preceded by their style, which is only applied if it differs from the last.
+				boolean isNewStyle = (lastStyle < 0) || (values[v] != lastWeight);
+				for (int i=0; (i<5) && (isNewStyle == false); i++)
+				{
+					isNewStyle = (codes[lastStyle+i] != codes[c+i]);
+				}
+				if (isNewStyle)
+				{
+					HandyGeometrySink.applyStyle(graphics, (codes[c] & 1) != 0, codes[c+1], (codes[c] & 2) != 0, codes[c+2],
+					                             values[v], codes[c+3], codes[c+4]);
+				}
+				lastStyle = c;
+				lastWeight = values[v];
+				c += 5;
+				v++;
+
+				if (code == BEGIN_CALL)
+				{
+					graphics.beginShape(codes[c++]);
+				}
+				else if (code == ELLIPSE_CALL)
+				{
+					graphics.ellipse(values[v], values[v+1], values[v+2], values[v+3]);
+					v += 4;
+				}
+				else if (code == ARC_CALL)
+				{
+					graphics.arc(values[v], values[v+1], values[v+2], values[v+3], values[v+4], values[v+5], codes[c++]);
+					v += 6;
+				}
+				else if (code == RECT_CALL)
+				{
+					graphics.rect(values[v], values[v+1], values[v+2], values[v+3]);
+					v += 4;
+				}
+			}
+			graphics.popStyle();
+		}
+	}
+
+	/** Graphics context that records the calls made to it when a renderer draws a primitive. Queries of the
+	 *  transformation are answered by the graphics context into which the primitive would otherwise be drawn.
+	 */
+	private static class Recorder extends PGraphics
+	{
+		private PGraphics target;				// Graphics context into which the primitive would otherwise be drawn.
+		private int[] codes;					// Types of graphics call and their integer parameters.
+		private float[] values;					// Numeric parameters of the graphics calls.
+		private int numCodes, numValues;		// Number of codes and values recorded.
+		private int numShapes, numVertices;		// Number of shapes and vertices recorded.
+
+		/** Creates a recorder ready to capture a primitive.
+		 */
+		Recorder()
+		{
+			setPrimary(false);
+			setSize(1, 1);
+			defaultSettings();
+			codes = new int[64];
+			values = new float[256];
+		}
+
+		/** Starts recording with the style of the given graphics context.
+		 *  @param graphics Graphics context into which the primitive would otherwise be drawn.
+		 */
+		void start(PGraphics graphics)
+		{
+			target = graphics;
+			numCodes = 0;
+			numValues = 0;
+			numShapes = 0;
+			numVertices = 0;
+
+			if ((width != graphics.width) || (height != graphics.height))
+			{
+				setSize(graphics.width, graphics.height);
+			}
+			colorMode(graphics.colorMode, graphics.colorModeX, graphics.colorModeY, graphics.colorModeZ, graphics.colorModeA);
+			if (curveTightness != graphics.curveTightness)
+			{
+				curveTightness(graphics.curveTightness);
+			}
+			HandyRenderer.copyGraphics(graphics, this);
+		}
+
+		/** Stops recording and provides the recorded calls.
+		 *  @param key Key identifying the geometry and style of the primitive.
+		 *  @param variant Variant of the primitive.
+		 *  @param seed Seed from which the variant's random seed was derived.
+		 *  @return Recorded calls.
+		 */
+		Sketch finish(long key, long variant, long seed)
+		{
+			target = null;
+			return new Sketch(key, variant, seed, Arrays.copyOf(codes, numCodes), Arrays.copyOf(values, numValues),
+			                  numShapes, numVertices);
+		}
+
+		@Override
+		public void beginShape(int kind)
+		{
+			addStyle(BEGIN_CALL);
+			addCode(kind);
+			numShapes++;
+		}
+
+		@Override
+		public void vertex(float x, float y)
+		{
+			addCode(VERTEX_CALL);
+			addValue(x);
+			addValue(y);
+			numVertices++;
+		}
+
+		@Override
+		public void curveVertex(float x, float y)
+		{
+			addCode(CURVE_VERTEX_CALL);
+			addValue(x);
+			addValue(y);
+			numVertices++;
+		}
+
+		@Override
+		public void endShape(int mode)
+		{
+			addCode(END_CALL);
+			addCode(mode);
+		}
+
+		@Override
+		public PMatrix3D getMatrix(PMatrix3D target)
+		{
+			return HandyRenderer.getMatrix(this.target, null, (target == null) ? new PMatrix3D() : target);
+		}
+
+		@Override
+		public PMatrix2D getMatrix(PMatrix2D target)
+		{
+			return this.target.getMatrix(target);
+		}
+
+		@Override
+		public boolean is2D()
+		{
+			return target.is2D();
+		}
+
+		@Override
+		public boolean is3D()
+		{
+			return target.is3D();
+		}
+
+		@Override
+		protected void ellipseImpl(float x, float y, float w, float h)
+		{
+			addStyle(ELLIPSE_CALL);
+			addValue(x);
+			addValue(y);
+			addValue(w);
+			addValue(h);
+			numShapes++;
+		}
+
+		@Override
+		protected void arcImpl(float x, float y, float w, float h, float start, float stop, int mode)
+		{
+			addStyle(ARC_CALL);
+			addCode(mode);
+			addValue(x);
+			addValue(y);
+			addValue(w);
+			addValue(h);
+			addValue(start);
+			addValue(stop);
+			numShapes++;
+		}
+
+		@Override
+		protected void rectImpl(float x1, float y1, float x2, float y2)
+		{
+			addStyle(RECT_CALL);
+			addValue(x1);
+			addValue(y1);
+			addValue(x2);
+			addValue(y2);
+			numShapes++;
+		}
+
+		/** Records the given call along with the current fill and stroke settings.
+		 *  @param code Type of graphics call.
+		 */
+		private void addStyle(int code)
+		{
+			addCode(code);
+			addCode((fill ? 1 : 0) | (stroke ? 2 : 0));
+			addCode(fillColor);
+			addCode(strokeColor);
+			addCode(strokeCap);
+			addCode(strokeJoin);
+			addValue(strokeWeight);
+		}
+
+		/** Records the given type of call or integer parameter.
+		 *  @param code Code to record.
+		 */
+		private void addCode(int code)
+		{
+			if (numCodes == codes.length)
+			{
+				codes = Arrays.copyOf(codes, numCodes*2);
+			}
+			codes[numCodes++] = code;
+		}
+
+		/** Records the given numeric parameter.
+		 *  @param value Value to record.
+		 */
+		private void addValue(float value)
+		{
+			if (numValues == values.length)
+			{
+				values = Arrays.copyOf(values, numValues*2);
+			}
+			values[numValues++] = value;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.gicentre.handy;
+
+import java.util.Random;
+
+//*****************************************************************************************
+/** Random number generator that counts the random values it produces. Every value derived from
+ *  the generator, whatever its type, is built from one or more 32-bit values, so the count
+ *  reflects the work done generating random variation.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+class CountingRandom extends Random
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private static final long serialVersionUID = -3081273520734459138L;
+
+	long count;						// Number of 32-bit random values generated since last reset.
+
+	// ---------------------------------- Constructors -----------------------------------
+
+	/** Creates a random number generator with a seed that is unlikely to be used by any other generator.
+	 */
+	CountingRandom()
+	{
+		super();
+	}
+
+	/** Creates a random number generator with the given seed.
+	 *  @param seed Initial seed.
+	 */
+	CountingRandom(long seed)
+	{
+		super(seed);
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Generates the next random value and adds it to the count.
+	 *  @param bits Number of random bits to generate.
+	 *  @return Random value.
+	 */
+	@Override
+	protected int next(int bits)
+	{
+		count++;
+		return super.next(bits);
+	}
+}
@@ -0,0 +1,785 @@
+package org.gicentre.handy;
+
+import java.util.Arrays;
+
+import processing.core.PGraphics;
+
+// *****************************************************************************************
+/** Stores a compact recording of drawing commands that can be replayed in a sketchy style.
+ *  Commands are encoded as a stream of integer opcodes (with any integer operands such as
+ *  colours and modes) and a separate array of floating point coordinates. Because only the
+ *  primitives and style changes are stored, a recorded scene can be redrawn without re-running
+ *  the code that generated it, and can be replayed onto any graphics context with the same or
+ *  a different random seed. A command buffer is normally filled by a <code>HandyRecorder</code>.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class HandyCommandBuffer
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private int[] ops;							// Opcodes and their integer operands.
+	private float[] args;						// Floating point arguments of each command.
+	private int numOps, numArgs;				// Number of array elements currently in use.
+	private int numCommands;					// Number of commands stored.
+	private HandyStyle[] styles;				// Sketchy styles referred to by style commands.
+	private int numStyles;						// Number of sketchy styles stored.
+
+	// Last style recorded, used to avoid storing redundant style changes.
+	private boolean hasStyle;
+	private int lastFlags, lastStrokeColour, lastFillColour, lastEllipseMode, lastRectMode;
+	private float lastStrokeWeight;
+	private HandyStyle lastSketchyStyle;
+
+	// Opcodes.
+	private static final int STYLE          = 1;
+	private static final int POINT_2D       = 2;
+	private static final int POINT_3D       = 3;
+	private static final int LINE_2D        = 4;
+	private static final int LINE_3D        = 5;
+	private static final int RECT           = 6;
+	private static final int ELLIPSE        = 7;
+	private static final int TRIANGLE       = 8;
+	private static final int QUAD           = 9;
+	private static final int ARC            = 10;
+	private static final int BEGIN_SHAPE    = 11;
+	private static final int VERTEX_2D      = 12;
+	private static final int VERTEX_3D      = 13;
+	private static final int CURVE_VERTEX_2D= 14;
+	private static final int CURVE_VERTEX_3D= 15;
+	private static final int END_SHAPE      = 16;
+	private static final int BOX            = 17;
+	private static final int TRANSLATE_2D   = 18;
+	private static final int TRANSLATE_3D   = 19;
+	private static final int SCALE_UNIFORM  = 20;
+	private static final int SCALE_2D       = 21;
+	private static final int SCALE_3D       = 22;
+	private static final int ROTATE         = 23;
+	private static final int ROTATE_X       = 24;
+	private static final int ROTATE_Y       = 25;
+	private static final int ROTATE_Z       = 26;
+	private static final int ROTATE_AXIS    = 27;
+	private static final int PUSH_MATRIX    = 28;
+	private static final int POP_MATRIX     = 29;
+	private static final int RESET_MATRIX   = 30;
+
+	private static final int STROKE_FLAG = 1;	// Style flag indicating stroke is on.
+	private static final int FILL_FLAG   = 2;	// Style flag indicating fill is on.
+
+	// ----------------------------------- Constructor -----------------------------------
+
+	/** Creates a new empty command buffer.
+	 */
+	public HandyCommandBuffer()
+	{
+		ops  = new int[256];
+		args = new float[1024];
+		styles = new HandyStyle[8];
+		clear();
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Removes all commands from the buffer. The memory allocated to the buffer is retained
+	 *  so that it can be refilled without further allocation.
+	 */
+	public void clear()
+	{
+		numOps           = 0;
+		numArgs          = 0;
+		numCommands      = 0;
+		hasStyle         = false;
+		lastSketchyStyle = null;
+		Arrays.fill(styles, 0, numStyles, null);
+		numStyles        = 0;
+	}
+
+	/** Reports the number of commands stored in this buffer.
+	 *  @return Number of commands in the buffer.
+	 */
+	public int getNumCommands()
+	{
+		return numCommands;
+	}
+
+	/** Reports whether or not this buffer contains any commands.
+	 *  @return True if the buffer is empty.
+	 */
+	public boolean isEmpty()
+	{
+		return numCommands == 0;
+	}
+
+	/** Replays the recorded commands using the given renderer. Output is sent to the renderer's
+	 *  current graphics context and continues the renderer's current random sequence.
+	 *  @param handy Renderer used to draw the recorded commands.
+	 */
+	public void replay(HandyRenderer handy)
+	{
+		PGraphics graphics = handy.getGraphics();
+		HandyStyle origStyle = handy.getStyle();
+		graphics.pushStyle();
+		graphics.pushMatrix();
+
+		int op = 0;
+		int arg = 0;
+		float[] a = args;
+
+		while (op < numOps)
+		{
+			switch (ops[op++])
+			{
+				case STYLE:
+					int flags = ops[op++];
+					int strokeColour = ops[op++];
+					int fillColour = ops[op++];
+					graphics.ellipseMode(ops[op++]);
+					graphics.rectMode(ops[op++]);
+					handy.setStyle(styles[ops[op++]]);
+
+					if ((flags & STROKE_FLAG) != 0)
+					{
+						graphics.stroke(strokeColour);
+					}
+					else
+					{
+						graphics.noStroke();
+					}
+					if ((flags & FILL_FLAG) != 0)
+					{
+						graphics.fill(fillColour);
+					}
+					else
+					{
+						graphics.noFill();
+					}
+					graphics.strokeWeight(a[arg++]);
+					break;
+				case POINT_2D:
+					handy.point(a[arg],a[arg+1]);
+					arg += 2;
+					break;
+				case POINT_3D:
+					handy.point(a[arg],a[arg+1],a[arg+2]);
+					arg += 3;
+					break;
+				case LINE_2D:
+					handy.line(a[arg],a[arg+1],a[arg+2],a[arg+3]);
+					arg += 4;
+					break;
+				case LINE_3D:
+					handy.line(a[arg],a[arg+1],a[arg+2],a[arg+3],a[arg+4],a[arg+5]);
+					arg += 6;
+					break;
+				case RECT:
+					handy.rect(a[arg],a[arg+1],a[arg+2],a[arg+3]);
+					arg += 4;
+					break;
+				case ELLIPSE:
+					handy.ellipse(a[arg],a[arg+1],a[arg+2],a[arg+3]);
+					arg += 4;
+					break;
+				case TRIANGLE:
+					handy.triangle(a[arg],a[arg+1],a[arg+2],a[arg+3],a[arg+4],a[arg+5]);
+					arg += 6;
+					break;
+				case QUAD:
+					handy.quad(a[arg],a[arg+1],a[arg+2],a[arg+3],a[arg+4],a[arg+5],a[arg+6],a[arg+7]);
+					arg += 8;
+					break;
+				case ARC:
+					handy.arc(a[arg],a[arg+1],a[arg+2],a[arg+3],a[arg+4],a[arg+5]);
+					arg += 6;
+					break;
+				case BEGIN_SHAPE:
+					handy.beginShape(ops[op++]);
+					break;
+				case VERTEX_2D:
+					handy.vertex(a[arg],a[arg+1]);
+					arg += 2;
+					break;
+				case VERTEX_3D:
+					handy.vertex(a[arg],a[arg+1],a[arg+2]);
+					arg += 3;
+					break;
+				case CURVE_VERTEX_2D:
+					handy.curveVertex(a[arg],a[arg+1]);
+					arg += 2;
+					break;
+				case CURVE_VERTEX_3D:
+					handy.curveVertex(a[arg],a[arg+1],a[arg+2]);
+					arg += 3;
+					break;
+				case END_SHAPE:
+					handy.endShape(ops[op++]);
+					break;
+				case BOX:
+					handy.box(a[arg],a[arg+1],a[arg+2]);
+					arg += 3;
+					break;
+				case TRANSLATE_2D:
+					graphics.translate(a[arg],a[arg+1]);
+					arg += 2;
+					break;
+				case TRANSLATE_3D:
+					graphics.translate(a[arg],a[arg+1],a[arg+2]);
+					arg += 3;
+					break;
+				case SCALE_UNIFORM:
+					graphics.scale(a[arg++]);
+					break;
+				case SCALE_2D:
+					graphics.scale(a[arg],a[arg+1]);
+					arg += 2;
+					break;
+				case SCALE_3D:
+					graphics.scale(a[arg],a[arg+1],a[arg+2]);
+					arg += 3;
+					break;
+				case ROTATE:
+					graphics.rotate(a[arg++]);
+					break;
+				case ROTATE_X:
+					graphics.rotateX(a[arg++]);
+					break;
+				case ROTATE_Y:
+					graphics.rotateY(a[arg++]);
+					break;
+				case ROTATE_Z:
+					graphics.rotateZ(a[arg++]);
+					break;
+				case ROTATE_AXIS:
+					graphics.rotate(a[arg],a[arg+1],a[arg+2],a[arg+3]);
+					arg += 4;
+					break;
+				case PUSH_MATRIX:
+					graphics.pushMatrix();
+					break;
+				case POP_MATRIX:
+					graphics.popMatrix();
+					break;
+				case RESET_MATRIX:
+					graphics.resetMatrix();
+					break;
+				default:
+					System.err.println("Unexpected command in HandyCommandBuffer: "+ops[op-1]);
+					graphics.popMatrix();
+					graphics.popStyle();
+					handy.setStyle(origStyle);
+					return;
+			}
+		}
+
+		graphics.popMatrix();
+		graphics.popStyle();
+		handy.setStyle(origStyle);
+	}
+
+	/** Replays the recorded commands using the given renderer after setting its random number seed.
+	 *  Replaying with the same seed will result in identical sketchy output; a different seed will
+	 *  give the same scene with different sketchy variation.
+	 *  @param handy Renderer used to draw the recorded commands.
+	 *  @param seed Random number seed used to generate sketchy variation.
+	 */
+	public void replay(HandyRenderer handy, long seed)
+	{
+		handy.setSeed(seed);
+		replay(handy);
+	}
+
+	/** Replays the recorded commands onto the given graphics context. The renderer will be drawing
+	 *  to its original graphics context once the replay is complete.
+	 *  @param handy Renderer used to draw the recorded commands.
+	 *  @param graphics Graphics context into which the commands are to be drawn.
+	 *  @param seed Random number seed used to generate sketchy variation.
+	 */
+	public void replay(HandyRenderer handy, PGraphics graphics, long seed)
+	{
+		PGraphics origGraphics = handy.getGraphics();
+		handy.setGraphics(graphics);
+		replay(handy,seed);
+		handy.setGraphics(origGraphics);
+	}
+
+	// ------------------------------- Package-wide methods -------------------------------
+
+	/** Records the drawing style of the given graphics context and the sketchy style of the given renderer
+	 *  if either differs from the last recorded style. Only a reference to the sketchy style is stored. This
+	 *  is taken from the renderer only when the style has changed, as doing so stops the renderer changing
+	 *  that style in place.
+	 *  @param graphics Graphics context whose style is to be recorded.
+	 *  @param handy Renderer drawing into the graphics context.
+	 */
+	void style(PGraphics graphics, HandyRenderer handy)
+	{
+		// A stored style is never changed in place, so a renderer still using it has not changed its style.
+		HandyStyle sketchyStyle = handy.getCurrentStyle();
+		int flags = (graphics.stroke ? STROKE_FLAG : 0) | (graphics.fill ? FILL_FLAG : 0);
+
+		if ((hasStyle) && (flags == lastFlags) && (graphics.strokeColor == lastStrokeColour) &&
+			(graphics.fillColor == lastFillColour) && (graphics.strokeWeight == lastStrokeWeight) &&
+			(graphics.ellipseMode == lastEllipseMode) && (graphics.rectMode == lastRectMode) &&
+			(sketchyStyle == lastSketchyStyle))
+		{
+			return;
+		}
+
+		if (sketchyStyle != lastSketchyStyle)
+		{
+			sketchyStyle = handy.getStyle();
+			if (numStyles == styles.length)
+			{
+				styles = Arrays.copyOf(styles, 2*styles.length);
+			}
+			styles[numStyles++] = sketchyStyle;
+		}
+
+		hasStyle         = true;
+		lastFlags        = flags;
+		lastStrokeColour = graphics.strokeColor;
+		lastFillColour   = graphics.fillColor;
+		lastStrokeWeight = graphics.strokeWeight;
+		lastEllipseMode  = graphics.ellipseMode;
+		lastRectMode     = graphics.rectMode;
+		lastSketchyStyle = sketchyStyle;
+
+		ensureCapacity(7,1);
+		ops[numOps++] = STYLE;
+		ops[numOps++] = flags;
+		ops[numOps++] = lastStrokeColour;
+		ops[numOps++] = lastFillColour;
+		ops[numOps++] = lastEllipseMode;
+		ops[numOps++] = lastRectMode;
+		ops[numOps++] = numStyles-1;
+		args[numArgs++] = lastStrokeWeight;
+		numCommands++;
+	}
+
+	/** Records a 2d point.
+	 *  @param x x coordinate of the point.
+	 *  @param y y coordinate of the point.
+	 */
+	void point(float x, float y)
+	{
+		add(POINT_2D,x,y);
+	}
+
+	/** Records a 3d point.
+	 *  @param x x coordinate of the point.
+	 *  @param y y coordinate of the point.
+	 *  @param z z coordinate of the point.
+	 */
+	void point(float x, float y, float z)
+	{
+		add(POINT_3D,x,y,z);
+	}
+
+	/** Records a 2d line.
+	 *  @param x1 x coordinate of the start of the line.
+	 *  @param y1 y coordinate of the start of the line.
+	 *  @param x2 x coordinate of the end of the line.
+	 *  @param y2 y coordinate of the end of the line.
+	 */
+	void line(float x1, float y1, float x2, float y2)
+	{
+		add(LINE_2D,x1,y1,x2,y2);
+	}
+
+	/** Records a 3d line.
+	 *  @param x1 x coordinate of the start of the line.
+	 *  @param y1 y coordinate of the start of the line.
+	 *  @param z1 z coordinate of the start of the line.
+	 *  @param x2 x coordinate of the end of the line.
+	 *  @param y2 y coordinate of the end of the line.
+	 *  @param z2 z coordinate of the end of the line.
+	 */
+	void line(float x1, float y1, float z1, float x2, float y2, float z2)
+	{
+		add(LINE_3D,x1,y1,z1,x2,y2,z2);
+	}
+
+	/** Records a rectangle.
+	 *  @param x x coordinate of the rectangle position
+	 *  @param y y coordinate of the rectangle position.
+	 *  @param w Width of the rectangle.
+	 *  @param h Height of the rectangle.
+	 */
+	void rect(float x, float y, float w, float h)
+	{
+		add(RECT,x,y,w,h);
+	}
+
+	/** Records an ellipse.
+	 *  @param x x coordinate of the ellipse's position
+	 *  @param y y coordinate of the ellipse's position.
+	 *  @param w Width of the ellipse.
+	 *  @param h Height of the ellipse.
+	 */
+	void ellipse(float x, float y, float w, float h)
+	{
+		add(ELLIPSE,x,y,w,h);
+	}
+
+	/** Records a triangle.
+	 *  @param x1 x coordinate of the first triangle vertex.
+	 *  @param y1 y coordinate of the first triangle vertex.
+	 *  @param x2 x coordinate of the second triangle vertex.
+	 *  @param y2 y coordinate of the second triangle vertex.
+	 *  @param x3 x coordinate of the third triangle vertex.
+	 *  @param y3 y coordinate of the third triangle vertex.
+	 */
+	void triangle(float x1, float y1, float x2, float y2, float x3, float y3)
+	{
+		add(TRIANGLE,x1,y1,x2,y2,x3,y3);
+	}
+
+	/** Records a quadrilateral.
+	 *  @param x1 x coordinate of the first quadrilateral vertex.
+	 *  @param y1 y coordinate of the first quadrilateral vertex.
+	 *  @param x2 x coordinate of the second quadrilateral vertex.
+	 *  @param y2 y coordinate of the second quadrilateral vertex.
+	 *  @param x3 x coordinate of the third quadrilateral vertex.
+	 *  @param y3 y coordinate of the third quadrilateral vertex.
+	 *  @param x4 x coordinate of the fourth quadrilateral vertex.
+	 *  @param y4 y coordinate of the fourth quadrilateral vertex.
+	 */
+	void quad(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4)
+	{
+		ensureCapacity(1,8);
+		ops[numOps++] = QUAD;
+		args[numArgs++] = x1;
+		args[numArgs++] = y1;
+		args[numArgs++] = x2;
+		args[numArgs++] = y2;
+		args[numArgs++] = x3;
+		args[numArgs++] = y3;
+		args[numArgs++] = x4;
+		args[numArgs++] = y4;
+		numCommands++;
+	}
+
+	/** Records an arc.
+	 *  @param x x coordinate of the ellipse's position around which this arc is defined.
+	 *  @param y y coordinate of the ellipse's position around which this arc is defined
+	 *  @param w Width of the ellipse around which this arc is defined.
+	 *  @param h Height of the ellipse around which this arc is defined.
+	 *  @param start Angle to start the arc in radians.
+	 *  @param stop Angle to stop the arc in radians.
+	 */
+	void arc(float x, float y, float w, float h, float start, float stop)
+	{
+		add(ARC,x,y,w,h,start,stop);
+	}
+
+	/** Records the start of a shape.
+	 *  @param mode Type of shape as would be passed to <code>beginShape()</code>.
+	 */
+	void beginShape(int mode)
+	{
+		addOp(BEGIN_SHAPE,mode);
+	}
+
+	/** Records a 2d shape vertex.
+	 *  @param x x coordinate of vertex.
+	 *  @param y y coordinate of vertex.
+	 */
+	void vertex(float x, float y)
+	{
+		add(VERTEX_2D,x,y);
+	}
+
+	/** Records a 3d shape vertex.
+	 *  @param x x coordinate of vertex.
+	 *  @param y y coordinate of vertex.
+	 *  @param z z coordinate of vertex.
+	 */
+	void vertex(float x, float y, float z)
+	{
+		add(VERTEX_3D,x,y,z);
+	}
+
+	/** Records a 2d curved shape vertex.
+	 *  @param x x coordinate of vertex.
+	 *  @param y y coordinate of vertex.
+	 */
+	void curveVertex(float x, float y)
+	{
+		add(CURVE_VERTEX_2D,x,y);
+	}
+
+	/** Records a 3d curved shape vertex.
+	 *  @param x x coordinate of vertex.
+	 *  @param y y coordinate of vertex.
+	 *  @param z z coordinate of vertex.
+	 */
+	void curveVertex(float x, float y, float z)
+	{
+		add(CURVE_VERTEX_3D,x,y,z);
+	}
+
+	/** Records the end of a shape.
+	 *  @param mode Closure mode as would be passed to <code>endShape()</code>.
+	 */
+	void endShape(int mode)
+	{
+		addOp(END_SHAPE,mode);
+	}
+
+	/** Records a 3d box.
+	 *  @param w Width of the box.
+	 *  @param h Height of the box.
+	 *  @param d Depth of the box.
+	 */
+	void box(float w, float h, float d)
+	{
+		add(BOX,w,h,d);
+	}
+
+	/** Records a 2d translation.
+	 *  @param x x value to translate by.
+	 *  @param y y value to translate by.
+	 */
+	void translate(float x, float y)
+	{
+		add(TRANSLATE_2D,x,y);
+	}
+
+	/** Records a 3d translation.
+	 *  @param x x value to translate by.
+	 *  @param y y value to translate by.
+	 *  @param z z value to translate by.
+	 */
+	void translate(float x, float y, float z)
+	{
+		add(TRANSLATE_3D,x,y,z);
+	}
+
+	/** Records a uniform scaling.
+	 *  @param s value to scale all axes by.
+	 */
+	void scale(float s)
+	{
+		add(SCALE_UNIFORM,s);
+	}
+
+	/** Records a 2d scaling.
+	 *  @param sx x value to scale by.
+	 *  @param sy y value to scale by.
+	 */
+	void scale(float sx, float sy)
+	{
+		add(SCALE_2D,sx,sy);
+	}
+
+	/** Records a 3d scaling.
+	 *  @param sx x value to scale by.
+	 *  @param sy y value to scale by.
+	 *  @param sz z value to scale by.
+	 */
+	void scale(float sx, float sy, float sz)
+	{
+		add(SCALE_3D,sx,sy,sz);
+	}
+
+	/** Records a 2d rotation.
+	 *  @param angle Angle of rotation in radians.
+	 */
+	void rotate(float angle)
+	{
+		add(ROTATE,angle);
+	}
+
+	/** Records a rotation around the x-axis.
+	 *  @param angle Angle of rotation in radians.
+	 */
+	void rotateX(float angle)
+	{
+		add(ROTATE_X,angle);
+	}
+
+	/** Records a rotation around the y-axis.
+	 *  @param angle Angle of rotation in radians.
+	 */
+	void rotateY(float angle)
+	{
+		add(ROTATE_Y,angle);
+	}
+
+	/** Records a rotation around the z-axis.
+	 *  @param angle Angle of rotation in radians.
+	 */
+	void rotateZ(float angle)
+	{
+		add(ROTATE_Z,angle);
+	}
+
+	/** Records a rotation around an arbitrary vector.
+	 *  @param angle Angle of rotation.
+	 *  @param x x component of vector around which to rotate.
+	 *  @param y y component of vector around which to rotate.
+	 *  @param z z component of vector around which to rotate.
+	 */
+	void rotate(float angle, float x, float y, float z)
+	{
+		add(ROTATE_AXIS,angle,x,y,z);
+	}
+
+	/** Records the storing of the current transformation matrix.
+	 */
+	void pushMatrix()
+	{
+		addOp(PUSH_MATRIX);
+	}
+
+	/** Records the retrieval of the last stored transformation matrix.
+	 */
+	void popMatrix()
+	{
+		addOp(POP_MATRIX);
+	}
+
+	/** Records the resetting of the transformation matrix.
+	 */
+	void resetMatrix()
+	{
+		addOp(RESET_MATRIX);
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Adds a command with no arguments.
+	 *  @param op Opcode of the command.
+	 */
+	private void addOp(int op)
+	{
+		ensureCapacity(1,0);
+		ops[numOps++] = op;
+		numCommands++;
+	}
+
+	/** Adds a command with a single integer operand.
+	 *  @param op Opcode of the command.
+	 *  @param operand Integer operand.
+	 */
+	private void addOp(int op, int operand)
+	{
+		ensureCapacity(2,0);
+		ops[numOps++] = op;
+		ops[numOps++] = operand;
+		numCommands++;
+	}
+
+	/** Adds a command with a single floating point argument.
+	 *  @param op Opcode of the command.
+	 *  @param a1 Argument.
+	 */
+	private void add(int op, float a1)
+	{
+		ensureCapacity(1,1);
+		ops[numOps++] = op;
+		args[numArgs++] = a1;
+		numCommands++;
+	}
+
+	/** Adds a command with two floating point arguments.
+	 *  @param op Opcode of the command.
+	 *  @param a1 First argument.
+	 *  @param a2 Second argument.
+	 */
+	private void add(int op, float a1, float a2)
+	{
+		ensureCapacity(1,2);
+		ops[numOps++] = op;
+		args[numArgs++] = a1;
+		args[numArgs++] = a2;
+		numCommands++;
+	}
+
+	/** Adds a command with three floating point arguments.
+	 *  @param op Opcode of the command.
+	 *  @param a1 First argument.
+	 *  @param a2 Second argument.
+	 *  @param a3 Third argument.
+	 */
+	private void add(int op, float a1, float a2, float a3)
+	{
+		ensureCapacity(1,3);
+		ops[numOps++] = op;
+		args[numArgs++] = a1;
+		args[numArgs++] = a2;
+		args[numArgs++] = a3;
+		numCommands++;
+	}
+
+	/** Adds a command with four floating point arguments.
+	 *  @param op Opcode of the command.
+	 *  @param a1 First argument.
+	 *  @param a2 Second argument.
+	 *  @param a3 Third argument.
+	 *  @param a4 Fourth argument.
+	 */
+	private void add(int op, float a1, float a2, float a3, float a4)
+	{
+		ensureCapacity(1,4);
+		ops[numOps++] = op;
+		args[numArgs++] = a1;
+		args[numArgs++] = a2;
+		args[numArgs++] = a3;
+		args[numArgs++] = a4;
+		numCommands++;
+	}
+
+	/** Adds a command with six floating point arguments.
+	 *  @param op Opcode of the command.
+	 *  @param a1 First argument.
+	 *  @param a2 Second argument.
+	 *  @param a3 Third argument.
+	 *  @param a4 Fourth argument.
+	 *  @param a5 Fifth argument.
+	 *  @param a6 Sixth argument.
+	 */
+	private void add(int op, float a1, float a2, float a3, float a4, float a5, float a6)
+	{
+		ensureCapacity(1,6);
+		ops[numOps++] = op;
+		args[numArgs++] = a1;
+		args[numArgs++] = a2;
+		args[numArgs++] = a3;
+		args[numArgs++] = a4;
+		args[numArgs++] = a5;
+		args[numArgs++] = a6;
+		numCommands++;
+	}
+
+	/** Ensures there is enough space in the buffer arrays for the given number of new elements.
+	 *  @param newOps Number of opcodes and integer operands to be added.
+	 *  @param newArgs Number of floating point arguments to be added.
+	 */
+	private void ensureCapacity(int newOps, int newArgs)
+	{
+		if (numOps+newOps > ops.length)
+		{
+			ops = Arrays.copyOf(ops, Math.max(ops.length*2, numOps+newOps));
+		}
+		if (numArgs+newArgs > args.length)
+		{
+			args = Arrays.copyOf(args, Math.max(args.length*2, numArgs+newArgs));
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package org.gicentre.handy;
+
+import processing.core.PGraphics;
+
+//*****************************************************************************************
+/** Interface for anything that can draw itself with a handy renderer. This allows drawing code
+ *  to be run on demand, for example once per feature when generating map tiles, rather than
+ *  directly in a sketch's <code>draw()</code> method.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public interface HandyDrawable
+{
+	/** Draws using the given handy renderer. Drawing styles such as fill and stroke colour should
+	 *  be set on the given graphics context, which is the one into which the renderer draws.
+	 *  @param handy Renderer with which to draw.
+	 *  @param graphics Graphics context into which the renderer draws.
+	 */
+	public void draw(HandyRenderer handy, PGraphics graphics);
+}
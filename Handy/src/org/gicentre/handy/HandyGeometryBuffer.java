@@ -0,0 +1,353 @@
+package org.gicentre.handy;
+
+import java.util.Arrays;
+
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PShape;
+
+//*****************************************************************************************
+/** Geometry sink that stores sketchy drawing as flattened polylines in plain float arrays. Each
+ *  polyline has a style ID, which can be queried for its fill and stroke settings, and a flag
+ *  indicating whether or not it is closed. Curves are flattened to within a given tolerance.
+ *  A buffer can be used as the graphics context of a <code>HandyRenderer</code> created without
+ *  a sketch, allowing sketchy geometry to be generated in bulk and then rasterised or serialised
+ *  by other means. For example:
+ *  <pre>
+ *    HandyGeometryBuffer buffer = new HandyGeometryBuffer(800,600);
+ *    HandyRenderer h = new HandyRenderer(buffer);
+ *    buffer.fill(180,80,80);
+ *    h.rect(50,50,200,100);
+ *    float[] xy = buffer.getCoordinates();
+ *    for (int i=0; i&lt;buffer.getNumPolylines(); i++)
+ *    {
+ *      int start = buffer.getStart(i);
+ *      int numPoints = buffer.getNumPoints(i);
+ *      int styleID = buffer.getStyleID(i);
+ *      // Points of polyline are xy[2*start], xy[2*start+1] ... xy[2*(start+numPoints)-1]
+ *    }
+ *  </pre>
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyGeometryBuffer extends HandyGeometrySink
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private float[] coords;					// Interleaved x,y coordinates of all points.
+	private int numPoints;					// Number of points stored.
+	private int[] starts;					// Index of the first point of each polyline.
+	private int[] styleIDs;					// Style ID of each polyline.
+	private boolean[] closed;				// Indicates which polylines are closed.
+	private int numPolylines;				// Number of polylines stored.
+	private int currentStyle;				// Style of the path being built.
+	private float flatness;					// Maximum distance between a curve and its flattened polyline.
+
+	private static final int MAX_CURVE_STEPS = 64;	// Maximum number of line segments per flattened curve.
+
+	// ----------------------------------- Constructor -----------------------------------
+
+	/** Creates an empty geometry buffer with the given dimensions.
+	 *  @param width Width of the graphics context represented by the buffer.
+	 *  @param height Height of the graphics context represented by the buffer.
+	 */
+	public HandyGeometryBuffer(int width, int height)
+	{
+		super(width, height);
+		coords   = new float[2048];
+		starts   = new int[128];
+		styleIDs = new int[128];
+		closed   = new boolean[128];
+		flatness = 0.25f;
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Removes all stored polylines, the equivalent of clearing a graphics context to full transparency.
+	 *  Style IDs remain valid so that they are consistent between successive uses of the buffer. The
+	 *  memory allocated to the buffer is retained.
+	 */
+	@Override
+	public void clear()
+	{
+		numPoints    = 0;
+		numPolylines = 0;
+	}
+
+	/** Sets the tolerance used when flattening curves into polylines. Smaller values give smoother
+	 *  curves made from more points. The default is 0.25.
+	 *  @param flatness Maximum distance in pixel units between a curve and its flattened representation.
+	 */
+	public void setFlatness(float flatness)
+	{
+		this.flatness = Math.max(0.001f, flatness);
+	}
+
+	/** Reports the number of polylines stored in the buffer.
+	 *  @return Number of polylines.
+	 */
+	public int getNumPolylines()
+	{
+		return numPolylines;
+	}
+
+	/** Reports the total number of points stored in the buffer.
+	 *  @return Number of points.
+	 */
+	public int getNumPoints()
+	{
+		return numPoints;
+	}
+
+	/** Reports the index of the first point of the given polyline.
+	 *  @param polyline Index of the polyline to query.
+	 *  @return Index of the polyline's first point. Its x coordinate is at twice this position in the coordinates array.
+	 */
+	public int getStart(int polyline)
+	{
+		return starts[polyline];
+	}
+
+	/** Reports the number of points in the given polyline.
+	 *  @param polyline Index of the polyline to query.
+	 *  @return Number of points in the polyline.
+	 */
+	public int getNumPoints(int polyline)
+	{
+		int end = (polyline+1 < numPolylines) ? starts[polyline+1] : numPoints;
+		return end - starts[polyline];
+	}
+
+	/** Reports the style ID of the given polyline. This can be used to query its fill and stroke settings.
+	 *  @param polyline Index of the polyline to query.
+	 *  @return Style ID of the polyline.
+	 */
+	public int getStyleID(int polyline)
+	{
+		return styleIDs[polyline];
+	}
+
+	/** Reports whether the given polyline is closed.
+	 *  @param polyline Index of the polyline to query.
+	 *  @return True if the last point of the polyline should be joined to its first.
+	 */
+	public boolean isClosed(int polyline)
+	{
+		return closed[polyline];
+	}
+
+	/** Provides the coordinates of all points in the buffer. The array is interleaved (x,y) pairs of
+	 *  which the first <code>2*getNumPoints()</code> values are in use. It is the buffer's own store
+	 *  rather than a copy, so should not be modified and is only valid until more geometry is added.
+	 *  @return Coordinates of all points.
+	 */
+	public float[] getCoordinates()
+	{
+		return coords;
+	}
+
+	/** Draws the stored polylines into the given graphics context using their stored styles.
+	 *  @param graphics Graphics context into which to draw.
+	 */
+	public void draw(PGraphics graphics)
+	{
+		graphics.pushStyle();
+		int lastStyle = -1;
+		for (int i=0; i<numPolylines; i++)
+		{
+			int id = styleIDs[i];
+			if (id != lastStyle)
+			{
+				applyStyle(graphics, isFilled(id), getFillColour(id), isStroked(id), getStrokeColour(id),
+						   getStrokeWeight(id), getStrokeCap(id), getStrokeJoin(id));
+				lastStyle = id;
+			}
+
+			int start = starts[i];
+			int end = start + getNumPoints(i);
+			graphics.beginShape();
+			for (int p=start; p<end; p++)
+			{
+				graphics.vertex(coords[2*p], coords[2*p+1]);
+			}
+			graphics.endShape(closed[i] ? PConstants.CLOSE : PConstants.OPEN);
+		}
+		graphics.popStyle();
+	}
+
+	/** Creates a shape holding the stored polylines with their stored styles, which can be drawn with
+	 *  Processing's <code>shape()</code> method. The shape is a group with one path child per polyline.
+	 *  When created by an OpenGL graphics context (P2D or P3D), the shape's geometry is retained by the
+	 *  context so it can be redrawn many times without being tessellated again. The shape should only be
+	 *  drawn into the graphics context that created it.
+	 *  @param graphics Graphics context that creates the shape and into which it will be drawn.
+	 *  @return Group shape holding the polylines.
+	 */
+	public PShape createShape(PGraphics graphics)
+	{
+		PShape group = graphics.createShape(PConstants.GROUP);
+		for (int i=0; i<numPolylines; i++)
+		{
+			int id = styleIDs[i];
+			PShape path = graphics.createShape();
+			path.beginShape();
+			if (isFilled(id))
+			{
+				path.fill(getFillColour(id));
+			}
+			else
+			{
+				path.noFill();
+			}
+			if (isStroked(id))
+			{
+				path.stroke(getStrokeColour(id));
+				path.strokeWeight(getStrokeWeight(id));
+				path.strokeCap(getStrokeCap(id));
+				path.strokeJoin(getStrokeJoin(id));
+			}
+			else
+			{
+				path.noStroke();
+			}
+
+			int start = starts[i];
+			int end = start + getNumPoints(i);
+			for (int p=start; p<end; p++)
+			{
+				path.vertex(coords[2*p], coords[2*p+1]);
+			}
+			path.endShape(closed[i] ? PConstants.CLOSE : PConstants.OPEN);
+			group.addChild(path);
+		}
+		return group;
+	}
+
+	// ------------------------------- Path construction methods -------------------------------
+
+	/** Starts a new path with the given style.
+	 *  @param id ID of the style with which the path is to be drawn.
+	 */
+	@Override
+	protected void beginPath(int id)
+	{
+		currentStyle = id;
+	}
+
+	/** Starts a new polyline at the given location.
+	 *  @param x x coordinate of the start of the polyline.
+	 *  @param y y coordinate of the start of the polyline.
+	 */
+	@Override
+	protected void moveTo(float x, float y)
+	{
+		if (numPolylines == starts.length)
+		{
+			int capacity = 2*starts.length;
+			starts   = Arrays.copyOf(starts, capacity);
+			styleIDs = Arrays.copyOf(styleIDs, capacity);
+			closed   = Arrays.copyOf(closed, capacity);
+		}
+		starts[numPolylines]   = numPoints;
+		styleIDs[numPolylines] = currentStyle;
+		closed[numPolylines]   = false;
+		numPolylines++;
+		addPoint(x, y);
+	}
+
+	/** Adds a point to the current polyline.
+	 *  @param x x coordinate of the point.
+	 *  @param y y coordinate of the point.
+	 */
+	@Override
+	protected void lineTo(float x, float y)
+	{
+		addPoint(x, y);
+	}
+
+	/** Adds a flattened cubic Bezier curve to the current polyline. The number of points used depends
+	 *  on the curvature of the curve and the flatness tolerance.
+	 *  @param cx1 x coordinate of the first control point.
+	 *  @param cy1 y coordinate of the first control point.
+	 *  @param cx2 x coordinate of the second control point.
+	 *  @param cy2 y coordinate of the second control point.
+	 *  @param x x coordinate of the end of the curve.
+	 *  @param y y coordinate of the end of the curve.
+	 */
+	@Override
+	protected void curveTo(float cx1, float cy1, float cx2, float cy2, float x, float y)
+	{
+		float x0 = coords[2*numPoints-2];
+		float y0 = coords[2*numPoints-1];
+
+		// Number of steps is based on the maximum second difference of the control points.
+		float ddx = Math.max(Math.abs(x0 - 2*cx1 + cx2), Math.abs(cx1 - 2*cx2 + x));
+		float ddy = Math.max(Math.abs(y0 - 2*cy1 + cy2), Math.abs(cy1 - 2*cy2 + y));
+		float dd = (float)Math.sqrt(ddx*ddx + ddy*ddy);
+		int numSteps = (int)Math.ceil(Math.sqrt(0.75f*dd/flatness));
+		numSteps = Math.max(1, Math.min(numSteps, MAX_CURVE_STEPS));
+
+		for (int i=1; i<numSteps; i++)
+		{
+			float t = i/(float)numSteps;
+			float u = 1-t;
+			float b0 = u*u*u;
+			float b1 = 3*u*u*t;
+			float b2 = 3*u*t*t;
+			float b3 = t*t*t;
+			addPoint(b0*x0 + b1*cx1 + b2*cx2 + b3*x, b0*y0 + b1*cy1 + b2*cy2 + b3*y);
+		}
+		addPoint(x, y);
+	}
+
+	/** Marks the current polyline as closed.
+	 */
+	@Override
+	protected void closePath()
+	{
+		if (numPolylines > 0)
+		{
+			closed[numPolylines-1] = true;
+		}
+	}
+
+	/** Ends the current path. No action is needed as each polyline is complete once added.
+	 */
+	@Override
+	protected void endPath()
+	{
+		// Do nothing.
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Adds a point to the buffer, enlarging it if necessary.
+	 *  @param x x coordinate of the point.
+	 *  @param y y coordinate of the point.
+	 */
+	private void addPoint(float x, float y)
+	{
+		if (2*numPoints+2 > coords.length)
+		{
+			coords = Arrays.copyOf(coords, 2*coords.length);
+		}
+		coords[2*numPoints]   = x;
+		coords[2*numPoints+1] = y;
+		numPoints++;
+	}
+}
@@ -0,0 +1,799 @@
+package org.gicentre.handy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PMatrix2D;
+import processing.core.PMatrix3D;
+
+//*****************************************************************************************
+/** Graphics context that captures drawing as a sequence of styled paths rather than pixels.
+ *  Shapes made from vertices and curve vertices, ellipses, arcs, lines, triangles, quads,
+ *  rectangles and points are converted into paths made of straight line and cubic Bezier
+ *  segments, with Processing's curve vertices converted into equivalent Bezier curves. Each path
+ *  is given a style ID identifying its combination of fill, stroke, stroke weight, cap and join,
+ *  so that paths sharing a style can be identified cheaply. Subclasses decide what to do with the
+ *  paths by implementing the path construction methods. Affine transformations are applied to
+ *  coordinates as they are captured, but stroke weights are not scaled. A geometry sink needs no
+ *  sketch or display, so a <code>HandyRenderer</code> created with a sink as its graphics context
+ *  can generate sketchy geometry in headless applications such as tile or report servers.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public abstract class HandyGeometrySink extends PGraphics
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	// Style table.
+	private HashMap<Style,Integer> styleIDs;	// Lookup of style IDs.
+	private ArrayList<Style> styles;			// Styles indexed by ID.
+	private Style lookup;						// Reusable key for style lookup.
+
+	// Path under construction.
+	private int kind;							// Type of shape being built.
+	private int styleID;						// Style of shape being built or -1 if not visible.
+	private boolean isPathOpen;					// Indicates if path has been started for the current shape.
+	private boolean hasCurrentPoint;			// Indicates if the current sub-path has a current point.
+	private int numVertices;					// Number of vertices in current shape for shapes with vertex groups.
+	private float[] groupX, groupY;				// Vertices of the current group for lines, triangles and quads.
+	private float[] curveX, curveY;				// Most recent four curve vertices.
+	private int numCurveVertices;				// Number of curve vertices since last ordinary vertex.
+
+	// Transformation.
+	private PMatrix2D matrix;					// Current transformation.
+	private ArrayList<PMatrix2D> matrixStack;	// Transformations stored with pushMatrix().
+
+	private static final float BEZIER_KAPPA = 0.5522848f;	// Control point distance for a quarter circle.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Initialises a geometry sink with the given dimensions.
+	 *  @param width Width of the graphics context.
+	 *  @param height Height of the graphics context.
+	 */
+	protected HandyGeometrySink(int width, int height)
+	{
+		styleIDs    = new HashMap<Style,Integer>();
+		styles      = new ArrayList<Style>();
+		lookup      = new Style();
+		groupX      = new float[4];
+		groupY      = new float[4];
+		curveX      = new float[4];
+		curveY      = new float[4];
+		matrix      = new PMatrix2D();
+		matrixStack = new ArrayList<PMatrix2D>();
+
+		setSize(width, height);
+		defaultSettings();
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Reports the number of distinct styles used so far.
+	 *  @return Number of styles, numbered from 0.
+	 */
+	public int getNumStyles()
+	{
+		return styles.size();
+	}
+
+	/** Reports whether paths with the given style are filled.
+	 *  @param id ID of the style to query.
+	 *  @return True if paths are filled.
+	 */
+	public boolean isFilled(int id)
+	{
+		return styles.get(id).fill;
+	}
+
+	/** Reports the fill colour of paths with the given style.
+	 *  @param id ID of the style to query.
+	 *  @return Fill colour as an ARGB value.
+	 */
+	public int getFillColour(int id)
+	{
+		return styles.get(id).fillColour;
+	}
+
+	/** Reports whether paths with the given style are stroked.
+	 *  @param id ID of the style to query.
+	 *  @return True if paths are stroked.
+	 */
+	public boolean isStroked(int id)
+	{
+		return styles.get(id).stroke;
+	}
+
+	/** Reports the stroke colour of paths with the given style.
+	 *  @param id ID of the style to query.
+	 *  @return Stroke colour as an ARGB value.
+	 */
+	public int getStrokeColour(int id)
+	{
+		return styles.get(id).strokeColour;
+	}
+
+	/** Reports the stroke weight of paths with the given style.
+	 *  @param id ID of the style to query.
+	 *  @return Stroke weight in pixel units.
+	 */
+	public float getStrokeWeight(int id)
+	{
+		return styles.get(id).weight;
+	}
+
+	/** Reports the line end cap of paths with the given style.
+	 *  @param id ID of the style to query.
+	 *  @return Cap type, either <code>SQUARE</code>, <code>PROJECT</code> or <code>ROUND</code>.
+	 */
+	public int getStrokeCap(int id)
+	{
+		return styles.get(id).cap;
+	}
+
+	/** Reports the line join of paths with the given style.
+	 *  @param id ID of the style to query.
+	 *  @return Join type, either <code>MITER</code>, <code>BEVEL</code> or <code>ROUND</code>.
+	 */
+	public int getStrokeJoin(int id)
+	{
+		return styles.get(id).join;
+	}
+
+	/** Reports whether consecutive paths with the given style can be combined into a single path without
+	 *  changing their appearance. This is the case if the style is stroked with an opaque colour, so that
+	 *  overlapping parts do not show through each other, and is not filled. Filled paths are never combined
+	 *  as overlapping sub-paths of a single path can leave unfilled holes where separate paths would not.
+	 *  @param id ID of the style to query.
+	 *  @return True if paths with this style can be combined.
+	 */
+	public boolean isMergeable(int id)
+	{
+		Style style = styles.get(id);
+		return (style.fill == false) && (style.stroke) && ((style.strokeColour >>> 24) == 255);
+	}
+
+	// ------------------------------- Path construction methods -------------------------------
+
+	/** Starts a new path with the given style. This will be followed by one or more sub-paths each
+	 *  starting with <code>moveTo()</code> and finally by <code>endPath()</code>.
+	 *  @param id ID of the style with which the path is to be drawn.
+	 */
+	protected abstract void beginPath(int id);
+
+	/** Starts a new sub-path at the given location.
+	 *  @param x x coordinate of the start of the sub-path.
+	 *  @param y y coordinate of the start of the sub-path.
+	 */
+	protected abstract void moveTo(float x, float y);
+
+	/** Adds a straight line segment from the current point to the given location.
+	 *  @param x x coordinate of the end of the segment.
+	 *  @param y y coordinate of the end of the segment.
+	 */
+	protected abstract void lineTo(float x, float y);
+
+	/** Adds a cubic Bezier segment from the current point to the given location.
+	 *  @param cx1 x coordinate of the first control point.
+	 *  @param cy1 y coordinate of the first control point.
+	 *  @param cx2 x coordinate of the second control point.
+	 *  @param cy2 y coordinate of the second control point.
+	 *  @param x x coordinate of the end of the segment.
+	 *  @param y y coordinate of the end of the segment.
+	 */
+	protected abstract void curveTo(float cx1, float cy1, float cx2, float cy2, float x, float y);
+
+	/** Closes the current sub-path with a straight line back to its start.
+	 */
+	protected abstract void closePath();
+
+	/** Ends the current path.
+	 */
+	protected abstract void endPath();
+
+	// ---------------------------- Overridden graphics methods -------------------------------------
+
+	/** Starts a new shape made from a series of vertices.
+	 *  @param shapeKind Type of shape. <code>POINTS</code>, <code>LINES</code>, <code>TRIANGLES</code>
+	 *                   and <code>QUADS</code> are treated as groups of separate vertices. All other
+	 *                   types are treated as a single polygon.
+	 */
+	@Override
+	public void beginShape(int shapeKind)
+	{
+		kind             = shapeKind;
+		styleID          = getStyleID(fill, stroke);
+		isPathOpen       = false;
+		hasCurrentPoint  = false;
+		numVertices      = 0;
+		numCurveVertices = 0;
+	}
+
+	/** Adds a vertex to the shape being built.
+	 *  @param x x coordinate of the vertex.
+	 *  @param y y coordinate of the vertex.
+	 */
+	@Override
+	public void vertex(float x, float y)
+	{
+		if (styleID < 0)
+		{
+			return;
+		}
+		float tx = matrix.multX(x, y);
+		float ty = matrix.multY(x, y);
+		numCurveVertices = 0;
+
+		int groupSize = getGroupSize();
+		if (groupSize > 0)
+		{
+			groupX[numVertices % groupSize] = tx;
+			groupY[numVertices % groupSize] = ty;
+			numVertices++;
+			if (numVertices % groupSize == 0)
+			{
+				addGroup(groupSize);
+			}
+			return;
+		}
+
+		openPath();
+		if (hasCurrentPoint)
+		{
+			lineTo(tx, ty);
+		}
+		else
+		{
+			moveTo(tx, ty);
+			hasCurrentPoint = true;
+		}
+		numVertices++;
+	}
+
+	/** Adds a curve vertex to the shape being built. The segment between the second and third of
+	 *  each successive group of four curve vertices is added as a Bezier curve.
+	 *  @param x x coordinate of the curve vertex.
+	 *  @param y y coordinate of the curve vertex.
+	 */
+	@Override
+	public void curveVertex(float x, float y)
+	{
+		if ((styleID < 0) || (getGroupSize() > 0))
+		{
+			return;
+		}
+
+		curveX[0] = curveX[1];
+		curveY[0] = curveY[1];
+		curveX[1] = curveX[2];
+		curveY[1] = curveY[2];
+		curveX[2] = curveX[3];
+		curveY[2] = curveY[3];
+		curveX[3] = matrix.multX(x, y);
+		curveY[3] = matrix.multY(x, y);
+		numCurveVertices++;
+
+		if (numCurveVertices >= 4)
+		{
+			openPath();
+			if (hasCurrentPoint == false)
+			{
+				moveTo(curveX[1], curveY[1]);
+				hasCurrentPoint = true;
+			}
+
+			// Convert Catmull-Rom segment into its Bezier equivalent.
+			float t = (1-curveTightness)/6;
+			curveTo(curveX[1] + t*(curveX[2]-curveX[0]), curveY[1] + t*(curveY[2]-curveY[0]),
+					curveX[2] - t*(curveX[3]-curveX[1]), curveY[2] - t*(curveY[3]-curveY[1]),
+					curveX[2], curveY[2]);
+			numVertices++;
+		}
+	}
+
+	/** Completes the shape being built.
+	 *  @param mode Either <code>OPEN</code> or <code>CLOSE</code>.
+	 */
+	@Override
+	public void endShape(int mode)
+	{
+		if (isPathOpen)
+		{
+			if ((mode == PConstants.CLOSE) && (getGroupSize() == 0))
+			{
+				closePath();
+			}
+			endPath();
+			isPathOpen = false;
+		}
+		styleID = -1;
+	}
+
+	/** Adds an ellipse with the given bounding rectangle.
+	 *  @param x x coordinate of the top-left corner of the bounding rectangle.
+	 *  @param y y coordinate of the top-left corner of the bounding rectangle.
+	 *  @param w Width of the ellipse.
+	 *  @param h Height of the ellipse.
+	 */
+	@Override
+	protected void ellipseImpl(float x, float y, float w, float h)
+	{
+		int id = getStyleID(fill, stroke);
+		if (id >= 0)
+		{
+			beginPath(id);
+			addArc(x+w/2, y+h/2, w/2, h/2, 0, PConstants.TWO_PI, true);
+			closePath();
+			endPath();
+		}
+	}
+
+	/** Adds an arc of the ellipse with the given bounding rectangle.
+	 *  @param x x coordinate of the top-left corner of the bounding rectangle.
+	 *  @param y y coordinate of the top-left corner of the bounding rectangle.
+	 *  @param w Width of the ellipse.
+	 *  @param h Height of the ellipse.
+	 *  @param start Start angle of the arc in radians.
+	 *  @param stop End angle of the arc in radians.
+	 *  @param mode Arc mode, either <code>OPEN</code>, <code>CHORD</code> or <code>PIE</code>, or 0 for
+	 *              Processing's default of a pie shaped fill and open stroke.
+	 */
+	@Override
+	protected void arcImpl(float x, float y, float w, float h, float start, float stop, int mode)
+	{
+		float cx = x+w/2;
+		float cy = y+h/2;
+
+		if ((mode == 0) && (fill) && (stroke))
+		{
+			// Default arc needs separate paths for the fill and stroke.
+			addArcPath(getStyleID(true,false), cx, cy, w/2, h/2, start, stop, PConstants.PIE);
+			addArcPath(getStyleID(false,true), cx, cy, w/2, h/2, start, stop, PConstants.OPEN);
+		}
+		else if (mode == 0)
+		{
+			addArcPath(getStyleID(fill, stroke), cx, cy, w/2, h/2, start, stop, fill ? PConstants.PIE : PConstants.OPEN);
+		}
+		else
+		{
+			addArcPath(getStyleID(fill, stroke), cx, cy, w/2, h/2, start, stop, mode);
+		}
+	}
+
+	/** Adds a rectangle covering the whole graphics context filled with the background colour.
+	 */
+	@Override
+	protected void backgroundImpl()
+	{
+		int id = getStyleID(true, backgroundColor, false, 0, 0, 0, 0);
+		beginPath(id);
+		moveTo(0, 0);
+		lineTo(width, 0);
+		lineTo(width, height);
+		lineTo(0, height);
+		closePath();
+		endPath();
+	}
+
+	/** Reports that this graphics context is two dimensional.
+	 *  @return True.
+	 */
+	@Override
+	public boolean is2D()
+	{
+		return true;
+	}
+
+	/** Translates the coordinate system by the given x and y values.
+	 *  @param x x value to translate by.
+	 *  @param y y value to translate by.
+	 */
+	@Override
+	public void translate(float x, float y)
+	{
+		matrix.translate(x, y);
+	}
+
+	/** Scales the coordinate system in all directions.
+	 *  @param s value to scale all axes by.
+	 */
+	@Override
+	public void scale(float s)
+	{
+		matrix.scale(s);
+	}
+
+	/** Scales the coordinate system by the given x and y values.
+	 *  @param sx x value to scale by.
+	 *  @param sy y value to scale by.
+	 */
+	@Override
+	public void scale(float sx, float sy)
+	{
+		matrix.scale(sx, sy);
+	}
+
+	/** Rotates the coordinate system by the given angle.
+	 *  @param angle Angle in radians by which to rotate the coordinate system.
+	 */
+	@Override
+	public void rotate(float angle)
+	{
+		matrix.rotate(angle);
+	}
+
+	/** Shears the coordinate system along the x-axis by the given angle.
+	 *  @param angle Angle of shear in radians.
+	 */
+	@Override
+	public void shearX(float angle)
+	{
+		matrix.shearX(angle);
+	}
+
+	/** Shears the coordinate system along the y-axis by the given angle.
+	 *  @param angle Angle of shear in radians.
+	 */
+	@Override
+	public void shearY(float angle)
+	{
+		matrix.shearY(angle);
+	}
+
+	/** Applies the given affine transformation to the coordinate system.
+	 *  @param n00 Scaling and rotation element of first row.
+	 *  @param n01 Shear and rotation element of first row.
+	 *  @param n02 Translation in the x direction.
+	 *  @param n10 Shear and rotation element of second row.
+	 *  @param n11 Scaling and rotation element of second row.
+	 *  @param n12 Translation in the y direction.
+	 */
+	@Override
+	public void applyMatrix(float n00, float n01, float n02, float n10, float n11, float n12)
+	{
+		matrix.apply(n00, n01, n02, n10, n11, n12);
+	}
+
+	/** Stores a copy of the current transformation on the stack.
+	 */
+	@Override
+	public void pushMatrix()
+	{
+		matrixStack.add(matrix.get());
+	}
+
+	/** Retrieves the most recently stored transformation from the stack.
+	 */
+	@Override
+	public void popMatrix()
+	{
+		if (matrixStack.isEmpty())
+		{
+			System.err.println("Too many calls to popMatrix() in geometry sink.");
+			return;
+		}
+		matrix.set(matrixStack.remove(matrixStack.size()-1));
+	}
+
+	/** Resets the current transformation to the identity matrix.
+	 */
+	@Override
+	public void resetMatrix()
+	{
+		matrix.reset();
+	}
+
+	/** Provides a copy of the current transformation.
+	 *  @param target Matrix in which to store the transformation or null if a new one is to be created.
+	 *  @return Current transformation.
+	 */
+	@Override
+	public PMatrix2D getMatrix(PMatrix2D target)
+	{
+		if (target == null)
+		{
+			target = new PMatrix2D();
+		}
+		target.set(matrix);
+		return target;
+	}
+
+	/** Provides a copy of the current transformation as a 3d matrix.
+	 *  @param target Matrix in which to store the transformation or null if a new one is to be created.
+	 *  @return Current transformation.
+	 */
+	@Override
+	public PMatrix3D getMatrix(PMatrix3D target)
+	{
+		if (target == null)
+		{
+			target = new PMatrix3D();
+		}
+		target.set(matrix.m00, matrix.m01, 0, matrix.m02,
+				   matrix.m10, matrix.m11, 0, matrix.m12,
+				   0, 0, 1, 0,
+				   0, 0, 0, 1);
+		return target;
+	}
+
+	// ------------------------------- Package-wide methods -------------------------------
+
+	/** Sets the fill and stroke of the given graphics context to match the given style settings.
+	 *  @param graphics Graphics context to change.
+	 *  @param isFilled Indicates if shapes are to be filled.
+	 *  @param fillColour Colour of fill.
+	 *  @param isStroked Indicates if shapes are to be stroked.
+	 *  @param strokeColour Colour of stroke.
+	 *  @param weight Stroke weight.
+	 *  @param cap Stroke cap.
+	 *  @param join Stroke join.
+	 */
+	static void applyStyle(PGraphics graphics, boolean isFilled, int fillColour, boolean isStroked, int strokeColour, float weight, int cap, int join)
+	{
+		if (isFilled)
+		{
+			graphics.fill(fillColour);
+		}
+		else
+		{
+			graphics.noFill();
+		}
+
+		if (isStroked)
+		{
+			graphics.stroke(strokeColour);
+			graphics.strokeWeight(weight);
+			graphics.strokeCap(cap);
+			graphics.strokeJoin(join);
+		}
+		else
+		{
+			graphics.noStroke();
+		}
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Provides the ID of the style made from the current drawing settings.
+	 *  @param isFilled Indicates if the style is to be filled.
+	 *  @param isStroked Indicates if the style is to be stroked.
+	 *  @return Style ID, or -1 if neither filled nor stroked.
+	 */
+	private int getStyleID(boolean isFilled, boolean isStroked)
+	{
+		return getStyleID(isFilled, fillColor, isStroked, strokeColor, strokeWeight, strokeCap, strokeJoin);
+	}
+
+	/** Provides the ID of the style made from the given settings, adding it to the style table if new.
+	 *  @param isFilled Indicates if the style is to be filled.
+	 *  @param fillColour Colour of fill.
+	 *  @param isStroked Indicates if the style is to be stroked.
+	 *  @param strokeColour Colour of stroke.
+	 *  @param weight Stroke weight.
+	 *  @param cap Stroke cap.
+	 *  @param join Stroke join.
+	 *  @return Style ID, or -1 if neither filled nor stroked.
+	 */
+	private int getStyleID(boolean isFilled, int fillColour, boolean isStroked, int strokeColour, float weight, int cap, int join)
+	{
+		if ((isFilled == false) && (isStroked == false))
+		{
+			return -1;
+		}
+
+		lookup.fill         = isFilled;
+		lookup.fillColour   = isFilled ? fillColour : 0;
+		lookup.stroke       = isStroked;
+		lookup.strokeColour = isStroked ? strokeColour : 0;
+		lookup.weight       = isStroked ? weight : 0;
+		lookup.cap          = isStroked ? cap : 0;
+		lookup.join         = isStroked ? join : 0;
+
+		Integer id = styleIDs.get(lookup);
+		if (id == null)
+		{
+			id = Integer.valueOf(styles.size());
+			styles.add(lookup);
+			styleIDs.put(lookup, id);
+			lookup = new Style();
+		}
+		return id.intValue();
+	}
+
+	/** Starts the path for the current shape if it has not already been started.
+	 */
+	private void openPath()
+	{
+		if (isPathOpen == false)
+		{
+			beginPath(styleID);
+			isPathOpen = true;
+		}
+	}
+
+	/** Reports the number of vertices in each separate group for the current shape kind.
+	 *  @return Number of vertices in each group or 0 if all vertices form a single polygon.
+	 */
+	private int getGroupSize()
+	{
+		switch (kind)
+		{
+			case PConstants.POINTS:
+				return 1;
+			case PConstants.LINES:
+				return 2;
+			case PConstants.TRIANGLES:
+				return 3;
+			case PConstants.QUADS:
+				return 4;
+			default:
+				return 0;
+		}
+	}
+
+	/** Adds a completed group of vertices as a sub-path.
+	 *  @param groupSize Number of vertices in the group.
+	 */
+	private void addGroup(int groupSize)
+	{
+		openPath();
+		moveTo(groupX[0], groupY[0]);
+		if (groupSize == 1)
+		{
+			// Points are represented by a zero length line.
+			lineTo(groupX[0], groupY[0]);
+			return;
+		}
+		for (int i=1; i<groupSize; i++)
+		{
+			lineTo(groupX[i], groupY[i]);
+		}
+		if (groupSize > 2)
+		{
+			closePath();
+		}
+	}
+
+	/** Adds a complete path representing an elliptical arc.
+	 *  @param id Style ID of the path, or -1 if nothing to draw.
+	 *  @param cx x coordinate of the centre of the ellipse.
+	 *  @param cy y coordinate of the centre of the ellipse.
+	 *  @param rx Radius of the ellipse in the x direction.
+	 *  @param ry Radius of the ellipse in the y direction.
+	 *  @param start Start angle of the arc in radians.
+	 *  @param stop End angle of the arc in radians.
+	 *  @param mode Arc mode, either <code>OPEN</code>, <code>CHORD</code> or <code>PIE</code>.
+	 */
+	private void addArcPath(int id, float cx, float cy, float rx, float ry, float start, float stop, int mode)
+	{
+		if (id < 0)
+		{
+			return;
+		}
+		beginPath(id);
+		if (mode == PConstants.PIE)
+		{
+			moveTo(matrix.multX(cx,cy), matrix.multY(cx,cy));
+			addArc(cx, cy, rx, ry, start, stop, false);
+			closePath();
+		}
+		else
+		{
+			addArc(cx, cy, rx, ry, start, stop, true);
+			if (mode == PConstants.CHORD)
+			{
+				closePath();
+			}
+		}
+		endPath();
+	}
+
+	/** Adds an elliptical arc to the current path as a series of Bezier curves each spanning no more
+	 *  than a quarter of the ellipse.
+	 *  @param cx x coordinate of the centre of the ellipse.
+	 *  @param cy y coordinate of the centre of the ellipse.
+	 *  @param rx Radius of the ellipse in the x direction.
+	 *  @param ry Radius of the ellipse in the y direction.
+	 *  @param start Start angle of the arc in radians.
+	 *  @param stop End angle of the arc in radians.
+	 *  @param isNewSubpath Arc starts a new sub-path if true, or continues with a straight line from the current point if false.
+	 */
+	private void addArc(float cx, float cy, float rx, float ry, float start, float stop, boolean isNewSubpath)
+	{
+		int numSegments = Math.max(1, (int)Math.ceil(Math.abs(stop-start)/PConstants.HALF_PI - 0.001));
+		float inc = (stop-start)/numSegments;
+		float k = (float)(4*Math.tan(inc/4)/3);
+		if (Math.abs(inc - PConstants.HALF_PI) < 0.0001)
+		{
+			k = BEZIER_KAPPA;
+		}
+
+		float cosA = (float)Math.cos(start);
+		float sinA = (float)Math.sin(start);
+		float x = cx + rx*cosA;
+		float y = cy + ry*sinA;
+		if (isNewSubpath)
+		{
+			moveTo(matrix.multX(x,y), matrix.multY(x,y));
+		}
+		else
+		{
+			lineTo(matrix.multX(x,y), matrix.multY(x,y));
+		}
+
+		for (int i=1; i<=numSegments; i++)
+		{
+			float angle = start + i*inc;
+			float cosB = (float)Math.cos(angle);
+			float sinB = (float)Math.sin(angle);
+			float x1 = cx + rx*(cosA - k*sinA);
+			float y1 = cy + ry*(sinA + k*cosA);
+			float x2 = cx + rx*(cosB + k*sinB);
+			float y2 = cy + ry*(sinB - k*cosB);
+			x = cx + rx*cosB;
+			y = cy + ry*sinB;
+			curveTo(matrix.multX(x1,y1), matrix.multY(x1,y1), matrix.multX(x2,y2), matrix.multY(x2,y2), matrix.multX(x,y), matrix.multY(x,y));
+			cosA = cosB;
+			sinA = sinB;
+		}
+	}
+
+	// ---------------------------------- Nested classes ---------------------------------
+
+	/** Combination of drawing settings that define the appearance of a path.
+	 */
+	private static class Style
+	{
+		boolean fill, stroke;
+		int fillColour, strokeColour;
+		float weight;
+		int cap, join;
+
+		/** Reports whether this style is identical to another.
+		 *  @param obj Object to compare.
+		 *  @return True if the other object is a style with identical settings.
+		 */
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj instanceof Style == false)
+			{
+				return false;
+			}
+			Style other = (Style)obj;
+			return (fill == other.fill) && (stroke == other.stroke) && (fillColour == other.fillColour) &&
+				   (strokeColour == other.strokeColour) && (weight == other.weight) && (cap == other.cap) && (join == other.join);
+		}
+
+		/** Provides a hash code consistent with <code>equals()</code>.
+		 *  @return Hash code for this style.
+		 */
+		@Override
+		public int hashCode()
+		{
+			int hash = (fill ? 1 : 0) + (stroke ? 2 : 0);
+			hash = 31*hash + fillColour;
+			hash = 31*hash + strokeColour;
+			hash = 31*hash + Float.floatToIntBits(weight);
+			hash = 31*hash + cap;
+			return 31*hash + join;
+		}
+	}
+}
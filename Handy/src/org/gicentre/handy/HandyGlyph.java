@@ -0,0 +1,212 @@
+package org.gicentre.handy;
+
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PShape;
+
+//*****************************************************************************************
+/** A sketchy mark that is generated once and then drawn many times by translation and scaling.
+ *  This suits marks such as map symbols, icons and legend swatches that appear thousands of times
+ *  with the same shape. Rather than sketching every instance from scratch, a small number of
+ *  variants of the glyph are generated, each with its own random variation, and each instance
+ *  draws one of them. For example:
+ *  <pre>
+ *    glyph = new HandyGlyph(h, new HandyDrawable()
+ *    {
+ *      public void draw(HandyRenderer handy, PGraphics graphics)
+ *      {
+ *        graphics.fill(200,80,80);
+ *        handy.triangle(-5,4, 5,4, 0,-5);
+ *      }
+ *    }, 4);
+ *
+ *    // In the sketch's draw() method:
+ *    for (int i=0; i&lt;numSites; i++)
+ *    {
+ *      glyph.draw(siteX[i], siteY[i]);
+ *    }
+ *  </pre>
+ *  The glyph should be drawn around the origin, which is placed at the location of each instance.
+ *  It is drawn starting with the default fill and stroke settings, so should set any colours it needs.
+ *  On OpenGL renderers (P2D and P3D) each variant is held as a retained <code>PShape</code> so instances
+ *  are drawn without their geometry being tessellated again. On other renderers the stored sketchy
+ *  geometry of each variant is replayed. Variants are regenerated if the sketchy style of the renderer
+ *  given to the glyph changes. Because instances are scaled copies, their sketchiness and stroke weight
+ *  scale with them.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyGlyph
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private HandyRenderer style;				// Renderer providing the sketchy style and graphics context to draw into.
+	private HandyDrawable content;				// Drawing code for the glyph.
+	private HandyGeometryBuffer[] variants;		// Generated geometry of each variant, or null if not yet generated.
+	private PShape[] shapes;					// Retained shape of each variant, or null if not yet created.
+	private PGraphics shapeGraphics;			// Graphics context that created the retained shapes.
+	private long styleKey;						// Key identifying the style with which variants were generated.
+
+	// ---------------------------------- Constructors -----------------------------------
+
+	/** Creates a glyph with a single variant.
+	 *  @param style Renderer providing the sketchy style with which the glyph is generated. Instances are drawn
+	 *               into this renderer's graphics context.
+	 *  @param content Drawing code for the glyph, drawn around the origin.
+	 */
+	public HandyGlyph(HandyRenderer style, HandyDrawable content)
+	{
+		this(style, content, 1);
+	}
+
+	/** Creates a glyph with the given number of variants. Instances drawn at different locations use
+	 *  different variants, making repeated marks look less mechanical.
+	 *  @param style Renderer providing the sketchy style with which the glyph is generated. Instances are drawn
+	 *               into this renderer's graphics context.
+	 *  @param content Drawing code for the glyph, drawn around the origin.
+	 *  @param numVariants Number of differently sketched variants of the glyph.
+	 */
+	public HandyGlyph(HandyRenderer style, HandyDrawable content, int numVariants)
+	{
+		this.style   = style;
+		this.content = content;
+		if (numVariants < 1)
+		{
+			System.err.println("Glyph must have at least one variant, so "+numVariants+" ignored.");
+			numVariants = 1;
+		}
+		variants = new HandyGeometryBuffer[numVariants];
+		shapes   = new PShape[numVariants];
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Draws an instance of the glyph at the given location. The variant drawn depends on the location so
+	 *  that an instance keeps its appearance from frame to frame.
+	 *  @param x x coordinate of the instance.
+	 *  @param y y coordinate of the instance.
+	 */
+	public void draw(float x, float y)
+	{
+		draw(x, y, 1);
+	}
+
+	/** Draws a scaled instance of the glyph at the given location. The variant drawn depends on the location
+	 *  so that an instance keeps its appearance from frame to frame.
+	 *  @param x x coordinate of the instance.
+	 *  @param y y coordinate of the instance.
+	 *  @param scale Scaling applied to the glyph.
+	 */
+	public void draw(float x, float y, float scale)
+	{
+		long key = HandyRenderer.mixSeed(((long)Float.floatToIntBits(x) << 32) ^ Float.floatToIntBits(y));
+		draw(x, y, scale, (int)((key >>> 1) % variants.length));
+	}
+
+	/** Draws a scaled instance of the given variant of the glyph at the given location.
+	 *  @param x x coordinate of the instance.
+	 *  @param y y coordinate of the instance.
+	 *  @param scale Scaling applied to the glyph.
+	 *  @param variant Variant to draw, between 0 and one less than the number of variants.
+	 */
+	public void draw(float x, float y, float scale, int variant)
+	{
+		if ((variant < 0) || (variant >= variants.length))
+		{
+			System.err.println("Glyph variant "+variant+" does not exist.");
+			return;
+		}
+
+		long currentStyleKey = style.getCurrentStyle().getKey() ^ (style.isHandy() ? 1 : 0);
+		if (currentStyleKey != styleKey)
+		{
+			invalidate();
+			styleKey = currentStyleKey;
+		}
+		if (variants[variant] == null)
+		{
+			variants[variant] = generate(variant);
+		}
+
+		PGraphics graphics = style.getGraphics();
+		graphics.pushMatrix();
+		graphics.translate(x, y);
+		if (scale != 1)
+		{
+			graphics.scale(scale);
+		}
+
+		if (graphics.isGL())
+		{
+			if (shapeGraphics != graphics)
+			{
+				shapes = new PShape[variants.length];
+				shapeGraphics = graphics;
+			}
+			if (shapes[variant] == null)
+			{
+				shapes[variant] = variants[variant].createShape(graphics);
+			}
+			graphics.pushStyle();
+			graphics.shapeMode(PConstants.CORNER);
+			graphics.shape(shapes[variant]);
+			graphics.popStyle();
+		}
+		else
+		{
+			variants[variant].draw(graphics);
+		}
+		graphics.popMatrix();
+	}
+
+	/** Reports the number of variants of the glyph.
+	 *  @return Number of differently sketched variants.
+	 */
+	public int getNumVariants()
+	{
+		return variants.length;
+	}
+
+	/** Discards the generated variants so that they are regenerated when next drawn. This should be called
+	 *  if the glyph's drawing code would now draw something different.
+	 */
+	public void invalidate()
+	{
+		variants = new HandyGeometryBuffer[variants.length];
+		shapes   = new PShape[variants.length];
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Generates the sketchy geometry of the given variant.
+	 *  @param variant Variant to generate.
+	 *  @return Geometry of the variant.
+	 */
+	private HandyGeometryBuffer generate(int variant)
+	{
+		PGraphics graphics = style.getGraphics();
+		HandyGeometryBuffer geometry = new HandyGeometryBuffer(graphics.width, graphics.height);
+		HandyRenderer handy = new HandyRenderer(geometry);
+		handy.copySettings(style);
+		handy.setUseCulling(false);
+		handy.setSeed(HandyRenderer.mixSeed(variant));
+		content.draw(handy, geometry);
+		geometry.endDraw();
+		return geometry;
+	}
+}
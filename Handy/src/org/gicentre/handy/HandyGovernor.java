@@ -0,0 +1,168 @@
+package org.gicentre.handy;
+
+//*****************************************************************************************
+/** Controller that adjusts the quality of a <code>HandyRenderer</code>'s sketchy drawing in order to hold
+ *  a target frame rate. The time taken to generate each frame is measured and, if it is persistently too
+ *  long, the quality level is reduced by one step. Reductions draw each sketchy line with a single stroke
+ *  rather than two, widen the gap between hachure lines, draw ellipses with fewer steps and approximate
+ *  curved shapes with fewer vertices. If the frame time is persistently well inside the target, quality is
+ *  restored by one step. Different thresholds and waiting periods for lowering and raising quality stop
+ *  the appearance from oscillating between levels. A governor is created with the renderer's
+ *  <code>setTargetFrameRate()</code> method. If the renderer has a parent sketch, frames are timed
+ *  automatically, otherwise the renderer's <code>beginFrame()</code> and <code>endFrame()</code> methods
+ *  should be called at the start and end of each frame.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyGovernor
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	/** Lowest quality level, at which all reductions in quality are at their greatest. */
+	public static final int MAX_LEVEL = 4;
+
+	private static final float SLOW_FRACTION = 1.1f;	// Fraction of the target frame time above which a frame is too slow.
+	private static final float FAST_FRACTION = 0.7f;	// Fraction of the target frame time below which a frame is fast.
+	private static final int SLOW_FRAMES = 10;			// Number of consecutive slow frames before quality is lowered.
+	private static final int FAST_FRAMES = 60;			// Number of consecutive fast frames before quality is raised.
+	private static final float SMOOTHING = 0.2f;		// Weight given to each new frame time when smoothing.
+
+	private float targetFrameTime;		// Target time to generate each frame in milliseconds.
+	private float frameTime;			// Smoothed time taken to generate recent frames in milliseconds.
+	private long frameStart;			// Time at which the current frame started in nanoseconds, or 0 if not started.
+	private int level;					// Current quality level where 0 is full quality.
+	private int numSlowFrames;			// Number of consecutive frames slower than the target.
+	private int numFastFrames;			// Number of consecutive frames comfortably faster than the target.
+
+	// Quality settings derived from the level.
+	int numStrokes;						// Number of strokes used to draw each sketchy line.
+	float gapScale;						// Multiplier applied to the gap between hachure lines.
+	int ellipseStepReduction;			// Number of fewer steps used to draw an ellipse.
+	float curveStepScale;				// Multiplier applied to the step size when approximating curves.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates a governor with the given target frame rate, initially at full quality.
+	 *  @param frameRate Target number of frames per second.
+	 */
+	HandyGovernor(float frameRate)
+	{
+		setTargetFrameRate(frameRate);
+		setLevel(0);
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Marks the start of a frame. This is called automatically before a sketch's <code>draw()</code> method
+	 *  if the governor's renderer has a parent sketch.
+	 */
+	public void pre()
+	{
+		frameStart = System.nanoTime();
+	}
+
+	/** Marks the end of a frame, adjusting the quality level if necessary. This is called automatically after a
+	 *  sketch's <code>draw()</code> method if the governor's renderer has a parent sketch.
+	 */
+	public void draw()
+	{
+		if (frameStart == 0)
+		{
+			return;
+		}
+		float time = (System.nanoTime()-frameStart)/1e6f;
+		frameStart = 0;
+		frameTime = (frameTime <= 0) ? time : frameTime + SMOOTHING*(time-frameTime);
+
+		if (frameTime > targetFrameTime*SLOW_FRACTION)
+		{
+			numSlowFrames++;
+			numFastFrames = 0;
+		}
+		else if (frameTime < targetFrameTime*FAST_FRACTION)
+		{
+			numFastFrames++;
+			numSlowFrames = 0;
+		}
+		else
+		{
+			numSlowFrames = 0;
+			numFastFrames = 0;
+		}
+
+		if ((numSlowFrames >= SLOW_FRAMES) && (level < MAX_LEVEL))
+		{
+			setLevel(level+1);
+		}
+		else if ((numFastFrames >= FAST_FRAMES) && (level > 0))
+		{
+			setLevel(level-1);
+		}
+	}
+
+	/** Reports the current quality level.
+	 *  @return Quality level between 0 (full quality) and <code>MAX_LEVEL</code> (lowest quality).
+	 */
+	public int getLevel()
+	{
+		return level;
+	}
+
+	/** Reports the smoothed time taken to generate recent frames.
+	 *  @return Frame generation time in milliseconds, or 0 if no frames have yet been timed.
+	 */
+	public float getFrameTime()
+	{
+		return frameTime;
+	}
+
+	/** Reports the frame rate that the governor is trying to maintain.
+	 *  @return Target number of frames per second.
+	 */
+	public float getTargetFrameRate()
+	{
+		return 1000/targetFrameTime;
+	}
+
+	// ------------------------------- Package-wide methods -------------------------------
+
+	/** Sets the frame rate that the governor tries to maintain.
+	 *  @param frameRate Target number of frames per second.
+	 */
+	void setTargetFrameRate(float frameRate)
+	{
+		targetFrameTime = 1000/frameRate;
+		numSlowFrames = 0;
+		numFastFrames = 0;
+	}
+
+	/** Sets the quality level and the quality settings derived from it.
+	 *  @param level New quality level between 0 (full quality) and <code>MAX_LEVEL</code>.
+	 */
+	void setLevel(int level)
+	{
+		this.level = Math.max(0, Math.min(MAX_LEVEL, level));
+		numSlowFrames = 0;
+		numFastFrames = 0;
+
+		numStrokes           = (this.level >= 2) ? 1 : 2;
+		gapScale             = 1 + 0.5f*this.level;
+		ellipseStepReduction = this.level;
+		curveStepScale       = 1 + this.level;
+	}
+}
@@ -0,0 +1,322 @@
+package org.gicentre.handy;
+
+import java.util.ArrayList;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+//*****************************************************************************************
+/** Named layers of sketchy drawing that are rendered once into offscreen buffers and composited in
+ *  each frame. This allows heavy static content such as a sketchy background to be drawn once, with
+ *  only lightweight interactive content drawn in every frame. For example:
+ *  <pre>
+ *    layers = new HandyLayers(h);
+ *    layers.addLayer("map", new HandyDrawable()
+ *    {
+ *      public void draw(HandyRenderer handy, PGraphics graphics)
+ *      {
+ *        graphics.fill(180,200,160);
+ *        handy.shape(coastX, coastY);
+ *      }
+ *    });
+ *    layers.addLayer("cursor", cursorDrawable, false);
+ *
+ *    // In the sketch's draw() method:
+ *    background(255);
+ *    layers.draw();
+ *  </pre>
+ *  A cached layer is only redrawn when it is dirty. This happens when it is first drawn, when it is
+ *  invalidated with <code>invalidate()</code>, when its content version is changed with <code>setVersion()</code>,
+ *  when the renderer's sketchy style or the graphics context's fill and stroke settings differ from those
+ *  with which it was last drawn, or when the graphics context changes size. Each layer starts drawing with
+ *  the renderer's style as it was when <code>draw()</code> was called, so a layer can change the style
+ *  without affecting the layers above it. Layers are composited in the order they were added, without
+ *  any transformation of the graphics context. If the renderer has no parent sketch, offscreen buffers
+ *  cannot be created so all layers are drawn directly in every frame.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyLayers
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private HandyRenderer handy;			// Renderer used to draw each layer.
+	private ArrayList<Layer> layers;		// Layers in compositing order.
+	private int numRendered;				// Number of cached layers redrawn by the last call to draw().
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates an empty set of layers drawn with the given renderer. Layers are composited into the
+	 *  renderer's graphics context at the time <code>draw()</code> is called.
+	 *  @param handy Renderer used to draw the layers.
+	 */
+	public HandyLayers(HandyRenderer handy)
+	{
+		this.handy = handy;
+		layers = new ArrayList<Layer>();
+		if (handy.getParent() == null)
+		{
+			System.err.println("Renderer has no parent sketch, so layers will be drawn directly without caching.");
+		}
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Adds a cached layer on top of any existing layers.
+	 *  @param name Name identifying the layer.
+	 *  @param content Drawing code that draws the layer's content.
+	 */
+	public void addLayer(String name, HandyDrawable content)
+	{
+		addLayer(name, content, true);
+	}
+
+	/** Adds a layer on top of any existing layers. Layers that change in most frames, such as those
+	 *  following the mouse, are best not cached as they gain nothing from being drawn offscreen.
+	 *  @param name Name identifying the layer.
+	 *  @param content Drawing code that draws the layer's content.
+	 *  @param isCached Layer is drawn once into an offscreen buffer if true, or directly in every frame if false.
+	 */
+	public void addLayer(String name, HandyDrawable content, boolean isCached)
+	{
+		if (findLayer(name) != null)
+		{
+			System.err.println("Layer '"+name+"' already exists, so has been replaced.");
+			removeLayer(name);
+		}
+		layers.add(new Layer(name, content, isCached && (handy.getParent() != null)));
+	}
+
+	/** Removes the layer with the given name.
+	 *  @param name Name of the layer to remove.
+	 */
+	public void removeLayer(String name)
+	{
+		Layer layer = getLayer(name);
+		if (layer != null)
+		{
+			layers.remove(layer);
+		}
+	}
+
+	/** Marks the given layer as needing to be redrawn the next time the layers are drawn.
+	 *  @param name Name of the layer to invalidate.
+	 */
+	public void invalidate(String name)
+	{
+		Layer layer = getLayer(name);
+		if (layer != null)
+		{
+			layer.isDirty = true;
+		}
+	}
+
+	/** Marks all layers as needing to be redrawn the next time the layers are drawn.
+	 */
+	public void invalidateAll()
+	{
+		for (Layer layer : layers)
+		{
+			layer.isDirty = true;
+		}
+	}
+
+	/** Sets the version of the given layer's content. If this differs from the version with which the layer
+	 *  was last drawn, the layer will be redrawn the next time the layers are drawn. This allows a layer to be
+	 *  tied to, for example, a count of changes to the data it displays.
+	 *  @param name Name of the layer.
+	 *  @param version Version of the layer's content.
+	 */
+	public void setVersion(String name, long version)
+	{
+		Layer layer = getLayer(name);
+		if (layer != null)
+		{
+			layer.version = version;
+		}
+	}
+
+	/** Reports whether the given layer will be redrawn the next time the layers are drawn.
+	 *  Layers that are not cached are always redrawn.
+	 *  @param name Name of the layer.
+	 *  @return True if the layer will be redrawn.
+	 */
+	public boolean isDirty(String name)
+	{
+		Layer layer = getLayer(name);
+		return (layer != null) && layer.isDirty(getStateKey(), handy.getGraphics());
+	}
+
+	/** Reports the number of cached layers that were redrawn by the most recent call to <code>draw()</code>.
+	 *  @return Number of layers redrawn into their offscreen buffers.
+	 */
+	public int getNumRendered()
+	{
+		return numRendered;
+	}
+
+	/** Redraws any dirty layers and composites all layers in order into the renderer's graphics context.
+	 */
+	public void draw()
+	{
+		PGraphics graphics = handy.getGraphics();
+		HandyStyle baseStyle = handy.getStyle();
+		long stateKey = getStateKey();
+		numRendered = 0;
+
+		for (Layer layer : layers)
+		{
+			handy.setStyle(baseStyle);
+			if (layer.isCached == false)
+			{
+				graphics.pushStyle();
+				layer.content.draw(handy, graphics);
+				graphics.popStyle();
+				continue;
+			}
+
+			if (layer.isDirty(stateKey, graphics))
+			{
+				render(layer, graphics, stateKey);
+				numRendered++;
+			}
+
+			graphics.pushMatrix();
+			graphics.resetMatrix();
+			graphics.pushStyle();
+			graphics.imageMode(PConstants.CORNER);
+			graphics.noTint();
+			graphics.image(layer.buffer, 0, 0, graphics.width, graphics.height);
+			graphics.popStyle();
+			graphics.popMatrix();
+		}
+		handy.setStyle(baseStyle);
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Draws the given layer into its offscreen buffer, creating the buffer if necessary.
+	 *  @param layer Layer to draw.
+	 *  @param graphics Graphics context into which the layer will be composited.
+	 *  @param stateKey Key identifying the style settings with which the layer is drawn.
+	 */
+	private void render(Layer layer, PGraphics graphics, long stateKey)
+	{
+		if ((layer.buffer == null) || (layer.buffer.width != graphics.width) || (layer.buffer.height != graphics.height))
+		{
+			PApplet parent = handy.getParent();
+			layer.buffer = parent.createGraphics(graphics.width, graphics.height, parent.sketchRenderer());
+		}
+
+		layer.buffer.beginDraw();
+		layer.buffer.clear();
+		HandyRenderer.copyGraphics(graphics, layer.buffer);
+		handy.setGraphics(layer.buffer);
+		layer.content.draw(handy, layer.buffer);
+		handy.setGraphics(graphics);
+		layer.buffer.endDraw();
+
+		layer.isDirty = false;
+		layer.renderedVersion = layer.version;
+		layer.stateKey = stateKey;
+	}
+
+	/** Provides a key identifying the renderer's sketchy style and the graphics context's drawing settings.
+	 *  @return Key identifying the settings that layers inherit when they are drawn.
+	 */
+	private long getStateKey()
+	{
+		PGraphics graphics = handy.getGraphics();
+		long key = BoilCache.hash(handy.getCurrentStyle().getKey(), handy.isHandy() ? 1 : 0);
+		key = BoilCache.hash(key, (graphics.fill ? 1 : 0) | (graphics.stroke ? 2 : 0));
+		key = BoilCache.hash(key, graphics.fillColor);
+		key = BoilCache.hash(key, graphics.strokeColor);
+		return BoilCache.hash(key, graphics.strokeWeight);
+	}
+
+	/** Provides the layer with the given name, reporting an error if it does not exist.
+	 *  @param name Name of the layer.
+	 *  @return Layer with the given name or null if not found.
+	 */
+	private Layer getLayer(String name)
+	{
+		Layer layer = findLayer(name);
+		if (layer == null)
+		{
+			System.err.println("No layer called '"+name+"' found.");
+		}
+		return layer;
+	}
+
+	/** Provides the layer with the given name.
+	 *  @param name Name of the layer.
+	 *  @return Layer with the given name or null if not found.
+	 */
+	private Layer findLayer(String name)
+	{
+		for (Layer layer : layers)
+		{
+			if (layer.name.equals(name))
+			{
+				return layer;
+			}
+		}
+		return null;
+	}
+
+	// ---------------------------------- Nested classes ---------------------------------
+
+	/** A single named layer and its offscreen buffer.
+	 */
+	private static class Layer
+	{
+		final String name;					// Name identifying the layer.
+		final HandyDrawable content;		// Drawing code for the layer's content.
+		final boolean isCached;				// Indicates if the layer is drawn into an offscreen buffer.
+		PGraphics buffer;					// Offscreen buffer holding the layer, or null if not yet drawn.
+		boolean isDirty;					// Indicates if the layer has been explicitly invalidated.
+		long version;						// Current version of the layer's content.
+		long renderedVersion;				// Version of the content when the layer was last drawn.
+		long stateKey;						// Style settings with which the layer was last drawn.
+
+		/** Creates a layer that has yet to be drawn.
+		 *  @param name Name identifying the layer.
+		 *  @param content Drawing code for the layer's content.
+		 *  @param isCached Indicates if the layer is drawn into an offscreen buffer.
+		 */
+		Layer(String name, HandyDrawable content, boolean isCached)
+		{
+			this.name = name;
+			this.content = content;
+			this.isCached = isCached;
+			isDirty = true;
+		}
+
+		/** Reports whether the layer needs to be redrawn.
+		 *  @param currentStateKey Key identifying the style settings with which the layer would now be drawn.
+		 *  @param graphics Graphics context into which the layer is composited.
+		 *  @return True if the layer needs to be redrawn.
+		 */
+		boolean isDirty(long currentStateKey, PGraphics graphics)
+		{
+			return (isCached == false) || isDirty || (buffer == null) || (version != renderedVersion) ||
+			       (stateKey != currentStateKey) || (buffer.width != graphics.width) || (buffer.height != graphics.height);
+		}
+	}
+}
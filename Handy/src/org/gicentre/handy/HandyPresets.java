@@ -101,4 +101,44 @@ public class HandyPresets
 		handy.setRoughness(1.5f);
 		return handy;
 	}
+	
+	/** Creates a style for drawing in a pencil sketch style. This can be applied to any renderer
+	 *  with <code>setStyle()</code> to switch quickly between styles.
+	 *  @param parent Parent sketch that will do the drawing.
+	 *  @return Pencil sketch style.
+	 */
+	public static HandyStyle createPencilStyle(PApplet parent)
+	{
+		return createPencil(parent).getStyle();
+	}
+	
+	/** Creates a style for drawing in a coloured pencil sketch style. This can be applied to any
+	 *  renderer with <code>setStyle()</code> to switch quickly between styles.
+	 *  @param parent Parent sketch that will do the drawing.
+	 *  @return Coloured pencil sketch style.
+	 */
+	public static HandyStyle createColouredPencilStyle(PApplet parent)
+	{
+		return createColouredPencil(parent).getStyle();
+	}
+	
+	/** Creates a style for drawing in a watercolour and ink style. This can be applied to any
+	 *  renderer with <code>setStyle()</code> to switch quickly between styles.
+	 *  @param parent Parent sketch that will do the drawing.
+	 *  @return Watercolour and ink style.
+	 */
+	public static HandyStyle createWaterAndInkStyle(PApplet parent)
+	{
+		return createWaterAndInk(parent).getStyle();
+	}
+	
+	/** Creates a style for drawing in a felt-tip marker ('Sharpie') style. This can be applied to
+	 *  any renderer with <code>setStyle()</code> to switch quickly between styles.
+	 *  @param parent Parent sketch that will do the drawing.
+	 *  @return Marker style.
+	 */
+	public static HandyStyle createMarkerStyle(PApplet parent)
+	{
+		return createMarker(parent).getStyle();
+	}
 }
\ No newline at end of file
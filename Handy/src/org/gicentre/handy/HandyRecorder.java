@@ -1,11 +1,22 @@
 package org.gicentre.handy;
 
+import java.util.ArrayList;
+
 import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PFont;
 import processing.core.PGraphics;
+import processing.core.PImage;
+import processing.core.PMatrix3D;
 
 // *****************************************************************************************
 /** A PGraphics class for rendering in a sketchy style. An object of this type can be passed
- *  to a sketch's <code>beginRecord(PGraphics)</code> method. 
+ *  to a sketch's <code>beginRecord(PGraphics)</code> method. Drawing commands can optionally be
+ *  stored in a <code>HandyCommandBuffer</code> rather than drawn, so that they can be replayed
+ *  later without re-running the code that generated them. Alternatively, sketchy graphics can be
+ *  generated on a background thread so that the work is shared with the sketch's animation thread.
+ *  A recorder can also wrap another graphics context, such as an offscreen buffer, in which case
+ *  it can be drawn to directly and non-sketchy drawing is passed straight to the wrapped context.
 *   @author Jo Wood, giCentre, City University London.
 *   @version 2.0, 3rd April, 2016.
 */ 
@@ -30,6 +41,14 @@ public class HandyRecorder extends PGraphics
 	// -------------------------------- Object Variables ---------------------------------  
 
 	private HandyRenderer h;
+	private PGraphics target;					// Wrapped graphics context or null if used as a recorder.
+	private HandyCommandBuffer commands;		// Stores drawing commands when recording, otherwise null.
+	private PMatrix3D matrix;					// Current model to screen transformation.
+	private ArrayList<PMatrix3D> matrixStack;	// Transformations stored with pushMatrix().
+	private boolean useBackground;				// Determines whether sketchy graphics are generated on a background thread.
+	private BackgroundRenderer background;		// Generates sketchy graphics in the background if requested.
+	private boolean isBackgroundFrame;			// Indicates that the current frame is being recorded for the background thread.
+	private PGraphics rendererGraphics;			// Renderer's own graphics context while it draws into a wrapped context.
 	
 	// --------------------------------- Constructors ------------------------------------  
 
@@ -40,6 +59,8 @@ public class HandyRecorder extends PGraphics
 	public HandyRecorder(PApplet parentSketch)
 	{
 		h = new HandyRenderer(parentSketch);
+		matrix = new PMatrix3D();
+		matrixStack = new ArrayList<PMatrix3D>();
 	}
 	
 	/** Creates a new sketchy graphics context associated with the given handy renderer. This
@@ -49,9 +70,187 @@ public class HandyRecorder extends PGraphics
 	public HandyRecorder(HandyRenderer h)
 	{
 		this.h = h;
+		matrix = new PMatrix3D();
+		matrixStack = new ArrayList<PMatrix3D>();
+	}
+
+	/** Creates a new sketchy graphics context that wraps the given graphics context. Rather than being
+	 *  passed to a sketch's <code>beginRecord()</code> method, this version is drawn to directly, with
+	 *  sketchy output drawn into the wrapped context by the given handy renderer. Drawing and changes
+	 *  in style and transformation are passed on to the wrapped context, so when sketchy rendering is
+	 *  turned off this behaves as the wrapped context would. Calling <code>beginDraw()</code> and
+	 *  <code>endDraw()</code> on this object will begin and end drawing in the wrapped context. The
+	 *  renderer only draws into the wrapped context between these calls, after which it draws into
+	 *  its own graphics context again.
+	 *  @param h Handy renderer to use when drawing sketchy graphics.
+	 *  @param target Graphics context, such as a <code>JAVA2D</code> or <code>P2D</code> offscreen 
+	 *                buffer, into which all drawing is to be directed.
+	 */
+	public HandyRecorder(HandyRenderer h, PGraphics target)
+	{
+		this(h);
+		setSize(target.width, target.height);
+		defaultSettings();
+
+		// Only start passing on settings once the defaults have been set so the wrapped context is not changed.
+		this.target = target;
 	}
 	
+	// ------------------------------------ Methods -----------------------------------------------
+
+	/** Starts recording drawing commands into the given command buffer. While recording, primitives,
+	 *  changes in drawing style and transformations are added to the buffer rather than drawn. The
+	 *  buffer can then be replayed with <code>HandyCommandBuffer.replay()</code> as often as required.
+	 *  @param commands Buffer into which commands are to be recorded. Any existing commands in the
+	 *                  buffer are retained, so call its <code>clear()</code> method to start afresh.
+	 */
+	public void startRecording(HandyCommandBuffer commands)
+	{
+		this.commands = commands;
+	}
+
+	/** Stops recording drawing commands. Subsequent commands will be drawn as normal.
+	 *  @return The buffer containing the recorded commands, or null if no recording was taking place.
+	 */
+	public HandyCommandBuffer stopRecording()
+	{
+		if (isBackgroundFrame)
+		{
+			return null;
+		}
+		HandyCommandBuffer recorded = commands;
+		commands = null;
+		return recorded;
+	}
+
+	/** Reports whether or not drawing commands are currently being recorded into a command buffer.
+	 *  @return True if commands are being recorded.
+	 */
+	public boolean isRecording()
+	{
+		return (commands != null) && (isBackgroundFrame == false);
+	}
+
+	/** Determines whether or not sketchy graphics are generated on a background thread. If true, the
+	 *  commands drawn between <code>beginRecord()</code> and <code>endRecord()</code> are recorded and
+	 *  passed to a background thread which generates the sketchy geometry and draws it into an offscreen
+	 *  image while the sketch continues with its next frame. The most recently completed image is drawn
+	 *  into the sketch when <code>endRecord()</code> is called, so sketchy output appears a frame or so
+	 *  after it was requested and on top of anything else drawn in that frame. Frames are skipped rather
+	 *  than queued if the background thread cannot keep up. This is only suitable for 2d sketches that
+	 *  call <code>beginRecord()</code> before applying any transformations in each frame. Background
+	 *  rendering is not used while commands are being recorded with <code>startRecording()</code>.
+	 *  @param useBackground Sketchy graphics generated on a background thread if true.
+	 */
+	public void setBackgroundRendering(boolean useBackground)
+	{
+		this.useBackground = useBackground;
+		if ((useBackground == false) && (background != null))
+		{
+			background.stop();
+			background = null;
+		}
+	}
+
+	/** Reports whether or not sketchy graphics are being generated on a background thread.
+	 *  @return True if background rendering is in use.
+	 */
+	public boolean isBackgroundRendering()
+	{
+		return useBackground;
+	}
+
+	/** Provides the graphics context into which drawing should be directed given the current sketchy
+	 *  setting. When this recorder wraps another graphics context and the handy renderer is not drawing
+	 *  in a sketchy style, the wrapped context is returned so that drawing commands can be sent directly
+	 *  to it without passing through this recorder. Otherwise this recorder is returned. This can be 
+	 *  called once at the start of each frame to avoid any overhead when sketchy rendering is turned off.
+	 *  @return Graphics context into which drawing should be directed.
+	 */
+	public PGraphics getActiveGraphics()
+	{
+		if ((target != null) && (h.isHandy() == false) && (commands == null))
+		{
+			return target;
+		}
+		return this;
+	}
+
 	// ---------------------------- Overridden graphics methods -------------------------------------
+
+	// Transformations are always tracked so that the handy renderer can adapt to on-screen scale. They
+	// only need adding to a command buffer when recording, and other settings such as the camera only
+	// need passing on when wrapping a graphics context, as otherwise the parent sketch or wrapped graphics
+	// context handles them.
+	
+	/** Starts tracking transformations applied by the parent sketch. This is called when recording
+	 *  begins and passes the tracked transformation to the handy renderer so that it can adapt its
+	 *  sketchiness to on-screen scale and skip off-screen primitives if requested to do so. If using
+	 *  background rendering, this also starts recording the frame to be passed to the background thread.
+	 */
+	@Override
+	public void beginDraw()
+	{
+		if (target != null)
+		{
+			target.beginDraw();
+			rendererGraphics = h.getGraphics();
+			h.setGraphics(target);
+		}
+
+		if ((h.getGraphics() == null) || (HandyRenderer.getMatrix(h.getGraphics(), null, matrix) == null))
+		{
+			matrix.reset();
+		}
+		matrixStack.clear();
+		h.setTransform(matrix);
+
+		if ((useBackground) && (commands == null))
+		{
+			PGraphics graphics = h.getGraphics();
+			if (h.getParent() == null)
+			{
+				System.err.println("Background rendering requires a HandyRenderer associated with a sketch.");
+				useBackground = false;
+				return;
+			}
+			if ((background == null) || (background.isSize(graphics.width, graphics.height) == false))
+			{
+				if (background != null)
+				{
+					background.stop();
+				}
+				background = new BackgroundRenderer(h.getParent(), graphics.width, graphics.height);
+			}
+			commands = background.startFrame();
+			isBackgroundFrame = true;
+		}
+	}
+
+	/** Stops tracking transformations applied by the parent sketch. This is called when recording ends.
+	 *  If using background rendering, this passes the recorded frame to the background thread and draws
+	 *  the most recently completed frame.
+	 */
+	@Override
+	public void endDraw()
+	{
+		h.setTransform(null);
+
+		if (isBackgroundFrame)
+		{
+			commands = null;
+			isBackgroundFrame = false;
+			background.submitFrame(h);
+			background.draw(h.getGraphics());
+		}
+
+		if (target != null)
+		{
+			target.endDraw();
+			h.setGraphics(rendererGraphics);
+			rendererGraphics = null;
+		}
+	}
 	
 	/** Draws 2D point at the given location. Currently this draws the point in the same style as the
 	 *  default Processing renderer.
@@ -61,10 +260,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void point(float x, float y)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.point(x, y);
+		}
+		else if (h.isHandy())
 		{
 			h.point(x, y);
 		}
+		else if (target != null)
+		{
+			target.point(x, y);
+		}
 		else
 		{
 			super.point(x, y);
@@ -80,10 +288,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void point(float x, float y, float z)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.point(x, y, z);
+		}
+		else if (h.isHandy())
 		{
 			h.point(x, y, z);
 		}
+		else if (target != null)
+		{
+			target.point(x, y, z);
+		}
 		else
 		{
 			super.point(x, y, z);
@@ -101,10 +318,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void ellipse(float x, float y, float eWidth, float eHeight)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.ellipse(x, y, eWidth, eHeight);
+		}
+		else if (h.isHandy())
 		{
 			h.ellipse(x, y, eWidth, eHeight);
 		}
+		else if (target != null)
+		{
+			target.ellipse(x, y, eWidth, eHeight);
+		}
 		else
 		{
 			super.ellipse(x, y, eWidth, eHeight);
@@ -122,10 +348,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void rect(float x, float y, float rWidth, float rHeight)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.rect(x, y, rWidth, rHeight);
+		}
+		else if (h.isHandy())
 		{
 			h.rect(x, y, rWidth, rHeight);
 		}
+		else if (target != null)
+		{
+			target.rect(x, y, rWidth, rHeight);
+		}
 		else
 		{
 			super.rect(x, y, rWidth, rHeight);
@@ -143,10 +378,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void triangle(float x1, float y1, float x2, float y2, float x3, float y3)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.triangle(x1,y1,x2,y2,x3,y3);
+		}
+		else if (h.isHandy())
 		{
 			h.triangle(x1,y1,x2,y2,x3,y3);
 		}
+		else if (target != null)
+		{
+			target.triangle(x1, y1, x2, y2, x3, y3);
+		}
 		else
 		{
 			super.triangle(x1, y1, x2, y2, x3, y3);
@@ -167,10 +411,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void quad(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.quad(x1,y1,x2,y2,x3,y3,x4,y4);
+		}
+		else if (h.isHandy())
 		{
 			h.quad(x1,y1,x2,y2,x3,y3,x4,y4);
 		}
+		else if (target != null)
+		{
+			target.quad(x1, y1, x2, y2, x3, y3, x4, y4);
+		}
 		else
 		{
 			super.quad(x1, y1, x2, y2, x3, y3, x4, y4);
@@ -189,10 +442,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void arc(float x, float y, float aWidth, float aHeight, float start, float stop)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.arc(x, y, aWidth, aHeight, start, stop);
+		}
+		else if (h.isHandy())
 		{
 			h.arc(x, y, aWidth, aHeight, start, stop);
 		}
+		else if (target != null)
+		{
+			target.arc(x, y, aWidth, aHeight, start, stop);
+		}
 		else
 		{
 			super.arc(x, y, aWidth, aHeight, start, stop);
@@ -205,10 +467,18 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void beginShape()
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.beginShape(PConstants.POLYGON);
+		}
+		else if (h.isHandy())
 		{
 			h.beginShape();
 		}
+		else if (target != null)
+		{
+			target.beginShape();
+		}
 		else
 		{
 			super.beginShape();
@@ -222,10 +492,18 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void beginShape(int mode)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.beginShape(mode);
+		}
+		else if (h.isHandy())
 		{
 			h.beginShape(mode);
 		}
+		else if (target != null)
+		{
+			target.beginShape(mode);
+		}
 		else
 		{
 			super.beginShape(mode);
@@ -240,10 +518,18 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void vertex(float x, float y)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.vertex(x, y);
+		}
+		else if (h.isHandy())
 		{
 			h.vertex(x, y);
 		}
+		else if (target != null)
+		{
+			target.vertex(x, y);
+		}
 		else
 		{
 			super.vertex(x, y);
@@ -259,10 +545,18 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void vertex(float x, float y, float z)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.vertex(x, y, z);
+		}
+		else if (h.isHandy())
 		{
 			h.vertex(x, y, z);
 		}
+		else if (target != null)
+		{
+			target.vertex(x, y, z);
+		}
 		else
 		{
 			super.vertex(x, y, z);
@@ -277,10 +571,18 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void curveVertex(float x, float y)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.curveVertex(x,y);
+		}
+		else if (h.isHandy())
 		{
 			h.curveVertex(x,y);
 		}
+		else if (target != null)
+		{
+			target.curveVertex(x,y);
+		}
 		else
 		{
 			super.curveVertex(x,y);
@@ -296,10 +598,18 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void curveVertex(float x, float y, float z)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.curveVertex(x,y,z);
+		}
+		else if (h.isHandy())
 		{
 			h.curveVertex(x,y,z);
 		}
+		else if (target != null)
+		{
+			target.curveVertex(x, y, z);
+		}
 		else
 		{
 			super.curveVertex(x, y, z);
@@ -313,10 +623,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void endShape()
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.endShape(PConstants.OPEN);
+		}
+		else if (h.isHandy())
 		{
 			h.endShape();
 		}
+		else if (target != null)
+		{
+			target.endShape();
+		}
 		else
 		{
 			super.endShape();
@@ -329,10 +648,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void endShape(int mode) 
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.endShape(mode);
+		}
+		else if (h.isHandy())
 		{
 			h.endShape(mode);
 		}
+		else if (target != null)
+		{
+			target.endShape(mode);
+		}
 		else
 		{
 			super.endShape(mode);
@@ -345,10 +673,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void box(float bSize)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.box(bSize, bSize, bSize);
+		}
+		else if (h.isHandy())
 		{
 			h.box(bSize);
 		}
+		else if (target != null)
+		{
+			target.box(bSize);
+		}
 		else
 		{
 			super.box(bSize);
@@ -363,10 +700,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void box(float bWidth, float bHeight, float bDepth)
 	{
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.box(bWidth, bHeight, bDepth);
+		}
+		else if (h.isHandy())
 		{
 			h.box(bWidth, bHeight, bDepth);
 		}
+		else if (target != null)
+		{
+			target.box(bWidth, bHeight, bDepth);
+		}
 		else
 		{
 			super.box(bWidth, bHeight, bDepth);
@@ -382,10 +728,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void line(float x1, float y1, float x2, float y2)
 	{	
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.line(x1,y1, x2,y2);
+		}
+		else if (h.isHandy())
 		{
 			h.line(x1,y1, x2,y2);
 		}
+		else if (target != null)
+		{
+			target.line(x1, y1, x2, y2);
+		}
 		else
 		{
 			super.line(x1, y1, x2, y2);
@@ -403,10 +758,19 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void line(float x1, float y1, float z1, float x2, float y2, float z2)
 	{	
-		if (h.isHandy())
+		if (commands != null)
+		{
+			commands.style(h.getGraphics(), h);
+			commands.line(x1, y1, z1, x2, y2, z2);
+		}
+		else if (h.isHandy())
 		{
 			h.line(x1, y1, z1, x2, y2, z2);
 		}
+		else if (target != null)
+		{
+			target.line(x1, y1, z1, x2, y2, z2);
+		}
 		else
 		{
 			super.line(x1, y1, z1, x2, y2, z2);
@@ -417,21 +781,32 @@ public class HandyRecorder extends PGraphics
 	
 	// These are mostly ignored as the default PGraphics equivalent reports an error message that they
 	// are not available in the renderer. A HandyGraphics object is normally created in a PApplet
-	// that does implement these methods, so there we just override to prevent the incorrect error message. 
+	// that does implement these methods, so there we just override to prevent the incorrect error message.
+	// Transformations are tracked so that the handy renderer can adapt to on-screen scale and are
+	// stored when recording commands so that they can be reapplied on replay. 
 	
-	/** Would translate the coordinate system by the given x and y values but ignored here as this will
-	 *  be handled by the parent sketch.
+	/** Tracks a translation of the coordinate system by the given x and y values. Drawing in the
+	 *  translated coordinate system will be handled by the parent sketch.
 	 * @param x x value to translate by.
 	 * @param y y value to translate by.
 	 */
 	@Override
 	public void translate(float x, float y)
 	{	
-		// Do nothing.
+		matrix.translate(x,y);
+		if (target != null)
+		{
+			target.translate(x,y);
+		}
+
+		if (commands != null)
+		{
+			commands.translate(x,y);
+		}
 	}
 	
-	/** Would translate the coordinate system by the given x and y values but ignored here as this 
-	 *  will be handled by the parent sketch.
+	/** Tracks a translation of the coordinate system by the given x, y and z values. Drawing in the
+	 *  translated coordinate system will be handled by the parent sketch.
 	 *  @param x x value to translate by.
 	 *  @param y y value to translate by.
 	 *  @param z z value to translate by.
@@ -439,32 +814,59 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void translate(float x, float y, float z)
 	{	
-		// Do nothing.
+		matrix.translate(x,y,z);
+		if (target != null)
+		{
+			target.translate(x,y,z);
+		}
+
+		if (commands != null)
+		{
+			commands.translate(x,y,z);
+		}
 	}
 	
-	/** Would scale the coordinate system in all directions but ignored here as this will be handled
-	 *  by the parent sketch.
+	/** Tracks a scaling of the coordinate system in all directions. Drawing in the scaled coordinate
+	 *  system will be handled by the parent sketch.
 	 *  @param s value to scale all axes by.
 	 */
 	@Override
 	public void scale(float s)
 	{	
-		// Do nothing.
+		matrix.scale(s);
+		if (target != null)
+		{
+			target.scale(s);
+		}
+
+		if (commands != null)
+		{
+			commands.scale(s);
+		}
 	}
 	
-	/** Would scale the coordinate system by the given x and y values but ignored here as this will be
-	 *  handled by the parent sketch.
+	/** Tracks a scaling of the coordinate system by the given x and y values. Drawing in the scaled
+	 *  coordinate system will be handled by the parent sketch.
 	 *  @param sx x value to scale by.
 	 *  @param sy y value to scale by.
 	 */
 	@Override
 	public void scale(float sx, float sy)
 	{	
-		// Do nothing.
+		matrix.scale(sx,sy);
+		if (target != null)
+		{
+			target.scale(sx,sy);
+		}
+
+		if (commands != null)
+		{
+			commands.scale(sx,sy);
+		}
 	}
 	
-	/** Would scale the coordinate system by the given x, y and z values but ignored here as this will be
-	 *  handled by the parent sketch.
+	/** Tracks a scaling of the coordinate system by the given x, y and z values. Drawing in the scaled
+	 *  coordinate system will be handled by the parent sketch.
 	 *  @param sx x value to scale by.
 	 *  @param sy y value to scale by.
 	 *  @param sz z value to scale by.
@@ -472,87 +874,175 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void scale(float sx, float sy, float sz)
 	{	
-		// Do nothing.
+		matrix.scale(sx,sy,sz);
+		if (target != null)
+		{
+			target.scale(sx,sy,sz);
+		}
+
+		if (commands != null)
+		{
+			commands.scale(sx,sy,sz);
+		}
 	}
 	
-	/** Would rotate the coordinate system by the given angle but ignored here as this will be
-	 *  handled by the parent sketch.
-	 *  @param angle Angle by which to rotate the coordinate system (ignored).
+	/** Tracks a rotation of the coordinate system by the given angle. Drawing in the rotated
+	 *  coordinate system will be handled by the parent sketch.
+	 *  @param angle Angle by which to rotate the coordinate system.
 	 */
 	@Override
 	public void rotate(float angle)
 	{	
-		// Do nothing.
+		matrix.rotateZ(angle);
+		if (target != null)
+		{
+			target.rotate(angle);
+		}
+
+		if (commands != null)
+		{
+			commands.rotate(angle);
+		}
 	}
 	
-	/** Would rotate the coordinate system around the x-axis in 3d space but ignored here as this
-	 *  will be handled by the parent sketch.
-	 *  @param angle Angle by which to rotate around the x-axis (ignored).
+	/** Tracks a rotation of the coordinate system around the x-axis in 3d space. Drawing in the
+	 *  rotated coordinate system will be handled by the parent sketch.
+	 *  @param angle Angle by which to rotate around the x-axis.
 	 */
 	@Override
 	public void rotateX(float angle)
 	{	
-		// Do nothing.
+		matrix.rotateX(angle);
+		if (target != null)
+		{
+			target.rotateX(angle);
+		}
+
+		if (commands != null)
+		{
+			commands.rotateX(angle);
+		}
 	}
 	
-	/** Would rotate the coordinate system around the y-axis in 3d space but ignored here as this
-	 *  will be handled by the parent sketch.
-	 *  @param angle Angle by which to rotate around the y-axis (ignored).
+	/** Tracks a rotation of the coordinate system around the y-axis in 3d space. Drawing in the
+	 *  rotated coordinate system will be handled by the parent sketch.
+	 *  @param angle Angle by which to rotate around the y-axis.
 	 */
 	@Override
 	public void rotateY(float angle)
 	{	
-		// Do nothing.
+		matrix.rotateY(angle);
+		if (target != null)
+		{
+			target.rotateY(angle);
+		}
+
+		if (commands != null)
+		{
+			commands.rotateY(angle);
+		}
 	}
 	
-	/** Would rotate the coordinate system around the z-axis in 3d space but ignored here as this
-	 *  will be handled by the parent sketch.
-	 *  @param angle Angle by which to rotate around the z-axis (ignored).
+	/** Tracks a rotation of the coordinate system around the z-axis in 3d space. Drawing in the
+	 *  rotated coordinate system will be handled by the parent sketch.
+	 *  @param angle Angle by which to rotate around the z-axis.
 	 */
 	@Override
 	public void rotateZ(float angle)
 	{	
-		// Do nothing.
+		matrix.rotateZ(angle);
+		if (target != null)
+		{
+			target.rotateZ(angle);
+		}
+
+		if (commands != null)
+		{
+			commands.rotateZ(angle);
+		}
 	}
 	
-	/** Would rotate the coordinate system by the given angles but ignored here as this will be
-	 *  handled by the parent sketch.
-	 *  @param angle  Angle of rotation  (ignored).
-	 *  @param x x component of vector around which to rotate (ignored)
-	 *  @param y y component of vector around which to rotate (ignored)
-	 *  @param z z component of vector around which to rotate (ignored)
+	/** Tracks a rotation of the coordinate system around the given vector. Drawing in the rotated
+	 *  coordinate system will be handled by the parent sketch.
+	 *  @param angle  Angle of rotation.
+	 *  @param x x component of vector around which to rotate.
+	 *  @param y y component of vector around which to rotate.
+	 *  @param z z component of vector around which to rotate.
 	 */
 	@Override
 	public void rotate(float angle, float x, float y, float z)
 	{	
-		// Do nothing.
+		matrix.rotate(angle,x,y,z);
+		if (target != null)
+		{
+			target.rotate(angle,x,y,z);
+		}
+
+		if (commands != null)
+		{
+			commands.rotate(angle,x,y,z);
+		}
 	}
 	
-	/** Would store a copy of the current transform matrix on the stack but ignored here as this
-	 *  will be handled by the parent sketch. 
+	/** Stores a copy of the tracked transform matrix on the stack. Drawing will be handled by the
+	 *  parent sketch.
 	 */
 	@Override
 	public void pushMatrix()
 	{	
-		// Do nothing.
+		matrixStack.add(matrix.get());
+		if (target != null)
+		{
+			target.pushMatrix();
+		}
+
+		if (commands != null)
+		{
+			commands.pushMatrix();
+		}
 	}
 	
-	/** Would retrieve a copy of the current transform matrix from the stack but ignored here as this
-	 *  will be handled by the parent sketch. 
+	/** Retrieves a copy of the tracked transform matrix from the stack. Drawing will be handled by
+	 *  the parent sketch.
 	 */
 	@Override
 	public void popMatrix()
 	{	
-		// Do nothing.
+		if (matrixStack.isEmpty())
+		{
+			System.err.println("Too many calls to popMatrix() in HandyRecorder.");
+		}
+		else
+		{
+			matrix.set(matrixStack.remove(matrixStack.size()-1));
+		}
+		if (target != null)
+		{
+			target.popMatrix();
+		}
+
+		if (commands != null)
+		{
+			commands.popMatrix();
+		}
 	}
 	
-	/** Would reset the current transform matrix to its default transform but ignored here as this
-	 *  will be handled by the parent sketch.
+	/** Resets the tracked transform matrix to its default transform. Drawing will be handled by the
+	 *  parent sketch.
 	 */
 	@Override
 	public void resetMatrix()
 	{	
-		// Do nothing.
+		matrix.reset();
+		if (target != null)
+		{
+			target.resetMatrix();
+		}
+
+		if (commands != null)
+		{
+			commands.resetMatrix();
+		}
 	}
 	
 	/** Would print the current transform matrix but ignored here as this will be handled by the parent sketch.
@@ -560,7 +1050,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void printMatrix()
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.printMatrix();
+		}
 	}
 	
 	
@@ -569,7 +1062,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void beginCamera()
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.beginCamera();
+		}
 	}
 	
 	/** Would allow the default 3d camera position to be set but ignored here as this will be handled by the parent sketch.
@@ -577,7 +1073,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void camera()
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.camera();
+		}
 	}
 	
 	/** Would end 3d camera position definition but ignored here as this will be handled by the parent sketch.
@@ -585,7 +1084,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void endCamera()
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.endCamera();
+		}
 	}
 	
 	/** Would allow the view frustum (clipping object) to be set but ignored here as this will be handled by the parent sketch.
@@ -593,7 +1095,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void frustum(float left, float right, float bottom, float top, float near, float far)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.frustum(left,right,bottom,top,near,far);
+		}
 	}
 	
 	/** Would apply the default perspective settings but ignored here as this will be handled by the parent sketch.
@@ -601,7 +1106,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void perspective()
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.perspective();
+		}
 	}
 	
 	/** Would allow perspective settings to be changed but ignored here as this will be handled by the parent sketch.
@@ -609,7 +1117,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void perspective(float fovy, float aspect, float zNear, float zFar)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.perspective(fovy,aspect,zNear,zFar);
+		}
 	}
 	
 	/** Would set the blend mode for this graphics context but ignores it in this case as this will
@@ -618,7 +1129,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void blendMode(int mode)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.blendMode(mode);
+		}
 	}
 	
 	/** Would set the default 3d lighting for this graphics context but ignores it in this case as this will
@@ -627,7 +1141,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void lights()
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.lights();
+		}
 	}
 	
 	/** Would set a point light source for this graphics context but ignores it in this case as this will
@@ -636,7 +1153,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void pointLight(float v1, float v2, float v3, float x, float y, float z)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.pointLight(v1,v2,v3,x,y,z);
+		}
 	}
 	
 	/** Would set a ambient light source for this graphics context but ignores it in this case as this will
@@ -645,7 +1165,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void ambientLight(float v1, float v2, float v3)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.ambientLight(v1,v2,v3);
+		}
 	}
 	
 	/** Would set a ambient light source for this graphics context but ignores it in this case as this will
@@ -654,7 +1177,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void ambientLight(float v1, float v2, float v3, float x, float y, float z)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.ambientLight(v1,v2,v3,x,y,z);
+		}
 	}
 	
 	/** Would set a directional light source for this graphics context but ignores it in this case as this will
@@ -663,7 +1189,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void directionalLight(float v1, float v2, float v3, float nx, float ny, float nz)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.directionalLight(v1,v2,v3,nx,ny,nz);
+		}
 	}
 	
 	/** Would set a spotlight source for this graphics context but ignores it in this case as this will
@@ -672,7 +1201,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void spotLight(float v1, float v2, float v3, float x, float y, float z, float nx, float ny, float nz, float angle, float concentration)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.spotLight(v1, v2, v3, x, y, z, nx, ny, nz, angle, concentration);
+		}
 	}
 	
 	
@@ -682,7 +1214,10 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void lightFalloff(float constant, float linear, float quadratic)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.lightFalloff(constant,linear,quadratic);
+		}
 	}
 	
 	/** Would set a specular colour for light sources in this graphics context but ignores 
@@ -691,7 +1226,351 @@ public class HandyRecorder extends PGraphics
 	@Override
 	public void lightSpecular(float v1, float v2, float v3)
 	{	
-		// Do nothing.
+		if (target != null)
+		{
+			target.lightSpecular(v1,v2,v3);
+		}
 	}
+
+	// Style changes, text and images are passed on to any wrapped graphics context. Colours are passed on 
+	// once calculated in this context's colour mode so the wrapped context's colour mode is not changed. 
 	
+	/** Passes the newly calculated fill colour on to any wrapped graphics context.
+	 */
+	@Override
+	protected void fillFromCalc()
+	{
+		super.fillFromCalc();
+		if (target != null)
+		{
+			target.fill(fillColor);
+		}
+	}
+
+	/** Turns off filling in this and any wrapped graphics context.
+	 */
+	@Override
+	public void noFill()
+	{
+		super.noFill();
+		if (target != null)
+		{
+			target.noFill();
+		}
+	}
+
+	/** Passes the newly calculated stroke colour on to any wrapped graphics context.
+	 */
+	@Override
+	protected void strokeFromCalc()
+	{
+		super.strokeFromCalc();
+		if (target != null)
+		{
+			target.stroke(strokeColor);
+		}
+	}
+
+	/** Turns off stroking in this and any wrapped graphics context.
+	 */
+	@Override
+	public void noStroke()
+	{
+		super.noStroke();
+		if (target != null)
+		{
+			target.noStroke();
+		}
+	}
+
+	/** Passes the newly calculated tint colour on to any wrapped graphics context.
+	 */
+	@Override
+	protected void tintFromCalc()
+	{
+		super.tintFromCalc();
+		if (target != null)
+		{
+			target.tint(tintColor);
+		}
+	}
+
+	/** Turns off tinting in this and any wrapped graphics context.
+	 */
+	@Override
+	public void noTint()
+	{
+		super.noTint();
+		if (target != null)
+		{
+			target.noTint();
+		}
+	}
+
+	/** Fills any wrapped graphics context with the newly calculated background colour.
+	 */
+	@Override
+	protected void backgroundImpl()
+	{
+		if (target != null)
+		{
+			target.background(backgroundColor);
+		}
+	}
+
+	/** Clears any wrapped graphics context to full transparency.
+	 */
+	@Override
+	public void clear()
+	{
+		if (target != null)
+		{
+			target.clear();
+		}
+		else
+		{
+			super.clear();
+		}
+	}
+
+	/** Sets the stroke weight in this and any wrapped graphics context.
+	 *  @param weight Stroke weight in pixel units.
+	 */
+	@Override
+	public void strokeWeight(float weight)
+	{
+		super.strokeWeight(weight);
+		if (target != null)
+		{
+			target.strokeWeight(weight);
+		}
+	}
+
+	/** Sets the style of line joins in this and any wrapped graphics context.
+	 *  @param join Type of join, either <code>MITER</code>, <code>BEVEL</code> or <code>ROUND</code>.
+	 */
+	@Override
+	public void strokeJoin(int join)
+	{
+		super.strokeJoin(join);
+		if (target != null)
+		{
+			target.strokeJoin(join);
+		}
+	}
+
+	/** Sets the style of line end caps in this and any wrapped graphics context.
+	 *  @param cap Type of cap, either <code>SQUARE</code>, <code>PROJECT</code> or <code>ROUND</code>.
+	 */
+	@Override
+	public void strokeCap(int cap)
+	{
+		super.strokeCap(cap);
+		if (target != null)
+		{
+			target.strokeCap(cap);
+		}
+	}
+
+	/** Sets the way rectangle dimensions are interpreted in this and any wrapped graphics context.
+	 *  @param mode Rectangle mode, either <code>CORNER</code>, <code>CORNERS</code>, <code>CENTER</code> or <code>RADIUS</code>.
+	 */
+	@Override
+	public void rectMode(int mode)
+	{
+		super.rectMode(mode);
+		if (target != null)
+		{
+			target.rectMode(mode);
+		}
+	}
+
+	/** Sets the way ellipse dimensions are interpreted in this and any wrapped graphics context.
+	 *  @param mode Ellipse mode, either <code>CORNER</code>, <code>CORNERS</code>, <code>CENTER</code> or <code>RADIUS</code>.
+	 */
+	@Override
+	public void ellipseMode(int mode)
+	{
+		super.ellipseMode(mode);
+		if (target != null)
+		{
+			target.ellipseMode(mode);
+		}
+	}
+
+	/** Sets the way image dimensions are interpreted in this and any wrapped graphics context.
+	 *  @param mode Image mode, either <code>CORNER</code>, <code>CORNERS</code> or <code>CENTER</code>.
+	 */
+	@Override
+	public void imageMode(int mode)
+	{
+		super.imageMode(mode);
+		if (target != null)
+		{
+			target.imageMode(mode);
+		}
+	}
+
+	/** Stores the current style settings of this and any wrapped graphics context.
+	 */
+	@Override
+	public void pushStyle()
+	{
+		super.pushStyle();
+		if (target != null)
+		{
+			target.pushStyle();
+		}
+	}
+
+	/** Restores the most recently stored style settings of this and any wrapped graphics context.
+	 */
+	@Override
+	public void popStyle()
+	{
+		super.popStyle();
+		if (target != null)
+		{
+			target.popStyle();
+		}
+	}
+
+	/** Draws an image at the given location in any wrapped graphics context.
+	 *  @param img Image to draw.
+	 *  @param x x coordinate of the image's position.
+	 *  @param y y coordinate of the image's position.
+	 */
+	@Override
+	public void image(PImage img, float x, float y)
+	{
+		if (target != null)
+		{
+			target.image(img, x, y);
+		}
+		else
+		{
+			super.image(img, x, y);
+		}
+	}
+
+	/** Draws an image with the given location and dimensions in any wrapped graphics context.
+	 *  @param img Image to draw.
+	 *  @param x x coordinate of the image's position.
+	 *  @param y y coordinate of the image's position.
+	 *  @param iWidth Width of the image (but see modifications possible with imageMode())
+	 *  @param iHeight Height of the image (but see modifications possible with imageMode())
+	 */
+	@Override
+	public void image(PImage img, float x, float y, float iWidth, float iHeight)
+	{
+		if (target != null)
+		{
+			target.image(img, x, y, iWidth, iHeight);
+		}
+		else
+		{
+			super.image(img, x, y, iWidth, iHeight);
+		}
+	}
+
+	/** Sets the font used for text in any wrapped graphics context.
+	 *  @param font Font to use.
+	 */
+	@Override
+	public void textFont(PFont font)
+	{
+		if (target != null)
+		{
+			target.textFont(font);
+		}
+		else
+		{
+			super.textFont(font);
+		}
+	}
+
+	/** Sets the font used for text in any wrapped graphics context.
+	 *  @param font Font to use.
+	 *  @param size Size of text in pixels.
+	 */
+	@Override
+	public void textFont(PFont font, float size)
+	{
+		if (target != null)
+		{
+			target.textFont(font, size);
+		}
+		else
+		{
+			super.textFont(font, size);
+		}
+	}
+
+	/** Sets the size of text in any wrapped graphics context.
+	 *  @param size Size of text in pixels.
+	 */
+	@Override
+	public void textSize(float size)
+	{
+		if (target != null)
+		{
+			target.textSize(size);
+		}
+		else
+		{
+			super.textSize(size);
+		}
+	}
+
+	/** Sets the alignment of text in this and any wrapped graphics context.
+	 *  @param alignX Horizontal alignment, either <code>LEFT</code>, <code>CENTER</code> or <code>RIGHT</code>.
+	 *  @param alignY Vertical alignment, either <code>TOP</code>, <code>BOTTOM</code>, <code>CENTER</code> or <code>BASELINE</code>.
+	 */
+	@Override
+	public void textAlign(int alignX, int alignY)
+	{
+		super.textAlign(alignX, alignY);
+		if (target != null)
+		{
+			target.textAlign(alignX, alignY);
+		}
+	}
+
+	/** Draws the given text at the given location in any wrapped graphics context.
+	 *  @param str Text to draw.
+	 *  @param x x coordinate of the text's position.
+	 *  @param y y coordinate of the text's position.
+	 */
+	@Override
+	public void text(String str, float x, float y)
+	{
+		if (target != null)
+		{
+			target.text(str, x, y);
+		}
+		else
+		{
+			super.text(str, x, y);
+		}
+	}
+
+	/** Draws the given text within the given rectangle in any wrapped graphics context.
+	 *  @param str Text to draw.
+	 *  @param x1 x coordinate of the text box's position (but see modifications possible with rectMode()).
+	 *  @param y1 y coordinate of the text box's position (but see modifications possible with rectMode()).
+	 *  @param x2 Width of the text box (but see modifications possible with rectMode()).
+	 *  @param y2 Height of the text box (but see modifications possible with rectMode()).
+	 */
+	@Override
+	public void text(String str, float x1, float y1, float x2, float y2)
+	{
+		if (target != null)
+		{
+			target.text(str, x1, y1, x2, y2);
+		}
+		else
+		{
+			super.text(str, x1, y1, x2, y2);
+		}
+	}
 }
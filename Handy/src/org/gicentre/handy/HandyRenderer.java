@@ -1,14 +1,23 @@
 package org.gicentre.handy;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.TreeMap;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import processing.core.PApplet;
 import processing.core.PConstants;
 import processing.core.PGraphics;
+import processing.core.PMatrix2D;
+import processing.core.PMatrix3D;
+import processing.core.PShape;
 import processing.core.PVector;
 
 // *****************************************************************************************
@@ -41,8 +50,7 @@ public class HandyRenderer
 
 	private PApplet parent;						// Parent class invoking the renderer.
 	private PGraphics graphics;					// Graphics context in which this class is to render.
-	private Random rand;						// Random number generator for random but repeatable offsets.
-	private float cosAngle,sinAngle,tanAngle;	// Lookups for quick calculations.
+	private CountingRandom rand;				// Random number generator for random but repeatable offsets.
 	private List<float[]> vertices;				// Temporary store of shape or polyline vertices.
 	private HashSet<Integer>curveIndices;		// Pointer to vertices that refer to curves
 	private int shapeMode;						// Type of setting for shape drawing.
@@ -52,23 +60,56 @@ public class HandyRenderer
 
 	// Configuration settings
 	private boolean isHandy;					// Determines if normal or hand-drawn appearance is used.
-	private int fillColour, strokeColour;		// Main fill and stroke colours. 
-	private int bgColour, secondaryColour;		// Background colour and secondary fill colour	
-	private boolean overrideFillColour;			// Determines whether the fill colour is based on parent's fill colour or the setting in this class.
-	private boolean overrideStrokeColour;		// Determines whether the stroke colour is based on parent's stroke colour or the setting in this class.
-	private boolean useSecondary;				// Determines whether secondary colour is to be used.
-	private boolean isAlternating;				// Determines whether hachuring alternates in direction in continuous stroke.
-	private float hachureAngle;					// Angle of diagonal hachuring.
-	private float anglePerturbation;			// Random perturbation in hachure angle per object drawn.
-	private float fillWeight, fillGap;			// Hachure filling characteristics.
-	private float strokeWeight;					// Stroke weight for lines.
-	private float roughness;					// Scaling for random perturbations.
-	private float bowing;						// Scaling of the 'bowing' of lines at their midpoint.
+	private HandyStyle style;					// Sketchy style settings, which may be shared with other renderers.
+	private boolean isStyleShared;				// Indicates if the style must be copied before it is changed.
+	private HandyStyle perturbedStyle;			// Reusable style with a randomly perturbed hachure angle.
+	private HandyStyle unperturbedStyle;		// Style to restore after drawing with a perturbed hachure angle, or null.
+	private boolean useSimplification;			// Determines whether dense shapes and polylines are simplified before sketching.
+	private boolean useScreenScale;				// Determines whether jitter and detail are adapted to the on-screen scale.
+	private boolean useCulling;					// Determines whether primitives outside the graphics context are skipped.
+	private boolean useParallelHachure;			// Determines whether hachures of large shapes are generated in parallel.
+	private boolean useJoinedLines;				// Determines whether polylines and outlines are sketched as continuous strokes.
+	private float[] lineVertices;				// Reusable store of the vertices of a sketchy line.
+	private PMatrix3D transform;				// Model to screen transformation if supplied externally, or null.
+	private PMatrix3D screenMatrix;				// Reusable store for the graphics context's transformation.
+	private PMatrix2D screenMatrix2D;			// Reusable store for the transformation of a 2d graphics context.
+	private Simplifier simplifier;				// Simplifies shapes and lines, held per renderer as it stores working state.
+	private PMatrix3D currentMatrix;			// Transformation in use for the primitive being drawn, or null if unknown.
+	private float screenScale;					// Screen pixels per model unit for the primitive being drawn.
+	private float offsetScale;					// Scaling applied to random offsets to keep them constant on screen.
+
+	// Rendering statistics
+	private HandyStats stats;					// Counts of work done since statistics were last reset.
+	private HandyStats frameStats;				// Counts of work done in the most recently completed frame.
+	private ObjectName statsName;				// Name under which frame statistics are registered with JMX, or null.
+	private boolean isHachuring;				// Indicates if the lines being drawn are hachures filling a shape.
+
+	// Boil animation
+	private long seed;							// Seed last given to the random number generator.
+	private float boilRate;						// Fraction of primitives regenerated in each frame when boiling.
+	private int numBoilVariants;				// Number of variants of each primitive cycled through when boiling.
+	private BoilCache boil;						// Stored variants of each primitive, or null if not boiling.
+	private PGraphics boilGraphics;				// Graphics context in use while a primitive is being recorded, or null.
+	private CountingRandom boilRand;			// Random number generator seeded for each variant recorded in boil mode.
+	private CountingRandom sketchRand;			// Renderer's own random number generator while a variant is recorded, or null.
+	private int boilDepth;						// Number of nested primitives being drawn in boil mode.
+
+	private HandyGovernor governor;				// Adjusts drawing quality to hold a target frame rate, or null.
 
 	private int numEllipseSteps;
 	private float ellipseInc;					// Incremental steps along an ellipse.
 
 	private static final float MIN_ROUGHNESS = 0.1f;	// Roughess less than this value will be consisidered 0.
+	private static final float SIMPLIFY_PIXELS = 0.5f;	// Simplification tolerance in pixels per unit of roughness.
+	private static final float MIN_GAP_PIXELS = 1.5f;	// Smallest on-screen hachure gap when adapting to scale.
+	private static final float CORNER_COS = 0.9f;		// Cosine of the turning angle above which a joined line overshoots a corner.
+	private static final int PARALLEL_WORK = 20000;	// Hachure lines multiplied by shape vertices above which hachures are generated in parallel.
+
+	private static final int POINT_VERTICES = 7;		// Number of curve vertices in the scribble representing a point.
+	private static final int POINT_CURVE_STEPS = 2;		// Number of line segments used to flatten each span of a point's scribble.
+	private static final int NUM_POINT_TEMPLATES = 8;	// Number of different scribbles used when drawing many points.
+
+	static final int NUM_LINE_VALUES = 24;		// Number of coordinates defining a sketchy line.
 
 
 	// ----------------------------------- Constructor -----------------------------------
@@ -79,16 +120,40 @@ public class HandyRenderer
 	 */
 	public HandyRenderer(PApplet parent)
 	{
+		this(parent.g);
 		this.parent = parent;
-		this.graphics = parent.g;
+	}
+
+	/** Creates a new HandyRender that draws into the given graphics context without being associated 
+	 *  with a sketch. This allows sketchy geometry to be generated without a <code>PApplet</code>, for
+	 *  example by drawing into a <code>HandyGeometryBuffer</code> or other <code>HandyGeometrySink</code>.
+	 *  When created this way, hachured faces of 3d shapes are not filled.
+	 *  @param graphics Graphics context that will be drawn to.
+	 */
+	public HandyRenderer(PGraphics graphics)
+	{
+		this.graphics = graphics;
 
 		numEllipseSteps = 9;
 		ellipseInc = PConstants.TWO_PI/numEllipseSteps;
 		vertices = new ArrayList<float[]>();
 		curveIndices = new HashSet<Integer>();
 		is3DShape = false;
+		screenMatrix = new PMatrix3D();
+		screenMatrix2D = new PMatrix2D();
+		simplifier = new Simplifier();
+		lineVertices = new float[NUM_LINE_VALUES];
+		screenScale = 1;
+		offsetScale = 1;
 
 		// Set initial configuration options.
+		rand = new CountingRandom(12345);
+		boilRand = new CountingRandom();
+		stats = new HandyStats();
+		frameStats = new HandyStats();
+		seed = 12345;
+		boilRate = 0.2f;
+		numBoilVariants = 3;
 		setIsHandy(true);
 		resetStyles();		
 	}
@@ -104,6 +169,14 @@ public class HandyRenderer
 		this.graphics = graphics;
 	}
 
+	/** Reports the graphics context into which all output is currently directed.
+	 *  @return Graphics context in which this renderer draws.
+	 */
+	public PGraphics getGraphics()
+	{
+		return graphics;
+	}
+
 	/** Copies the settings from one graphics context to another. This can be useful when creating an offscreen
 	 *  buffer that needs to have the same appearance settings as the current context.
 	 *  @param gSrc Source graphics context.
@@ -143,7 +216,12 @@ public class HandyRenderer
 	 */
 	public void setSeed(long seed)
 	{
+		this.seed = seed;
 		rand.setSeed(seed);
+		if (boil != null)
+		{
+			boil.setSeed(seed);
+		}
 	}
 
 	// ----------------------------------- Configuration methods -----------------------------------
@@ -171,10 +249,7 @@ public class HandyRenderer
 	 */
 	public void setHachureAngle(float degrees)
 	{
-		hachureAngle = PApplet.radians(degrees%180);
-		cosAngle = (float)Math.cos(hachureAngle);
-		sinAngle = (float)Math.sin(hachureAngle);
-		tanAngle = (float)Math.tan(hachureAngle);
+		editStyle().setHachureAngle(degrees);
 	}
 
 	/** Sets the maximum random perturbation in hachure angle per object. This allows a hachure angle to
@@ -183,7 +258,7 @@ public class HandyRenderer
 	 */
 	public void setHachurePerturbationAngle(float degrees)
 	{
-		this.anglePerturbation = degrees;
+		editStyle().anglePerturbation = degrees;
 	}
 
 	/** Sets the background colour for closed shapes. 
@@ -191,7 +266,7 @@ public class HandyRenderer
 	 */
 	public void setBackgroundColour(int colour)
 	{
-		this.bgColour = colour;
+		editStyle().bgColour = colour;
 	}
 
 	/** Sets the fill colour for closed shapes. Note this will only have an effect if
@@ -200,7 +275,7 @@ public class HandyRenderer
 	 */
 	public void setFillColour(int colour)
 	{
-		this.fillColour = colour;
+		editStyle().fillColour = colour;
 	}
 
 	/** Determines whether or not to override the fill colour that would otherwise be determined by
@@ -211,7 +286,7 @@ public class HandyRenderer
 	 */
 	public void setOverrideFillColour(boolean override)
 	{
-		this.overrideFillColour = override;
+		editStyle().overrideFillColour = override;
 	}
 
 	/** Sets the stroke colour for rendering features. Note this will only have an effect if
@@ -220,7 +295,7 @@ public class HandyRenderer
 	 */
 	public void setStrokeColour(int colour)
 	{
-		this.strokeColour = colour;
+		editStyle().strokeColour = colour;
 	}
 
 	/** Determines whether or not to override the stroke colour that would otherwise be determined by
@@ -231,7 +306,7 @@ public class HandyRenderer
 	 */
 	public void setOverrideStrokeColour(boolean override)
 	{
-		this.overrideStrokeColour = override;
+		editStyle().overrideStrokeColour = override;
 	}
 
 	/** Determines whether or not a secondary colour is used for filling lines.
@@ -239,7 +314,7 @@ public class HandyRenderer
 	 */
 	public void setUseSecondaryColour(boolean useSecondary)
 	{
-		this.useSecondary = useSecondary;
+		editStyle().useSecondary = useSecondary;
 	}
 
 	/** Sets the secondary colour for line filling. Note this will only have an effect if
@@ -248,7 +323,7 @@ public class HandyRenderer
 	 */
 	public void setSecondaryColour(int colour)
 	{
-		this.secondaryColour = colour;
+		editStyle().secondaryColour = colour;
 	}
 
 	/** Determines the thickness of fill lines. If zero or negative, the thickness is
@@ -257,7 +332,7 @@ public class HandyRenderer
 	 */
 	public void setFillWeight(float weight)
 	{
-		this.fillWeight = weight;
+		editStyle().fillWeight = weight;
 	}
 
 	/** Determines the thickness of outer lines. If zero or negative, the thickness is
@@ -266,7 +341,7 @@ public class HandyRenderer
 	 */
 	public void setStrokeWeight(float weight)
 	{
-		this.strokeWeight = weight;
+		editStyle().strokeWeight = weight;
 	}
 
 	/** Determines the gap between fill lines. If zero, standard solid fill is used. If negative,
@@ -275,7 +350,7 @@ public class HandyRenderer
 	 */
 	public void setFillGap(float gap)
 	{
-		this.fillGap = gap;
+		editStyle().fillGap = gap;
 	}
 
 	/** Determines whether or not an alternating fill stroke is used to shade shapes. If true, shading appears
@@ -284,7 +359,7 @@ public class HandyRenderer
 	 */
 	public void setIsAlternating(boolean alternate)
 	{
-		this.isAlternating = alternate;
+		editStyle().isAlternating = alternate;
 	}
 
 	/** Sets the general roughness of the sketch. 1 is a typically neat sketchiness, 0 is very precise, 5 
@@ -294,7 +369,7 @@ public class HandyRenderer
 	public void setRoughness(float roughness)
 	{
 		// Cap roughness between 0 and 10.
-		this.roughness = Math.max(0,Math.min(roughness, 10));
+		editStyle().roughness = Math.max(0,Math.min(roughness, 10));
 	}
 
 	/** Sets the amount of 'bowing' of lines (contols the degree to which a straigh line appears as an 'I' or 'C'). Applies to
@@ -307,18 +382,222 @@ public class HandyRenderer
 	public void setBowing(float bowing)
 	{
 		// Cap roughness between 0 and 10.
-		this.bowing = Math.max(0,Math.min(bowing, 10));
+		editStyle().bowing = Math.max(0,Math.min(bowing, 10));
+	}
+
+	/** Determines whether or not shapes and polylines are simplified before being drawn. If true, vertices
+	 *  that would make no visible difference to the sketchy rendering are removed using Douglas-Peucker
+	 *  simplification. The tolerance is based on the current roughness and the scaling of the graphics
+	 *  context, so detail smaller than the random perturbation of lines on screen is discarded. This can
+	 *  greatly reduce the cost of drawing dense outlines such as those in detailed maps.
+	 *  @param useSimplification Shapes and polylines are simplified if true, or drawn with all vertices if false.
+	 */
+	public void setUseSimplification(boolean useSimplification)
+	{
+		this.useSimplification = useSimplification;
+	}
+
+	/** Determines whether or not the sketchiness of the rendering adapts to the scale at which it appears
+	 *  on screen. If true, random offsets in line positions and the minimum gap between hachures are kept
+	 *  approximately constant in screen pixels, and ellipses are drawn with more or fewer steps depending
+	 *  on their on-screen size. If false, all sketchy variation is defined in the sketch's model coordinates
+	 *  and so is enlarged or reduced along with any scaling transformation.
+	 *  @param useScreenScale Sketchiness adapts to on-screen scale if true.
+	 */
+	public void setUseScreenScale(boolean useScreenScale)
+	{
+		this.useScreenScale = useScreenScale;
+	}
+
+	/** Determines whether or not primitives that lie entirely outside the graphics context are skipped. 
+	 *  Culling is only applied to 2d graphics contexts. 
+	 *  @param useCulling Off-screen primitives are not drawn if true.
+	 */
+	public void setUseCulling(boolean useCulling)
+	{
+		this.useCulling = useCulling;
+	}
+
+	/** Determines whether or not the hachure lines filling large 2d shapes are generated in parallel
+	 *  on a fork-join pool. If true, each hachure line is given its own random seed derived from the 
+	 *  renderer's random sequence, so that the result is the same regardless of how the work is divided 
+	 *  between threads. This means the appearance of hachuring differs from that drawn when false, but 
+	 *  is identical whether or not a shape is large enough to be worth generating in parallel. Drawing 
+	 *  into the graphics context always takes place on the calling thread.
+	 *  @param useParallelHachure Hachures of large shapes generated in parallel if true.
+	 */
+	public void setUseParallelHachure(boolean useParallelHachure)
+	{
+		this.useParallelHachure = useParallelHachure;
+	}
+
+	/** Determines whether or not polylines and the outlines of shapes are sketched as continuous strokes.
+	 *  If true, the vertices of a polyline are perturbed once and the whole line is drawn as two continuous
+	 *  strokes that overshoot slightly at sharp corners, much as a pen would. If false, each segment is drawn
+	 *  as a separate sketchy line. Continuous strokes send one shape per stroke to the graphics context rather
+	 *  than one per segment, so are much cheaper for lines with many vertices on OpenGL renderers (P2D and P3D).
+	 *  @param useJoinedLines Polylines and shape outlines drawn as continuous strokes if true.
+	 */
+	public void setUseJoinedLines(boolean useJoinedLines)
+	{
+		this.useJoinedLines = useJoinedLines;
+	}
+
+	/** Determines whether or not 2d primitives are drawn in 'boil' mode. This gives animated sketches a
+	 *  temporally coherent appearance in which each primitive keeps its sketchy geometry from frame to frame,
+	 *  with only a fraction of primitives redrawn with new random variation in each frame (see 
+	 *  <code>setBoil()</code>). Primitives are identified by the order in which they are drawn in each frame,
+	 *  so a sketch should draw its primitives in a consistent order. Each variant of a primitive is generated
+	 *  once and then redrawn from stored geometry while its position, size and style are unchanged, so static
+	 *  scenes are also much cheaper to redraw. 3d primitives are always drawn directly.
+	 *  @param useBoil Primitives boil if true, or are drawn with the renderer's random sequence if false.
+	 */
+	public void setUseBoil(boolean useBoil)
+	{
+		if (useBoil == false)
+		{
+			boil = null;
+		}
+		else if (boil == null)
+		{
+			boil = new BoilCache(boilRate, numBoilVariants, seed);
+		}
+		if (boilGraphics != null)
+		{
+			graphics = boilGraphics;
+			boilGraphics = null;
+			restoreRandom();
+		}
+		boilDepth = 0;
+	}
+
+	/** Sets the speed and character of the animation in 'boil' mode. Each primitive cycles through a fixed
+	 *  number of variants, moving on to its next one at the given average rate. Changing the number of
+	 *  variants discards any that have already been generated.
+	 *  @param rate Fraction of primitives that change in each frame, between 0 (static) and 1 (every frame).
+	 *  @param numVariants Number of variants of each primitive, or 0 if new variation is always generated.
+	 */
+	public void setBoil(float rate, int numVariants)
+	{
+		boilRate = Math.max(0, Math.min(1, rate));
+		if (boil != null)
+		{
+			boil.setRate(boilRate);
+			if (numVariants != numBoilVariants)
+			{
+				boil.setNumVariants(numVariants);
+			}
+		}
+		numBoilVariants = numVariants;
+	}
+
+	/** Starts a new frame of 'boil' mode animation. This is only needed if the renderer was not created with
+	 *  a parent sketch, as otherwise new frames are detected from the sketch's frame count. It should be
+	 *  called before drawing each frame.
+	 */
+	public void nextBoilFrame()
+	{
+		if (boil != null)
+		{
+			boil.nextFrame();
+		}
+	}
+
+	/** Sets a frame rate that the renderer should try to maintain by automatically reducing the quality of
+	 *  its sketchy drawing when frames take too long to generate, and restoring it when they are quick
+	 *  again (see <code>HandyGovernor</code>). If the renderer was created with a parent sketch, the time 
+	 *  taken by each call to the sketch's <code>draw()</code> method is measured; otherwise 
+	 *  <code>beginFrame()</code> and <code>endFrame()</code> should be called around each frame.
+	 *  @param frameRate Target frames per second, or zero to always draw at full quality.
+	 */
+	public void setTargetFrameRate(float frameRate)
+	{
+		if (frameRate <= 0)
+		{
+			if ((governor != null) && (parent != null))
+			{
+				parent.unregisterMethod("pre", governor);
+				parent.unregisterMethod("draw", governor);
+			}
+			governor = null;
+		}
+		else if (governor == null)
+		{
+			governor = new HandyGovernor(frameRate);
+			if (parent != null)
+			{
+				parent.registerMethod("pre", governor);
+				parent.registerMethod("draw", governor);
+			}
+		}
+		else
+		{
+			governor.setTargetFrameRate(frameRate);
+		}
+	}
+
+	/** Provides the governor that adjusts drawing quality to hold the target frame rate set with
+	 *  <code>setTargetFrameRate()</code>. This can be used to monitor the frame time and quality level.
+	 *  @return Quality governor or null if no target frame rate has been set.
+	 */
+	public HandyGovernor getGovernor()
+	{
+		return governor;
+	}
+
+	/** Reports the current quality level set by the renderer's quality governor.
+	 *  @return Quality level between 0 (full quality) and <code>HandyGovernor.MAX_LEVEL</code>, which is
+	 *          always 0 if no target frame rate has been set.
+	 */
+	public int getQualityLevel()
+	{
+		return (governor == null) ? 0 : governor.getLevel();
+	}
+
+	/** Marks the start of a frame for timing by the quality governor. This is only needed if a target frame
+	 *  rate has been set and the renderer was not created with a parent sketch.
+	 */
+	public void beginFrame()
+	{
+		if (governor != null)
+		{
+			governor.pre();
+		}
+	}
+
+	/** Marks the end of a frame for timing by the quality governor, adjusting the quality level if necessary.
+	 *  This is only needed if a target frame rate has been set and the renderer was not created with a parent sketch.
+	 */
+	public void endFrame()
+	{
+		if (governor != null)
+		{
+			governor.draw();
+		}
+	}
+
+	/** Sets the transformation from model coordinates to screen coordinates used when adapting sketchiness
+	 *  to scale, simplifying shapes and culling off-screen primitives. This is normally supplied by a 
+	 *  <code>HandyRecorder</code> that tracks the sketch's transformations. A reference to the given matrix
+	 *  is kept, so subsequent changes to it will be reflected in the rendering. If null, the transformation
+	 *  is instead queried from the graphics context whenever it is needed.
+	 *  @param transform Model to screen transformation or null if to be taken from the graphics context.
+	 */
+	public void setTransform(PMatrix3D transform)
+	{
+		this.transform = transform;
 	}
 
 	/** Resets the sketchy styles to default values.
 	 */
 	public void resetStyles()
 	{
-		isAlternating = false;
-		anglePerturbation = 0;
-		roughness = 1;
-		bowing = 1;
-		rand = new Random(12345);
+		style = new HandyStyle();
+		isStyleShared = false;
+		rand.setSeed(12345);
+		setIsAlternating(false);
+		setRoughness(1);
+		setBowing(1);
 		setStrokeColour(graphics.strokeColor);
 		setFillColour(graphics.fillColor);
 		setBackgroundColour(graphics.color(255));
@@ -333,16 +612,373 @@ public class HandyRenderer
 		setOverrideStrokeColour(false);
 	}
 
+	/** Sets all sketchy style settings at once from the given style. As styles are immutable and all
+	 *  their values precalculated, this takes almost no time so can be used to switch frequently
+	 *  between different styles, for example for each data series in a chart. Subsequent calls to
+	 *  individual style setting methods such as <code>setRoughness()</code> do not change the given
+	 *  style.
+	 *  @param style Style to use for subsequent drawing.
+	 */
+	public void setStyle(HandyStyle style)
+	{
+		this.style = style;
+		isStyleShared = true;
+	}
+
+	/** Provides the current sketchy style settings. The style returned is not affected by any later
+	 *  changes to this renderer's settings, so can be stored and applied later with <code>setStyle()</code>.
+	 *  @return Current sketchy style.
+	 */
+	public HandyStyle getStyle()
+	{
+		isStyleShared = true;
+		return style;
+	}
+
+	/** Provides the current sketchy style without marking it as shared. Unlike <code>getStyle()</code>, this
+	 *  does not force a copy of the style on the next change to the renderer's settings, so the style may be
+	 *  changed in place by such a change. It should therefore only be used for reading the current settings.
+	 *  @return Current sketchy style.
+	 */
+	HandyStyle getCurrentStyle()
+	{
+		return style;
+	}
+
+	// ----------------------------------- Statistics methods -----------------------------------
+
+	/** Provides the statistics describing the work done by this renderer since the statistics were last 
+	 *  reset. The statistics returned do not change with further drawing.
+	 *  @return Statistics gathered since the last reset.
+	 */
+	public HandyStats getStats()
+	{
+		stats.numRandomNumbers += rand.count;
+		rand.count = 0;
+		return new HandyStats(stats);
+	}
+
+	/** Provides the statistics describing the work done by this renderer since the statistics were last 
+	 *  reset and then resets them. If called once per frame, for example at the end of a sketch's 
+	 *  <code>draw()</code> method, this provides the statistics of each frame in turn. The statistics 
+	 *  returned are also those reported to JMX if registered with <code>registerStats()</code>.
+	 *  @return Statistics gathered since the last reset.
+	 */
+	public HandyStats resetStats()
+	{
+		HandyStats snapshot = getStats();
+		frameStats.set(snapshot);
+		stats.reset();
+		return snapshot;
+	}
+
+	/** Registers this renderer's statistics with the platform's JMX server so that they can be monitored 
+	 *  by tools such as JConsole or VisualVM. The values reported are those of the most recent call to 
+	 *  <code>resetStats()</code>, so that method should be called once per frame. The statistics are 
+	 *  registered with the object name <code>org.gicentre.handy:type=HandyStats,name=</code><i>name</i>.
+	 *  @param name Name identifying this renderer, such as the name of the view it draws.
+	 *  @return True if the statistics were registered.
+	 */
+	public boolean registerStats(String name)
+	{
+		unregisterStats();
+		try
+		{
+			ObjectName objectName = new ObjectName("org.gicentre.handy:type=HandyStats,name="+ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(frameStats, objectName);
+			statsName = objectName;
+			return true;
+		}
+		catch (JMException e)
+		{
+			System.err.println("Problem registering Handy statistics with JMX: "+e.getMessage());
+			return false;
+		}
+	}
+
+	/** Removes this renderer's statistics from the platform's JMX server if they have been registered 
+	 *  with <code>registerStats()</code>.
+	 */
+	public void unregisterStats()
+	{
+		if (statsName == null)
+		{
+			return;
+		}
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(statsName))
+			{
+				server.unregisterMBean(statsName);
+			}
+		}
+		catch (JMException e)
+		{
+			System.err.println("Problem removing Handy statistics from JMX: "+e.getMessage());
+		}
+		statsName = null;
+	}
+
+	/** Generates sketchy drawing once and stores it in a shape that can be redrawn with Processing's
+	 *  <code>shape()</code> method. On OpenGL renderers (P2D and P3D) the shape's geometry is held by
+	 *  the graphics context, so a static sketchy scene can be redrawn without being sketched or tessellated
+	 *  again. The content is drawn in 2D with this renderer's style, starting with the graphics context's
+	 *  current fill and stroke settings, and takes its random variation from this renderer's random sequence.
+	 *  @param content Drawing code for the scene or primitive to store.
+	 *  @return Group shape with one path child for each sketchy line or filled region.
+	 */
+	public PShape createShape(HandyDrawable content)
+	{
+		HandyGeometryBuffer geometry = new HandyGeometryBuffer(graphics.width, graphics.height);
+		copyGraphics(graphics, geometry);
+		HandyRenderer handy = new HandyRenderer(geometry);
+		handy.copySettings(this);
+		handy.setUseCulling(false);
+		handy.setSeed(nextSeed());
+		content.draw(handy, geometry);
+		geometry.endDraw();
+		return geometry.createShape(graphics);
+	}
+
+	// ------------------------------- Package-wide methods -------------------------------
+
+	/** Reports the parent sketch associated with this renderer.
+	 *  @return Parent sketch.
+	 */
+	PApplet getParent()
+	{
+		return parent;
+	}
+
+	/** Copies the sketchy style settings of the given renderer to this one. The style is shared
+	 *  rather than copied, so this is a constant time operation. The graphics context, random 
+	 *  number sequence and any externally supplied transformation are not copied.
+	 *  @param other Renderer whose settings are to be copied.
+	 */
+	void copySettings(HandyRenderer other)
+	{
+		isHandy              = other.isHandy;
+		style                = other.style;
+		isStyleShared        = true;
+		other.isStyleShared  = true;
+		useSimplification    = other.useSimplification;
+		useScreenScale       = other.useScreenScale;
+		useCulling           = other.useCulling;
+		useParallelHachure   = other.useParallelHachure;
+		useJoinedLines       = other.useJoinedLines;
+	}
+
+	/** Provides a new random number seed from this renderer's random sequence. This allows work to be
+	 *  delegated to another renderer while remaining repeatable if this renderer's seed has been set.
+	 *  @return Random number seed.
+	 */
+	long nextSeed()
+	{
+		return rand.nextLong();
+	}
+
+	/** Calculates the vertices of a sketchy line between the given points. The line is represented by
+	 *  two curves, each of which is a vertex followed by four curve vertices and a final vertex. This 
+	 *  does not depend on the graphics context so can be called from any thread.
+	 *  @param x1 x coordinate of the start of the line.
+	 *  @param y1 y coordinate of the start of the line.
+	 *  @param x2 x coordinate of the end of the line.
+	 *  @param y2 y coordinate of the end of the line.
+	 *  @param maxOffset Maximum random offset in pixel coordinates.
+	 *  @param style Sketchy style of the line.
+	 *  @param offsetScale Scaling applied to random offsets.
+	 *  @param rand Random number generator providing the line's variation.
+	 *  @param vertices Array in which to store the <code>NUM_LINE_VALUES</code> vertex coordinates of the line.
+	 *  @param start Position in the array at which to store the first coordinate.
+	 */
+	static void sketchLine(float x1, float y1, float x2, float y2, float maxOffset, HandyStyle style, 
+						   float offsetScale, Random rand, float[] vertices, int start)
+	{
+		// Ensure random perturbation is no more than 10% of line length.
+		float lenSq = (x1-x2)*(x1-x2) + (y1-y2)*(y1-y2);
+		float offset = maxOffset*offsetScale;
+
+		if (offset*offset*100 > lenSq)
+		{
+			offset = (float)Math.sqrt(lenSq)/10;
+		}
+
+		float divergePoint = 0.2f + rand.nextFloat()*0.2f;
+
+		// This is the midpoint displacement value to give slightly bowed lines.
+		float midDispX = style.bowing*maxOffset*(y2-y1)/200;
+		float midDispY = style.bowing*maxOffset*(x1-x2)/200;
+
+		float r = style.roughness;
+		midDispX = r*(rand.nextFloat()*(2*midDispX)-midDispX);
+		midDispY = r*(rand.nextFloat()*(2*midDispY)-midDispY);
+
+		// Second curve is drawn with half the random offset of the first.
+		int i = start;
+		for (int curve=0; curve<2; curve++)
+		{
+			float o = (curve == 0) ? offset : offset/2;
+			vertices[i++] = x1 + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = y1 + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = x1 + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = y1 + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = midDispX+x1+(x2 -x1)*divergePoint + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = midDispY+y1 + (y2-y1)*divergePoint + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = midDispX+x1+2*(x2-x1)*divergePoint + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = midDispY+y1+ 2*(y2-y1)*divergePoint + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = x2 + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = y2 + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = x2 + r*(rand.nextFloat()*(2*o)-o);
+			vertices[i++] = y2 + r*(rand.nextFloat()*(2*o)-o);
+		}
+	}
+
+	/** Draws a polyline whose points and sketchy segments are held in ring buffers. This allows a polyline
+	 *  that grows over time to be drawn without its existing segments being sketched again.
+	 *  @param points Ring of interleaved x and y point coordinates.
+	 *  @param segments Ring of sketchy line vertices calculated by <code>sketchLine()</code>. The segment
+	 *                  ending at each point is stored at the same position in the ring as the point.
+	 *  @param first Position in the rings of the first point of the polyline.
+	 *  @param numPoints Number of points in the polyline.
+	 */
+	void drawRingPolyLine(float[] points, float[] segments, int first, int numPoints)
+	{
+		stats.numPrimitives++;
+		if ((numPoints < 2) || ((graphics.stroke == false) && (style.overrideStrokeColour == false)))
+		{
+			return;
+		}
+
+		int capacity = points.length/2;
+		graphics.pushStyle();
+		if (style.overrideStrokeColour)
+		{
+			graphics.stroke(style.strokeColour);
+		}
+
+		if (isHandy == false)
+		{
+			graphics.noFill();
+			stats.numShapes++;
+			stats.numVertices += numPoints;
+			graphics.beginShape();
+			for (int i=0; i<numPoints; i++)
+			{
+				int p = (first+i)%capacity;
+				graphics.vertex(points[2*p], points[2*p+1]);
+			}
+			graphics.endShape();
+		}
+		else
+		{
+			if (style.strokeWeight > 0)
+			{
+				graphics.strokeWeight(style.strokeWeight);
+			}
+			for (int i=1; i<numPoints; i++)
+			{
+				drawSketchLine(segments, ((first+i)%capacity)*NUM_LINE_VALUES);
+			}
+		}
+		graphics.popStyle();
+	}
+
+	/** Provides a well distributed random number seed derived from the given value, so that seeds
+	 *  derived from consecutive values do not give correlated random sequences.
+	 *  @param value Value from which to derive the seed.
+	 *  @return Random number seed.
+	 */
+	static long mixSeed(long value)
+	{
+		long seed = value + 0x9E3779B97F4A7C15L;
+		seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+		seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+		return seed ^ (seed >>> 31);
+	}
+
+	/** Provides the current transformation matrix of the given graphics context as a 3d matrix. A 2d
+	 *  graphics context can only report a 2d matrix, so this is queried instead and lifted into 3d.
+	 *  @param graphics Graphics context whose transformation is to be found.
+	 *  @param matrix2D Reusable store for the matrix of a 2d graphics context, or null if a new one is to be created.
+	 *  @param target Matrix in which to store the transformation.
+	 *  @return The target matrix, or null if the graphics context does not report its transformation.
+	 */
+	static PMatrix3D getMatrix(PGraphics graphics, PMatrix2D matrix2D, PMatrix3D target)
+	{
+		if (graphics.is2D())
+		{
+			matrix2D = graphics.getMatrix(matrix2D);
+			if (matrix2D == null)
+			{
+				return null;
+			}
+			target.set(matrix2D.m00, matrix2D.m01, 0, matrix2D.m02,
+			           matrix2D.m10, matrix2D.m11, 0, matrix2D.m12,
+			           0, 0, 1, 0,
+			           0, 0, 0, 1);
+			return target;
+		}
+		return graphics.getMatrix(target);
+	}
+
+	/** Provides a list of the coordinates of interior lines that represent the intersections
+	 *  of a given line with a given shape boundary. 
+	 * @param lineCoords The endpoints of the line to intersect.
+	 * @param xCoords The x coordinates of the boundary of the shape to be intersected with the line.
+	 * @param yCoords The y coordinates of the boundary of the shape to be intersected with the line.
+	 * @return List of coordinates representing the intersecting lines.
+	 */
+	static ArrayList<float[]> getIntersectingLines(float[] lineCoords, float[]xCoords, float[]yCoords)
+	{
+		TreeMap<Float,float[]> intersections = new TreeMap<Float,float[]>();
+		Segment s1 = new Segment(lineCoords[0],lineCoords[1],lineCoords[2],lineCoords[3]);
+
+		// Final all points of intersection between line and shape boundary and ensure they are ordered from the start of the line.
+		for (int i=0; i<xCoords.length; i++)
+		{
+			Segment s2 = new Segment(xCoords[i],yCoords[i],xCoords[(i+1)%xCoords.length],yCoords[(i+1)%xCoords.length]);
+
+			if (s1.compare(s2) == Segment.Relation.INTERSECTS)
+			{
+				intersections.put(new Float(distSq(s1.getIntersectionX(), s1.getIntersectionY(), lineCoords[0],lineCoords[1])), 
+						new float[] {s1.getIntersectionX(),s1.getIntersectionY()});
+			}
+		}
+
+		return new ArrayList<float[]>(intersections.values());
+	}
+
 	// -------------------------------------- Drawing methods --------------------------------------
 
-	/** Draws 2D point at the given location. Currently this draws the point in the same style as the
-	 *  default Processing renderer.
+	/** Draws 2D point at the given location. When drawn in a sketchy style, the point is a tiny scribble
+	 *  in the current stroke colour whose size depends on the stroke weight. When drawing many points, such
+	 *  as those of a scatterplot, <code>points()</code> is much faster.
 	 *  @param x x coordinate of the point.
 	 *  @param y y coordinate of the point.
 	 */
 	public void point(float x, float y)
 	{
-		graphics.point(x, y);
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.POINT, x, y))))
+		{
+			drawPoints(new float[] {x, y}, 1);
+			endBoil();
+		}
+	}
+
+	/** Draws a set of 2D points in a single call. Rather than generating a new scribble for every point, a
+	 *  small pool of sketchy scribbles is generated and flattened into short polylines, and each point is
+	 *  drawn by translating one of them, chosen at random, to its location. This makes each point much
+	 *  cheaper to draw than a small sketchy ellipse, though still several times the cost of a plain point.
+	 *  @param xy Interleaved x and y coordinates of the points.
+	 */
+	public void points(float[] xy)
+	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.POINTS, xy))))
+		{
+			drawPoints(xy, NUM_POINT_TEMPLATES);
+			endBoil();
+		}
 	}
 
 	/** Draws 3D point at the given location. Currently this draws the point in the same style as the
@@ -353,6 +989,7 @@ public class HandyRenderer
 	 */
 	public void point(float x, float y, float z)
 	{
+		stats.numPrimitives++;
 		graphics.point(x, y, z);
 	}
 
@@ -366,14 +1003,28 @@ public class HandyRenderer
 	 */
 	public void ellipse(float x, float y, float w, float h)
 	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.ELLIPSE, x, y, w, h))))
+		{
+			drawEllipse(x, y, w, h);
+			endBoil();
+		}
+	}
+
+	/** Draws an ellipse without reference to boil mode.
+	 *  @param x x coordinate of the ellipse's position
+	 *  @param y y coordinate of the ellipse's position.
+	 *  @param w Width of the ellipse (but see modifications possible with ellipseMode())
+	 *  @param h Height of the ellipse (but see modifications possible with ellipseMode())
+	 */
+	private void drawEllipse(float x, float y, float w, float h)
+	{
+		stats.numPrimitives++;
 		if (isHandy == false)
 		{
 			graphics.ellipse(x,y,w,h);
 			return;
 		}
 
-		graphics.pushStyle();
-
 		// Default is to use 'CENTER' mode for defining ellipse
 		float cx = x;
 		float cy = y;
@@ -416,12 +1067,29 @@ public class HandyRenderer
 			return;
 		}
 
-		if ((rx < roughness/4) || (ry < roughness/4))
+		if ((rx < style.roughness/4) || (ry < style.roughness/4))
 		{
 			// Don't draw anything with a radius less than a quarter of the roughness value
 			return;
 		}	
 
+		updateScreenTransform();
+		if (isOffscreen(cx-rx,cy-ry,cx+rx,cy+ry))
+		{
+			return;
+		}
+
+		graphics.pushStyle();
+
+		// Number of steps around the ellipse may depend on its size on screen.
+		float inc = ellipseInc;
+		if (useScreenScale)
+		{
+			int numSteps = Math.round(3 + (float)Math.sqrt(Math.max(rx,ry)*screenScale));
+			inc = PConstants.TWO_PI/Math.max(5, Math.min(numSteps, 18));
+		}
+		inc = getGovernedInc(inc);
+
 		// Add small proportionate perturbation to dimensions of ellipse
 		rx += getOffset(-rx*0.05f, rx*0.05f);
 		ry += getOffset(-ry*0.05f, ry*0.05f);
@@ -433,31 +1101,30 @@ public class HandyRenderer
 		float oWeight = graphics.strokeWeight;
 		boolean oIsStroke = graphics.stroke;
 		boolean oIsFill = graphics.fill;
-		float originalAngle = PApplet.degrees(hachureAngle);
 
 		if (oIsFill)
 		{
 			// Erase interior of ellipse if not completely transparent
-			if ((fillGap != 0) && (graphics.alpha(bgColour) > 0))
+			if ((style.fillGap != 0) && (graphics.alpha(style.bgColour) > 0))
 			{
 				int oEllipseMode = graphics.ellipseMode;
 				graphics.ellipseMode(PConstants.RADIUS);
 				graphics.noStroke();
-				graphics.fill(bgColour);
+				graphics.fill(style.bgColour);
 				graphics.ellipse(cx,cy,rx,ry);
 				graphics.ellipseMode(oEllipseMode);
 				graphics.noFill();
 			}
 
 			// Only fill interior if the fill colour is distinct from the background.
-			if (bgColour != (overrideFillColour?fillColour:oFill))
+			if (style.bgColour != (style.overrideFillColour?style.fillColour:oFill))
 			{
-				if (fillGap == 0)
+				if (style.fillGap == 0)
 				{
 					// Fill with solid colour
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.fill(fillColour);
+						graphics.fill(style.fillColour);
 					}
 					int oEllipseMode = graphics.ellipseMode;
 					graphics.ellipseMode(PConstants.RADIUS);
@@ -469,9 +1136,9 @@ public class HandyRenderer
 				else
 				{
 					// We will be using strokes to fill, so change stroke to fill colour.
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.stroke(fillColour);
+						graphics.stroke(style.fillColour);
 					}
 					else
 					{
@@ -479,31 +1146,24 @@ public class HandyRenderer
 					}
 
 					// Perturb hachure angle if requested.
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle + (2*rand.nextFloat()-1)*anglePerturbation);
-					}
+					perturbHachureAngle();
 
-					if (fillWeight <=0)
+					if (style.fillWeight <=0)
 					{
 						graphics.strokeWeight(oWeight/2f);
 					}
 					else
 					{
-						graphics.strokeWeight(fillWeight);
+						graphics.strokeWeight(style.fillWeight);
 					}
 
 					double aspectRatio = ry/rx;
-					double hyp = (float)Math.sqrt(aspectRatio*tanAngle*aspectRatio*tanAngle+1);
-					double sinAnglePrime = aspectRatio*tanAngle / hyp;
+					double hyp = (float)Math.sqrt(aspectRatio*style.tanAngle*aspectRatio*style.tanAngle+1);
+					double sinAnglePrime = aspectRatio*style.tanAngle / hyp;
 					double cosAnglePrime = 1 / hyp;
 
-					float gap = fillGap;	// Gap between adjacent lines.
-					if (gap < 0)
-					{
-						gap = oWeight*4;					
-					}
-					if (isAlternating)
+					float gap = getHachureGap(oWeight);	// Gap between adjacent lines.
+					if (style.isAlternating)
 					{
 						// If zig-zag filling, increase gap to give approximately similar density.
 						gap *= 1.41f;
@@ -518,7 +1178,7 @@ public class HandyRenderer
 						float[] p1 = affine(xPos,cy-halfLen,cx,cy,sinAnglePrime,cosAnglePrime,aspectRatio);
 						float[] p2 = affine(xPos,cy+halfLen,cx,cy,sinAnglePrime,cosAnglePrime,aspectRatio);
 
-						if (isAlternating)
+						if (style.isAlternating)
 						{
 							line(prevP2[0],prevP2[1],p1[0],p1[1],2);	
 						}
@@ -528,28 +1188,25 @@ public class HandyRenderer
 					}
 
 					// Perturb hachure angle if requested.
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle);
-					}
+					restoreHachureAngle();
 				}
 			}
 		}
 
 		// Set stroke colour and weight.
-		if ((oIsStroke) || (strokeWeight > 0))
+		if ((oIsStroke) || (style.strokeWeight > 0))
 		{
-			if (overrideStrokeColour)
+			if (style.overrideStrokeColour)
 			{
-				graphics.stroke(strokeColour);
+				graphics.stroke(style.strokeColour);
 			}
 			else
 			{
 				graphics.stroke(oStroke);	
 			}
-			if (strokeWeight > 0)
+			if (style.strokeWeight > 0)
 			{
-				graphics.strokeWeight(strokeWeight);
+				graphics.strokeWeight(style.strokeWeight);
 			}
 			else
 			{
@@ -562,18 +1219,18 @@ public class HandyRenderer
 		}
 
 		// Draw outline if requested
-		if ((oIsStroke) || (overrideStrokeColour))
+		if ((oIsStroke) || (style.overrideStrokeColour))
 		{
 			graphics.noFill();
-			if (roughness < MIN_ROUGHNESS)
+			if (style.roughness < MIN_ROUGHNESS)
 			{
 				graphics.ellipse(cx,cy,2*rx,2*ry);
 				graphics.ellipse(cx,cy,2*rx,2*ry);
 			}
 			else
 			{
-				buildEllipse(cx,cy,rx,ry,1,ellipseInc*getOffset(0.1f,getOffset(0.4f, 1f)));
-				buildEllipse(cx,cy,rx,ry,1.5f,0);
+				buildEllipse(cx,cy,rx,ry,offsetScale,inc*getOffset(0.1f,getOffset(0.4f, 1f)),inc);
+				buildEllipse(cx,cy,rx,ry,1.5f*offsetScale,0,inc);
 			}
 		}
 
@@ -591,43 +1248,61 @@ public class HandyRenderer
 	 */
 	public void rect(float x, float y, float w, float h)
 	{
-		if (isHandy == false)
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.RECT, x, y, w, h))))
 		{
-			graphics.rect(x,y,w,h);
-			return;
+			drawRect(x, y, w, h);
+			endBoil();
 		}
+	}
 
-		graphics.pushStyle();
-		// Default is to use 'CORNER' mode for defining rectangle
-		float left   = Math.min(x,x+w);
-		float top    = Math.min(y,y+h);
-		float right  = Math.max(x,x+w);
-		float bottom = Math.max(y,y+h);
-
-		// Adjust bounds for other rectangle modes.
-		if (graphics.rectMode == PConstants.CORNERS)
+	/** Draws a set of rectangles in a single pass, such as the bars of a bar chart. Rather than each
+	 *  rectangle having its own hachure lines, the hachures of all rectangles are taken from a single
+	 *  grid of parallel lines clipped to each rectangle. This keeps the hachures of neighbouring rectangles
+	 *  aligned and avoids setting up the hachuring of each rectangle separately, so is well suited to charts
+	 *  with many bars. The rectangles share the same fill and stroke settings and any hachure perturbation
+	 *  angle is applied to the grid as a whole.
+	 *  @param xs x coordinates of the rectangles' positions.
+	 *  @param ys y coordinates of the rectangles' positions.
+	 *  @param ws Widths of the rectangles (but see modifications possible with rectMode())
+	 *  @param hs Heights of the rectangles (but see modifications possible with rectMode())
+	 */
+	public void rects(float[] xs, float[] ys, float[] ws, float[] hs)
+	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.RECTS, xs, ys, false) ^
+		                                 mixSeed(BoilCache.hash(BoilCache.RECTS, ws, hs, false)))))
 		{
-			left   = Math.min(x,w);
-			top    = Math.min(y,h);
-			right  = Math.max(x,w);
-			bottom = Math.max(y,h);
+			drawRects(xs, ys, ws, hs);
+			endBoil();
 		}
-		else if (graphics.rectMode == PConstants.CENTER)
-		{
-			float halfWidth = w/2f;
-			float halfHeight = h/2f;
+	}
 
-			left   = Math.min(x-halfWidth,x+halfWidth);
-			right  = Math.max(x-halfWidth,x+halfWidth);
-			top    = Math.min(y-halfHeight,y+halfHeight);
-			bottom = Math.max(y-halfHeight,y+halfHeight);
+	/** Draws a rectangle without reference to boil mode.
+	 *  @param x x coordinate of the rectangle position
+	 *  @param y y coordinate of the rectangle position.
+	 *  @param w Width of the rectangle (but see modifications possible with rectMode())
+	 *  @param h Height of the rectangle (but see modifications possible with rectMode())
+	 */
+	private void drawRect(float x, float y, float w, float h)
+	{
+		stats.numPrimitives++;
+		if (isHandy == false)
+		{
+			graphics.rect(x,y,w,h);
+			return;
 		}
-		else if (graphics.rectMode == PConstants.RADIUS)
+
+		graphics.pushStyle();
+		float[] bounds = getRectBounds(x, y, w, h);
+		float left   = bounds[0];
+		float top    = bounds[1];
+		float right  = bounds[2];
+		float bottom = bounds[3];
+
+		updateScreenTransform();
+		if (isOffscreen(left,top,right,bottom))
 		{
-			left   = Math.min(x-w,x+w);
-			right  = Math.max(x-w,x+w);
-			top    = Math.min(y-h,y+h);
-			bottom = Math.max(y-h,y+h);
+			graphics.popStyle();
+			return;
 		}
 
 		// Store the original stroke and fill colours.
@@ -639,11 +1314,11 @@ public class HandyRenderer
 		if (graphics.fill)
 		{
 			// Erase interior of rectangle if background colour is not completely transparent.
-			if ((fillGap != 0) && (graphics.alpha(bgColour) > 0))
+			if ((style.fillGap != 0) && (graphics.alpha(style.bgColour) > 0))
 			{
 				int oRectMode = graphics.rectMode;
 				graphics.rectMode(PConstants.CORNERS);
-				graphics.fill(bgColour);
+				graphics.fill(style.bgColour);
 				graphics.noStroke();
 				graphics.rect(left,top,right,bottom);
 				graphics.rectMode(oRectMode);
@@ -651,14 +1326,14 @@ public class HandyRenderer
 			}
 
 			// Only fill interior if the fill colour is distinct from the background.
-			if (bgColour != (overrideFillColour?fillColour:oFill))
+			if (style.bgColour != (style.overrideFillColour?style.fillColour:oFill))
 			{
-				if (fillGap == 0)
+				if (style.fillGap == 0)
 				{
 					// Fill with solid colour
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.fill(fillColour);
+						graphics.fill(style.fillColour);
 					}
 					int oRectMode = graphics.rectMode;
 					graphics.rectMode(PConstants.CORNERS);
@@ -670,9 +1345,9 @@ public class HandyRenderer
 				else
 				{
 					// We will be using strokes to fill, so change stroke to fill colour.
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.stroke(fillColour);
+						graphics.stroke(style.fillColour);
 					}
 					else
 					{
@@ -680,33 +1355,25 @@ public class HandyRenderer
 					}
 
 					// Perturb hachure angle if requested.
-					float originalAngle = PApplet.degrees(hachureAngle);
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle + (2*rand.nextFloat()-1)*anglePerturbation);
-					}
+					perturbHachureAngle();
 
-					if (fillWeight <=0)
+					if (style.fillWeight <=0)
 					{
 						graphics.strokeWeight(oWeight/2f);
 					}
 					else
 					{
-						graphics.strokeWeight(fillWeight);
+						graphics.strokeWeight(style.fillWeight);
 					}
 
-					float gap = fillGap;	// Gap between adjacent lines.
-					if (gap < 0)
-					{
-						gap = oWeight*4;					
-					}
-					if (isAlternating)
+					float gap = getHachureGap(oWeight);	// Gap between adjacent lines.
+					if (style.isAlternating)
 					{
 						// If zig-zag filling, increase gap to give approximately similar density.
 						gap *= 1.41f;
 					}
 
-					HachureIterator i = new HachureIterator(top, bottom, left, right, gap, sinAngle, cosAngle, tanAngle);
+					HachureIterator i = new HachureIterator(top, bottom, left, right, gap, style.sinAngle, style.cosAngle, style.tanAngle);
 					float[] coords;
 					float[] prevCoords = i.getNextLine();
 
@@ -716,7 +1383,7 @@ public class HandyRenderer
 
 						while ((coords=i.getNextLine()) != null)
 						{
-							if (isAlternating)
+							if (style.isAlternating)
 							{
 								line(prevCoords[2],prevCoords[3],coords[0],coords[1],2);
 							}
@@ -726,28 +1393,25 @@ public class HandyRenderer
 					}
 
 					// Restore original hachure angle if requested.
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle);
-					}
+					restoreHachureAngle();
 				}
 			}
 
 			// Set stroke colour and weight.
-			if ((oIsStroke) || (strokeWeight > 0))
+			if ((oIsStroke) || (style.strokeWeight > 0))
 			{
-				if (overrideStrokeColour)
+				if (style.overrideStrokeColour)
 				{
-					graphics.stroke(strokeColour);
+					graphics.stroke(style.strokeColour);
 				}
 				else
 				{
 					graphics.stroke(oStroke);	
 				}
 
-				if (strokeWeight > 0)
+				if (style.strokeWeight > 0)
 				{
-					graphics.strokeWeight(strokeWeight);
+					graphics.strokeWeight(style.strokeWeight);
 				}
 				else
 				{
@@ -763,7 +1427,7 @@ public class HandyRenderer
 		}
 
 		// Draw boundary of the rectangle.
-		if ((oIsStroke) || (overrideStrokeColour))
+		if ((oIsStroke) || (style.overrideStrokeColour))
 		{
 			line(left,top, right, top,2);
 			line(right,top,right,bottom,2);
@@ -775,6 +1439,145 @@ public class HandyRenderer
 		graphics.popStyle();
 	}
 
+	/** Draws a set of rectangles with a shared hachure grid without reference to boil mode.
+	 *  @param xs x coordinates of the rectangles' positions.
+	 *  @param ys y coordinates of the rectangles' positions.
+	 *  @param ws Widths of the rectangles (but see modifications possible with rectMode())
+	 *  @param hs Heights of the rectangles (but see modifications possible with rectMode())
+	 */
+	private void drawRects(float[] xs, float[] ys, float[] ws, float[] hs)
+	{
+		if ((xs == null) || (ys == null) || (ws == null) || (hs == null))
+		{
+			System.err.println("No coordinates provided to rects().");
+			return;
+		}
+		int numRects = Math.min(Math.min(xs.length, ys.length), Math.min(ws.length, hs.length));
+		if ((xs.length != numRects) || (ys.length != numRects) || (ws.length != numRects) || (hs.length != numRects))
+		{
+			System.err.println("Arrays provided to rects() differ in length, so only the first "+numRects+" rectangles drawn.");
+		}
+		stats.numPrimitives += numRects;
+
+		if (isHandy == false)
+		{
+			for (int i=0; i<numRects; i++)
+			{
+				graphics.rect(xs[i], ys[i], ws[i], hs[i]);
+			}
+			return;
+		}
+
+		graphics.pushStyle();
+		updateScreenTransform();
+
+		// Style settings shared by all rectangles.
+		int oStroke = graphics.strokeColor;
+		int oFill   = graphics.fillColor;
+		float oWeight = graphics.strokeWeight;
+		int fillColour = style.overrideFillColour ? style.fillColour : oFill;
+		boolean isErasing  = graphics.fill && (style.fillGap != 0) && (graphics.alpha(style.bgColour) > 0);
+		boolean isFilling  = graphics.fill && (style.bgColour != fillColour);
+		boolean isStroking = graphics.stroke || style.overrideStrokeColour;
+		int strokeColour   = style.overrideStrokeColour ? style.strokeColour : oStroke;
+		float strokeWeight = (style.strokeWeight > 0) ? style.strokeWeight : oWeight;
+		float fillWeight   = (style.fillWeight <= 0) ? oWeight/2f : style.fillWeight;
+
+		// A single hachure grid, with any perturbation of its angle, is shared by all rectangles.
+		perturbHachureAngle();
+		double sin = style.sinAngle;
+		double cos = style.cosAngle;
+		restoreHachureAngle();
+		float gap = getHachureGap(oWeight);
+		if (style.isAlternating)
+		{
+			// If zig-zag filling, increase gap to give approximately similar density.
+			gap *= 1.41f;
+		}
+
+		int oRectMode = graphics.rectMode;
+		for (int r=0; r<numRects; r++)
+		{
+			graphics.rectMode(oRectMode);
+			float[] bounds = getRectBounds(xs[r], ys[r], ws[r], hs[r]);
+			float left   = bounds[0];
+			float top    = bounds[1];
+			float right  = bounds[2];
+			float bottom = bounds[3];
+			if (isOffscreen(left,top,right,bottom))
+			{
+				continue;
+			}
+
+			if (isErasing)
+			{
+				// Erase interior of rectangle if background colour is not completely transparent.
+				graphics.rectMode(PConstants.CORNERS);
+				graphics.fill(style.bgColour);
+				graphics.noStroke();
+				graphics.rect(left,top,right,bottom);
+				graphics.noFill();
+			}
+
+			if (isFilling)
+			{
+				if (style.fillGap == 0)
+				{
+					graphics.rectMode(PConstants.CORNERS);
+					graphics.fill(fillColour);
+					graphics.noStroke();
+					graphics.rect(left,top,right,bottom);
+					graphics.noFill();
+				}
+				else
+				{
+					graphics.stroke(fillColour);
+					graphics.strokeWeight(fillWeight);
+
+					// Find the range of grid lines crossing the rectangle from the distances of its corners along the grid normal.
+					double d1 = left*cos - top*sin;
+					double d2 = right*cos - top*sin;
+					double d3 = left*cos - bottom*sin;
+					double d4 = right*cos - bottom*sin;
+					long firstLine = (long)Math.floor(Math.min(Math.min(d1,d2), Math.min(d3,d4))/gap)+1;
+					long lastLine  = (long)Math.ceil(Math.max(Math.max(d1,d2), Math.max(d3,d4))/gap)-1;
+
+					isHachuring = true;
+					float[] prevCoords = null;
+					for (long i=firstLine; i<=lastLine; i++)
+					{
+						float[] coords = clipHachure(i*(double)gap, sin, cos, left, top, right, bottom);
+						if (coords == null)
+						{
+							continue;
+						}
+						if ((style.isAlternating) && (prevCoords != null))
+						{
+							line(prevCoords[2],prevCoords[3],coords[0],coords[1],2);
+						}
+						line(coords[0],coords[1],coords[2],coords[3],2);
+						prevCoords = coords;
+					}
+					isHachuring = false;
+				}
+			}
+
+			// Draw boundary of the rectangle.
+			if (isStroking)
+			{
+				graphics.stroke(strokeColour);
+				graphics.strokeWeight(strokeWeight);
+				line(left,top, right, top,2);
+				line(right,top,right,bottom,2);
+				line(right,bottom,left,bottom,2);
+				line(left,bottom,left,top,2);
+			}
+		}
+
+		// Restore original style settings.
+		graphics.popStyle();
+	}
+
 	/** Draws a triangle through the three pairs of coordinates.
 	 *  @param x1 x coordinate of the first triangle vertex.
 	 *  @param y1 y coordinate of the first triangle vertex.
@@ -785,6 +1588,24 @@ public class HandyRenderer
 	 */
 	public void triangle(float x1, float y1, float x2, float y2, float x3, float y3)
 	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.TRIANGLE, x1, y1, x2, y2, x3, y3))))
+		{
+			drawTriangle(x1, y1, x2, y2, x3, y3);
+			endBoil();
+		}
+	}
+
+	/** Draws a triangle without reference to boil mode.
+	 *  @param x1 x coordinate of the first triangle vertex.
+	 *  @param y1 y coordinate of the first triangle vertex.
+	 *  @param x2 x coordinate of the second triangle vertex.
+	 *  @param y2 y coordinate of the second triangle vertex.
+	 *  @param x3 x coordinate of the third triangle vertex.
+	 *  @param y3 y coordinate of the third triangle vertex.
+	 */
+	private void drawTriangle(float x1, float y1, float x2, float y2, float x3, float y3)
+	{
+		stats.numPrimitives++;
 		if (isHandy == false)
 		{
 			graphics.triangle(x1,y1,x2,y2,x3,y3);
@@ -798,6 +1619,13 @@ public class HandyRenderer
 		float top    = Math.min(y1,Math.min(y2, y3));
 		float bottom = Math.max(y1,Math.max(y2, y3));
 
+		updateScreenTransform();
+		if (isOffscreen(left,top,right,bottom))
+		{
+			graphics.popStyle();
+			return;
+		}
+
 		// Store the original stroke and fill colours.
 		int oStroke = graphics.strokeColor;
 		int oFill   = graphics.fillColor;
@@ -807,23 +1635,23 @@ public class HandyRenderer
 		if (graphics.fill)
 		{
 			// Erase interior of rectangle if background colour is not completely transparent.
-			if ((fillGap != 0) && (graphics.alpha(bgColour) > 0))
+			if ((style.fillGap != 0) && (graphics.alpha(style.bgColour) > 0))
 			{
-				graphics.fill(bgColour);
+				graphics.fill(style.bgColour);
 				graphics.noStroke();
 				graphics.triangle(x1,y1,x2,y2,x3,y3);
 				graphics.noFill();
 			}
 
 			// Only fill interior if the fill colour is distinct from the background.
-			if (bgColour != (overrideFillColour?fillColour:oFill))
+			if (style.bgColour != (style.overrideFillColour?style.fillColour:oFill))
 			{
-				if (fillGap == 0)
+				if (style.fillGap == 0)
 				{
 					// Fill with solid colour
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.fill(fillColour);
+						graphics.fill(style.fillColour);
 					}
 					graphics.noStroke();
 					graphics.triangle(x1,y1,x2,y2,x3,y3);
@@ -832,9 +1660,9 @@ public class HandyRenderer
 				else
 				{
 					// We will be using strokes to fill, so change stroke to fill colour.
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.stroke(fillColour);
+						graphics.stroke(style.fillColour);
 					}
 					else
 					{
@@ -842,28 +1670,20 @@ public class HandyRenderer
 					}
 
 					// Perturb hachure angle if requested.
-					float originalAngle = PApplet.degrees(hachureAngle);
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle + (2*rand.nextFloat()-1)*anglePerturbation);
-					}
+					perturbHachureAngle();
 
-					if (fillWeight <=0)
+					if (style.fillWeight <=0)
 					{
 						graphics.strokeWeight(oWeight/2f);
 					}
 					else
 					{
-						graphics.strokeWeight(fillWeight);
+						graphics.strokeWeight(style.fillWeight);
 					}
 
-					float gap = fillGap;	// Gap between adjacent lines.
-					if (gap < 0)
-					{
-						gap = oWeight*4;					
-					}
+					float gap = getHachureGap(oWeight);	// Gap between adjacent lines.
 
-					if (isAlternating)
+					if (style.isAlternating)
 					{
 						// If zig-zag filling, increase gap to give approximately similar density.
 						gap *= 1.41f;
@@ -871,7 +1691,7 @@ public class HandyRenderer
 
 					float[] prevCoords=null;
 
-					HachureIterator i = new HachureIterator(top-1, bottom+1, left-1, right+1, gap, sinAngle, cosAngle, tanAngle);
+					HachureIterator i = new HachureIterator(top-1, bottom+1, left-1, right+1, gap, style.sinAngle, style.cosAngle, style.tanAngle);
 					float[] rectCoords;
 					while ((rectCoords=i.getNextLine()) != null)
 					{
@@ -901,7 +1721,7 @@ public class HandyRenderer
 
 						if (nextPoint == 4)
 						{
-							if (isAlternating) 
+							if (style.isAlternating) 
 							{
 								// Ensure coordinates are ordered consistently
 								if (distSq(triCoords[0],triCoords[1],rectCoords[0],rectCoords[1]) > 
@@ -926,10 +1746,7 @@ public class HandyRenderer
 					}
 
 					// Restore original hachure angle if requested.
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle);
-					}
+					restoreHachureAngle();
 				}
 			}
 
@@ -938,20 +1755,20 @@ public class HandyRenderer
 		}
 
 		// Draw boundary of the triangle.
-		if ((oIsStroke) || (overrideStrokeColour))
+		if ((oIsStroke) || (style.overrideStrokeColour))
 		{
-			if (overrideStrokeColour)
+			if (style.overrideStrokeColour)
 			{
-				graphics.stroke(strokeColour);
+				graphics.stroke(style.strokeColour);
 			}
 			else
 			{
 				graphics.stroke(oStroke);	
 			}
 
-			if (strokeWeight > 0)
+			if (style.strokeWeight > 0)
 			{
-				graphics.strokeWeight(strokeWeight);
+				graphics.strokeWeight(style.strokeWeight);
 			}
 			else
 			{
@@ -992,9 +1809,27 @@ public class HandyRenderer
 	 *  @param stop Angle to stop the arc in radians.
 	 */
 	public void arc(float x, float y, float w, float h, float start, float stop)
+	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.ARC, x, y, w, h, start, stop))))
+		{
+			drawArc(x, y, w, h, start, stop);
+			endBoil();
+		}
+	}
+
+	/** Draws an arc without reference to boil mode.
+	 *  @param x x coordinate of the ellipse's position around which this arc is defined.
+	 *  @param y y coordinate of the ellipse's position around which this arc is defined
+	 *  @param w Width of the ellipse around which this arc is defined (but see modifications possible with ellipseMode())
+	 *  @param h Height of the ellipse around which this arc is defined (but see modifications possible with ellipseMode())
+	 *  @param start Angle to start the arc in radians.
+	 *  @param stop Angle to stop the arc in radians.
+	 */
+	private void drawArc(float x, float y, float w, float h, float start, float stop)
 	{
 		if (isHandy == false)
 		{
+			stats.numPrimitives++;
 			graphics.arc(x,y,w,h,start,stop);
 			return;
 		}
@@ -1041,12 +1876,18 @@ public class HandyRenderer
 			return;
 		}
 
-		if ((rx < roughness/4) || (ry < roughness/4))
+		if ((rx < style.roughness/4) || (ry < style.roughness/4))
 		{
 			// Don't draw anything with a radius less than a quarter of the roughness value
 			return;
 		}	
 
+		updateScreenTransform();
+		if (isOffscreen(cx-rx,cy-ry,cx+rx,cy+ry))
+		{
+			return;
+		}
+
 		// Add small proportionate perturbation to dimensions of ellipse
 		rx += getOffset(-rx*0.01f, rx*0.01f);
 		ry += getOffset(-ry*0.01f, ry*0.01f);
@@ -1067,7 +1908,7 @@ public class HandyRenderer
 			stp = PConstants.TWO_PI;
 		}
 
-		float arcInc = Math.min(ellipseInc/2,(stp-strt)/2);
+		float arcInc = Math.min(getGovernedInc(ellipseInc)/2,(stp-strt)/2);
 
 		// Create a curved polygon to represent the sector.
 		boolean oIsStroke = graphics.stroke;
@@ -1138,6 +1979,7 @@ public class HandyRenderer
 	{
 		if (isHandy == false)
 		{
+			stats.numShapes++;
 			graphics.beginShape(mode);
 		}
 		else
@@ -1158,6 +2000,7 @@ public class HandyRenderer
 	{
 		if (isHandy == false)
 		{
+			stats.numVertices++;
 			graphics.vertex(x,y);
 		}
 		else
@@ -1177,6 +2020,7 @@ public class HandyRenderer
 		is3DShape = true;
 		if (isHandy == false)
 		{
+			stats.numVertices++;
 			graphics.vertex(x,y,z);
 		}
 		else
@@ -1194,6 +2038,7 @@ public class HandyRenderer
 	{
 		if (isHandy == false)
 		{
+			stats.numVertices++;
 			graphics.curveVertex(x,y);
 		}
 		else
@@ -1217,6 +2062,7 @@ public class HandyRenderer
 		is3DShape = true;
 		if (isHandy == false)
 		{
+			stats.numVertices++;
 			graphics.curveVertex(x,y,z);
 		}
 		else
@@ -1237,6 +2083,7 @@ public class HandyRenderer
 	{
 		if (isHandy == false)
 		{
+			stats.numPrimitives++;
 			graphics.endShape();
 		}
 		else
@@ -1248,7 +2095,11 @@ public class HandyRenderer
 			}
 			else
 			{
-				drawShape2d(false);
+				if ((boil == null) || (beginBoil(getVerticesKey(false))))
+				{
+					drawShape2d(false);
+					endBoil();
+				}
 			}
 
 			vertices.clear();
@@ -1264,6 +2115,7 @@ public class HandyRenderer
 	{
 		if (isHandy == false)
 		{
+			stats.numPrimitives++;
 			graphics.endShape(mode);
 		}
 		else
@@ -1275,7 +2127,11 @@ public class HandyRenderer
 			}
 			else
 			{
-				drawShape2d(mode==PConstants.CLOSE);
+				if ((boil == null) || (beginBoil(getVerticesKey(mode==PConstants.CLOSE))))
+				{
+					drawShape2d(mode==PConstants.CLOSE);
+					endBoil();
+				}
 			}
 		}
 		vertices.clear();
@@ -1299,6 +2155,7 @@ public class HandyRenderer
 	{
 		if (isHandy == false)
 		{
+			stats.numPrimitives++;
 			graphics.box(bWidth,bHeight,bDepth);
 		}
 		else
@@ -1308,7 +2165,7 @@ public class HandyRenderer
 			float bH = bHeight/2f;
 			float bD = bDepth/2f;
 			graphics.pushStyle();
-			boolean isStrokeOverridden = overrideStrokeColour;
+			boolean isStrokeOverridden = style.overrideStrokeColour;
 			setOverrideStrokeColour(false);
 			graphics.noStroke();
 
@@ -1385,22 +2242,39 @@ public class HandyRenderer
 		shape(xCoords,yCoords,zCoords,true);
 	}
 
-	/** Draws a 2d polygon based on the given arrays of vertices. This version can 
-	 *  draw either open or closed shapes.
+	/** Draws a 2d polygon based on the given arrays of vertices. This version can 
+	 *  draw either open or closed shapes.
+	 *  @param xCoords x coordinates of the shape.
+	 *  @param yCoords y coordinates of the shape.
+	 *  @param closeShape Boundary of shape will be closed if true.
+	 */
+	public void shape(float[] xCoords, float[] yCoords, boolean closeShape)
+	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.SHAPE, xCoords, yCoords, closeShape))))
+		{
+			drawShape(xCoords, yCoords, closeShape);
+			endBoil();
+		}
+	}
+
+	/** Draws a 2d polygon without reference to boil mode.
 	 *  @param xCoords x coordinates of the shape.
 	 *  @param yCoords y coordinates of the shape.
 	 *  @param closeShape Boundary of shape will be closed if true.
 	 */
-	public void shape(float[] xCoords, float[] yCoords, boolean closeShape)
+	private void drawShape(float[] xCoords, float[] yCoords, boolean closeShape)
 	{
 		if ((xCoords == null) || (yCoords == null) || (xCoords.length ==0) || (yCoords.length == 0))
 		{
 			System.err.println("No coordinates provided to shape().");
 			return;
 		}			
+		stats.numPrimitives++;
 
 		if (isHandy == false)
 		{
+			stats.numShapes++;
+			stats.numVertices += xCoords.length;
 			graphics.beginShape();
 			for (int i=0; i<xCoords.length; i++)
 			{
@@ -1417,6 +2291,21 @@ public class HandyRenderer
 			return;
 		}
 
+		updateScreenTransform();
+		if ((useSimplification) && (xCoords.length > 3))
+		{
+			simplifier.simplifyCoords(xCoords,yCoords,getSimplificationTolerance());
+			float[] xSimp = simplifier.getXCoords();
+			float[] ySimp = simplifier.getYCoords();
+
+			// Keep the original shape if simplification would collapse it completely.
+			if (xSimp.length >= 3)
+			{
+				xCoords = xSimp;
+				yCoords = ySimp;
+			}
+		}
+
 		graphics.pushStyle();
 
 		// Bounding rectangle of the shape.
@@ -1432,6 +2321,12 @@ public class HandyRenderer
 			bottom = Math.max(bottom, yCoords[i]);
 		}
 
+		if (isOffscreen(left,top,right,bottom))
+		{
+			graphics.popStyle();
+			return;
+		}
+
 		// Store the original stroke and fill colours.		
 		int oStroke = graphics.strokeColor;
 		int oFill   = graphics.fillColor;
@@ -1441,10 +2336,12 @@ public class HandyRenderer
 		if (graphics.fill)
 		{
 			// Erase interior of shape if background colour is not completely transparent.
-			if ((fillGap != 0) && (graphics.alpha(bgColour) > 0))
+			if ((style.fillGap != 0) && (graphics.alpha(style.bgColour) > 0))
 			{
-				graphics.fill(bgColour);
+				graphics.fill(style.bgColour);
 				graphics.noStroke();
+				stats.numShapes++;
+				stats.numVertices += xCoords.length;
 				graphics.beginShape();
 				for (int i=0; i<xCoords.length; i++)
 				{
@@ -1455,16 +2352,18 @@ public class HandyRenderer
 			}
 
 			// Only fill interior if the fill colour is distinct from the background.
-			if (bgColour != (overrideFillColour?fillColour:oFill))
+			if (style.bgColour != (style.overrideFillColour?style.fillColour:oFill))
 			{
-				if (fillGap == 0)
+				if (style.fillGap == 0)
 				{
 					// Fill with solid colour
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.fill(fillColour);
+						graphics.fill(style.fillColour);
 					}
 					graphics.noStroke();
+					stats.numShapes++;
+					stats.numVertices += xCoords.length;
 					graphics.beginShape();
 					for (int i=0; i<xCoords.length; i++)
 					{
@@ -1476,9 +2375,9 @@ public class HandyRenderer
 				else
 				{
 					// We will be using strokes to fill, so change stroke to fill colour.
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.stroke(fillColour);
+						graphics.stroke(style.fillColour);
 					}
 					else
 					{
@@ -1486,26 +2385,18 @@ public class HandyRenderer
 					}
 
 					// Perturb hachure angle if requested.
-					float originalAngle = PApplet.degrees(hachureAngle);
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle + (2*rand.nextFloat()-1)*anglePerturbation);
-					}
+					perturbHachureAngle();
 
-					if (fillWeight <=0)
+					if (style.fillWeight <=0)
 					{
 						graphics.strokeWeight(oWeight/2f);
 					}
 					else
 					{
-						graphics.strokeWeight(fillWeight);
+						graphics.strokeWeight(style.fillWeight);
 					}
 
-					float gap = fillGap;	// Gap between adjacent lines.
-					if (gap < 0)
-					{
-						gap = oWeight*4;					
-					}
+					float gap = getHachureGap(oWeight);	// Gap between adjacent lines.
 
 					// TODO: Implement alternating shading for arbitrary shapes.
 					//				if (isAlternating)
@@ -1517,39 +2408,43 @@ public class HandyRenderer
 					//				ArrayList<float[]> prevCoords= new ArrayList<float[]>();
 
 					// Iterate through each line that could intersect with the shape.
-					HachureIterator it = new HachureIterator(top-1, bottom+1, left-1, right+1, gap, sinAngle, cosAngle, tanAngle);
-
-					float[] rectCoords = null;
+					HachureIterator it = new HachureIterator(top-1, bottom+1, left-1, right+1, gap, style.sinAngle, style.cosAngle, style.tanAngle);
 
-					while ((rectCoords=it.getNextLine()) != null)
+					if (useParallelHachure)
 					{
-						ArrayList<float[]> lines = getIntersectingLines(rectCoords,xCoords,yCoords);
+						drawParallelHachure(it, xCoords, yCoords);
+					}
+					else
+					{
+						float[] rectCoords = null;
 
-						for (int i=0; i<lines.size(); i+=2)
+						while ((rectCoords=it.getNextLine()) != null)
 						{
-							if (i < lines.size()-1)
+							ArrayList<float[]> lines = getIntersectingLines(rectCoords,xCoords,yCoords);
+
+							for (int i=0; i<lines.size(); i+=2)
 							{
-								float[] p1 = lines.get(i);
-								float[] p2 = lines.get(i+1);
-								line(p1[0],p1[1],p2[0],p2[1],2);
-
-								//							if (isAlternating)
-								//							{
-								//								if (prevCoords.size() == lines.size())
-								//								{
-								//									line(prevCoords.get(i/2)[0],prevCoords.get(i/2)[1],p1[0],p1[1],2);
-								//								}
-								//								prevCoords.add(new float[] {p2[0],p2[1]});
-								//							}
+								if (i < lines.size()-1)
+								{
+									float[] p1 = lines.get(i);
+									float[] p2 = lines.get(i+1);
+									line(p1[0],p1[1],p2[0],p2[1],2);
+
+									//							if (isAlternating)
+									//							{
+									//								if (prevCoords.size() == lines.size())
+									//								{
+									//									line(prevCoords.get(i/2)[0],prevCoords.get(i/2)[1],p1[0],p1[1],2);
+									//								}
+									//								prevCoords.add(new float[] {p2[0],p2[1]});
+									//							}
+								}
 							}
 						}
 					}
 
 					// Restore hachure angle if requested.
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle);
-					}
+					restoreHachureAngle();
 				}
 			}
 
@@ -1559,33 +2454,40 @@ public class HandyRenderer
 		}
 
 		// Draw boundary of the shape.
-		if ((oIsStroke) || (overrideStrokeColour))
+		if ((oIsStroke) || (style.overrideStrokeColour))
 		{
-			if (overrideStrokeColour)
+			if (style.overrideStrokeColour)
 			{
-				graphics.stroke(strokeColour);
+				graphics.stroke(style.strokeColour);
 			}
 			else
 			{
 				graphics.stroke(oStroke);	
 			}
 
-			if (strokeWeight > 0)
+			if (style.strokeWeight > 0)
 			{
-				graphics.strokeWeight(strokeWeight);
+				graphics.strokeWeight(style.strokeWeight);
 			}
 			else
 			{
 				graphics.strokeWeight(oWeight);
 			}
 
-			for (int i=0; i<xCoords.length-1; i++)
+			if (useJoinedLines)
 			{
-				line(xCoords[i],yCoords[i],xCoords[i+1],yCoords[i+1],2);
+				joinedLine(xCoords,yCoords,closeShape,2);
 			}
-			if (closeShape)
+			else
 			{
-				line(xCoords[xCoords.length-1],yCoords[xCoords.length-1],xCoords[0],yCoords[0],2);
+				for (int i=0; i<xCoords.length-1; i++)
+				{
+					line(xCoords[i],yCoords[i],xCoords[i+1],yCoords[i+1],2);
+				}
+				if (closeShape)
+				{
+					line(xCoords[xCoords.length-1],yCoords[xCoords.length-1],xCoords[0],yCoords[0],2);
+				}
 			}
 		}
 
@@ -1607,9 +2509,12 @@ public class HandyRenderer
 			System.err.println("No coordinates provided to shape().");
 			return;
 		}			
+		stats.numPrimitives++;
 
 		if (isHandy == false)
 		{
+			stats.numShapes++;
+			stats.numVertices += xCoords.length;
 			graphics.beginShape();
 			for (int i=0; i<xCoords.length; i++)
 			{
@@ -1626,9 +2531,9 @@ public class HandyRenderer
 			return;
 		}
 
+		updateScreenTransform();
 		graphics.pushStyle();
 
-
 		// Store the original stroke and fill colours.
 		int oStroke = graphics.strokeColor;
 		int oFill   = graphics.fillColor;
@@ -1638,10 +2543,12 @@ public class HandyRenderer
 		if (graphics.fill)
 		{
 			// Erase interior of shape if background colour is not completely transparent.
-			if ((fillGap != 0) && (graphics.alpha(bgColour) > 0))
+			if ((style.fillGap != 0) && (graphics.alpha(style.bgColour) > 0))
 			{
-				graphics.fill(bgColour);
+				graphics.fill(style.bgColour);
 				graphics.noStroke();
+				stats.numShapes++;
+				stats.numVertices += xCoords.length;
 				graphics.beginShape();
 				for (int i=0; i<xCoords.length; i++)
 				{
@@ -1652,16 +2559,18 @@ public class HandyRenderer
 			}
 
 			// Only fill interior if the fill colour is distinct from the background.
-			if (bgColour != (overrideFillColour?fillColour:oFill))
+			if (style.bgColour != (style.overrideFillColour?style.fillColour:oFill))
 			{
-				if (fillGap == 0)
+				if (style.fillGap == 0)
 				{
 					// Fill with solid colour
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.fill(fillColour);
+						graphics.fill(style.fillColour);
 					}
 					graphics.noStroke();
+					stats.numShapes++;
+					stats.numVertices += xCoords.length;
 					graphics.beginShape();
 					for (int i=0; i<xCoords.length; i++)
 					{
@@ -1673,46 +2582,38 @@ public class HandyRenderer
 				else
 				{				
 					// We will be using strokes to fill, so change stroke to fill colour.
-					if (overrideFillColour)
+					if (style.overrideFillColour)
 					{
-						graphics.stroke(fillColour);
+						graphics.stroke(style.fillColour);
 					}
 					else
 					{
 						graphics.stroke(oFill);
 					}
 
-					if (fillWeight <=0)
+					if (style.fillWeight <=0)
 					{
 						graphics.strokeWeight(oWeight/2f);
 					}
 					else
 					{
-						graphics.strokeWeight(fillWeight);
+						graphics.strokeWeight(style.fillWeight);
 					}
 
 					// Perturb hachure angle if requested.
-					float originalAngle = PApplet.degrees(hachureAngle);
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle + (2*rand.nextFloat()-1)*anglePerturbation);
-					}
+					perturbHachureAngle();
 
-					if (fillWeight <=0)
+					if (style.fillWeight <=0)
 					{
 						graphics.strokeWeight(oWeight/2f);
 					}
 					else
 					{
-						graphics.strokeWeight(fillWeight);
+						graphics.strokeWeight(style.fillWeight);
 					}
 
-					float gap = fillGap;	// Gap between adjacent lines.
-					if (gap < 0)
-					{
-						gap = oWeight*4;					
-					}
-					if (isAlternating)
+					float gap = getHachureGap(oWeight);	// Gap between adjacent lines.
+					if (style.isAlternating)
 					{
 						// If zig-zag filling, increase gap to give approximately similar density.
 						gap *= 1.41f;
@@ -1722,10 +2623,7 @@ public class HandyRenderer
 					drawHachuredFace(xCoords, yCoords, zCoords, gap);
 
 					// Restore hachure angle if requested.
-					if (anglePerturbation > 0)
-					{
-						setHachureAngle(originalAngle);
-					}
+					restoreHachureAngle();
 				}
 			}
 
@@ -1736,20 +2634,20 @@ public class HandyRenderer
 		}
 
 		// Draw boundary of the shape.
-		if ((oIsStroke) || (overrideStrokeColour))
+		if ((oIsStroke) || (style.overrideStrokeColour))
 		{
-			if (overrideStrokeColour)
+			if (style.overrideStrokeColour)
 			{
-				graphics.stroke(strokeColour);
+				graphics.stroke(style.strokeColour);
 			}
 			else
 			{
 				graphics.stroke(oStroke);	
 			}
 
-			if (strokeWeight > 0)
+			if (style.strokeWeight > 0)
 			{
-				graphics.strokeWeight(strokeWeight);
+				graphics.strokeWeight(style.strokeWeight);
 			}
 			else
 			{
@@ -1770,24 +2668,137 @@ public class HandyRenderer
 		graphics.popStyle();
 	}
 
+	/** Draws a set of 2D points without reference to boil mode.
+	 *  @param xy Interleaved x and y coordinates of the points.
+	 *  @param numTemplates Maximum number of different sketchy scribbles used to draw the points.
+	 */
+	private void drawPoints(float[] xy, int numTemplates)
+	{
+		if ((xy == null) || (xy.length < 2))
+		{
+			System.err.println("No coordinates provided to points().");
+			return;
+		}
+		int numPoints = xy.length/2;
+		stats.numPrimitives += numPoints;
+
+		if ((graphics.stroke == false) && (style.overrideStrokeColour == false))
+		{
+			return;
+		}
+
+		if (isHandy == false)
+		{
+			for (int i=0; i<numPoints; i++)
+			{
+				graphics.point(xy[2*i], xy[2*i+1]);
+			}
+			return;
+		}
+
+		updateScreenTransform();
+		graphics.pushStyle();
+		if (style.overrideStrokeColour)
+		{
+			graphics.stroke(style.strokeColour);
+		}
+		if (style.strokeWeight > 0)
+		{
+			graphics.strokeWeight(style.strokeWeight);
+		}
+		graphics.noFill();
+
+		// Round joins keep the flattened scribbles from showing mitred spikes.
+		graphics.strokeJoin(PConstants.ROUND);
+
+		float[][] templates = new float[Math.min(numTemplates, numPoints)][];
+		for (int t=0; t<templates.length; t++)
+		{
+			templates[t] = buildPointTemplate();
+		}
+
+		// Points are culled by transforming each once and comparing it with the screen extended by the screen
+		// size of the largest scribble plus the usual allowance for random offsets and stroke width.
+		boolean isCulling = (useCulling && (currentMatrix != null) && (graphics.is3D() == false));
+		float marginX = 0;
+		float marginY = 0;
+		if (isCulling)
+		{
+			float extent = 0;
+			for (float[] template : templates)
+			{
+				for (float value : template)
+				{
+					extent = Math.max(extent, Math.abs(value));
+				}
+			}
+			float margin = extent + 2*style.roughness*offsetScale + graphics.strokeWeight;
+			marginX = margin*(Math.abs(currentMatrix.m00) + Math.abs(currentMatrix.m01));
+			marginY = margin*(Math.abs(currentMatrix.m10) + Math.abs(currentMatrix.m11));
+		}
+
+		for (int i=0; i<numPoints; i++)
+		{
+			float x = xy[2*i];
+			float y = xy[2*i+1];
+			if (isCulling)
+			{
+				float sx = currentMatrix.m00*x + currentMatrix.m01*y + currentMatrix.m03;
+				float sy = currentMatrix.m10*x + currentMatrix.m11*y + currentMatrix.m13;
+				if ((sx < -marginX) || (sy < -marginY) || (sx > graphics.width+marginX) || (sy > graphics.height+marginY))
+				{
+					continue;
+				}
+			}
+
+			float[] template = (templates.length == 1) ? templates[0] : templates[rand.nextInt(templates.length)];
+			stats.numStrokes++;
+			stats.numShapes++;
+			stats.numVertices += template.length/2;
+			graphics.beginShape();
+			for (int v=0; v<template.length; v+=2)
+			{
+				graphics.vertex(x+template[v], y+template[v+1]);
+			}
+			graphics.endShape();
+		}
+		graphics.popStyle();
+	}
+
 	/** Draws a complex line that links the given coordinates. 
 	 *  @param xCoords x coordinates of the line.
 	 *  @param yCoords y coordinates of the line.
 	 */
 	public void polyLine(float[] xCoords, float[] yCoords)
+	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.POLYLINE, xCoords, yCoords, false))))
+		{
+			drawPolyLine(xCoords, yCoords);
+			endBoil();
+		}
+	}
+
+	/** Draws a complex line without reference to boil mode.
+	 *  @param xCoords x coordinates of the line.
+	 *  @param yCoords y coordinates of the line.
+	 */
+	private void drawPolyLine(float[] xCoords, float[] yCoords)
 	{
 		if ((xCoords == null) || (yCoords == null) || (xCoords.length ==0) || (yCoords.length == 0))
 		{
 			System.err.println("No coordinates provided to polyLine().");
 			return;
 		}
+		stats.numPrimitives++;
 
-		if ((graphics.stroke) || (overrideStrokeColour))
+		if ((graphics.stroke) || (style.overrideStrokeColour))
 		{
 			if (isHandy == false)
 			{
 				graphics.pushStyle();
 				graphics.noFill();
+				stats.numShapes++;
+				stats.numVertices += xCoords.length;
 				graphics.beginShape();
 				for (int i=0; i<xCoords.length; i++)
 				{
@@ -1798,25 +2809,47 @@ public class HandyRenderer
 				return;
 			}
 
+			updateScreenTransform();
+			if (isOffscreen(xCoords,yCoords))
+			{
+				return;
+			}
+
+			float[] xs = xCoords;
+			float[] ys = yCoords;
+			if ((useSimplification) && (xCoords.length > 2))
+			{
+				simplifier.simplifyCoords(xCoords,yCoords,getSimplificationTolerance());
+				xs = simplifier.getXCoords();
+				ys = simplifier.getYCoords();
+			}
+
 			graphics.pushStyle();
 			int oStroke = graphics.strokeColor;
 
-			if (overrideStrokeColour)
+			if (style.overrideStrokeColour)
 			{
-				graphics.stroke(strokeColour);
+				graphics.stroke(style.strokeColour);
 			}
 			else
 			{
 				graphics.stroke(oStroke);	
 			}
-			if (strokeWeight > 0)
+			if (style.strokeWeight > 0)
 			{
-				graphics.strokeWeight(strokeWeight);
+				graphics.strokeWeight(style.strokeWeight);
 			}
 
-			for (int i=0; i<xCoords.length-1; i++)
+			if (useJoinedLines)
+			{
+				joinedLine(xs,ys,false,2);
+			}
+			else
 			{
-				line(xCoords[i],yCoords[i],xCoords[i+1],yCoords[i+1],2);
+				for (int i=0; i<xs.length-1; i++)
+				{
+					line(xs[i],ys[i],xs[i+1],ys[i+1],2);
+				}
 			}
 
 			// Restore style settings.
@@ -1831,8 +2864,24 @@ public class HandyRenderer
 	 *  @param y2 y coordinate of the end of the line.
 	 */
 	public void line(float x1, float y1, float x2, float y2)
-	{		
-		if ((graphics.stroke) || (overrideStrokeColour))
+	{
+		if ((boil == null) || (beginBoil(BoilCache.hash(BoilCache.LINE, x1, y1, x2, y2))))
+		{
+			drawLine(x1, y1, x2, y2);
+			endBoil();
+		}
+	}
+
+	/** Draws a 2D line without reference to boil mode.
+	 *  @param x1 x coordinate of the start of the line.
+	 *  @param y1 y coordinate of the start of the line.
+	 *  @param x2 x coordinate of the end of the line.
+	 *  @param y2 y coordinate of the end of the line.
+	 */
+	private void drawLine(float x1, float y1, float x2, float y2)
+	{
+		stats.numPrimitives++;
+		if ((graphics.stroke) || (style.overrideStrokeColour))
 		{
 			if (isHandy == false)
 			{			
@@ -1840,15 +2889,21 @@ public class HandyRenderer
 				return;
 			}
 
+			updateScreenTransform();
+			if (isOffscreen(Math.min(x1,x2),Math.min(y1,y2),Math.max(x1,x2),Math.max(y1,y2)))
+			{
+				return;
+			}
+
 			graphics.pushStyle();
-			if (overrideStrokeColour)
+			if (style.overrideStrokeColour)
 			{
-				graphics.stroke(strokeColour);
+				graphics.stroke(style.strokeColour);
 			}
 
-			if (strokeWeight > 0)
+			if (style.strokeWeight > 0)
 			{
-				graphics.strokeWeight(strokeWeight);
+				graphics.strokeWeight(style.strokeWeight);
 			}
 
 			line(x1,y1,x2,y2,2);
@@ -1858,59 +2913,312 @@ public class HandyRenderer
 		}
 	}
 
-	/** Draws a 3D line between the given coordinate triplets. 
-	 *  @param x1 x coordinate of the start of the line.
-	 *  @param y1 y coordinate of the start of the line.
-	 *  @param z1 z coordinate of the start of the line.
-	 *  @param x2 x coordinate of the end of the line.
-	 *  @param y2 y coordinate of the end of the line.
-	 *  @param z2 z coordinate of the end of the line.
+	/** Draws a 3D line between the given coordinate triplets. 
+	 *  @param x1 x coordinate of the start of the line.
+	 *  @param y1 y coordinate of the start of the line.
+	 *  @param z1 z coordinate of the start of the line.
+	 *  @param x2 x coordinate of the end of the line.
+	 *  @param y2 y coordinate of the end of the line.
+	 *  @param z2 z coordinate of the end of the line.
+	 */
+	public void line(float x1, float y1, float z1, float x2, float y2, float z2)
+	{
+		stats.numPrimitives++;
+		if ((graphics.stroke) || (style.overrideStrokeColour))
+		{
+			if (isHandy == false)
+			{
+				graphics.line(x1,y1,z1,x2,y2,z2);
+				return;
+			}
+
+			updateScreenTransform();
+			graphics.pushStyle();
+			if (style.overrideStrokeColour)
+			{
+				graphics.stroke(style.strokeColour);
+			}
+
+			if (style.strokeWeight > 0)
+			{
+				graphics.strokeWeight(style.strokeWeight);
+			}
+
+			line(x1,y1,z1,x2,y2,z2,2);
+
+			// Restore original stroke settings.
+			graphics.popStyle();
+		}
+	}
+
+	/** Converts an array list of numeric values into a floating point array.
+	 *  Useful for methods that require primitive arrays of floats based on a dynamic collection.
+	 *  @param list List of numbers to convert.
+	 *  @return Array of floats representing the list.
+	 */
+	public static float[] toArray(List<Float> list)
+	{
+		float[] array = new float[list.size()];
+		for (int i=0; i< list.size(); i++)
+		{
+			array[i] = list.get(i).floatValue();
+		}
+		return array;
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Provides the style whose settings are to be changed. If the current style is shared with 
+	 *  other renderers or has been provided to the sketch, it is first replaced with a copy so 
+	 *  that changes are only seen by this renderer.
+	 *  @return Style that may be changed.
+	 */
+	private HandyStyle editStyle()
+	{
+		if (isStyleShared)
+		{
+			style = new HandyStyle(style);
+			isStyleShared = false;
+		}
+		return style;
+	}
+
+	/** Temporarily replaces the current style with one whose hachure angle is randomly perturbed if 
+	 *  the style has a hachure perturbation angle. This should be followed by a call to 
+	 *  <code>restoreHachureAngle()</code> once the hachures of the current shape have been drawn. Lines
+	 *  drawn until then are counted as hachure lines.
+	 */
+	private void perturbHachureAngle()
+	{
+		isHachuring = true;
+		if (style.anglePerturbation > 0)
+		{
+			if (perturbedStyle == null)
+			{
+				perturbedStyle = new HandyStyle();
+			}
+			perturbedStyle.set(style);
+			perturbedStyle.setHachureAngle(PApplet.degrees(style.hachureAngle) + (2*rand.nextFloat()-1)*style.anglePerturbation);
+			unperturbedStyle = style;
+			style = perturbedStyle;
+		}
+	}
+
+	/** Restores the style that was in use before the hachure angle was perturbed.
+	 */
+	private void restoreHachureAngle()
+	{
+		isHachuring = false;
+		if (unperturbedStyle != null)
+		{
+			style = unperturbedStyle;
+			unperturbedStyle = null;
+		}
+	} 
+
+	/** Provides the bounds of a rectangle defined with the graphics context's current rectangle mode.
+	 *  @param x x coordinate of the rectangle position
+	 *  @param y y coordinate of the rectangle position.
+	 *  @param w Width of the rectangle (but see modifications possible with rectMode())
+	 *  @param h Height of the rectangle (but see modifications possible with rectMode())
+	 *  @return Left, top, right and bottom edges of the rectangle.
+	 */
+	private float[] getRectBounds(float x, float y, float w, float h)
+	{
+		// Default is to use 'CORNER' mode for defining rectangle
+		float left   = Math.min(x,x+w);
+		float top    = Math.min(y,y+h);
+		float right  = Math.max(x,x+w);
+		float bottom = Math.max(y,y+h);
+
+		// Adjust bounds for other rectangle modes.
+		if (graphics.rectMode == PConstants.CORNERS)
+		{
+			left   = Math.min(x,w);
+			top    = Math.min(y,h);
+			right  = Math.max(x,w);
+			bottom = Math.max(y,h);
+		}
+		else if (graphics.rectMode == PConstants.CENTER)
+		{
+			float halfWidth = w/2f;
+			float halfHeight = h/2f;
+
+			left   = Math.min(x-halfWidth,x+halfWidth);
+			right  = Math.max(x-halfWidth,x+halfWidth);
+			top    = Math.min(y-halfHeight,y+halfHeight);
+			bottom = Math.max(y-halfHeight,y+halfHeight);
+		}
+		else if (graphics.rectMode == PConstants.RADIUS)
+		{
+			left   = Math.min(x-w,x+w);
+			right  = Math.max(x-w,x+w);
+			top    = Math.min(y-h,y+h);
+			bottom = Math.max(y-h,y+h);
+		}
+		return new float[] {left, top, right, bottom};
+	}
+
+	/** Clips a line from a global grid of hachure lines to the given rectangle. The lines of the grid are
+	 *  perpendicular to the unit vector (cos,-sin), with each line at a whole multiple of the gap along it.
+	 *  @param dist Distance of the line from the origin along the grid's normal vector.
+	 *  @param sin Sine of the hachure angle.
+	 *  @param cos Cosine of the hachure angle.
+	 *  @param left Left edge of the rectangle.
+	 *  @param top Top edge of the rectangle.
+	 *  @param right Right edge of the rectangle.
+	 *  @param bottom Bottom edge of the rectangle.
+	 *  @return Coordinates of the clipped line (x1,y1,x2,y2) or null if the line misses the rectangle.
+	 */
+	private static float[] clipHachure(double dist, double sin, double cos, float left, float top, float right, float bottom)
+	{
+		// Points on the line are (dist*cos + s*sin, -dist*sin + s*cos) for all values of s.
+		double x0 = dist*cos;
+		double y0 = -dist*sin;
+		double sMin = -Double.MAX_VALUE;
+		double sMax = Double.MAX_VALUE;
+
+		if (Math.abs(sin) > 0.0001)
+		{
+			double s1 = (left-x0)/sin;
+			double s2 = (right-x0)/sin;
+			sMin = Math.max(sMin, Math.min(s1,s2));
+			sMax = Math.min(sMax, Math.max(s1,s2));
+		}
+		else if ((x0 < left) || (x0 > right))
+		{
+			return null;
+		}
+
+		if (Math.abs(cos) > 0.0001)
+		{
+			double s1 = (top-y0)/cos;
+			double s2 = (bottom-y0)/cos;
+			sMin = Math.max(sMin, Math.min(s1,s2));
+			sMax = Math.min(sMax, Math.max(s1,s2));
+		}
+		else if ((y0 < top) || (y0 > bottom))
+		{
+			return null;
+		}
+
+		if (sMax <= sMin)
+		{
+			return null;
+		}
+		return new float[] {(float)(x0+sMin*sin), (float)(y0+sMin*cos), (float)(x0+sMax*sin), (float)(y0+sMax*cos)};
+	}
+
+	/** Starts drawing a primitive in boil mode. If the variant of the primitive due to be drawn in this frame
+	 *  has already been generated, it is drawn from its stored geometry. Otherwise the graphics context is
+	 *  replaced by one that records the primitive as it is drawn, with the random sequence seeded for the 
+	 *  variant. Primitives drawn while another is being drawn are treated as part of it. Each call that 
+	 *  returns true must be followed by a call to <code>endBoil()</code> once the primitive has been drawn.
+	 *  @param primitiveKey Key identifying the type and parameters of the primitive.
+	 *  @return True if the primitive should be drawn, or false if it has already been drawn.
 	 */
-	public void line(float x1, float y1, float z1, float x2, float y2, float z2)
-	{	
-		if ((graphics.stroke) || (overrideStrokeColour))
+	private boolean beginBoil(long primitiveKey)
+	{
+		if ((boilDepth > 0) || (isHandy == false))
 		{
-			if (isHandy == false)
-			{
-				graphics.line(x1,y1,z1,x2,y2,z2);
-				return;
-			}
+			boilDepth++;
+			return true;
+		}
 
-			graphics.pushStyle();
-			if (overrideStrokeColour)
-			{
-				graphics.stroke(strokeColour);
-			}
+		// The key includes everything other than the random sequence that affects the sketchy geometry.
+		long key = BoilCache.hash(primitiveKey, style.getKey());
+		key = BoilCache.hash(key, (graphics.fill ? 1 : 0) | (graphics.stroke ? 2 : 0) | (useSimplification ? 4 : 0) |
+		                          (useScreenScale ? 8 : 0) | (useCulling ? 16 : 0) | (useParallelHachure ? 32 : 0) |
+		                          (useJoinedLines ? 64 : 0));
+		key = BoilCache.hash(key, graphics.fillColor);
+		key = BoilCache.hash(key, graphics.strokeColor);
+		key = BoilCache.hash(key, graphics.strokeWeight);
+		key = BoilCache.hash(key, graphics.ellipseMode);
+		key = BoilCache.hash(key, graphics.rectMode);
+		key = BoilCache.hash(key, (governor == null) ? 0 : governor.getLevel());
+		updateScreenTransform();
+		if (currentMatrix != null)
+		{
+			key = BoilCache.hash(key, currentMatrix.m00);
+			key = BoilCache.hash(key, currentMatrix.m01);
+			key = BoilCache.hash(key, currentMatrix.m03);
+			key = BoilCache.hash(key, currentMatrix.m10);
+			key = BoilCache.hash(key, currentMatrix.m11);
+			key = BoilCache.hash(key, currentMatrix.m13);
+		}
 
-			if (strokeWeight > 0)
-			{
-				graphics.strokeWeight(strokeWeight);
-			}
+		boil.checkFrame(parent);
+		int primitive = boil.nextIndex();
+		long variant = boil.getVariant(primitive);
+		BoilCache.Sketch sketch = boil.find(primitive, key, variant);
+		if (sketch != null)
+		{
+			stats.numPrimitives++;
+			stats.numShapes += sketch.getNumShapes();
+			stats.numVertices += sketch.getNumVertices();
+			sketch.draw(graphics);
+			return false;
+		}
 
-			line(x1,y1,z1,x2,y2,z2,2);
+		// Variants use their own random sequence so the renderer's sequence is unaffected by whether they were cached.
+		boilGraphics = graphics;
+		graphics = boil.startCapture(graphics, primitive, key, variant);
+		sketchRand = rand;
+		rand = boilRand;
+		rand.setSeed(boil.getSeed(primitive, variant));
+		boilDepth = 1;
+		return true;
+	}
 
-			// Restore original stroke settings.
-			graphics.popStyle();
+	/** Finishes drawing a primitive started with a call to <code>beginBoil()</code> that returned true. If the 
+	 *  primitive was recorded, the graphics context is restored and the primitive drawn into it.
+	 */
+	private void endBoil()
+	{
+		if (boilDepth == 0)
+		{
+			return;
+		}
+		boilDepth--;
+		if ((boilDepth == 0) && (boilGraphics != null))
+		{
+			graphics = boilGraphics;
+			boilGraphics = null;
+			restoreRandom();
+			boil.endCapture().draw(graphics);
 		}
 	}
 
-	/** Converts an array list of numeric values into a floating point array.
-	 *  Useful for methods that require primitive arrays of floats based on a dynamic collection.
-	 *  @param list List of numbers to convert.
-	 *  @return Array of floats representing the list.
+	/** Restores the renderer's own random number generator after recording a variant in boil mode. Random
+	 *  numbers used by the variant are added to the renderer's count.
 	 */
-	public static float[] toArray(List<Float> list)
+	private void restoreRandom()
 	{
-		float[] array = new float[list.size()];
-		for (int i=0; i< list.size(); i++)
+		sketchRand.count += boilRand.count;
+		boilRand.count = 0;
+		rand = sketchRand;
+		sketchRand = null;
+	}
+
+	/** Provides the key identifying the shape defined by the current set of vertices when drawn in boil mode.
+	 *  @param closeShape Indicates if the shape is to be closed.
+	 *  @return Key identifying the shape.
+	 */
+	private long getVerticesKey(boolean closeShape)
+	{
+		long key = BoilCache.hash(BoilCache.hash(BoilCache.VERTICES, shapeMode), closeShape ? 1 : 0);
+		for (int i=0; i<vertices.size(); i++)
 		{
-			array[i] = list.get(i).floatValue();
+			float[] vertex = vertices.get(i);
+			key = BoilCache.hash(BoilCache.hash(key, vertex[0]), vertex[1]);
+			if (curveIndices.contains(i))
+			{
+				key = BoilCache.hash(key, -1);
+			}
 		}
-		return array;
+		return key;
 	}
 
-	// --------------------------------- Private methods --------------------------------- 
-
 	/** Draws a 2D line between the given coordinate pairs. This version allows the random offset of the 
 	 *  two end points to be set explicitly.
 	 *  @param x1 x coordinate of the start of the line.
@@ -1928,60 +3236,216 @@ public class HandyRenderer
 				graphics.line(x1,y1,x2,y2);
 				return;
 			}
-			graphics.pushStyle();
+			sketchLine(x1, y1, x2, y2, maxOffset, style, offsetScale, rand, lineVertices, 0);
+			drawSketchLine(lineVertices, 0);
+		}
+	}
 
-			// Ensure random perturbation is no more than 10% of line length.
-			float lenSq = (x1-x2)*(x1-x2) + (y1-y2)*(y1-y2);
-			float offset = maxOffset;
+	/** Draws a polyline as continuous sketchy strokes. Each vertex is perturbed once per stroke, each
+	 *  segment is given a slightly bowed midpoint, and the line overshoots a little at sharp corners before
+	 *  turning, so the whole line is drawn as a single curve per stroke rather than as separate lines.
+	 *  @param xCoords x coordinates of the polyline.
+	 *  @param yCoords y coordinates of the polyline.
+	 *  @param isClosed Indicates if the last vertex should be joined to the first.
+	 *  @param maxOffset Maximum random offset in pixel coordinates.
+	 */
+	private void joinedLine(float[] xCoords, float[] yCoords, boolean isClosed, float maxOffset)
+	{
+		int numVertices = xCoords.length;
+		int numSegments = isClosed ? numVertices : numVertices-1;
+		if ((graphics.stroke == false) || (numSegments < 1))
+		{
+			return;
+		}
 
-			if (maxOffset*maxOffset*100 > lenSq)
+		// Limit random perturbation of each vertex to 10% of the length of its shorter neighbouring segment.
+		float offset = maxOffset*offsetScale;
+		float[] limits = new float[numVertices];
+		Arrays.fill(limits, offset);
+		for (int i=0; i<numSegments; i++)
+		{
+			int j = (i+1)%numVertices;
+			float limit = (float)Math.sqrt(distSq(xCoords[i],yCoords[i],xCoords[j],yCoords[j]))/10;
+			limits[i] = Math.min(limits[i], limit);
+			limits[j] = Math.min(limits[j], limit);
+		}
+
+		int numCurves = (governor == null) ? 2 : governor.numStrokes;
+		float r = style.roughness;
+		float[] curve = new float[2*(2*numVertices+1)];
+		boolean[] isCorner = new boolean[2*numVertices+1];
+		graphics.pushStyle();
+		graphics.noFill();
+		stats.numStrokes++;
+
+		// Second stroke is drawn with half the random offset of the first.
+		for (int c=0; c<numCurves; c++)
+		{
+			float scale = (c == 0) ? 1 : 0.5f;
+			int n = 0;
+			float firstX = 0, firstY = 0;
+			for (int i=0; i<=numSegments; i++)
 			{
-				offset = (float)Math.sqrt(lenSq)/10;
-			}
+				int v = i%numVertices;
+				float o = limits[v]*scale;
+				float x = xCoords[v] + r*(rand.nextFloat()*(2*o)-o);
+				float y = yCoords[v] + r*(rand.nextFloat()*(2*o)-o);
+				if (i == 0)
+				{
+					firstX = x;
+					firstY = y;
+				}
 
-			float halfOffset = offset/2;
-			float divergePoint = 0.2f + rand.nextFloat()*0.2f;
+				// Overshoot sharp corners by continuing along the incoming segment before turning.
+				boolean hasIn  = isClosed || (i > 0);
+				boolean hasOut = (i < numSegments) || (isClosed && (i == numSegments));
+				int prev = (v+numVertices-1)%numVertices;
+				int next = (v+1)%numVertices;
+				float inX  = xCoords[v]-xCoords[prev];
+				float inY  = yCoords[v]-yCoords[prev];
+				float outX = xCoords[next]-xCoords[v];
+				float outY = yCoords[next]-yCoords[v];
+				float inLen  = (float)Math.sqrt(inX*inX + inY*inY);
+				float outLen = (float)Math.sqrt(outX*outX + outY*outY);
+				if (hasIn && hasOut && (inLen > 0) && (outLen > 0) && ((inX*outX + inY*outY)/(inLen*outLen) < CORNER_COS))
+				{
+					float overshoot = r*limits[v]*scale*(0.5f+rand.nextFloat());
+					if (i == numSegments)
+					{
+						// Closing corner overshoots the start of the line.
+						isCorner[n/2] = false;
+						n = addCurvePoint(curve, n, firstX + overshoot*inX/inLen, firstY + overshoot*inY/inLen);
+					}
+					else
+					{
+						isCorner[n/2] = true;
+						n = addCurvePoint(curve, n, x + overshoot*inX/inLen, y + overshoot*inY/inLen);
+					}
+				}
+				else
+				{
+					isCorner[n/2] = false;
+					n = addCurvePoint(curve, n, (i == numSegments) && isClosed ? firstX : x, (i == numSegments) && isClosed ? firstY : y);
+				}
 
+				// Bowed midpoint of the outgoing segment.
+				if (i < numSegments)
+				{
+					float midDispX = style.bowing*maxOffset*(yCoords[next]-yCoords[v])/200;
+					float midDispY = style.bowing*maxOffset*(xCoords[v]-xCoords[next])/200;
+					float bow = r*(2*rand.nextFloat()-1);
+					isCorner[n/2] = false;
+					n = addCurvePoint(curve, n, (xCoords[v]+xCoords[next])/2 + bow*midDispX + r*(rand.nextFloat()*(2*o)-o),
+					                            (yCoords[v]+yCoords[next])/2 + bow*midDispY + r*(rand.nextFloat()*(2*o)-o));
+				}
+			}
 
-			if (useSecondary)
+			// The whole stroke is one curve. End points are repeated as control points so the curve passes through
+			// them, and corners are given two extra copies so that the curve turns sharply there. Each extra copy adds
+			// a short spur along the incoming or outgoing segment, so the stroke overshoots the corner as a pen would.
+			int numPoints = n/2;
+			stats.numShapes++;
+			graphics.beginShape();
+			graphics.curveVertex(curve[0], curve[1]);
+			for (int p=0; p<numPoints; p++)
 			{
-				graphics.fill(secondaryColour);
+				int numCopies = isCorner[p] ? 3 : 1;
+				for (int copy=0; copy<numCopies; copy++)
+				{
+					graphics.curveVertex(curve[2*p], curve[2*p+1]);
+				}
+				stats.numVertices += numCopies;
 			}
-			else
+			graphics.curveVertex(curve[2*numPoints-2], curve[2*numPoints-1]);
+			graphics.endShape();
+			stats.numVertices += 2;
+		}
+		graphics.popStyle();
+	}
+
+	/** Adds a point to an array of interleaved curve coordinates.
+	 *  @param curve Array of coordinates, which must have space for the new point.
+	 *  @param n Number of coordinates already in the array.
+	 *  @param x x coordinate of the point.
+	 *  @param y y coordinate of the point.
+	 *  @return Number of coordinates in the array after adding the point.
+	 */
+	private static int addCurvePoint(float[] curve, int n, float x, float y)
+	{
+		curve[n]   = x;
+		curve[n+1] = y;
+		return n+2;
+	}
+
+	/** Draws the hachure lines filling a 2d shape, generating them in parallel if the shape is large
+	 *  enough to benefit. Each hachure line uses its own random seed so the result is the same whether
+	 *  or not it was generated in parallel.
+	 *  @param it Iterator providing the hachure lines crossing the shape's bounds.
+	 *  @param xCoords x coordinates of the shape's boundary.
+	 *  @param yCoords y coordinates of the shape's boundary.
+	 */
+	private void drawParallelHachure(HachureIterator it, float[] xCoords, float[] yCoords)
+	{
+		ArrayList<float[]> hachures = new ArrayList<float[]>();
+		float[] rectCoords = null;
+		while ((rectCoords=it.getNextLine()) != null)
+		{
+			hachures.add(rectCoords);
+		}
+
+		ParallelHachure hachure = new ParallelHachure(hachures, xCoords, yCoords, style, offsetScale, rand.nextLong());
+		hachure.generate((long)hachures.size()*xCoords.length >= PARALLEL_WORK);
+		stats.numRandomNumbers += hachure.getNumRandomNumbers();
+
+		if (graphics.stroke)
+		{
+			for (int band=0; band<hachure.getNumBands(); band++)
 			{
-				graphics.noFill();
+				float[] vertices = hachure.getBand(band);
+				int size = hachure.getBandSize(band);
+				for (int i=0; i<size; i+=NUM_LINE_VALUES)
+				{
+					drawSketchLine(vertices, i);
+				}
 			}
+		}
+	}
 
-			// This is the midpoint displacement value to give slightly bowed lines.
-			float midDispX = bowing*maxOffset*(y2-y1)/200;
-			float midDispY = bowing*maxOffset*(x1-x2)/200;
-
-			midDispX = getOffset(-midDispX,midDispX);
-			midDispY = getOffset(-midDispY,midDispY);
+	/** Draws a sketchy line whose vertices have been calculated by <code>sketchLine()</code>. The line is
+	 *  drawn as two curves with the current stroke settings, or just the first if a quality governor has 
+	 *  reduced the number of strokes.
+	 *  @param vertices Array holding the line's vertices.
+	 *  @param start Position in the array of the first of the line's vertices.
+	 */
+	private void drawSketchLine(float[] vertices, int start)
+	{
+		int numCurves = (governor == null) ? 2 : governor.numStrokes;
+		countStroke(numCurves);
+		graphics.pushStyle();
+		if (style.useSecondary)
+		{
+			graphics.fill(style.secondaryColour);
+		}
+		else
+		{
+			graphics.noFill();
+		}
 
+		for (int curve=0; curve<numCurves; curve++)
+		{
+			int i = start + curve*NUM_LINE_VALUES/2;
 			graphics.beginShape();
-			graphics.vertex(     x1 + getOffset(-offset,offset), y1 +getOffset(-offset,offset));
-			graphics.curveVertex(x1 + getOffset(-offset,offset), y1 +getOffset(-offset,offset));
-			graphics.curveVertex(midDispX+x1+(x2 -x1)*divergePoint + getOffset(-offset,offset), midDispY+y1 + (y2-y1)*divergePoint +getOffset(-offset,offset));
-			graphics.curveVertex(midDispX+x1+2*(x2-x1)*divergePoint + getOffset(-offset,offset), midDispY+y1+ 2*(y2-y1)*divergePoint +getOffset(-offset,offset)); 
-			graphics.curveVertex(x2 + getOffset(-offset,offset), y2 +getOffset(-offset,offset));
-			graphics.vertex(     x2 + getOffset(-offset,offset), y2 +getOffset(-offset,offset));
-			graphics.endShape();  
-			
-			graphics.beginShape();
-			graphics.vertex(     x1 + getOffset(-halfOffset,halfOffset), y1 +getOffset(-halfOffset,halfOffset));
-			graphics.curveVertex(x1 + getOffset(-halfOffset,halfOffset), y1 +getOffset(-halfOffset,halfOffset));
-			graphics.curveVertex(midDispX+x1+(x2 -x1)*divergePoint + getOffset(-halfOffset,halfOffset), midDispY+y1 + (y2-y1)*divergePoint +getOffset(-halfOffset,halfOffset));
-			graphics.curveVertex(midDispX+x1+2*(x2-x1)*divergePoint + getOffset(-halfOffset,halfOffset), midDispY+y1+ 2*(y2-y1)*divergePoint +getOffset(-halfOffset,halfOffset)); 
-			graphics.curveVertex(x2 + getOffset(-halfOffset,halfOffset), y2 +getOffset(-halfOffset,halfOffset));
-			graphics.vertex(     x2 + getOffset(-halfOffset,halfOffset), y2 +getOffset(-halfOffset,halfOffset));
+			graphics.vertex(     vertices[i],    vertices[i+1]);
+			graphics.curveVertex(vertices[i+2],  vertices[i+3]);
+			graphics.curveVertex(vertices[i+4],  vertices[i+5]);
+			graphics.curveVertex(vertices[i+6],  vertices[i+7]);
+			graphics.curveVertex(vertices[i+8],  vertices[i+9]);
+			graphics.vertex(     vertices[i+10], vertices[i+11]);
 			graphics.endShape();
-
-			graphics.popStyle();
 		}
+		graphics.popStyle();
 	}
 
-
 	/** Draws a 3D line between the given coordinate triplet. This version allows the random offset of the 
 	 *  two end points to be set explicitly.
 	 *  @param x1 x coordinate of the start of the line.
@@ -2009,21 +3473,22 @@ public class HandyRenderer
 
 			// Ensure random perturbation is no more than 10% of line length.
 			float lenSq = v1.x*v1.x + v1.y*v1.y + v1.z*v1.z;
-			float offset = maxOffset;
+			float offset = maxOffset*offsetScale;
 
-			if (maxOffset*maxOffset*100 > lenSq)
+			if (offset*offset*100 > lenSq)
 			{
 				offset = (float)Math.sqrt(lenSq)/10;
 			}
 
 			float halfOffset = offset/2;
 			float divergePoint = 0.2f + rand.nextFloat()*0.2f;
+			countStroke(2);
 
 			graphics.pushStyle();
 
-			if (useSecondary)
+			if (style.useSecondary)
 			{
-				graphics.fill(secondaryColour);
+				graphics.fill(style.secondaryColour);
 			}
 			else
 			{
@@ -2251,6 +3716,12 @@ public class HandyRenderer
 	 */
 	private void drawHachuredFace(float[] xCoords, float[] yCoords, float[] zCoords, float gap)
 	{
+		if (parent == null)
+		{
+			// Texture can only be created when associated with a sketch.
+			return;
+		}
+
 		// Bounding rectangle of the shape. For the 3d case, we use a fudge that attempts to find the 
 		// axis plane with most variation. This will work well for sides of a cuboid for example where each
 		// face is 2 dimensional and parallel to two axes. If a face varies in 3 dimensions, results may be distorted.
@@ -2306,13 +3777,14 @@ public class HandyRenderer
 		}
 
 		// Create hachured image and map it as a texture onto the shape.
-		HachureIterator hi = new HachureIterator(0, top-bottom, 0, right-left, gap, sinAngle, cosAngle, tanAngle);
+		HachureIterator hi = new HachureIterator(0, top-bottom, 0, right-left, gap, style.sinAngle, style.cosAngle, style.tanAngle);
 
 		float[] coords;
 		float[] prevCoords = hi.getNextLine();
 		PGraphics origGraphics = graphics;
 
 		PGraphics textureImg = parent.createGraphics((int)(right-left), (int)(top-bottom),PConstants.P3D);	
+		stats.numTextures++;
 				
 
 		textureImg.beginDraw();				
@@ -2327,7 +3799,7 @@ public class HandyRenderer
 
 			while ((coords=hi.getNextLine()) != null)
 			{
-				if (isAlternating)
+				if (style.isAlternating)
 				{
 					line(prevCoords[2],prevCoords[3],coords[0],coords[1],2);
 				}
@@ -2341,6 +3813,8 @@ public class HandyRenderer
 
 		graphics.noFill();
 		graphics.noStroke();
+		stats.numShapes++;
+		stats.numVertices += xCoords.length;
 		graphics.beginShape();
 		graphics.texture(textureImg);
 
@@ -2391,12 +3865,12 @@ public class HandyRenderer
 			List<float[]> coords = new ArrayList<float[]>();
 
 			v0 = vertices.get(0);
-			v0[0] += getOffset(-2, 2);
-			v0[1] += getOffset(-2, 2);
+			v0[0] += getOffset(-2*offsetScale, 2*offsetScale);
+			v0[1] += getOffset(-2*offsetScale, 2*offsetScale);
 
 			v0Prime = vertices.get(0);
-			v0Prime[0] += getOffset(-2, 2);
-			v0Prime[1] += getOffset(-2, 2);
+			v0Prime[0] += getOffset(-2*offsetScale, 2*offsetScale);
+			v0Prime[1] += getOffset(-2*offsetScale, 2*offsetScale);
 
 			for (int i=0; i<vertices.size(); i++)
 			{
@@ -2408,8 +3882,8 @@ public class HandyRenderer
 				v1 = v0;
 
 				v0 = new float[2];
-				v0[0] = vertices.get(i)[0]+getOffset(-2, 2);
-				v0[1] = vertices.get(i)[1]+getOffset(-2, 2);
+				v0[0] = vertices.get(i)[0]+getOffset(-2*offsetScale, 2*offsetScale);
+				v0[1] = vertices.get(i)[1]+getOffset(-2*offsetScale, 2*offsetScale);
 
 				if (isCurveVertex == false)
 				{
@@ -2422,7 +3896,11 @@ public class HandyRenderer
 					{
 						// Add enough vertices to approximate curve with a straight line.
 						float dist = distSq(v2[0], v2[1], v1[0], v1[1]);
-						float step = (25 + 300*roughness)/dist;
+						float step = (25 + 300*style.roughness)/dist;
+						if (governor != null)
+						{
+							step *= governor.curveStepScale;
+						}
 
 						for (float t=0; t<1; t+= step)
 						{
@@ -2447,19 +3925,19 @@ public class HandyRenderer
 
 			// Temporarily disable stroke settings while we draw the interior.
 			boolean isOStroke = graphics.stroke;
-			boolean oOverrideStroke = overrideStrokeColour;
+			boolean oOverrideStroke = style.overrideStrokeColour;
 			int oStroke = graphics.strokeColor;
 
 			graphics.noStroke();
-			overrideStrokeColour = false;
+			editStyle().overrideStrokeColour = false;
 
 			shape(xs, ys);
 
 			graphics.stroke = isOStroke;
-			overrideStrokeColour = oOverrideStroke;
-			if (overrideStrokeColour)
+			editStyle().overrideStrokeColour = oOverrideStroke;
+			if (style.overrideStrokeColour)
 			{
-				graphics.stroke(strokeColour);
+				graphics.stroke(style.strokeColour);
 			}
 			else if (graphics.stroke)
 			{
@@ -2468,24 +3946,24 @@ public class HandyRenderer
 		}
 
 		// Draw the outlines as curved lines.
-		if ((graphics.stroke) || (overrideStrokeColour))
+		if ((graphics.stroke) || (style.overrideStrokeColour))
 		{
-			boolean oOverrideFill = overrideFillColour;
+			boolean oOverrideFill = style.overrideFillColour;
 
 			graphics.noFill();
-			overrideFillColour = false;
-			if (strokeWeight > 0)
+			editStyle().overrideFillColour = false;
+			if (style.strokeWeight > 0)
 			{
-				graphics.strokeWeight(strokeWeight);
+				graphics.strokeWeight(style.strokeWeight);
 			}
 
 			v0 = vertices.get(0);
-			v0[0] += getOffset(-2, 2);
-			v0[1] += getOffset(-2, 2);
+			v0[0] += getOffset(-2*offsetScale, 2*offsetScale);
+			v0[1] += getOffset(-2*offsetScale, 2*offsetScale);
 
 			v0Prime = vertices.get(0);
-			v0Prime[0] += getOffset(-2, 2);
-			v0Prime[1] += getOffset(-2, 2);
+			v0Prime[0] += getOffset(-2*offsetScale, 2*offsetScale);
+			v0Prime[1] += getOffset(-2*offsetScale, 2*offsetScale);
 
 			for (int i=0; i<vertices.size(); i++)
 			{
@@ -2501,12 +3979,12 @@ public class HandyRenderer
 				v1Prime = v0Prime;
 
 				v0 = new float[2];
-				v0[0] = vertices.get(i)[0]+getOffset(-2, 2);
-				v0[1] = vertices.get(i)[1]+getOffset(-2, 2);
+				v0[0] = vertices.get(i)[0]+getOffset(-2*offsetScale, 2*offsetScale);
+				v0[1] = vertices.get(i)[1]+getOffset(-2*offsetScale, 2*offsetScale);
 
 				v0Prime = new float[2];
-				v0Prime[0] = vertices.get(i)[0]+getOffset(-2, 2);
-				v0Prime[1] = vertices.get(i)[1]+getOffset(-2, 2);
+				v0Prime[0] = vertices.get(i)[0]+getOffset(-2*offsetScale, 2*offsetScale);
+				v0Prime[1] = vertices.get(i)[1]+getOffset(-2*offsetScale, 2*offsetScale);
 
 				if (isCurveVertex == false)
 				{
@@ -2527,7 +4005,7 @@ public class HandyRenderer
 				}
 			}
 
-			overrideFillColour = oOverrideFill;
+			editStyle().overrideFillColour = oOverrideFill;
 		}
 
 		// Restore styles.
@@ -2535,6 +4013,153 @@ public class HandyRenderer
 	}
 
 
+	/** Reports the Douglas-Peucker tolerance used when simplifying shapes and polylines. This is
+	 *  proportional to the current roughness and expressed in the coordinate system of the current
+	 *  transformation so that removed detail is never larger than a fraction of a pixel on screen.
+	 *  Assumes <code>updateScreenTransform()</code> has been called for the primitive being drawn.
+	 *  @return Simplification tolerance in model coordinates.
+	 */
+	private float getSimplificationTolerance()
+	{
+		return SIMPLIFY_PIXELS*(1+style.roughness)/screenScale;
+	}
+
+	/** Reports the gap between adjacent hachure lines. If the fill gap has not been set explicitly, this 
+	 *  is proportional to the given stroke weight. The gap is widened if a quality governor has reduced
+	 *  quality. If adapting to screen scale, the gap is kept to at least
+	 *  a minimum number of pixels on screen. Assumes <code>updateScreenTransform()</code> has been called for
+	 *  the primitive being drawn.
+	 *  @param weight Stroke weight on which to base the gap if not set explicitly.
+	 *  @return Gap between hachure lines in model coordinates.
+	 */
+	private float getHachureGap(float weight)
+	{
+		float gap = style.fillGap;
+		if (gap < 0)
+		{
+			gap = weight*4;
+		}
+		if (governor != null)
+		{
+			gap *= governor.gapScale;
+		}
+
+		if (useScreenScale)
+		{
+			gap = Math.max(gap, MIN_GAP_PIXELS*offsetScale);
+		}
+		return gap;
+	}
+
+	/** Reports the angular step to use when drawing an ellipse, reducing the number of steps around the 
+	 *  ellipse if a quality governor has reduced quality.
+	 *  @param inc Angular step in radians at full quality.
+	 *  @return Angular step to use in radians.
+	 */
+	private float getGovernedInc(float inc)
+	{
+		if ((governor == null) || (governor.ellipseStepReduction == 0))
+		{
+			return inc;
+		}
+		int numSteps = Math.round(PConstants.TWO_PI/inc);
+		return PConstants.TWO_PI/Math.max(5, numSteps-governor.ellipseStepReduction);
+	}
+
+	/** Updates the transformation between model coordinates and screen pixels for the primitive about to
+	 *  be drawn. This is taken from any externally supplied transformation or otherwise from the graphics
+	 *  context's current matrix. It is only queried if it is needed for adapting to screen scale, culling
+	 *  or simplification.
+	 */
+	private void updateScreenTransform()
+	{
+		currentMatrix = null;
+		screenScale = 1;
+		offsetScale = 1;
+
+		if ((useScreenScale == false) && (useCulling == false) && (useSimplification == false))
+		{
+			return;
+		}
+
+		currentMatrix = (transform != null) ? transform : getMatrix(graphics, screenMatrix2D, screenMatrix);
+		if (currentMatrix == null)
+		{
+			return;
+		}
+
+		// Only the scaling in the x-y plane is relevant to sketchy geometry.
+		float scale = (float)Math.sqrt(Math.abs(currentMatrix.m00*currentMatrix.m11 - currentMatrix.m01*currentMatrix.m10));
+		if (scale > 0)
+		{
+			screenScale = scale;
+			if (useScreenScale)
+			{
+				offsetScale = 1/scale;
+			}
+		}
+	}
+
+	/** Reports whether a primitive with the given bounds in model coordinates would lie entirely outside the
+	 *  graphics context and so can be skipped. Always false unless culling is enabled for a 2d graphics context. 
+	 *  Assumes <code>updateScreenTransform()</code> has been called for the primitive being drawn.
+	 *  @param left Left edge of the primitive's bounds.
+	 *  @param top Top edge of the primitive's bounds.
+	 *  @param right Right edge of the primitive's bounds.
+	 *  @param bottom Bottom edge of the primitive's bounds.
+	 *  @return True if the primitive is off-screen.
+	 */
+	private boolean isOffscreen(float left, float top, float right, float bottom)
+	{
+		if ((useCulling == false) || (currentMatrix == null) || (graphics.is3D()))
+		{
+			return false;
+		}
+
+		// Allow for random offsets, bowing and stroke width when testing bounds.
+		float margin = 2*style.roughness*offsetScale + style.bowing*Math.max(right-left,bottom-top)/100 + graphics.strokeWeight;
+		left   -= margin;
+		top    -= margin;
+		right  += margin;
+		bottom += margin;
+
+		// Screen bounds of the transformed corners, found from each term's smaller and larger contribution.
+		PMatrix3D m = currentMatrix;
+		float minX = m.m03 + Math.min(m.m00*left, m.m00*right) + Math.min(m.m01*top, m.m01*bottom);
+		float maxX = m.m03 + Math.max(m.m00*left, m.m00*right) + Math.max(m.m01*top, m.m01*bottom);
+		float minY = m.m13 + Math.min(m.m10*left, m.m10*right) + Math.min(m.m11*top, m.m11*bottom);
+		float maxY = m.m13 + Math.max(m.m10*left, m.m10*right) + Math.max(m.m11*top, m.m11*bottom);
+
+		return (maxX < 0) || (maxY < 0) || (minX > graphics.width) || (minY > graphics.height);
+	}
+
+	/** Reports whether a polyline or polygon with the given coordinates would lie entirely outside the
+	 *  graphics context and so can be skipped. Always false unless culling is enabled for a 2d graphics context. 
+	 *  @param xCoords x coordinates of the primitive.
+	 *  @param yCoords y coordinates of the primitive.
+	 *  @return True if the primitive is off-screen.
+	 */
+	private boolean isOffscreen(float[] xCoords, float[] yCoords)
+	{
+		if ((useCulling == false) || (currentMatrix == null) || (graphics.is3D()))
+		{
+			return false;
+		}
+
+		float left   = xCoords[0];
+		float right  = xCoords[0];
+		float top    = yCoords[0];
+		float bottom = yCoords[0];
+		for (int i=1; i<xCoords.length; i++)
+		{
+			left   = Math.min(left, xCoords[i]);
+			right  = Math.max(right, xCoords[i]);
+			top    = Math.min(top, yCoords[i]);
+			bottom = Math.max(bottom, yCoords[i]);
+		}
+		return isOffscreen(left,top,right,bottom);
+	}
+
 	/** Generates a random offset scaled around the given range. Note that the offset can exceed
 	 *  the given maximum or minimum depending on the sketchiness of the renderer settings.
 	 *  @param minVal Approximate minimum value around which the offset is generated.
@@ -2542,7 +4167,21 @@ public class HandyRenderer
 	 */
 	private float getOffset(float minVal, float maxVal)
 	{
-		return roughness*(rand.nextFloat()*(maxVal-minVal)+minVal);
+		return style.roughness*(rand.nextFloat()*(maxVal-minVal)+minVal);
+	}
+
+	/** Counts a sketchy line in the rendering statistics.
+	 *  @param numCurves Number of curves with which the line is drawn.
+	 */
+	private void countStroke(int numCurves)
+	{
+		stats.numStrokes++;
+		stats.numShapes += numCurves;
+		stats.numVertices += numCurves*NUM_LINE_VALUES/4;
+		if (isHachuring)
+		{
+			stats.numHachureLines++;
+		}
 	}
 
 	/** Adds the curved vertices to build an ellipse.
@@ -2550,19 +4189,26 @@ public class HandyRenderer
 	 *  @param cy y coordinate of the centre of the ellipse.
 	 *  @param rx Radius in the x direction of the ellipse.
 	 *  @param ry Radius in the y direction of the ellipse.
+	 *  @param offset Maximum random offset of each vertex.
+	 *  @param overlap Angular overlap between the start and end of the ellipse boundary.
+	 *  @param inc Angular increment between vertices around the ellipse.
 	 */
-	private void buildEllipse(float cx, float cy, float rx, float ry, float offset, float overlap)
+	private void buildEllipse(float cx, float cy, float rx, float ry, float offset, float overlap, float inc)
 	{
 		float radialOffset = getOffset(-0.5f,0.5f)-PConstants.HALF_PI;
 
+		stats.numStrokes++;
+		stats.numShapes++;
+		stats.numVertices += 4;
 		graphics.beginShape();
 
 		// First control point should be penultimate point on ellipse.	
-		graphics.curveVertex(getOffset(-offset,offset)+cx+0.9f*rx*(float)Math.cos(radialOffset-ellipseInc),
-				getOffset(-offset,offset)+cy+0.9f*ry*(float)Math.sin(radialOffset-ellipseInc));
+		graphics.curveVertex(getOffset(-offset,offset)+cx+0.9f*rx*(float)Math.cos(radialOffset-inc),
+				getOffset(-offset,offset)+cy+0.9f*ry*(float)Math.sin(radialOffset-inc));
 
-		for (float theta=radialOffset; theta<PConstants.TWO_PI+radialOffset-0.01; theta+=ellipseInc)
+		for (float theta=radialOffset; theta<PConstants.TWO_PI+radialOffset-0.01; theta+=inc)
 		{
+			stats.numVertices++;
 			graphics.curveVertex(getOffset(-offset,offset)+cx+rx*(float)Math.cos(theta),
 					getOffset(-offset,offset)+cy+ry*(float)Math.sin(theta));
 		}
@@ -2579,6 +4225,60 @@ public class HandyRenderer
 		graphics.endShape();
 	}
 
+	/** Generates the scribble used to represent a single point. This is a small curved loop that turns
+	 *  a little more than once around the point, sized by the stroke weight and perturbed according to
+	 *  the roughness of the current style. The curve is flattened into straight line segments when it is
+	 *  generated so that drawing the scribble at each point does not need any curve calculations.
+	 *  @return Interleaved x and y offsets of the scribble's vertices from the point's location.
+	 */
+	private float[] buildPointTemplate()
+	{
+		float weight = (style.strokeWeight > 0) ? style.strokeWeight : graphics.strokeWeight;
+		float radius = 0.5f*Math.max(1, weight);
+
+		// First and last vertices are control points, so the curve itself spans the inner vertices.
+		float inc = 1.25f*PConstants.TWO_PI/(POINT_VERTICES-3);
+		float angle = rand.nextFloat()*PConstants.TWO_PI;
+		float[] xs = new float[POINT_VERTICES];
+		float[] ys = new float[POINT_VERTICES];
+		for (int v=0; v<POINT_VERTICES; v++)
+		{
+			float r = radius*(1+getOffset(-0.3f,0.3f));
+			xs[v] = r*(float)Math.cos(angle+v*inc);
+			ys[v] = r*(float)Math.sin(angle+v*inc);
+		}
+
+		// Flatten each Catmull-Rom span, as drawn by Processing's curveVertex(), into line segments.
+		int numSpans = POINT_VERTICES-3;
+		float[] template = new float[2*(numSpans*POINT_CURVE_STEPS+1)];
+		template[0] = xs[1];
+		template[1] = ys[1];
+		int i = 2;
+		for (int span=0; span<numSpans; span++)
+		{
+			for (int step=1; step<=POINT_CURVE_STEPS; step++)
+			{
+				float t = step/(float)POINT_CURVE_STEPS;
+				template[i++] = catmullRom(xs[span], xs[span+1], xs[span+2], xs[span+3], t);
+				template[i++] = catmullRom(ys[span], ys[span+1], ys[span+2], ys[span+3], t);
+			}
+		}
+		return template;
+	}
+
+	/** Calculates a position along a Catmull-Rom curve span between the second and third of the given values.
+	 *  @param p0 Value at the control point before the span.
+	 *  @param p1 Value at the start of the span.
+	 *  @param p2 Value at the end of the span.
+	 *  @param p3 Value at the control point after the span.
+	 *  @param t Position along the span between 0 (start) and 1 (end).
+	 *  @return Interpolated value.
+	 */
+	private static float catmullRom(float p0, float p1, float p2, float p3, float t)
+	{
+		return 0.5f*(2*p1 + (p2-p0)*t + (2*p0-5*p1+4*p2-p3)*t*t + (3*p1-p0-3*p2+p3)*t*t*t);
+	}
+
 	/** Applies a combined affine transformation that translates (cx,cy) to origin, rotates it, scales it
 	 *  according to the given aspect ratio and then translates back to (cx,cy)
 	 *  @param x x coordinate of the point to transform.
@@ -2601,33 +4301,6 @@ public class HandyRenderer
 		return new float[] {(float)(A+ C*x + D*y), (float)(B + E*x + F*y)};
 	}
 
-	/** Provides a list of the coordinates of interior lines that represent the intersections
-	 *  of a given line with a given shape boundary. 
-	 * @param lineCoords The endpoints of the line to intersect.
-	 * @param xCoords The x coordinates of the boundary of the shape to be intersected with the line.
-	 * @param yCoords The y coordinates of the boundary of the shape to be intersected with the line.
-	 * @return List of coordinates representing the intersecting lines.
-	 */
-	private static ArrayList<float[]> getIntersectingLines(float[] lineCoords, float[]xCoords, float[]yCoords)
-	{
-		TreeMap<Float,float[]> intersections = new TreeMap<Float,float[]>();
-		Segment s1 = new Segment(lineCoords[0],lineCoords[1],lineCoords[2],lineCoords[3]);
-
-		// Final all points of intersection between line and shape boundary and ensure they are ordered from the start of the line.
-		for (int i=0; i<xCoords.length; i++)
-		{
-			Segment s2 = new Segment(xCoords[i],yCoords[i],xCoords[(i+1)%xCoords.length],yCoords[(i+1)%xCoords.length]);
-
-			if (s1.compare(s2) == Segment.Relation.INTERSECTS)
-			{
-				intersections.put(new Float(distSq(s1.getIntersectionX(), s1.getIntersectionY(), lineCoords[0],lineCoords[1])), 
-						new float[] {s1.getIntersectionX(),s1.getIntersectionY()});
-			}
-		}
-
-		return new ArrayList<float[]>(intersections.values());
-	}
-
 	/** Calculates the squared distance between a given pair of points.
 	 * @param x1 x coordinate of first point.
 	 * @param y1 y coordinate of first point.
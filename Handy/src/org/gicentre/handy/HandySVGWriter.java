@@ -0,0 +1,419 @@
+package org.gicentre.handy;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import processing.core.PConstants;
+
+//*****************************************************************************************
+/** Graphics context that streams sketchy drawing directly to an SVG document. Consecutive paths
+ *  that share the same style are merged into a single SVG path element, and coordinates are written
+ *  with a fixed number of decimal places, so documents are much smaller than those produced by
+ *  recording sketchy output with Processing's own SVG renderer. Output is written as it is drawn
+ *  so memory use does not grow with the size of the document. To use, set it as the graphics
+ *  context of a <code>HandyRenderer</code> (or pass it to a sketch's <code>beginRecord()</code>
+ *  method) and call <code>endDraw()</code> once drawing is complete to finish the document.
+ *  Only paths that are stroked with an opaque colour and not filled are merged, so that overlapping
+ *  paths appear as they would on screen.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandySVGWriter extends HandyGeometrySink
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private Writer writer;					// Destination of the SVG document.
+	private StringBuilder buffer;			// Output waiting to be written.
+	private boolean hasHeader;				// Indicates if the document header has been written.
+	private boolean isFinished;				// Indicates if the document has been completed.
+	private boolean hasError;				// Indicates an error has occurred writing the document.
+	private int openStyleID;				// Style of the currently open path element or -1 if none open.
+	private boolean canExtend;				// Indicates if the open path element can be extended by the next path.
+	private char lastChar;					// Last character added to the path data.
+	private int precision;					// Number of decimal places in coordinates.
+	private long precisionScale;			// 10 raised to the power of the precision.
+
+	private static final int FLUSH_SIZE = 16384;	// Size of buffer at which output is written.
+
+	// ---------------------------------- Constructors -----------------------------------
+
+	/** Creates a writer that will stream an SVG document to the given file.
+	 *  @param fileName Name of file in which to store the SVG document.
+	 *  @param width Width of the SVG document.
+	 *  @param height Height of the SVG document.
+	 *  @throws IOException if the file cannot be created.
+	 */
+	public HandySVGWriter(String fileName, int width, int height) throws IOException
+	{
+		this(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8)), width, height);
+	}
+
+	/** Creates a writer that will stream an SVG document to the given output.
+	 *  @param writer Output to which the SVG document is sent. This will be closed when the document is finished.
+	 *  @param width Width of the SVG document.
+	 *  @param height Height of the SVG document.
+	 */
+	public HandySVGWriter(Writer writer, int width, int height)
+	{
+		super(width, height);
+		this.writer = writer;
+		buffer      = new StringBuilder(FLUSH_SIZE + 1024);
+		openStyleID = -1;
+		setPrecision(2);
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Sets the number of decimal places used when writing coordinates. Fewer decimal places give
+	 *  smaller files at the cost of positional accuracy. The default is 2.
+	 *  @param precision Number of decimal places, between 0 and 6.
+	 */
+	public void setPrecision(int precision)
+	{
+		this.precision = Math.max(0, Math.min(precision, 6));
+		precisionScale = 1;
+		for (int i=0; i<this.precision; i++)
+		{
+			precisionScale *= 10;
+		}
+	}
+
+	/** Completes the SVG document and closes its output. Any further drawing is ignored.
+	 */
+	@Override
+	public void endDraw()
+	{
+		if (isFinished)
+		{
+			return;
+		}
+		writeHeader();
+		closePathElement();
+		buffer.append("</svg>\n");
+		flush(true);
+		isFinished = true;
+
+		try
+		{
+			writer.close();
+		}
+		catch (IOException e)
+		{
+			reportError(e);
+		}
+	}
+
+	/** Ensures the SVG document is completed when this graphics context is no longer needed.
+	 */
+	@Override
+	public void dispose()
+	{
+		endDraw();
+		super.dispose();
+	}
+
+	// ------------------------------- Path construction methods -------------------------------
+
+	/** Starts a new path with the given style. If the previous path has the same style and it can be
+	 *  merged, this path will be added to it, otherwise a new path element is started.
+	 *  @param id ID of the style with which the path is to be drawn.
+	 */
+	@Override
+	protected void beginPath(int id)
+	{
+		if (isFinished)
+		{
+			return;
+		}
+		writeHeader();
+
+		if ((id == openStyleID) && (canExtend))
+		{
+			return;
+		}
+		closePathElement();
+
+		buffer.append("<path");
+		if (isFilled(id))
+		{
+			appendColour(" fill=\"", " fill-opacity=\"", getFillColour(id));
+		}
+		else
+		{
+			buffer.append(" fill=\"none\"");
+		}
+
+		if (isStroked(id))
+		{
+			appendColour(" stroke=\"", " stroke-opacity=\"", getStrokeColour(id));
+			buffer.append(" stroke-width=\"");
+			appendNumber(getStrokeWeight(id));
+			buffer.append('"');
+
+			int cap = getStrokeCap(id);
+			if (cap == PConstants.ROUND)
+			{
+				buffer.append(" stroke-linecap=\"round\"");
+			}
+			else if (cap == PConstants.PROJECT)
+			{
+				buffer.append(" stroke-linecap=\"square\"");
+			}
+
+			int join = getStrokeJoin(id);
+			if (join == PConstants.ROUND)
+			{
+				buffer.append(" stroke-linejoin=\"round\"");
+			}
+			else if (join == PConstants.BEVEL)
+			{
+				buffer.append(" stroke-linejoin=\"bevel\"");
+			}
+		}
+		buffer.append(" d=\"");
+		lastChar    = '"';
+		openStyleID = id;
+		canExtend   = isMergeable(id);
+	}
+
+	/** Adds a move command to the current path element.
+	 *  @param x x coordinate of the start of the sub-path.
+	 *  @param y y coordinate of the start of the sub-path.
+	 */
+	@Override
+	protected void moveTo(float x, float y)
+	{
+		appendCommand('M');
+		appendCoordinate(x);
+		appendCoordinate(y);
+	}
+
+	/** Adds a line command to the current path element.
+	 *  @param x x coordinate of the end of the segment.
+	 *  @param y y coordinate of the end of the segment.
+	 */
+	@Override
+	protected void lineTo(float x, float y)
+	{
+		appendCommand('L');
+		appendCoordinate(x);
+		appendCoordinate(y);
+	}
+
+	/** Adds a cubic Bezier command to the current path element.
+	 *  @param cx1 x coordinate of the first control point.
+	 *  @param cy1 y coordinate of the first control point.
+	 *  @param cx2 x coordinate of the second control point.
+	 *  @param cy2 y coordinate of the second control point.
+	 *  @param x x coordinate of the end of the segment.
+	 *  @param y y coordinate of the end of the segment.
+	 */
+	@Override
+	protected void curveTo(float cx1, float cy1, float cx2, float cy2, float x, float y)
+	{
+		appendCommand('C');
+		appendCoordinate(cx1);
+		appendCoordinate(cy1);
+		appendCoordinate(cx2);
+		appendCoordinate(cy2);
+		appendCoordinate(x);
+		appendCoordinate(y);
+	}
+
+	/** Adds a close command to the current path element.
+	 */
+	@Override
+	protected void closePath()
+	{
+		appendCommand('Z');
+	}
+
+	/** Ends the current path. The path element is left open so that following paths with the same
+	 *  style can be added to it.
+	 */
+	@Override
+	protected void endPath()
+	{
+		if (buffer.length() > FLUSH_SIZE)
+		{
+			flush(false);
+		}
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Writes the SVG document header if it has not already been written.
+	 */
+	private void writeHeader()
+	{
+		if (hasHeader)
+		{
+			return;
+		}
+		hasHeader = true;
+		buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		buffer.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+			  .append("\" height=\"").append(height)
+			  .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height).append("\">\n");
+	}
+
+	/** Closes the currently open path element if there is one.
+	 */
+	private void closePathElement()
+	{
+		if (openStyleID >= 0)
+		{
+			buffer.append("\"/>\n");
+			openStyleID = -1;
+		}
+	}
+
+	/** Adds a path command to the path data.
+	 *  @param command Path command letter.
+	 */
+	private void appendCommand(char command)
+	{
+		if (isFinished)
+		{
+			return;
+		}
+		buffer.append(command);
+		lastChar = command;
+	}
+
+	/** Adds a coordinate to the path data, separated from any previous number where necessary.
+	 *  @param value Coordinate to add.
+	 */
+	private void appendCoordinate(float value)
+	{
+		if (isFinished)
+		{
+			return;
+		}
+		// Separator depends on the rounded value, as a small negative number is written without a sign.
+		long scaled = Math.round((double)value*precisionScale);
+		if (Character.isDigit(lastChar) && (scaled >= 0))
+		{
+			buffer.append(' ');
+		}
+		appendScaled(scaled);
+		lastChar = '0';
+	}
+
+	/** Adds a number with the current fixed precision to the output. Trailing zeros after the
+	 *  decimal point are omitted.
+	 *  @param value Number to add.
+	 */
+	private void appendNumber(float value)
+	{
+		appendScaled(Math.round((double)value*precisionScale));
+	}
+
+	/** Adds a number that has been scaled and rounded to the current fixed precision to the output.
+	 *  Trailing zeros after the decimal point are omitted.
+	 *  @param scaled Number multiplied by the precision scaling and rounded.
+	 */
+	private void appendScaled(long scaled)
+	{
+		if (scaled < 0)
+		{
+			buffer.append('-');
+			scaled = -scaled;
+		}
+		buffer.append(scaled/precisionScale);
+
+		long fraction = scaled%precisionScale;
+		if (fraction != 0)
+		{
+			buffer.append('.');
+			long digit = precisionScale/10;
+			while (fraction > 0)
+			{
+				buffer.append((char)('0' + fraction/digit));
+				fraction %= digit;
+				digit /= 10;
+			}
+		}
+	}
+
+	/** Adds a colour attribute and, if the colour is not opaque, an opacity attribute to the output.
+	 *  @param colourAttribute Text of colour attribute up to and including the opening quote.
+	 *  @param opacityAttribute Text of opacity attribute up to and including the opening quote.
+	 *  @param colour ARGB colour to add.
+	 */
+	private void appendColour(String colourAttribute, String opacityAttribute, int colour)
+	{
+		buffer.append(colourAttribute).append('#');
+		String hex = Integer.toHexString(colour & 0xffffff);
+		for (int i=hex.length(); i<6; i++)
+		{
+			buffer.append('0');
+		}
+		buffer.append(hex).append('"');
+
+		int alpha = colour >>> 24;
+		if (alpha < 255)
+		{
+			int savedPrecision = precision;
+			setPrecision(3);
+			buffer.append(opacityAttribute);
+			appendNumber(alpha/255f);
+			buffer.append('"');
+			setPrecision(savedPrecision);
+		}
+	}
+
+	/** Writes buffered output.
+	 *  @param isFinal Indicates if this is the final output so the writer should be flushed.
+	 */
+	private void flush(boolean isFinal)
+	{
+		if (hasError == false)
+		{
+			try
+			{
+				writer.append(buffer);
+				if (isFinal)
+				{
+					writer.flush();
+				}
+			}
+			catch (IOException e)
+			{
+				reportError(e);
+			}
+		}
+		buffer.setLength(0);
+	}
+
+	/** Reports a problem writing the SVG document. Only the first problem is reported.
+	 *  @param e Exception describing the problem.
+	 */
+	private void reportError(IOException e)
+	{
+		if (hasError == false)
+		{
+			System.err.println("Problem writing SVG document: "+e.getMessage());
+		}
+		hasError = true;
+	}
+}
@@ -0,0 +1,442 @@
+package org.gicentre.handy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+//*****************************************************************************************
+/** Offscreen buffer of sketchy features that is redrawn incrementally, so that a small change to a
+ *  scene only costs in proportion to the area it affects. The sketchy geometry of each feature is
+ *  generated once, using a random seed derived from the feature's key, and its bounds, including the
+ *  random jitter and stroke weight, are stored in a spatial index. When a feature changes, only the
+ *  region it covered before and after the change is cleared and redrawn, using the stored geometry of
+ *  every feature overlapping that region. Because unchanged features are drawn from exactly the same
+ *  geometry, they remain pixel-identical. For example, to update one bar of a sketchy chart:
+ *  <pre>
+ *    scene = new HandySceneBuffer(h, width, height);
+ *    for (int i=0; i&lt;values.length; i++)
+ *    {
+ *      scene.addFeature(i, new Bar(i));
+ *    }
+ *
+ *    // In the sketch's draw() method:
+ *    scene.draw();
+ *
+ *    // When a value changes:
+ *    values[3] = 42;
+ *    scene.updateFeature(3);
+ *  </pre>
+ *  Features are drawn in the buffer's pixel coordinates in the order they were added. If the sketchy style
+ *  of the renderer given to the buffer changes, all features are regenerated. The buffer is composited
+ *  into the renderer's graphics context, without any transformation, each time <code>draw()</code> is called.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandySceneBuffer
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private HandyRenderer style;				// Renderer providing the sketchy style and graphics context to draw into.
+	private int width, height;					// Dimensions of the buffer in pixels.
+	private PGraphics buffer;					// Offscreen buffer holding the drawn scene, or null if not yet created.
+	private ArrayList<Feature> features;		// Features in drawing order, with null for removed features.
+	private HashMap<Long,Integer> ids;			// Position in the drawing order of each feature's key.
+	private SpatialGrid index;					// Bounds of each feature's geometry.
+	private ArrayList<float[]> dirtyRegions;	// Regions of the buffer that need to be redrawn.
+	private long styleKey;						// Key identifying the style with which features were generated.
+	private int numRedrawn;						// Number of features drawn by the last call to draw().
+
+	private static final float CELL_SIZE = 64;	// Width and height of the spatial index cells in pixels.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates an empty scene buffer of the given size.
+	 *  @param style Renderer providing the sketchy style with which features are drawn. The buffer is
+	 *               composited into this renderer's graphics context, and is created with the renderer
+	 *               of its parent sketch.
+	 *  @param width Width of the buffer in pixels.
+	 *  @param height Height of the buffer in pixels.
+	 */
+	public HandySceneBuffer(HandyRenderer style, int width, int height)
+	{
+		this.style  = style;
+		this.width  = width;
+		this.height = height;
+		features     = new ArrayList<Feature>();
+		ids          = new HashMap<Long,Integer>();
+		index        = new SpatialGrid(CELL_SIZE);
+		dirtyRegions = new ArrayList<float[]>();
+		styleKey     = style.getCurrentStyle().getKey();
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Adds a feature to be drawn on top of any existing features.
+	 *  @param key Key identifying the feature. This determines the feature's random variation so
+	 *             should be unique to the feature.
+	 *  @param feature Feature to draw.
+	 */
+	public void addFeature(long key, HandyDrawable feature)
+	{
+		if (ids.containsKey(Long.valueOf(key)))
+		{
+			System.err.println("Feature "+key+" already in scene, so has been replaced.");
+			setFeature(key, feature);
+			return;
+		}
+		ids.put(Long.valueOf(key), Integer.valueOf(features.size()));
+		features.add(new Feature(key, feature));
+	}
+
+	/** Replaces the drawing code of an existing feature, keeping its position in the drawing order. Its
+	 *  geometry will be regenerated the next time the scene is drawn.
+	 *  @param key Key identifying the feature.
+	 *  @param feature New drawing code for the feature.
+	 */
+	public void setFeature(long key, HandyDrawable feature)
+	{
+		Feature existing = getFeature(key);
+		if (existing != null)
+		{
+			existing.drawable = feature;
+			existing.isChanged = true;
+		}
+	}
+
+	/** Indicates that a feature's appearance has changed, for example because the data it represents
+	 *  have changed. Its geometry will be regenerated the next time the scene is drawn, with the same
+	 *  random seed as before.
+	 *  @param key Key identifying the feature.
+	 */
+	public void updateFeature(long key)
+	{
+		Feature feature = getFeature(key);
+		if (feature != null)
+		{
+			feature.isChanged = true;
+		}
+	}
+
+	/** Removes a feature from the scene.
+	 *  @param key Key identifying the feature.
+	 */
+	public void removeFeature(long key)
+	{
+		Feature feature = getFeature(key);
+		if (feature == null)
+		{
+			return;
+		}
+		int id = ids.remove(Long.valueOf(key)).intValue();
+		if (feature.bounds != null)
+		{
+			index.remove(id, feature.bounds[0], feature.bounds[1], feature.bounds[2], feature.bounds[3]);
+			addDirtyRegion(feature.bounds);
+		}
+		features.set(id, null);
+	}
+
+	/** Indicates that all features should be regenerated and the whole buffer redrawn the next time the
+	 *  scene is drawn.
+	 */
+	public void invalidate()
+	{
+		for (Feature feature : features)
+		{
+			if (feature != null)
+			{
+				feature.isChanged = true;
+			}
+		}
+		addDirtyRegion(new float[] {0, 0, width, height});
+	}
+
+	/** Indicates that the given region of the buffer should be redrawn the next time the scene is drawn,
+	 *  without regenerating the geometry of the features in the region.
+	 *  @param x Left edge of the region in pixels.
+	 *  @param y Top edge of the region in pixels.
+	 *  @param w Width of the region in pixels.
+	 *  @param h Height of the region in pixels.
+	 */
+	public void invalidateRegion(float x, float y, float w, float h)
+	{
+		addDirtyRegion(new float[] {Math.min(x, x+w), Math.min(y, y+h), Math.max(x, x+w), Math.max(y, y+h)});
+	}
+
+	/** Regenerates any changed features, redraws the regions of the buffer they affect and composites the
+	 *  buffer into the renderer's graphics context.
+	 */
+	public void draw()
+	{
+		update();
+
+		PGraphics graphics = style.getGraphics();
+		graphics.pushMatrix();
+		graphics.resetMatrix();
+		graphics.pushStyle();
+		graphics.imageMode(PConstants.CORNER);
+		graphics.noTint();
+		graphics.image(buffer, 0, 0, width, height);
+		graphics.popStyle();
+		graphics.popMatrix();
+	}
+
+	/** Regenerates any changed features and redraws the regions of the buffer they affect, without
+	 *  compositing the buffer.
+	 */
+	public void update()
+	{
+		numRedrawn = 0;
+		if (buffer == null)
+		{
+			PApplet parent = style.getParent();
+			if (parent == null)
+			{
+				System.err.println("Scene buffer's renderer has no parent sketch, so no buffer can be created.");
+				return;
+			}
+			buffer = parent.createGraphics(width, height, parent.sketchRenderer());
+			addDirtyRegion(new float[] {0, 0, width, height});
+		}
+
+		long currentStyleKey = style.getCurrentStyle().getKey();
+		if (currentStyleKey != styleKey)
+		{
+			styleKey = currentStyleKey;
+			invalidate();
+		}
+
+		// Regenerate changed features, redrawing the regions covered both before and after the change.
+		for (int id=0; id<features.size(); id++)
+		{
+			Feature feature = features.get(id);
+			if ((feature == null) || (feature.isChanged == false))
+			{
+				continue;
+			}
+			if (feature.bounds != null)
+			{
+				index.remove(id, feature.bounds[0], feature.bounds[1], feature.bounds[2], feature.bounds[3]);
+				addDirtyRegion(feature.bounds);
+			}
+			generate(feature);
+			if (feature.bounds != null)
+			{
+				index.add(id, feature.bounds[0], feature.bounds[1], feature.bounds[2], feature.bounds[3]);
+				addDirtyRegion(feature.bounds);
+			}
+		}
+
+		if (dirtyRegions.isEmpty())
+		{
+			return;
+		}
+		buffer.beginDraw();
+		for (float[] region : dirtyRegions)
+		{
+			redraw(region);
+		}
+		buffer.noClip();
+		buffer.endDraw();
+		dirtyRegions.clear();
+	}
+
+	/** Provides the offscreen buffer holding the drawn scene.
+	 *  @return Buffer holding the scene, or null if it has not yet been drawn.
+	 */
+	public PGraphics getBuffer()
+	{
+		return buffer;
+	}
+
+	/** Reports the number of features drawn into the buffer by the last call to <code>draw()</code> or
+	 *  <code>update()</code>. This indicates the cost of an update.
+	 *  @return Number of features drawn. A feature overlapping several redrawn regions is counted once for each.
+	 */
+	public int getNumRedrawn()
+	{
+		return numRedrawn;
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Generates the sketchy geometry of the given feature and calculates its bounds within the buffer.
+	 *  Features that lie entirely outside the buffer are given no bounds as they are never drawn.
+	 *  @param feature Feature to generate.
+	 */
+	private void generate(Feature feature)
+	{
+		HandyGeometryBuffer geometry = new HandyGeometryBuffer(width, height);
+		HandyRenderer handy = new HandyRenderer(geometry);
+		handy.copySettings(style);
+		handy.setSeed(HandyRenderer.mixSeed(feature.key));
+		feature.drawable.draw(handy, geometry);
+		geometry.endDraw();
+
+		feature.geometry = geometry;
+		feature.isChanged = false;
+		feature.bounds = null;
+
+		int numPoints = geometry.getNumPoints();
+		if (numPoints == 0)
+		{
+			return;
+		}
+
+		float[] coords = geometry.getCoordinates();
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		for (int p=0; p<numPoints; p++)
+		{
+			minX = Math.min(minX, coords[2*p]);
+			maxX = Math.max(maxX, coords[2*p]);
+			minY = Math.min(minY, coords[2*p+1]);
+			maxY = Math.max(maxY, coords[2*p+1]);
+		}
+
+		// Enlarge by the widest stroke so that the edges of strokes and any antialiasing are included.
+		float margin = 1;
+		for (int id=0; id<geometry.getNumStyles(); id++)
+		{
+			if (geometry.isStroked(id))
+			{
+				margin = Math.max(margin, geometry.getStrokeWeight(id));
+			}
+		}
+
+		// Clip to the buffer so that features extending far offscreen only occupy the index cells they can affect.
+		minX = Math.max(0, minX-margin);
+		minY = Math.max(0, minY-margin);
+		maxX = Math.min(width, maxX+margin);
+		maxY = Math.min(height, maxY+margin);
+		if ((minX < maxX) && (minY < maxY))
+		{
+			feature.bounds = new float[] {minX, minY, maxX, maxY};
+		}
+	}
+
+	/** Clears the given region of the buffer and draws all the features that overlap it.
+	 *  @param region Bounds of the region as left, top, right and bottom edges.
+	 */
+	private void redraw(float[] region)
+	{
+		// Align to whole pixels so that pixels at the edge of the region are completely redrawn.
+		int left   = Math.max(0, (int)Math.floor(region[0]));
+		int top    = Math.max(0, (int)Math.floor(region[1]));
+		int right  = Math.min(width, (int)Math.ceil(region[2]));
+		int bottom = Math.min(height, (int)Math.ceil(region[3]));
+		if ((right <= left) || (bottom <= top))
+		{
+			return;
+		}
+
+		buffer.imageMode(PConstants.CORNER);
+		buffer.clip(left, top, right-left, bottom-top);
+		buffer.pushStyle();
+		buffer.blendMode(PConstants.REPLACE);
+		buffer.noStroke();
+		buffer.fill(0, 0);
+		buffer.rectMode(PConstants.CORNER);
+		buffer.rect(left, top, right-left, bottom-top);
+		buffer.blendMode(PConstants.BLEND);
+		buffer.popStyle();
+
+		for (int id : index.query(left, top, right, bottom))
+		{
+			Feature feature = features.get(id);
+			float[] bounds = feature.bounds;
+			if ((bounds[0] < right) && (bounds[2] > left) && (bounds[1] < bottom) && (bounds[3] > top))
+			{
+				buffer.pushStyle();
+				feature.geometry.draw(buffer);
+				buffer.popStyle();
+				numRedrawn++;
+			}
+		}
+	}
+
+	/** Adds a region to be redrawn, merging it with any overlapping regions already waiting to be redrawn.
+	 *  @param region Bounds of the region as left, top, right and bottom edges.
+	 */
+	private void addDirtyRegion(float[] region)
+	{
+		float[] merged = region.clone();
+		boolean isMerging = true;
+		while (isMerging)
+		{
+			isMerging = false;
+			for (int i=0; i<dirtyRegions.size(); i++)
+			{
+				float[] other = dirtyRegions.get(i);
+				if ((other[0] <= merged[2]) && (other[2] >= merged[0]) && (other[1] <= merged[3]) && (other[3] >= merged[1]))
+				{
+					merged[0] = Math.min(merged[0], other[0]);
+					merged[1] = Math.min(merged[1], other[1]);
+					merged[2] = Math.max(merged[2], other[2]);
+					merged[3] = Math.max(merged[3], other[3]);
+					dirtyRegions.remove(i);
+					isMerging = true;
+					break;
+				}
+			}
+		}
+		dirtyRegions.add(merged);
+	}
+
+	/** Provides the feature with the given key, reporting an error if it does not exist.
+	 *  @param key Key identifying the feature.
+	 *  @return Feature with the given key or null if not found.
+	 */
+	private Feature getFeature(long key)
+	{
+		Integer id = ids.get(Long.valueOf(key));
+		if (id == null)
+		{
+			System.err.println("No feature "+key+" found in scene.");
+			return null;
+		}
+		return features.get(id.intValue());
+	}
+
+	// ---------------------------------- Nested classes ---------------------------------
+
+	/** A single feature in the scene and its generated geometry.
+	 */
+	private static class Feature
+	{
+		final long key;						// Key identifying the feature and its random seed.
+		HandyDrawable drawable;				// Drawing code for the feature.
+		HandyGeometryBuffer geometry;		// Generated geometry of the feature, or null if not yet generated.
+		float[] bounds;						// Bounds of the geometry within the buffer, or null if none is visible.
+		boolean isChanged;					// Indicates if the geometry needs to be generated.
+
+		/** Creates a feature whose geometry has yet to be generated.
+		 *  @param key Key identifying the feature and its random seed.
+		 *  @param drawable Drawing code for the feature.
+		 */
+		Feature(long key, HandyDrawable drawable)
+		{
+			this.key = key;
+			this.drawable = drawable;
+			isChanged = true;
+		}
+	}
+}
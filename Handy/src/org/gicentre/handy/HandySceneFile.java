@@ -0,0 +1,284 @@
+package org.gicentre.handy;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+//*****************************************************************************************
+/** Sketchy scene stored in a compact binary file that can be replayed without being parsed. A scene
+ *  is saved from the polylines of a <code>HandyGeometryBuffer</code> and loaded by memory-mapping the
+ *  file, so its geometry is read directly from the operating system's file cache rather than being
+ *  copied into Java objects. This allows large pre-designed scenes to be drawn as soon as they are
+ *  loaded. For example:
+ *  <pre>
+ *    HandyGeometryBuffer buffer = new HandyGeometryBuffer(width,height);
+ *    HandyRenderer h = new HandyRenderer(buffer);
+ *    // ... sketchy drawing with h ...
+ *    HandySceneFile.save(buffer, sketchPath("scene.hnd"));
+ *
+ *    HandySceneFile scene = HandySceneFile.load(sketchPath("scene.hnd"));
+ *    scene.draw(g);
+ *  </pre>
+ *  The file consists of a header, a table of styles, a table of polylines and the packed (x,y)
+ *  coordinates of all points, all stored as little-endian 4-byte values. Files are limited to 2Gb.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandySceneFile
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private int width, height;				// Dimensions of the graphics context in which the scene was drawn.
+	private int numStyles;					// Number of styles in the style table.
+	private int numPolylines;				// Number of polylines in the scene.
+	private int numPoints;					// Total number of points in the scene.
+	private IntBuffer styles;				// Style table.
+	private FloatBuffer weights;			// Style table viewed as floats to read stroke weights.
+	private IntBuffer polylines;			// Polyline table.
+	private FloatBuffer coords;				// Interleaved coordinates of all points.
+
+	private static final int MAGIC = 0x59444e48;	// Identifies a scene file ("HNDY" in little-endian order).
+	private static final int VERSION = 1;			// Version of the file format.
+	private static final int HEADER_INTS = 8;		// Number of 4-byte values in the header.
+	private static final int STYLE_INTS = 6;		// Number of 4-byte values in each style table entry.
+	private static final int POLYLINE_INTS = 2;		// Number of 4-byte values in each polyline table entry.
+	private static final int FILL_FLAG = 1;			// Style flag indicating a filled style.
+	private static final int STROKE_FLAG = 2;		// Style flag indicating a stroked style.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates a scene from the given mapped file contents.
+	 *  @param data Contents of the scene file.
+	 *  @throws IOException if the data are not a valid scene file.
+	 */
+	private HandySceneFile(ByteBuffer data) throws IOException
+	{
+		data.order(ByteOrder.LITTLE_ENDIAN);
+		IntBuffer header = data.asIntBuffer();
+		if ((data.capacity() < 4*HEADER_INTS) || (header.get(0) != MAGIC))
+		{
+			throw new IOException("Not a Handy scene file.");
+		}
+		if (header.get(1) != VERSION)
+		{
+			throw new IOException("Unsupported Handy scene file version "+header.get(1)+".");
+		}
+		width        = header.get(2);
+		height       = header.get(3);
+		numStyles    = header.get(4);
+		numPolylines = header.get(5);
+		numPoints    = header.get(6);
+
+		long expected = 4L*(HEADER_INTS + STYLE_INTS*(long)numStyles + POLYLINE_INTS*(long)numPolylines + 2L*numPoints);
+		if ((numStyles < 0) || (numPolylines < 0) || (numPoints < 0) || (expected != data.capacity()))
+		{
+			throw new IOException("Handy scene file is incomplete or corrupt.");
+		}
+
+		int position = 4*HEADER_INTS;
+		styles    = slice(data, position).asIntBuffer();
+		weights   = slice(data, position).asFloatBuffer();
+		position += 4*STYLE_INTS*numStyles;
+		polylines = slice(data, position).asIntBuffer();
+		position += 4*POLYLINE_INTS*numPolylines;
+		coords    = slice(data, position).asFloatBuffer();
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Saves the polylines stored in the given geometry buffer as a scene file.
+	 *  @param buffer Geometry buffer containing the scene to save.
+	 *  @param fileName Name of the file in which to save the scene.
+	 *  @throws IOException if the file cannot be written.
+	 */
+	public static void save(HandyGeometryBuffer buffer, String fileName) throws IOException
+	{
+		int numStyles    = buffer.getNumStyles();
+		int numPolylines = buffer.getNumPolylines();
+		int numPoints    = buffer.getNumPoints();
+		long size = 4L*(HEADER_INTS + STYLE_INTS*(long)numStyles + POLYLINE_INTS*(long)numPolylines + 2L*numPoints);
+		if (size > Integer.MAX_VALUE)
+		{
+			throw new IOException("Scene is too large to save as a Handy scene file.");
+		}
+
+		ByteBuffer data = ByteBuffer.allocateDirect((int)size).order(ByteOrder.LITTLE_ENDIAN);
+		data.putInt(MAGIC).putInt(VERSION).putInt(buffer.width).putInt(buffer.height);
+		data.putInt(numStyles).putInt(numPolylines).putInt(numPoints).putInt(0);
+
+		for (int id=0; id<numStyles; id++)
+		{
+			int flags = (buffer.isFilled(id) ? FILL_FLAG : 0) | (buffer.isStroked(id) ? STROKE_FLAG : 0);
+			data.putInt(flags).putInt(buffer.getFillColour(id)).putInt(buffer.getStrokeColour(id));
+			data.putFloat(buffer.getStrokeWeight(id)).putInt(buffer.getStrokeCap(id)).putInt(buffer.getStrokeJoin(id));
+		}
+
+		for (int i=0; i<numPolylines; i++)
+		{
+			data.putInt(buffer.getStart(i));
+			data.putInt((buffer.getStyleID(i) << 1) | (buffer.isClosed(i) ? 1 : 0));
+		}
+
+		data.asFloatBuffer().put(buffer.getCoordinates(), 0, 2*numPoints);
+		data.position(0);
+
+		RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+		try
+		{
+			FileChannel channel = file.getChannel();
+			channel.truncate(0);
+			while (data.hasRemaining())
+			{
+				channel.write(data);
+			}
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/** Loads a scene from the given file. The file is mapped into memory rather than read, so loading
+	 *  takes the same short time regardless of the size of the scene. The file should not be changed
+	 *  while the scene is in use.
+	 *  @param fileName Name of the scene file to load.
+	 *  @return Scene ready to be drawn.
+	 *  @throws IOException if the file cannot be read or is not a valid scene file.
+	 */
+	public static HandySceneFile load(String fileName) throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(fileName, "r");
+		try
+		{
+			FileChannel channel = file.getChannel();
+			return new HandySceneFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/** Draws the scene into the graphics context of the given renderer. As the scene's geometry is
+	 *  already sketchy, it is drawn as it was recorded rather than being sketched again.
+	 *  @param handy Renderer into whose graphics context the scene is drawn.
+	 */
+	public void draw(HandyRenderer handy)
+	{
+		draw(handy.getGraphics());
+	}
+
+	/** Draws the scene into the given graphics context using its stored styles.
+	 *  @param graphics Graphics context into which to draw.
+	 */
+	public void draw(PGraphics graphics)
+	{
+		graphics.pushStyle();
+		int lastStyle = -1;
+		for (int i=0; i<numPolylines; i++)
+		{
+			int styleAndClosed = polylines.get(POLYLINE_INTS*i+1);
+			int id = styleAndClosed >> 1;
+			if (id != lastStyle)
+			{
+				applyStyle(id, graphics);
+				lastStyle = id;
+			}
+
+			int start = polylines.get(POLYLINE_INTS*i);
+			int end = (i+1 < numPolylines) ? polylines.get(POLYLINE_INTS*(i+1)) : numPoints;
+			graphics.beginShape();
+			for (int p=start; p<end; p++)
+			{
+				graphics.vertex(coords.get(2*p), coords.get(2*p+1));
+			}
+			graphics.endShape(((styleAndClosed & 1) != 0) ? PConstants.CLOSE : PConstants.OPEN);
+		}
+		graphics.popStyle();
+	}
+
+	/** Reports the width of the graphics context in which the scene was drawn.
+	 *  @return Width in pixels.
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+
+	/** Reports the height of the graphics context in which the scene was drawn.
+	 *  @return Height in pixels.
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/** Reports the number of polylines in the scene.
+	 *  @return Number of polylines.
+	 */
+	public int getNumPolylines()
+	{
+		return numPolylines;
+	}
+
+	/** Reports the total number of points in the scene.
+	 *  @return Number of points.
+	 */
+	public int getNumPoints()
+	{
+		return numPoints;
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Sets the fill and stroke of the given graphics context to match the given style.
+	 *  @param id ID of the style to apply.
+	 *  @param graphics Graphics context to change.
+	 */
+	private void applyStyle(int id, PGraphics graphics)
+	{
+		if ((id < 0) || (id >= numStyles))
+		{
+			return;
+		}
+		int entry = STYLE_INTS*id;
+		int flags = styles.get(entry);
+		HandyGeometrySink.applyStyle(graphics, (flags & FILL_FLAG) != 0, styles.get(entry+1),
+									 (flags & STROKE_FLAG) != 0, styles.get(entry+2),
+									 weights.get(entry+3), styles.get(entry+4), styles.get(entry+5));
+	}
+
+	/** Provides a view of the given data starting at the given position, in little-endian order.
+	 *  @param data Data to view.
+	 *  @param position Position in bytes of the start of the view.
+	 *  @return View of the data.
+	 */
+	private static ByteBuffer slice(ByteBuffer data, int position)
+	{
+		ByteBuffer view = data.duplicate();
+		view.position(position);
+		return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
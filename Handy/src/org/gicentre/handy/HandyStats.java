@@ -0,0 +1,170 @@
+package org.gicentre.handy;
+
+//*****************************************************************************************
+/** Counts of the work done by a <code>HandyRenderer</code>, allowing the cost of drawing a frame to
+ *  be measured and slow views to be identified. Statistics are gathered continuously and are
+ *  normally collected once per frame, for example at the end of a sketch's <code>draw()</code> method:
+ *  <pre>
+ *    HandyStats stats = h.resetStats();
+ *    if (stats.getNumStrokes() > 20000)
+ *    {
+ *      println("Slow frame: "+stats);
+ *    }
+ *  </pre>
+ *  Statistics objects provided by a renderer are snapshots that do not change once provided.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyStats implements HandyStatsMBean
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	long numPrimitives;				// Number of primitives drawn.
+	long numStrokes;				// Number of sketchy strokes drawn.
+	long numVertices;				// Number of vertices passed to the graphics context.
+	long numShapes;					// Number of shapes started in the graphics context.
+	long numHachureLines;			// Number of hachure lines drawn.
+	long numRandomNumbers;			// Number of 32-bit random values generated.
+	long numTextures;				// Number of offscreen textures created.
+
+	// ---------------------------------- Constructors -----------------------------------
+
+	/** Creates a set of statistics with all counts set to zero.
+	 */
+	HandyStats()
+	{
+		// Do nothing.
+	}
+
+	/** Creates a copy of the given statistics.
+	 *  @param other Statistics to copy.
+	 */
+	HandyStats(HandyStats other)
+	{
+		set(other);
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Reports the number of primitives drawn. Primitives that are built from simpler ones, such as
+	 *  quads, arcs, boxes and shapes defined with <code>vertex()</code> calls, count once for each of
+	 *  the simpler primitives. Primitives that were not drawn because they were offscreen are included.
+	 *  @return Number of primitives.
+	 */
+	@Override
+	public synchronized long getNumPrimitives()
+	{
+		return numPrimitives;
+	}
+
+	/** Reports the number of sketchy strokes drawn, including hachure lines. Each stroke is drawn as
+	 *  one or more curves.
+	 *  @return Number of strokes.
+	 */
+	@Override
+	public synchronized long getNumStrokes()
+	{
+		return numStrokes;
+	}
+
+	/** Reports the number of vertices passed to the graphics context, including curve vertices.
+	 *  @return Number of vertices.
+	 */
+	@Override
+	public synchronized long getNumVertices()
+	{
+		return numVertices;
+	}
+
+	/** Reports the number of shapes started in the graphics context with <code>beginShape()</code>.
+	 *  @return Number of shapes.
+	 */
+	@Override
+	public synchronized long getNumShapes()
+	{
+		return numShapes;
+	}
+
+	/** Reports the number of hachure lines drawn when filling shapes.
+	 *  @return Number of hachure lines.
+	 */
+	@Override
+	public synchronized long getNumHachureLines()
+	{
+		return numHachureLines;
+	}
+
+	/** Reports the number of 32-bit random values generated to provide sketchy variation. Values
+	 *  generated on other threads when hachuring in parallel are included.
+	 *  @return Number of random values.
+	 */
+	@Override
+	public synchronized long getNumRandomNumbers()
+	{
+		return numRandomNumbers;
+	}
+
+	/** Reports the number of offscreen textures created. These are used to hachure the faces of 3d shapes.
+	 *  @return Number of textures.
+	 */
+	@Override
+	public synchronized long getNumTextures()
+	{
+		return numTextures;
+	}
+
+	/** Provides a one-line summary of the statistics.
+	 *  @return Summary of the statistics.
+	 */
+	@Override
+	public synchronized String toString()
+	{
+		return "primitives: "+numPrimitives+", strokes: "+numStrokes+", vertices: "+numVertices+
+			   ", shapes: "+numShapes+", hachure lines: "+numHachureLines+
+			   ", random numbers: "+numRandomNumbers+", textures: "+numTextures;
+	}
+
+	// ------------------------------- Package-wide methods -------------------------------
+
+	/** Sets the counts to match the given statistics.
+	 *  @param other Statistics to copy.
+	 */
+	synchronized void set(HandyStats other)
+	{
+		numPrimitives    = other.numPrimitives;
+		numStrokes       = other.numStrokes;
+		numVertices      = other.numVertices;
+		numShapes        = other.numShapes;
+		numHachureLines  = other.numHachureLines;
+		numRandomNumbers = other.numRandomNumbers;
+		numTextures      = other.numTextures;
+	}
+
+	/** Sets all counts to zero.
+	 */
+	void reset()
+	{
+		numPrimitives    = 0;
+		numStrokes       = 0;
+		numVertices      = 0;
+		numShapes        = 0;
+		numHachureLines  = 0;
+		numRandomNumbers = 0;
+		numTextures      = 0;
+	}
+}
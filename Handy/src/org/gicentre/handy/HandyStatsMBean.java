@@ -0,0 +1,61 @@
+package org.gicentre.handy;
+
+//*****************************************************************************************
+/** Management interface through which the rendering statistics of a <code>HandyRenderer</code>
+ *  can be monitored with JMX tools such as JConsole or VisualVM. Values are those of the most
+ *  recently completed frame.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public interface HandyStatsMBean
+{
+	/** Reports the number of primitives drawn.
+	 *  @return Number of primitives.
+	 */
+	public long getNumPrimitives();
+
+	/** Reports the number of sketchy strokes drawn.
+	 *  @return Number of strokes.
+	 */
+	public long getNumStrokes();
+
+	/** Reports the number of vertices passed to the graphics context.
+	 *  @return Number of vertices.
+	 */
+	public long getNumVertices();
+
+	/** Reports the number of shapes started in the graphics context with <code>beginShape()</code>.
+	 *  @return Number of shapes.
+	 */
+	public long getNumShapes();
+
+	/** Reports the number of hachure lines drawn.
+	 *  @return Number of hachure lines.
+	 */
+	public long getNumHachureLines();
+
+	/** Reports the number of 32-bit random values generated.
+	 *  @return Number of random values.
+	 */
+	public long getNumRandomNumbers();
+
+	/** Reports the number of offscreen textures created.
+	 *  @return Number of textures.
+	 */
+	public long getNumTextures();
+}
@@ -0,0 +1,124 @@
+package org.gicentre.handy;
+
+import java.util.Random;
+
+//*****************************************************************************************
+/** A sketchy polyline that grows as points are appended to it, such as the line of a live time
+ *  series. Each segment is sketched once, when the point that ends it is added, and its sketchy
+ *  vertices are kept in a ring buffer along with the points themselves. Drawing the line only draws
+ *  the stored segments, so the cost of each update depends on the number of new points rather than
+ *  the length of the line, and existing segments do not change their appearance between frames.
+ *  Once the maximum number of points has been reached, each new point replaces the oldest. For example:
+ *  <pre>
+ *    trace = new HandyStreamLine(h, 500);
+ *
+ *    // In the sketch's draw() method:
+ *    trace.add(frameCount, height-reading());
+ *    pushMatrix();
+ *    translate(width-frameCount, 0);
+ *    trace.draw();
+ *    popMatrix();
+ *  </pre>
+ *  Segments are sketched with the renderer's style at the time they are added, with random offsets in the
+ *  line's own coordinates, and drawn with the renderer's stroke settings at the time the line is drawn.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyStreamLine
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private HandyRenderer handy;		// Renderer that sketches and draws the line.
+	private Random rand;				// Random number generator providing the variation of new segments.
+	private float[] points;				// Ring of interleaved x,y point coordinates.
+	private float[] segments;			// Ring of sketchy vertices of the segment ending at each point.
+	private int first;					// Position in the rings of the oldest point.
+	private int numPoints;				// Number of points in the line.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates an empty streaming polyline.
+	 *  @param handy Renderer used to sketch and draw the line. The line's random variation is seeded from
+	 *               this renderer's random sequence, so is repeatable if the renderer's seed has been set.
+	 *  @param maxPoints Maximum number of points retained. Once reached, adding a point removes the oldest.
+	 */
+	public HandyStreamLine(HandyRenderer handy, int maxPoints)
+	{
+		this.handy = handy;
+		if (maxPoints < 2)
+		{
+			System.err.println("Streaming polyline must retain at least 2 points, so "+maxPoints+" ignored.");
+			maxPoints = 2;
+		}
+		rand     = new Random(handy.nextSeed());
+		points   = new float[2*maxPoints];
+		segments = new float[maxPoints*HandyRenderer.NUM_LINE_VALUES];
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Appends a point to the end of the line, sketching the segment that joins it to the previous point.
+	 *  @param x x coordinate of the new point.
+	 *  @param y y coordinate of the new point.
+	 */
+	public void add(float x, float y)
+	{
+		int capacity = points.length/2;
+		int last = (first+numPoints-1)%capacity;
+		int next = (first+numPoints)%capacity;
+		if (numPoints == capacity)
+		{
+			first = (first+1)%capacity;
+		}
+		else
+		{
+			numPoints++;
+		}
+
+		points[2*next]   = x;
+		points[2*next+1] = y;
+		if (numPoints > 1)
+		{
+			HandyRenderer.sketchLine(points[2*last], points[2*last+1], x, y, 2, handy.getCurrentStyle(), 1, rand,
+									 segments, next*HandyRenderer.NUM_LINE_VALUES);
+		}
+	}
+
+	/** Draws the line into the renderer's graphics context.
+	 */
+	public void draw()
+	{
+		handy.drawRingPolyLine(points, segments, first, numPoints);
+	}
+
+	/** Removes all points from the line.
+	 */
+	public void clear()
+	{
+		first = 0;
+		numPoints = 0;
+	}
+
+	/** Reports the number of points currently in the line.
+	 *  @return Number of points, which is never more than the maximum number retained.
+	 */
+	public int getNumPoints()
+	{
+		return numPoints;
+	}
+}
@@ -0,0 +1,185 @@
+package org.gicentre.handy;
+
+import processing.core.PApplet;
+
+//*****************************************************************************************
+/** Immutable set of sketchy style settings that can be applied to a <code>HandyRenderer</code>.
+ *  All values needed for drawing, including the trigonometry of the hachure angle, are calculated
+ *  when the style is created, so switching a renderer between styles costs no more than assigning
+ *  a reference. Styles are obtained from a configured renderer's <code>getStyle()</code> method or
+ *  from <code>HandyPresets</code>. For example:
+ *  <pre>
+ *    HandyStyle pencil = HandyPresets.createPencilStyle(this);
+ *    HandyStyle marker = HandyPresets.createMarkerStyle(this);
+ *    ...
+ *    h.setStyle(pencil);
+ *    h.rect(50,50,200,100);
+ *    h.setStyle(marker);
+ *    h.rect(300,50,200,100);
+ *  </pre>
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyStyle
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	// Values are only changed by a HandyRenderer while it holds the only reference to a style.
+	int fillColour, strokeColour;			// Main fill and stroke colours.
+	int bgColour, secondaryColour;			// Background colour and secondary fill colour.
+	boolean overrideFillColour;				// Determines whether the fill colour is based on parent's fill colour or the setting in this style.
+	boolean overrideStrokeColour;			// Determines whether the stroke colour is based on parent's stroke colour or the setting in this style.
+	boolean useSecondary;					// Determines whether secondary colour is to be used.
+	boolean isAlternating;					// Determines whether hachuring alternates in direction in continuous stroke.
+	float hachureAngle;						// Angle of diagonal hachuring in radians.
+	float cosAngle,sinAngle,tanAngle;		// Lookups for quick calculations.
+	float anglePerturbation;				// Random perturbation in hachure angle per object drawn.
+	float fillWeight, fillGap;				// Hachure filling characteristics.
+	float strokeWeight;						// Stroke weight for lines.
+	float roughness;						// Scaling for random perturbations.
+	float bowing;							// Scaling of the 'bowing' of lines at their midpoint.
+
+	// ---------------------------------- Constructors -----------------------------------
+
+	/** Creates a style with all values set to zero. Values are expected to be set by the renderer
+	 *  that creates the style.
+	 */
+	HandyStyle()
+	{
+		// Values set by the renderer.
+	}
+
+	/** Creates a copy of the given style.
+	 *  @param other Style to copy.
+	 */
+	HandyStyle(HandyStyle other)
+	{
+		set(other);
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Reports the general roughness of the style.
+	 *  @return Roughness where 0 is precise and larger values are more sketchy.
+	 */
+	public float getRoughness()
+	{
+		return roughness;
+	}
+
+	/** Reports the amount of 'bowing' of lines drawn in this style.
+	 *  @return Degree of bowing of straight lines.
+	 */
+	public float getBowing()
+	{
+		return bowing;
+	}
+
+	/** Reports the angle of hachure lines drawn in this style.
+	 *  @return Angle of hachures in degrees.
+	 */
+	public float getHachureAngle()
+	{
+		return PApplet.degrees(hachureAngle);
+	}
+
+	/** Reports the gap between fill lines drawn in this style.
+	 *  @return Gap between fill lines in pixel units, zero if solid fill is used or negative if based on stroke weight.
+	 */
+	public float getFillGap()
+	{
+		return fillGap;
+	}
+
+	/** Reports the thickness of fill lines drawn in this style.
+	 *  @return Fill weight in pixel units, or zero or negative if based on stroke weight.
+	 */
+	public float getFillWeight()
+	{
+		return fillWeight;
+	}
+
+	/** Reports the thickness of outer lines drawn in this style.
+	 *  @return Stroke weight in pixel units, or zero or negative if based on the sketch's stroke weight.
+	 */
+	public float getStrokeWeight()
+	{
+		return strokeWeight;
+	}
+
+	// ------------------------------- Package-wide methods -------------------------------
+
+	/** Sets all values of this style to match the given style. This should only be called by a renderer
+	 *  holding the only reference to this style.
+	 *  @param other Style to copy.
+	 */
+	void set(HandyStyle other)
+	{
+		fillColour           = other.fillColour;
+		strokeColour         = other.strokeColour;
+		bgColour             = other.bgColour;
+		secondaryColour      = other.secondaryColour;
+		overrideFillColour   = other.overrideFillColour;
+		overrideStrokeColour = other.overrideStrokeColour;
+		useSecondary         = other.useSecondary;
+		isAlternating        = other.isAlternating;
+		hachureAngle         = other.hachureAngle;
+		cosAngle             = other.cosAngle;
+		sinAngle             = other.sinAngle;
+		tanAngle             = other.tanAngle;
+		anglePerturbation    = other.anglePerturbation;
+		fillWeight           = other.fillWeight;
+		fillGap              = other.fillGap;
+		strokeWeight         = other.strokeWeight;
+		roughness            = other.roughness;
+		bowing               = other.bowing;
+	}
+
+	/** Sets the hachure angle and the lookups calculated from it. This should only be called by a 
+	 *  renderer holding the only reference to this style.
+	 *  @param degrees Angle of hachures in degrees where 0 is vertical, 45 is NE-SW and 90 is horizontal.
+	 */
+	void setHachureAngle(float degrees)
+	{
+		hachureAngle = PApplet.radians(degrees%180);
+		cosAngle = (float)Math.cos(hachureAngle);
+		sinAngle = (float)Math.sin(hachureAngle);
+		tanAngle = (float)Math.tan(hachureAngle);
+	}
+
+	/** Provides a key identifying the values of this style, so that primitives drawn with the same
+	 *  values can be recognised regardless of which style object holds them.
+	 *  @return Key derived from all the style's values.
+	 */
+	long getKey()
+	{
+		int flags = (overrideFillColour ? 1 : 0) | (overrideStrokeColour ? 2 : 0) | 
+		            (useSecondary ? 4 : 0) | (isAlternating ? 8 : 0);
+		long key = BoilCache.hash(flags, fillColour);
+		key = BoilCache.hash(key, strokeColour);
+		key = BoilCache.hash(key, bgColour);
+		key = BoilCache.hash(key, secondaryColour);
+		key = BoilCache.hash(key, hachureAngle);
+		key = BoilCache.hash(key, anglePerturbation);
+		key = BoilCache.hash(key, fillWeight);
+		key = BoilCache.hash(key, fillGap);
+		key = BoilCache.hash(key, strokeWeight);
+		key = BoilCache.hash(key, roughness);
+		return BoilCache.hash(key, bowing);
+	}
+}
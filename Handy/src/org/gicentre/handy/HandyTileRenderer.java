@@ -0,0 +1,487 @@
+package org.gicentre.handy;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.imageio.ImageIO;
+
+//*****************************************************************************************
+/** Renders sketchy features as a pyramid of square map tiles. The sketchy geometry of each feature
+ *  is generated once per zoom level, using a random seed derived from the feature's key rather than
+ *  from a shared random sequence, so a feature has exactly the same appearance in every tile it
+ *  crosses and edges shared between neighbouring tiles match. Generated geometry is indexed by tile
+ *  so each tile only draws the features that overlap it, and both geometry generation and tile
+ *  rendering are spread across the threads of a fork-join pool. For example:
+ *  <pre>
+ *    HandyTileRenderer tiles = new HandyTileRenderer(h, 1000, 256);
+ *    tiles.addFeature(1, new HandyDrawable()
+ *    {
+ *      public void draw(HandyRenderer handy, PGraphics graphics)
+ *      {
+ *        graphics.fill(180,80,80);
+ *        handy.rect(100,100,400,300);
+ *      }
+ *    });
+ *    tiles.renderPyramid(0, 4, new File("tiles"));
+ *  </pre>
+ *  Features are drawn in world coordinates, with the world being a square whose top-left corner is
+ *  at (0,0). At zoom level <i>z</i> the world is covered by 2<sup><i>z</i></sup> by 2<sup><i>z</i></sup>
+ *  tiles. Sketchiness and stroke weights are kept constant in tile pixels at all zoom levels. As
+ *  geometry is generated with single precision coordinates, the deepest zoom level is the one at
+ *  which the world is 2<sup>23</sup> pixels across (zoom level 15 for 256 pixel tiles), beyond
+ *  which coordinates would be less precise than half a pixel and edges between tiles would not match.
+ *  Because features may be drawn on several threads at once, their drawing code should not change
+ *  any shared state.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class HandyTileRenderer
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private HandyRenderer style;				// Renderer providing the sketchy style settings.
+	private float worldSize;					// Width and height of the world in feature coordinates.
+	private int tileSize;						// Width and height of each tile in pixels.
+	private ArrayList<Long> keys;				// Key of each feature.
+	private ArrayList<HandyDrawable> features;	// Features in drawing order.
+	private ForkJoinPool pool;					// Threads used to generate geometry and render tiles.
+	private Level level;						// Geometry of the most recently used zoom level.
+	private int maxZoom;						// Deepest zoom level supported with the tile size.
+
+	private static final int FEATURE_GRAIN = 8;				// Number of features below which generation is not split between threads.
+	private static final int MAX_WORLD_PIXELS = 1 << 23;	// Largest world width in pixels at which float coordinates are within half a pixel.
+	private static final int MAX_INDEXED_TILES = 64;		// Number of tiles above which a feature is not added to the tile index.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates a tile renderer with no features.
+	 *  @param style Renderer whose sketchy style settings are used to draw features. Settings are
+	 *               read each time a zoom level's geometry is generated.
+	 *  @param worldSize Width and height of the world in feature coordinates.
+	 *  @param tileSize Width and height of each tile in pixels.
+	 */
+	public HandyTileRenderer(HandyRenderer style, float worldSize, int tileSize)
+	{
+		this.style     = style;
+		this.worldSize = worldSize;
+		this.tileSize  = tileSize;
+		keys     = new ArrayList<Long>();
+		features = new ArrayList<HandyDrawable>();
+		pool     = ForkJoinPool.commonPool();
+
+		maxZoom = 0;
+		while ((long)tileSize << (maxZoom+1) <= MAX_WORLD_PIXELS)
+		{
+			maxZoom++;
+		}
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Adds a feature to be drawn in the tiles. Features are drawn in the order they are added.
+	 *  @param key Key identifying the feature. This determines the feature's random variation so
+	 *             should be unique to the feature and the same each time the tiles are rendered.
+	 *  @param feature Feature to draw.
+	 */
+	public synchronized void addFeature(long key, HandyDrawable feature)
+	{
+		keys.add(Long.valueOf(key));
+		features.add(feature);
+		level = null;
+	}
+
+	/** Removes all features and any geometry generated from them.
+	 */
+	public synchronized void clear()
+	{
+		keys.clear();
+		features.clear();
+		level = null;
+	}
+
+	/** Sets the fork-join pool used to generate geometry and render tiles. By default the common pool is used.
+	 *  @param pool Pool of threads to use.
+	 */
+	public void setPool(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+
+	/** Reports the deepest zoom level that can be rendered. This depends on the tile size, as at deeper
+	 *  levels the single precision coordinates of the sketchy geometry would be less precise than half a pixel.
+	 *  @return Deepest zoom level supported.
+	 */
+	public int getMaxZoom()
+	{
+		return maxZoom;
+	}
+
+	/** Renders a single tile.
+	 *  @param zoom Zoom level of the tile, where 0 is a single tile covering the whole world.
+	 *  @param col Column of the tile, counted from the left of the world.
+	 *  @param row Row of the tile, counted from the top of the world.
+	 *  @return Image of the tile. This will be transparent where no features are drawn.
+	 */
+	public BufferedImage renderTile(int zoom, int col, int row)
+	{
+		return getLevel(zoom).renderTile(col, row);
+	}
+
+	/** Renders all tiles containing features between the given zoom levels and stores them as PNG images
+	 *  in the given directory. Each tile is stored as <code>zoom/col/row.png</code> within the directory.
+	 *  @param minZoom Lowest zoom level to render, where 0 is a single tile covering the whole world.
+	 *  @param maxZoom Highest zoom level to render.
+	 *  @param directory Directory in which to store the tiles.
+	 *  @return Number of tiles stored.
+	 */
+	public int renderPyramid(int minZoom, int maxZoom, File directory)
+	{
+		int numTiles = 0;
+		for (int zoom=minZoom; zoom<=maxZoom; zoom++)
+		{
+			Level zoomLevel = getLevel(zoom);
+			int[] tiles = zoomLevel.getTiles();
+			File[] files = new File[tiles.length/2];
+			for (int i=0; i<files.length; i++)
+			{
+				File colDirectory = new File(directory, zoom+File.separator+tiles[2*i]);
+				colDirectory.mkdirs();
+				files[i] = new File(colDirectory, tiles[2*i+1]+".png");
+			}
+			pool.invoke(new TileTask(zoomLevel, tiles, files, 0, files.length));
+			numTiles += files.length;
+		}
+		return numTiles;
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Provides the geometry of all features at the given zoom level, generating it if necessary.
+	 *  @param zoom Zoom level.
+	 *  @return Geometry and index of the zoom level.
+	 */
+	private synchronized Level getLevel(int zoom)
+	{
+		if ((zoom < 0) || (zoom > maxZoom))
+		{
+			System.err.println("Zoom level "+zoom+" out of range 0-"+maxZoom+".");
+			zoom = Math.max(0, Math.min(zoom, maxZoom));
+		}
+		if ((level == null) || (level.zoom != zoom))
+		{
+			level = new Level(zoom);
+			pool.invoke(new FeatureTask(level, 0, features.size()));
+			level.buildIndex();
+		}
+		return level;
+	}
+
+	/** Generates the sketchy geometry of a single feature.
+	 *  @param zoomLevel Zoom level for which geometry is generated.
+	 *  @param index Index of the feature to generate.
+	 */
+	private void generateFeature(Level zoomLevel, int index)
+	{
+		HandyGeometryBuffer buffer = new HandyGeometryBuffer(zoomLevel.worldPixels, zoomLevel.worldPixels);
+		buffer.scale(zoomLevel.scale);
+
+		HandyRenderer handy = new HandyRenderer(buffer);
+		handy.copySettings(zoomLevel.settings);
+		handy.setUseScreenScale(true);
+		handy.setUseCulling(false);
+		handy.setSeed(HandyRenderer.mixSeed(keys.get(index).longValue()));
+		features.get(index).draw(handy, buffer);
+		buffer.endDraw();
+
+		zoomLevel.geometry[index] = buffer;
+	}
+
+	// ---------------------------------- Nested classes ---------------------------------
+
+	/** Stores the generated geometry of all features at one zoom level, indexed by tile.
+	 */
+	private class Level
+	{
+		int zoom;							// Zoom level.
+		int worldPixels;					// Width and height of the world in pixels.
+		float scale;						// Tile pixels per world unit.
+		HandyRenderer settings;				// Sketchy style settings used to generate the geometry.
+		HandyGeometryBuffer[] geometry;		// Geometry of each feature.
+		SpatialGrid index;					// Features overlapping each tile.
+		ArrayList<Integer> largeIDs;		// Features overlapping too many tiles to be indexed.
+		ArrayList<float[]> largeBounds;		// Pixel bounds of each large feature.
+
+		/** Creates an empty zoom level.
+		 *  @param zoom Zoom level.
+		 */
+		Level(int zoom)
+		{
+			this.zoom = zoom;
+			worldPixels = tileSize << zoom;
+			scale    = worldPixels/worldSize;
+			settings = new HandyRenderer(new HandyGeometryBuffer(tileSize, tileSize));
+			settings.copySettings(style);
+			geometry = new HandyGeometryBuffer[features.size()];
+			index    = new SpatialGrid(tileSize);
+			largeIDs    = new ArrayList<Integer>();
+			largeBounds = new ArrayList<float[]>();
+		}
+
+		/** Adds the pixel bounds of each feature's geometry to the tile index. Bounds are enlarged
+		 *  by the feature's stroke weight so tiles that only contain the edge of a stroke are included,
+		 *  and clipped to the world. Features covering many tiles are held separately rather than being
+		 *  added to every tile they cover.
+		 */
+		void buildIndex()
+		{
+			for (int i=0; i<geometry.length; i++)
+			{
+				HandyGeometryBuffer buffer = geometry[i];
+				int numPoints = buffer.getNumPoints();
+				if (numPoints == 0)
+				{
+					continue;
+				}
+
+				float[] coords = buffer.getCoordinates();
+				float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+				float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+				for (int p=0; p<numPoints; p++)
+				{
+					minX = Math.min(minX, coords[2*p]);
+					maxX = Math.max(maxX, coords[2*p]);
+					minY = Math.min(minY, coords[2*p+1]);
+					maxY = Math.max(maxY, coords[2*p+1]);
+				}
+
+				float margin = 1;
+				for (int id=0; id<buffer.getNumStyles(); id++)
+				{
+					if (buffer.isStroked(id))
+					{
+						margin = Math.max(margin, buffer.getStrokeWeight(id));
+					}
+				}
+				minX = Math.max(0, minX-margin);
+				minY = Math.max(0, minY-margin);
+				maxX = Math.min(worldPixels, maxX+margin);
+				maxY = Math.min(worldPixels, maxY+margin);
+				if ((minX > maxX) || (minY > maxY))
+				{
+					continue;
+				}
+
+				long numTiles = ((long)(maxX/tileSize) - (long)(minX/tileSize) + 1)*((long)(maxY/tileSize) - (long)(minY/tileSize) + 1);
+				if (numTiles > MAX_INDEXED_TILES)
+				{
+					largeIDs.add(Integer.valueOf(i));
+					largeBounds.add(new float[] {minX, minY, maxX, maxY});
+				}
+				else
+				{
+					index.add(i, minX, minY, maxX, maxY);
+				}
+			}
+		}
+
+		/** Reports the tiles within the world that contain at least one feature.
+		 *  @return Interleaved column and row of each tile.
+		 */
+		int[] getTiles()
+		{
+			int[] cells = index.getOccupiedCells();
+			int numTilesAcross = 1 << zoom;
+			int numTiles = 0;
+			for (int i=0; i<cells.length; i+=2)
+			{
+				if ((cells[i] >= 0) && (cells[i] < numTilesAcross) && (cells[i+1] >= 0) && (cells[i+1] < numTilesAcross))
+				{
+					cells[numTiles++] = cells[i];
+					cells[numTiles++] = cells[i+1];
+				}
+			}
+			cells = Arrays.copyOf(cells, numTiles);
+			if (largeIDs.isEmpty())
+			{
+				return cells;
+			}
+
+			// Add the tiles covered by large features that are not already occupied.
+			HashSet<Long> occupied = new HashSet<Long>();
+			for (int i=0; i<numTiles; i+=2)
+			{
+				occupied.add(Long.valueOf(((long)cells[i] << 32) | cells[i+1]));
+			}
+			for (float[] bounds : largeBounds)
+			{
+				int col1 = Math.min((int)(bounds[2]/tileSize), numTilesAcross-1);
+				int row1 = Math.min((int)(bounds[3]/tileSize), numTilesAcross-1);
+				for (int row=(int)(bounds[1]/tileSize); row<=row1; row++)
+				{
+					for (int col=(int)(bounds[0]/tileSize); col<=col1; col++)
+					{
+						occupied.add(Long.valueOf(((long)col << 32) | row));
+					}
+				}
+			}
+			int[] tiles = new int[2*occupied.size()];
+			int i = 0;
+			for (Long key : occupied)
+			{
+				tiles[i++] = (int)(key.longValue() >> 32);
+				tiles[i++] = (int)key.longValue();
+			}
+			return tiles;
+		}
+
+		/** Draws the features overlapping the given tile.
+		 *  @param col Column of the tile.
+		 *  @param row Row of the tile.
+		 *  @return Image of the tile.
+		 */
+		BufferedImage renderTile(int col, int row)
+		{
+			BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+			float x = col*(float)tileSize;
+			float y = row*(float)tileSize;
+			int[] ids = index.query(x+tileSize/2f, y+tileSize/2f, x+tileSize/2f, y+tileSize/2f);
+			if (largeIDs.isEmpty() == false)
+			{
+				// Large features are merged with indexed ones so that all are drawn in order.
+				int numIDs = ids.length;
+				for (int i=0; i<largeIDs.size(); i++)
+				{
+					float[] bounds = largeBounds.get(i);
+					if ((bounds[0] < x+tileSize) && (bounds[2] >= x) && (bounds[1] < y+tileSize) && (bounds[3] >= y))
+					{
+						ids = Arrays.copyOf(ids, numIDs+1);
+						ids[numIDs++] = largeIDs.get(i).intValue();
+					}
+				}
+				Arrays.sort(ids);
+			}
+			if (ids.length > 0)
+			{
+				HandyJava2DSink sink = new HandyJava2DSink(image);
+				sink.translate(-x, -y);
+				for (int id : ids)
+				{
+					geometry[id].draw(sink);
+				}
+				sink.endDraw();
+			}
+			return image;
+		}
+	}
+
+	/** Generates the geometry of a range of features, splitting the range between threads.
+	 */
+	private class FeatureTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = -6034172954872210443L;
+		private Level zoomLevel;		// Zoom level for which geometry is generated.
+		private int from, to;			// Range of features to generate.
+
+		/** Creates a task to generate the given range of features.
+		 *  @param zoomLevel Zoom level for which geometry is generated.
+		 *  @param from Index of the first feature to generate.
+		 *  @param to Index one beyond the last feature to generate.
+		 */
+		FeatureTask(Level zoomLevel, int from, int to)
+		{
+			this.zoomLevel = zoomLevel;
+			this.from = from;
+			this.to = to;
+		}
+
+		/** Generates the features directly or splits them between two subtasks.
+		 */
+		@Override
+		protected void compute()
+		{
+			if (to-from <= FEATURE_GRAIN)
+			{
+				for (int i=from; i<to; i++)
+				{
+					generateFeature(zoomLevel, i);
+				}
+				return;
+			}
+			int mid = (from+to) >>> 1;
+			invokeAll(new FeatureTask(zoomLevel, from, mid), new FeatureTask(zoomLevel, mid, to));
+		}
+	}
+
+	/** Renders and stores a range of tiles, splitting the range between threads.
+	 */
+	private static class TileTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 2853063153406315129L;
+		private Level zoomLevel;		// Zoom level of the tiles.
+		private int[] tiles;			// Interleaved column and row of the tiles.
+		private File[] files;			// File in which to store each tile.
+		private int from, to;			// Range of tiles to render.
+
+		/** Creates a task to render the given range of tiles.
+		 *  @param zoomLevel Zoom level of the tiles.
+		 *  @param tiles Interleaved column and row of the tiles.
+		 *  @param files File in which to store each tile.
+		 *  @param from Index of the first tile to render.
+		 *  @param to Index one beyond the last tile to render.
+		 */
+		TileTask(Level zoomLevel, int[] tiles, File[] files, int from, int to)
+		{
+			this.zoomLevel = zoomLevel;
+			this.tiles = tiles;
+			this.files = files;
+			this.from = from;
+			this.to = to;
+		}
+
+		/** Renders a single tile directly or splits the tiles between two subtasks.
+		 */
+		@Override
+		protected void compute()
+		{
+			if (to-from == 1)
+			{
+				BufferedImage image = zoomLevel.renderTile(tiles[2*from], tiles[2*from+1]);
+				try
+				{
+					ImageIO.write(image, "png", files[from]);
+				}
+				catch (IOException e)
+				{
+					System.err.println("Problem writing tile "+files[from]+": "+e.getMessage());
+				}
+				return;
+			}
+			if (to > from)
+			{
+				int mid = (from+to) >>> 1;
+				invokeAll(new TileTask(zoomLevel, tiles, files, from, mid), new TileTask(zoomLevel, tiles, files, mid, to));
+			}
+		}
+	}
+}
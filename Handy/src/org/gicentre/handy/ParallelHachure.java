@@ -0,0 +1,210 @@
+package org.gicentre.handy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//*****************************************************************************************
+/** Generates the sketchy hachure lines filling a shape, dividing the work into bands of adjacent
+ *  hachure lines that can be processed on separate threads of a fork-join pool. Each band stores
+ *  the vertices of its sketchy lines in its own buffer so that they can be drawn in order on the
+ *  drawing thread once all bands are complete. Each hachure line has its own random seed, so the
+ *  result does not depend on how many threads are used or the order in which bands are processed.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+class ParallelHachure extends RecursiveAction
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private static final long serialVersionUID = 4418342611385602747L;
+
+	private Job job;				// Hachuring shared by all bands.
+	private int fromBand, toBand;	// Range of bands processed by this task.
+
+	static final int BAND_SIZE = 32;	// Number of hachure lines in each band.
+
+	// ---------------------------------- Constructors -----------------------------------
+
+	/** Creates a task that will generate all hachure lines filling the given shape.
+	 *  @param hachures End points (x1,y1,x2,y2) of each hachure line crossing the shape's bounds.
+	 *  @param xCoords x coordinates of the shape's boundary.
+	 *  @param yCoords y coordinates of the shape's boundary.
+	 *  @param style Sketchy style of the hachure lines.
+	 *  @param offsetScale Scaling applied to random offsets.
+	 *  @param seed Random seed from which the seed of each hachure line is derived.
+	 */
+	ParallelHachure(ArrayList<float[]> hachures, float[] xCoords, float[] yCoords, HandyStyle style, float offsetScale, long seed)
+	{
+		job = new Job();
+		job.hachures    = hachures;
+		job.xCoords     = xCoords;
+		job.yCoords     = yCoords;
+		job.style       = style;
+		job.offsetScale = offsetScale;
+		job.seed        = seed;
+
+		int numBands = (hachures.size()+BAND_SIZE-1)/BAND_SIZE;
+		job.bands     = new float[numBands][];
+		job.bandSizes = new int[numBands];
+		job.bandRandomNumbers = new long[numBands];
+		fromBand = 0;
+		toBand   = numBands;
+	}
+
+	/** Creates a task that will generate a range of bands of a shape's hachuring.
+	 *  @param job Hachuring shared by all bands.
+	 *  @param fromBand Index of the first band to generate.
+	 *  @param toBand Index one beyond the last band to generate.
+	 */
+	private ParallelHachure(Job job, int fromBand, int toBand)
+	{
+		this.job      = job;
+		this.fromBand = fromBand;
+		this.toBand   = toBand;
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Generates all the bands of hachuring, either on the calling thread or on the common fork-join pool.
+	 *  The result is the same in both cases.
+	 *  @param inParallel Bands are generated on the fork-join pool if true.
+	 */
+	void generate(boolean inParallel)
+	{
+		if (inParallel)
+		{
+			ForkJoinPool.commonPool().invoke(this);
+		}
+		else
+		{
+			for (int band=fromBand; band<toBand; band++)
+			{
+				generateBand(band);
+			}
+		}
+	}
+
+	/** Reports the number of bands into which the hachuring is divided.
+	 *  @return Number of bands.
+	 */
+	int getNumBands()
+	{
+		return job.bands.length;
+	}
+
+	/** Provides the vertices of the sketchy lines in the given band. Each line is represented by
+	 *  <code>HandyRenderer.NUM_LINE_VALUES</code> coordinates. Only valid once the task is complete.
+	 *  @param band Index of the band.
+	 *  @return Vertices of the band's lines.
+	 */
+	float[] getBand(int band)
+	{
+		return job.bands[band];
+	}
+
+	/** Reports the number of coordinates stored for the lines in the given band. Only valid once the
+	 *  task is complete.
+	 *  @param band Index of the band.
+	 *  @return Number of coordinates in use in the band's array.
+	 */
+	int getBandSize(int band)
+	{
+		return job.bandSizes[band];
+	}
+
+	/** Reports the number of 32-bit random values generated by all bands. Only valid once the task is complete.
+	 *  @return Number of random values.
+	 */
+	long getNumRandomNumbers()
+	{
+		long total = 0;
+		for (long count : job.bandRandomNumbers)
+		{
+			total += count;
+		}
+		return total;
+	}
+
+	/** Generates the range of bands directly if it is a single band, or splits it between two subtasks.
+	 */
+	@Override
+	protected void compute()
+	{
+		if (toBand-fromBand == 1)
+		{
+			generateBand(fromBand);
+		}
+		else if (toBand > fromBand)
+		{
+			int mid = (fromBand+toBand) >>> 1;
+			invokeAll(new ParallelHachure(job, fromBand, mid), new ParallelHachure(job, mid, toBand));
+		}
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Generates the sketchy lines of the given band.
+	 *  @param band Index of the band to generate.
+	 */
+	private void generateBand(int band)
+	{
+		int first = band*BAND_SIZE;
+		int last  = Math.min(first+BAND_SIZE, job.hachures.size());
+		float[] vertices = new float[4*HandyRenderer.NUM_LINE_VALUES];
+		int size = 0;
+		CountingRandom rand = new CountingRandom();
+
+		for (int h=first; h<last; h++)
+		{
+			rand.setSeed(HandyRenderer.mixSeed(job.seed + h));
+			ArrayList<float[]> lines = HandyRenderer.getIntersectingLines(job.hachures.get(h), job.xCoords, job.yCoords);
+			for (int i=0; i<lines.size()-1; i+=2)
+			{
+				if (size+HandyRenderer.NUM_LINE_VALUES > vertices.length)
+				{
+					vertices = Arrays.copyOf(vertices, 2*vertices.length);
+				}
+				float[] p1 = lines.get(i);
+				float[] p2 = lines.get(i+1);
+				HandyRenderer.sketchLine(p1[0], p1[1], p2[0], p2[1], 2, job.style, job.offsetScale, rand, vertices, size);
+				size += HandyRenderer.NUM_LINE_VALUES;
+			}
+		}
+		job.bands[band]     = vertices;
+		job.bandSizes[band] = size;
+		job.bandRandomNumbers[band] = rand.count;
+	}
+
+	// ---------------------------------- Nested classes ---------------------------------
+
+	/** Stores the details of the hachuring shared by all the tasks generating it.
+	 */
+	private static class Job
+	{
+		ArrayList<float[]> hachures;	// End points of each hachure line crossing the shape's bounds.
+		float[] xCoords, yCoords;		// Boundary of the shape.
+		HandyStyle style;				// Sketchy style of the lines.
+		float offsetScale;				// Scaling applied to random offsets.
+		long seed;						// Seed from which each hachure line's seed is derived.
+		float[][] bands;				// Vertices of the sketchy lines in each band.
+		int[] bandSizes;				// Number of coordinates in use in each band.
+		long[] bandRandomNumbers;		// Number of random values generated by each band.
+	}
+}
@@ -4,9 +4,11 @@ import java.util.ArrayList;
 import processing.core.PVector;
 
 //*****************************************************************************************
-/** Performs Douglas-Peucker simplification on linear coordinate collections.
+/** Performs Douglas-Peucker simplification on linear coordinate collections. The static methods keep
+ *  separate working state for each thread. Alternatively a simplifier can be created to hold its own
+ *  working state, which should then only be used by one thread at a time.
  *  @author Jo Wood, giCentre, City University London.
- *  @version 1.0, 3rd January, 2012.
+ *  @version 2.1, 19th October, 2026.
  */ 
 // *****************************************************************************************
 
@@ -26,34 +28,105 @@ import processing.core.PVector;
 
 public class Simplifier 
 {
-	private static ArrayList<Float> xCoords,yCoords; 	// Used for storing simplified coordinates.
-	private static float[] xOriginal,yOriginal;			// Original coordinates.
-	private static float[] xSimp,ySimp;					// Simplified coordinates.
-	private static float tolerance;
-	
+	// Simplifier used by the static methods on each thread.
+	private static final ThreadLocal<Simplifier> shared = new ThreadLocal<Simplifier>()
+	{
+		@Override
+		protected Simplifier initialValue()
+		{
+			return new Simplifier();
+		}
+	};
+
+	private ArrayList<Float> xCoords,yCoords; 	// Used for storing simplified coordinates.
+	private float[] xOriginal,yOriginal;		// Original coordinates.
+	private float[] xSimp,ySimp;				// Simplified coordinates.
+	private float tolerance;
+
+	/** Creates a simplifier with its own working state, which can be used independently of any other.
+	 */
+	public Simplifier()
+	{
+		xCoords = new ArrayList<Float>();
+		yCoords = new ArrayList<Float>();
+	}
 
 	/** Creates a simplified version of the given collection of coordinates. Uses Douglas-Peucker simplification
-	 *  using the given tolerance value. The greater the tolerance, the greater the simplification. 
+	 *  using the given tolerance value. The greater the tolerance, the greater the simplification. Each thread
+	 *  has its own simplified coordinates, so this can safely be called from more than one thread.
 	 *  @param origCoords Coordinates to be simplified.
 	 *  @param tol Douglas-Peucker tolerance (in spatial units).
 	 */
 	public static void simplify(ArrayList<PVector>origCoords, float tol)
 	{       
-		Simplifier.tolerance = tol;
+		shared.get().simplifyCoords(origCoords, tol);
+	}
+
+	/** Creates a simplified version of the given arrays of coordinates. Uses Douglas-Peucker simplification
+	 *  using the given tolerance value. The greater the tolerance, the greater the simplification. The
+	 *  original arrays are not modified. Each thread has its own simplified coordinates, so this can safely
+	 *  be called from more than one thread.
+	 *  @param xs x coordinates to be simplified.
+	 *  @param ys y coordinates to be simplified.
+	 *  @param tol Douglas-Peucker tolerance (in spatial units).
+	 */
+	public static void simplify(float[] xs, float[] ys, float tol)
+	{
+		shared.get().simplifyCoords(xs, ys, tol);
+	}
+		
+	/** Provides the simplified x coordinates. This should only be called after simplify() on the same thread.
+	 *  @return x coordinates of simplified line.
+	 */
+	public static float[] getSimplifiedX()
+	{
+		return shared.get().xSimp;
+	}
+	
+	/** Provides the simplified y coordinates. This should only be called after simplify() on the same thread.
+	 *  @return y coordinates of simplified line.
+	 */
+	public static float[] getSimplifiedY()
+	{
+		return shared.get().ySimp;
+	}
+
+	/** Creates a simplified version of the given collection of coordinates using this simplifier's own
+	 *  working state. Uses Douglas-Peucker simplification using the given tolerance value.
+	 *  @param origCoords Coordinates to be simplified.
+	 *  @param tol Douglas-Peucker tolerance (in spatial units).
+	 */
+	public void simplifyCoords(ArrayList<PVector>origCoords, float tol)
+	{       
 		int numCoords = origCoords.size();
-		xOriginal = new float[numCoords];
-		yOriginal = new float[numCoords];
+		float[] xs = new float[numCoords];
+		float[] ys = new float[numCoords];
 		for (int i=0; i<origCoords.size(); i++)
 		{
 			PVector p = origCoords.get(i);
-			xOriginal[i] = p.x;
-			yOriginal[i] = p.y;
+			xs[i] = p.x;
+			ys[i] = p.y;
 		}
+		simplifyCoords(xs,ys,tol);
+	}
 
-		xCoords = new ArrayList<Float>();
-		yCoords = new ArrayList<Float>();
+	/** Creates a simplified version of the given arrays of coordinates using this simplifier's own working
+	 *  state. Uses Douglas-Peucker simplification using the given tolerance value. The original arrays are
+	 *  not modified.
+	 *  @param xs x coordinates to be simplified.
+	 *  @param ys y coordinates to be simplified.
+	 *  @param tol Douglas-Peucker tolerance (in spatial units).
+	 */
+	public void simplifyCoords(float[] xs, float[] ys, float tol)
+	{
+		tolerance = tol;
+		xOriginal = xs;
+		yOriginal = ys;
+
+		xCoords.clear();
+		yCoords.clear();
 
-		douglasPeucker(0,numCoords-1);
+		douglasPeucker(0,xs.length-1);
 		
 		xSimp = new float[xCoords.size()];
 		ySimp = new float[yCoords.size()];
@@ -63,20 +136,24 @@ public class Simplifier
 			xSimp[i] = xCoords.get(i).floatValue();
 			ySimp[i] = yCoords.get(i).floatValue();
 		}
+
+		// Release the original coordinates so they are not retained between simplifications.
+		xOriginal = null;
+		yOriginal = null;
 	}
-		
-	/** Provides the simplified x coordinates. This should only be called after simplify().
+
+	/** Provides the x coordinates simplified by this simplifier. This should only be called after simplifyCoords().
 	 *  @return x coordinates of simplified line.
 	 */
-	public static float[] getSimplifiedX()
+	public float[] getXCoords()
 	{
 		return xSimp;
 	}
 	
-	/** Provides the simplified y coordinates. This should only be called after simplify().
+	/** Provides the y coordinates simplified by this simplifier. This should only be called after simplifyCoords().
 	 *  @return y coordinates of simplified line.
 	 */
-	public static float[] getSimplifiedY()
+	public float[] getYCoords()
 	{
 		return ySimp;
 	}
@@ -88,7 +165,7 @@ public class Simplifier
 	 *  @param start Index of first point in line to examine.
 	 *  @param end Index of last point in line to examine.
 	 */
-	private static void douglasPeucker(int start, int end)
+	private void douglasPeucker(int start, int end)
 	{        
 		if (end-start < 2)  // Adjacent points
 		{
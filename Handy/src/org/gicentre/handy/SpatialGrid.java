@@ -0,0 +1,215 @@
+package org.gicentre.handy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+//*****************************************************************************************
+/** Uniform grid spatial index of rectangular bounds. Each item is identified by a whole number
+ *  and is stored in every grid cell its bounds overlap. Only occupied cells are stored, so the
+ *  grid may cover an arbitrarily large area.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+class SpatialGrid
+{
+	// -------------------------------- Object Variables ---------------------------------
+
+	private float cellSize;						// Width and height of each grid cell.
+	private HashMap<Long, int[]> cells;			// Item IDs in each occupied cell, preceded by their count.
+
+	// ---------------------------------- Constructor ------------------------------------
+
+	/** Creates an empty grid with the given cell size.
+	 *  @param cellSize Width and height of each grid cell.
+	 */
+	SpatialGrid(float cellSize)
+	{
+		this.cellSize = cellSize;
+		cells = new HashMap<Long, int[]>();
+	}
+
+	// ------------------------------------- Methods -------------------------------------
+
+	/** Adds an item with the given bounds to the grid.
+	 *  @param id Identifier of the item.
+	 *  @param minX Left edge of the item's bounds.
+	 *  @param minY Top edge of the item's bounds.
+	 *  @param maxX Right edge of the item's bounds.
+	 *  @param maxY Bottom edge of the item's bounds.
+	 */
+	void add(int id, float minX, float minY, float maxX, float maxY)
+	{
+		int col0 = getCell(minX);
+		int col1 = getCell(maxX);
+		int row0 = getCell(minY);
+		int row1 = getCell(maxY);
+
+		for (int row=row0; row<=row1; row++)
+		{
+			for (int col=col0; col<=col1; col++)
+			{
+				Long key = Long.valueOf(getKey(col, row));
+				int[] ids = cells.get(key);
+				if (ids == null)
+				{
+					ids = new int[8];
+					cells.put(key, ids);
+				}
+				else if (ids[0]+1 == ids.length)
+				{
+					ids = Arrays.copyOf(ids, 2*ids.length);
+					cells.put(key, ids);
+				}
+				ids[++ids[0]] = id;
+			}
+		}
+	}
+
+	/** Removes an item from the grid. The bounds given must be those with which the item was added.
+	 *  @param id Identifier of the item.
+	 *  @param minX Left edge of the item's bounds.
+	 *  @param minY Top edge of the item's bounds.
+	 *  @param maxX Right edge of the item's bounds.
+	 *  @param maxY Bottom edge of the item's bounds.
+	 */
+	void remove(int id, float minX, float minY, float maxX, float maxY)
+	{
+		int col0 = getCell(minX);
+		int col1 = getCell(maxX);
+		int row0 = getCell(minY);
+		int row1 = getCell(maxY);
+
+		for (int row=row0; row<=row1; row++)
+		{
+			for (int col=col0; col<=col1; col++)
+			{
+				Long key = Long.valueOf(getKey(col, row));
+				int[] ids = cells.get(key);
+				if (ids == null)
+				{
+					continue;
+				}
+				for (int i=1; i<=ids[0]; i++)
+				{
+					if (ids[i] == id)
+					{
+						System.arraycopy(ids, i+1, ids, i, ids[0]-i);
+						ids[0]--;
+						break;
+					}
+				}
+				if (ids[0] == 0)
+				{
+					cells.remove(key);
+				}
+			}
+		}
+	}
+
+	/** Finds the items whose grid cells overlap the given bounds. Items are reported once each in 
+	 *  ascending order of identifier. As items are located by grid cell, some items reported may lie 
+	 *  close to, rather than within, the given bounds.
+	 *  @param minX Left edge of the query bounds.
+	 *  @param minY Top edge of the query bounds.
+	 *  @param maxX Right edge of the query bounds.
+	 *  @param maxY Bottom edge of the query bounds.
+	 *  @return Identifiers of the items found, which may be empty.
+	 */
+	int[] query(float minX, float minY, float maxX, float maxY)
+	{
+		int col0 = getCell(minX);
+		int col1 = getCell(maxX);
+		int row0 = getCell(minY);
+		int row1 = getCell(maxY);
+
+		int[] found = new int[16];
+		int numFound = 0;
+		for (int row=row0; row<=row1; row++)
+		{
+			for (int col=col0; col<=col1; col++)
+			{
+				int[] ids = cells.get(Long.valueOf(getKey(col, row)));
+				if (ids == null)
+				{
+					continue;
+				}
+				if (numFound+ids[0] > found.length)
+				{
+					found = Arrays.copyOf(found, Math.max(2*found.length, numFound+ids[0]));
+				}
+				System.arraycopy(ids, 1, found, numFound, ids[0]);
+				numFound += ids[0];
+			}
+		}
+
+		// Sort and remove duplicates of items that span several cells.
+		Arrays.sort(found, 0, numFound);
+		int numUnique = 0;
+		for (int i=0; i<numFound; i++)
+		{
+			if ((numUnique == 0) || (found[i] != found[numUnique-1]))
+			{
+				found[numUnique++] = found[i];
+			}
+		}
+		return Arrays.copyOf(found, numUnique);
+	}
+
+	/** Reports the column and row of every occupied grid cell.
+	 *  @return Interleaved column and row of each occupied cell.
+	 */
+	int[] getOccupiedCells()
+	{
+		int[] colRows = new int[2*cells.size()];
+		int i = 0;
+		for (Long key : cells.keySet())
+		{
+			colRows[i++] = (int)(key.longValue() >> 32);
+			colRows[i++] = (int)key.longValue();
+		}
+		return colRows;
+	}
+
+	/** Removes all items from the grid.
+	 */
+	void clear()
+	{
+		cells.clear();
+	}
+
+	// --------------------------------- Private methods ---------------------------------
+
+	/** Provides the column or row of the grid cell containing the given coordinate.
+	 *  @param coord x or y coordinate.
+	 *  @return Grid column or row.
+	 */
+	private int getCell(float coord)
+	{
+		return (int)Math.floor(coord/cellSize);
+	}
+
+	/** Combines the given column and row into a single key identifying a grid cell.
+	 *  @param col Grid column.
+	 *  @param row Grid row.
+	 *  @return Key identifying the cell.
+	 */
+	private static long getKey(int col, int row)
+	{
+		return ((long)col << 32) | (row & 0xffffffffL);
+	}
+}
@@ -0,0 +1,145 @@
+package org.gicentre.tests;
+
+import org.gicentre.handy.HandyRenderer;
+
+import processing.core.PApplet;
+
+//*****************************************************************************************
+/** Simple sketch to test drawing the bars of a chart with many bars in a single call to rects().
+ *  The hachures of all bars are taken from one grid so remain aligned from bar to bar. 'B' toggles
+ *  between drawing the bars with one call to rects() and with a separate call to rect() for each
+ *  bar, reporting the time taken to draw them. 'H' toggles sketchy rendering.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+public class BarChartTest extends PApplet
+{
+	// ------------------------------ Starter method -------------------------------
+
+	/** Creates a simple application to test drawing many sketchy bars.
+	 *  @param args Command line arguments (ignored).
+	 */
+	public static void main(String[] args)
+	{
+		PApplet.main(new String[] {"org.gicentre.tests.BarChartTest"});
+	}
+
+	// ----------------------------- Object variables ------------------------------
+
+	private HandyRenderer h;			// Does the sketchy rendering.
+	private boolean isHandy;			// Toggles handy rendering on and off.
+	private boolean useBulk;			// Toggles between a single call to rects() and a call to rect() for each bar.
+	private float[] barX, barY;			// Positions of the bars.
+	private float[] barW, barH;			// Dimensions of the bars.
+
+	private static final int NUM_BARS = 80;
+
+	// ---------------------------- Processing methods -----------------------------
+
+	/** Initial window settings prior to setup().
+	 */
+	@Override
+	public void settings()
+	{
+		size(1000,500);
+
+		// Should work with all Processing 3 renderers.
+		// size(1000,500, P2D);
+		// size(1000,500, P3D);
+		// size(1000,500, FX2D);
+
+		pixelDensity(displayDensity());		// Use platform's maximum display density.
+	}
+
+	/** Sets up the sketch.
+	 */
+	@Override
+	public void setup()
+	{
+		isHandy = true;
+		useBulk = true;
+
+		h = new HandyRenderer(this);
+		h.setIsHandy(isHandy);
+		h.setHachureAngle(-37);
+		h.setHachurePerturbationAngle(7);
+		h.setFillGap(2);
+
+		// Bars of a random walk, measured up from the baseline.
+		randomSeed(1);
+		barX = new float[NUM_BARS];
+		barY = new float[NUM_BARS];
+		barW = new float[NUM_BARS];
+		barH = new float[NUM_BARS];
+		float barWidth = (width-20)/(float)NUM_BARS;
+		float value = 200;
+		for (int i=0; i<NUM_BARS; i++)
+		{
+			value = constrain(value + random(-30,30), 10, height-40);
+			barX[i] = 10 + i*barWidth;
+			barY[i] = height-10;
+			barW[i] = barWidth-1;
+			barH[i] = -value;
+		}
+	}
+
+	/** Draws the sketchy bars.
+	 */
+	@Override
+	public void draw()
+	{
+		background(255);
+		stroke(80);
+		fill(162,187,243);
+		h.setSeed(1234);
+
+		long start = System.nanoTime();
+		if (useBulk)
+		{
+			h.rects(barX,barY,barW,barH);
+		}
+		else
+		{
+			for (int i=0; i<NUM_BARS; i++)
+			{
+				h.rect(barX[i],barY[i],barW[i],barH[i]);
+			}
+		}
+		println((useBulk ? "rects(): " : "rect(): ")+nf((System.nanoTime()-start)/1e6f,0,2)+" ms");
+
+		noLoop();
+	}
+
+	/** Responds to key presses to alter the way the bars are drawn.
+	 */
+	@Override
+	public void keyPressed()
+	{
+		if ((key =='h') || (key == 'H'))
+		{
+			isHandy = !isHandy;
+			h.setIsHandy(isHandy);
+			loop();
+		}
+		else if ((key == 'b') || (key == 'B'))
+		{
+			useBulk = !useBulk;
+			loop();
+		}
+	}
+}
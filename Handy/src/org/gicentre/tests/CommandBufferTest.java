@@ -0,0 +1,137 @@
+package org.gicentre.tests;
+
+import org.gicentre.handy.HandyCommandBuffer;
+import org.gicentre.handy.HandyRecorder;
+import org.gicentre.handy.HandyRenderer;
+
+import processing.core.PApplet;
+
+// *****************************************************************************************
+/** Simple sketch to test the recording and replaying of drawing commands. A scene is recorded
+ *  once in setup() and replayed on each redraw without re-running the code that created it.
+ *  Space bar replays the scene with a new random seed; H key toggles sketchy rendering on or off.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see
+ * http://www.gnu.org/licenses/.
+ */
+
+public class CommandBufferTest extends PApplet
+{
+	// ------------------------------ Starter method -------------------------------
+
+	/** Creates a simple application to test the replaying of recorded commands.
+	 *  @param args Command line arguments (ignored).
+	 */
+	public static void main(String[] args)
+	{
+		PApplet.main(new String[] {"org.gicentre.tests.CommandBufferTest"});
+	}
+
+	// ----------------------------- Object variables ------------------------------
+
+	private HandyRenderer h;			// Does the sketchy rendering.
+	private HandyCommandBuffer scene;	// Recorded drawing commands.
+	private boolean isHandy;			// Toggles handy rendering on and off.
+	private long seed;					// Random seed used when replaying.
+
+	// ---------------------------- Processing methods -----------------------------
+
+	/** Initial window settings prior to setup().
+	 */
+	@Override
+	public void settings()
+	{
+		size(600,400);
+
+		// Should work with all Processing 3 renderers.
+		// size(600,400, P2D);
+		// size(600,400, P3D);
+		// size(600,400, FX2D);
+
+		pixelDensity(displayDensity());		// Use platform's maximum display density.
+	}
+
+	/** Sets up the sketch and records the scene to be replayed.
+	 */
+	@Override
+	public void setup()
+	{
+		h = new HandyRenderer(this);
+		isHandy = true;
+		seed = 1234;
+
+		// Record the scene once.
+		HandyRecorder handyRec = new HandyRecorder(h);
+		scene = new HandyCommandBuffer();
+		handyRec.startRecording(scene);
+		beginRecord(handyRec);
+
+		strokeWeight(2);
+		stroke(0);
+		fill(180,80,80);
+		rect(50,50,150,100);
+
+		fill(80,80,180);
+		ellipse(380,100,200,120);
+
+		pushMatrix();
+		translate(300,300);
+		rotate(radians(20));
+		fill(80,180,80);
+		triangle(-100,50, 0,-60, 100,50);
+		popMatrix();
+
+		noFill();
+		beginShape();
+		vertex(40,350);
+		vertex(120,250);
+		vertex(200,330);
+		endShape();
+
+		endRecord();
+		handyRec.stopRecording();
+		println("Recorded "+scene.getNumCommands()+" commands.");
+	}
+
+	/** Replays the recorded scene.
+	 */
+	@Override
+	public void draw()
+	{
+		background(255);
+		scene.replay(h,seed);
+		noLoop();
+	}
+
+	/** Responds to key presses to control appearance of the replayed scene.
+	 */
+	@Override
+	public void keyPressed()
+	{
+		if ((key =='h') || (key =='H'))
+		{
+			isHandy = !isHandy;
+			h.setIsHandy(isHandy);
+			loop();
+		}
+		else if (key == ' ')
+		{
+			seed++;
+			loop();
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package org.gicentre.tests;
+
+import java.util.ArrayList;
+
+import org.gicentre.handy.HandyDrawable;
+import org.gicentre.handy.HandyLayers;
+import org.gicentre.handy.HandyPresets;
+import org.gicentre.handy.HandyRenderer;
+import org.gicentre.handy.Simplifier;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PVector;
+
+// *****************************************************************************************
+/** Simple mouse-controlled painting application to test caching of sketchy drawing with HandyLayers.
+ *  Completed marks are held in a cached layer that is only sketched again when a mark is added or the
+ *  roughness changes, while the mark being drawn is sketched directly on top of it. Drag mouse to draw
+ *  lines; shift-drag to draw polygons; left and right arrows change the roughness.
+ *  @author Jo Wood, giCentre, City University London.
+ *  @version 2.1, 19th October, 2026.
+ */ 
+// *****************************************************************************************
+
+/* This file is part of Handy sketchy drawing library. Handy is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * Handy is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  
+ * See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License along with this
+ * source code (see COPYING.LESSER included with this source code). If not, see 
+ * http://www.gnu.org/licenses/.
+ */
+
+
+public class LayersTest extends PApplet 
+{
+	// ------------------------------ Starter method ------------------------------- 
+
+	/** Creates the paint program as an application.
+	 *  @param args Command line arguments (ignored). 
+	 */
+	public static void main(String[] args)
+	{   
+		PApplet.main(new String[] {"org.gicentre.tests.LayersTest"});
+	}
+
+	// ----------------------------- Object variables ------------------------------
+
+	private HandyRenderer h;
+	private Mark currentMark;
+	private ArrayList<Mark> marks;		// Completed marks.
+	private float roughness;
+
+	private HandyLayers layers;			// Completed marks cached offscreen with the active mark drawn on top.
+	
+	// ---------------------------- Processing methods -----------------------------
+
+	/** Initial window settings prior to setup().
+	 */
+	@Override
+	public void settings()
+	{   
+		size(1200,800);
+		
+		// Should work with all Processing 3 renderers.
+		// size(1200,800, P2D);
+		// size(1200,800, P3D);
+		// size(1200,800, FX2D);
+		
+		// TODO: PROCESSING BUG IN OFFSCREEN BUFFER IN RETINA MODE PREVENTS THIS WORKING AT PIXEL DENSITY 2
+		//pixelDensity(displayDensity());		// Use platform's maximum display density.
+	}
+	
+	/** Sets up the sketch.
+	 */
+	@Override
+	public void setup()
+	{
+		h = HandyPresets.createPencil(this);
+		currentMark = new Mark(h);
+		marks = new ArrayList<Mark>();
+		roughness = 1;
+		h.setRoughness(roughness);
+		
+		// Completed marks are only redrawn when a mark is added or the roughness changes.
+		layers = new HandyLayers(h);
+		layers.addLayer("marks", new HandyDrawable()
+		{
+			@Override
+			public void draw(HandyRenderer handy, PGraphics graphics)
+			{
+				for (Mark mark : marks)
+				{
+					mark.draw(graphics);
+				}
+			}
+		});
+		layers.addLayer("active", new HandyDrawable()
+		{
+			@Override
+			public void draw(HandyRenderer handy, PGraphics graphics)
+			{
+				currentMark.draw(graphics);
+			}
+		}, false);
+	}
+
+	// ------------------------ Processing draw -------------------------
+
+	/** Draws the user-generated lines and polygons.
+	 */
+	@Override
+	public void draw()
+	{
+		background(255);
+		
+		h.setSeed(12345);		// Stops jittering on redraw.
+		
+		// Draw completed marks and currently active shape on top of them.
+		layers.draw();
+
+		noLoop();
+	}
+
+	/** Adds the current pointer location to the current shape when mouse is pressed.
+	 */
+	@Override
+	public void mousePressed()
+	{
+		currentMark.add(mouseX,mouseY); 
+		loop(); 
+	}
+
+	/** Adds the current pointer location to the current shape when mouse is dragged.
+	 */
+	@Override
+	public void mouseDragged()
+	{
+		currentMark.add(mouseX,mouseY); 
+		loop(); 
+	}
+
+	/** Stores the current shape when the mouse is released.
+	 */
+	@Override
+	public void mouseReleased()
+	{		
+		// Add the active shape to the completed marks.
+		marks.add(currentMark);
+		layers.setVersion("marks", marks.size());
+		
+		// Reset new shape.
+		currentMark = new Mark(h);
+		loop();
+	}
+
+	/** Responds to key pressed by allowing appearance of objects to be changed and line/polygon drawing to
+	 *  be controlled with the shift key.
+	 */
+	@Override
+	public void keyPressed()
+	{		
+		if (key==CODED)
+		{
+			if (keyCode == SHIFT)
+			{  
+				currentMark.setIsPolygon(true);
+				loop();
+			}
+
+			else if (keyCode == LEFT)
+			{
+				roughness *=0.9f;
+				h.setRoughness(roughness);
+				println("Roughness down to "+roughness);
+				loop();
+			}
+			else if (keyCode == RIGHT)
+			{
+				roughness *=1.1f;
+				h.setRoughness(roughness);
+
+				println("Roughness up to "+roughness);
+				loop();
+			}
+		}
+	}
+
+	/** Completes the current polygon (if it is being drawn) on mouse release.
+	 */
+	@Override
+	public void keyReleased()
+	{
+		if (key==CODED)
+		{
+			if (keyCode == SHIFT)
+			{  
+				currentMark.setIsPolygon(false);
+				loop();
+			}
+		}
+	}
+
+
+	// ----------------------------------- Nested classes -----------------------------------------
+
+	// Represents a single graphical mark such as a line or polygon.
+	private class Mark
+	{
+		private ArrayList<PVector> coords;
+		private float[] xCoords,yCoords;
+		private int fillColour;
+		private boolean isPolygon;
+		private HandyRenderer handy;
+
+
+		public Mark(HandyRenderer h)
+		{
+			this.handy = h;
+			coords = new ArrayList<PVector>();
+			fillColour = color(80,30,30);
+			isPolygon = false;
+		}
+
+
+		void add(float x, float y)
+		{
+			coords.add(new PVector(x,y));
+
+			Simplifier.simplify(coords,1);
+			xCoords = Simplifier.getSimplifiedX();
+			yCoords = Simplifier.getSimplifiedY();
+		}
+
+		void setIsPolygon(boolean isPolygon)
+		{
+			this.isPolygon = isPolygon;
+		}
+
+
+		void draw(PGraphics graphics)
+		{
+			if (xCoords == null)
+			{
+				return;
+			}
+
+			if (isPolygon)
+			{
+				graphics.fill(fillColour);
+				handy.shape(xCoords,yCoords);
+			}
+			else
+			{
+				handy.polyLine(xCoords,yCoords);
+			}
+		}
+	}
+}
@@ -1,13 +1,16 @@
 package org.gicentre.tests;
 
+import java.io.IOException;
+
 import org.gicentre.handy.HandyRenderer;
+import org.gicentre.handy.HandySVGWriter;
 
 import processing.core.PApplet;
 
 // *****************************************************************************************
 /** Simple sketch to draw a single circle in a handy style that can be saved as a PDF image
- *  by pressing the 'P' key or SVG file with the 'S' key. Spacebar re-renders with a different
- *  random perturbation.
+ *  by pressing the 'P' key or SVG file with the 'S' key. The 'H' key saves a compact SVG file
+ *  using Handy's own SVG writer. Spacebar re-renders with a different random perturbation.
  *  @author Jo Wood, giCentre, City University London.
  *  @version 2.0, 3rd April, 2016
  */ 
@@ -42,7 +45,7 @@ public class PDFAndSVGTest extends PApplet
 	// ----------------------------- Object variables ------------------------------
 
 	private HandyRenderer h;
-	private enum Output {SCREEN, PDF_FILE, SVG_FILE}
+	private enum Output {SCREEN, PDF_FILE, SVG_FILE, HANDY_SVG_FILE}
 	private Output outType;
 
 	// ---------------------------- Processing methods -----------------------------
@@ -87,6 +90,19 @@ public class PDFAndSVGTest extends PApplet
 			beginRecord(PDF, "sketchyCircle.pdf");
 			h.setGraphics(recorder);
 		}
+		else if (outType == Output.HANDY_SVG_FILE)
+		{
+			try
+			{
+				beginRecord(new HandySVGWriter(sketchPath("sketchyCircleHandy.svg"), width, height));
+				h.setGraphics(recorder);
+			}
+			catch (IOException e)
+			{
+				System.err.println("Cannot create SVG file: "+e.getMessage());
+				outType = Output.SCREEN;
+			}
+		}
 				
 		background(255);
 		strokeWeight(4);
@@ -126,5 +142,10 @@ public class PDFAndSVGTest extends PApplet
 			outType = Output.SVG_FILE;
 			loop();
 		}
+		else if ((key == 'h') || (key == 'H'))
+		{
+			outType = Output.HANDY_SVG_FILE;
+			loop();
+		}
 	}
 }